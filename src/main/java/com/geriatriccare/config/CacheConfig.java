@@ -1,6 +1,8 @@
 package com.geriatriccare.config;
 
+import com.geriatriccare.dto.report.ReportResult;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -13,13 +15,30 @@ import java.util.concurrent.TimeUnit;
  * CacheConfig
  * Configures caching for dashboard and reports
  * Sprint 8 - GCARE-733
+ *
+ * The catalog tier holds reference data (diagnoses, procedures, drugs and
+ * catalog statistics) read through CatalogCacheService. It is sized for
+ * whole catalogs and kept longer, since writes retire entries by version
+ * rather than by expiry.
+ *
+ * The report result tier holds rendered report jobs (JSON, PDF or CSV bytes)
+ * for ReportJobService. It is bounded by content size; entries are keyed by
+ * the data watermark, so they only need to expire to free memory.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String CATALOG_CACHE = "catalogReference";
+
+    public static final String REPORT_RESULT_CACHE = "reportResults";
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(
+            @Value("${app.cache.catalog.maximum-size:20000}") long catalogMaximumSize,
+            @Value("${app.cache.catalog.expire-after-write-minutes:720}") long catalogExpireMinutes,
+            @Value("${app.cache.report-results.maximum-bytes:67108864}") long reportResultMaximumBytes,
+            @Value("${app.cache.report-results.expire-after-write-minutes:1440}") long reportResultExpireMinutes) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager(
             "dashboardStats",
             "adherenceReports",
@@ -32,6 +51,22 @@ public class CacheConfig {
             .recordStats()
         );
         
+        cacheManager.registerCustomCache(CATALOG_CACHE, Caffeine.newBuilder()
+            .expireAfterWrite(catalogExpireMinutes, TimeUnit.MINUTES)
+            .maximumSize(catalogMaximumSize)
+            .recordStats()
+            .build()
+        );
+        
+        cacheManager.registerCustomCache(REPORT_RESULT_CACHE, Caffeine.newBuilder()
+            .expireAfterWrite(reportResultExpireMinutes, TimeUnit.MINUTES)
+            .maximumWeight(reportResultMaximumBytes)
+            .weigher((Object key, Object value) ->
+                value instanceof ReportResult result ? result.getContent().length : 1)
+            .recordStats()
+            .build()
+        );
+        
         return cacheManager;
     }
 }
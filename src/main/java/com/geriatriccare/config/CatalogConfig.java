@@ -0,0 +1,41 @@
+package com.geriatriccare.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CatalogConfig {
+
+    /**
+     * Runs bulk catalog imports one at a time; further imports wait in the
+     * queue so two releases never write the same table concurrently.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor catalogImportExecutor(
+            @Value("${app.catalog.import.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-import-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Rebuilds the catalog completion index after catalog writes, off the
+     * request threads; rebuild requests coalesce, so one slot is enough.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor catalogIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("catalog-index-");
+        executor.initialize();
+        return executor;
+    }
+}
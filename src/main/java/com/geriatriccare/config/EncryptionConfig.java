@@ -0,0 +1,58 @@
+package com.geriatriccare.config;
+
+import com.geriatriccare.service.security.EncryptedColumn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class EncryptionConfig {
+
+    /**
+     * Bounded pool for batch encryption. When it is saturated the calling
+     * thread does the work itself, so batches slow down instead of failing.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor encryptionBatchExecutor(
+            @Value("${app.encryption.batch.pool-size:4}") int poolSize,
+            @Value("${app.encryption.batch.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("encrypt-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Encrypted columns walked by ReEncryptionService after a key rotation
+
+    @Bean
+    public EncryptedColumn patientFirstNameColumn() {
+        return new EncryptedColumn("patients", "first_name");
+    }
+
+    @Bean
+    public EncryptedColumn patientLastNameColumn() {
+        return new EncryptedColumn("patients", "last_name");
+    }
+
+    @Bean
+    public EncryptedColumn patientDateOfBirthColumn() {
+        return new EncryptedColumn("patients", "date_of_birth");
+    }
+
+    @Bean
+    public EncryptedColumn patientMedicalConditionsColumn() {
+        return new EncryptedColumn("patients", "medical_conditions");
+    }
+
+    @Bean
+    public EncryptedColumn mfaSecretKeyColumn() {
+        return new EncryptedColumn("user_mfa_configs", "secret_key");
+    }
+}
@@ -1,11 +1,17 @@
 package com.geriatriccare.config;
 
+import com.geriatriccare.service.ai.AIStreamingService;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -20,13 +26,52 @@ public class OpenAIConfig {
     }
 
     @Bean
-    public RestTemplate openAIRestTemplate(OpenAIProperties properties) {
+    public RestTemplate openAIRestTemplate(OpenAIProperties properties, MeterRegistry meterRegistry) {
         return new RestTemplateBuilder()
                 .setConnectTimeout(Duration.ofMillis(properties.getTimeout()))
                 .setReadTimeout(Duration.ofMillis(properties.getTimeout()))
+                .additionalInterceptors(timeToHeadersInterceptor(meterRegistry))
                 .build();
     }
 
+    /**
+     * Times each HTTP attempt until the response status and headers arrive
+     * (connection setup plus time to first byte). The body is not buffered,
+     * so streamed responses are unaffected.
+     */
+    private ClientHttpRequestInterceptor timeToHeadersInterceptor(MeterRegistry meterRegistry) {
+        return (request, body, execution) -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String status = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                status = String.valueOf(response.getStatusCode().value());
+                return response;
+            } finally {
+                sample.stop(Timer.builder("ai.openai.time.to.headers")
+                        .description("Connect plus time to first byte per OpenAI HTTP attempt")
+                        .tag("status", status)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+        };
+    }
+
+    /**
+     * Bounded pool that relays streamed completions to SSE clients,
+     * so long-lived streams never occupy servlet request threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor aiStreamExecutor(OpenAIProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getStreamPoolSize());
+        executor.setMaxPoolSize(properties.getStreamPoolSize());
+        executor.setQueueCapacity(properties.getStreamQueueCapacity());
+        executor.setThreadNamePrefix("ai-stream-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public CircuitBreakerRegistry circuitBreakerRegistry() {
         CircuitBreakerConfig config = CircuitBreakerConfig.custom()
@@ -34,6 +79,8 @@ public class OpenAIConfig {
                 .waitDurationInOpenState(Duration.ofSeconds(60))
                 .slidingWindowSize(10)
                 .minimumNumberOfCalls(5)
+                // A client hanging up mid-stream says nothing about OpenAI's health
+                .ignoreExceptions(AIStreamingService.ClientDisconnectedException.class)
                 .build();
 
         return CircuitBreakerRegistry.of(config);
@@ -48,6 +95,9 @@ public class OpenAIConfig {
         private int timeout;
         private int maxRetries;
         private int retryDelay;
+        private long streamTimeout = 120000;
+        private int streamPoolSize = 8;
+        private int streamQueueCapacity = 32;
 
         // Getters and Setters
         public String getApiKey() {
@@ -113,5 +163,29 @@ public class OpenAIConfig {
         public void setRetryDelay(int retryDelay) {
             this.retryDelay = retryDelay;
         }
+
+        public long getStreamTimeout() {
+            return streamTimeout;
+        }
+
+        public void setStreamTimeout(long streamTimeout) {
+            this.streamTimeout = streamTimeout;
+        }
+
+        public int getStreamPoolSize() {
+            return streamPoolSize;
+        }
+
+        public void setStreamPoolSize(int streamPoolSize) {
+            this.streamPoolSize = streamPoolSize;
+        }
+
+        public int getStreamQueueCapacity() {
+            return streamQueueCapacity;
+        }
+
+        public void setStreamQueueCapacity(int streamQueueCapacity) {
+            this.streamQueueCapacity = streamQueueCapacity;
+        }
     }
 }
\ No newline at end of file
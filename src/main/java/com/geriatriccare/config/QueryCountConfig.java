@@ -0,0 +1,221 @@
+package com.geriatriccare.config;
+
+import com.geriatriccare.util.jdbc.InstrumentedDataSource;
+import com.geriatriccare.util.jdbc.QueryStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC statement, row and time accounting per HTTP request and per service
+ * method, for the debug and test profiles; never enabled in production.
+ *
+ * The DataSource is wrapped in an {@link InstrumentedDataSource}, which
+ * counts into a per-thread {@link QueryStats}. A filter ahead of the security
+ * chain measures each request, records it under the jdbc.request.* meters
+ * (tagged by method and URI pattern) and logs a WARN naming the busiest call
+ * sites when the request runs more than {@code app.debug.query-budget}
+ * statements, the usual sign of a lazy load per row. Every {@code @Service}
+ * method that runs a statement is recorded under jdbc.service.*, and with
+ * {@code app.debug.query-headers} the counts so far are returned in
+ * X-Query-Count, X-Query-Rows and X-Query-Time-Ms response headers.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.debug.query-count", havingValue = "true")
+public class QueryCountConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountConfig.class);
+
+    private static final String START_ATTRIBUTE = QueryCountConfig.class.getName() + ".START";
+    private static final int REPORTED_CALL_SITES = 5;
+    private static final int REPORTED_SQL_LENGTH = 160;
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)
+                        ? new InstrumentedDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryCountFilter(
+            MeterRegistry meterRegistry, @Value("${app.debug.query-budget:20}") long budget) {
+        FilterRegistrationBean<OncePerRequestFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(meterRegistry, budget));
+        // Ahead of the security chain, so the token's user lookup is counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public static Advisor serviceQueryCountAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forClassAnnotation(Service.class),
+                new ServiceQueryCounter(meterRegistry));
+    }
+
+    static final class QueryCountFilter extends OncePerRequestFilter {
+        private final MeterRegistry meterRegistry;
+        private final long budget;
+
+        QueryCountFilter(MeterRegistry meterRegistry, long budget) {
+            this.meterRegistry = meterRegistry;
+            this.budget = budget;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain chain) throws ServletException, IOException {
+            QueryStats stats = QueryStats.current();
+            QueryStats.Snapshot start = stats.snapshot();
+            request.setAttribute(START_ATTRIBUTE, start);
+            stats.startCallSites();
+            List<QueryStats.CallSite> callSites;
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                callSites = stats.stopCallSites();
+            }
+            QueryStats.Snapshot used = stats.snapshot().since(start);
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+            record(meterRegistry, "jdbc.request", tags, used);
+
+            log.debug("{} {}: {} SQL statements, {} rows, {} ms, {} user lookups",
+                    request.getMethod(), request.getRequestURI(), used.getStatements(), used.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(used.getNanos()), used.getUserLookups());
+            if (used.getStatements() > budget) {
+                log.warn("{} {} ran {} SQL statements (budget {}), {} rows, {} ms; by call site:\n{}",
+                        request.getMethod(), request.getRequestURI(), used.getStatements(), budget,
+                        used.getRows(), TimeUnit.NANOSECONDS.toMillis(used.getNanos()), describe(callSites));
+            }
+        }
+
+        private static String describe(List<QueryStats.CallSite> callSites) {
+            return callSites.stream()
+                    .limit(REPORTED_CALL_SITES)
+                    .map(site -> "  " + site.getStatements() + " x " + site.getLocation() + ": "
+                            + abbreviate(site.getFirstSql()))
+                    .collect(Collectors.joining("\n"));
+        }
+
+        private static String abbreviate(String sql) {
+            if (sql == null) {
+                return "(batch)";
+            }
+            return sql.length() > REPORTED_SQL_LENGTH ? sql.substring(0, REPORTED_SQL_LENGTH) + "..." : sql;
+        }
+    }
+
+    // Found by component scanning, so it carries the configuration's condition itself
+    @ControllerAdvice
+    @ConditionalOnExpression("${app.debug.query-count:false} and ${app.debug.query-headers:true}")
+    static final class QueryCountHeaders implements ResponseBodyAdvice<Object> {
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                      Class<? extends HttpMessageConverter<?>> converterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            // The body is written after this, and with it the headers, so these are the counts so far
+            if (request instanceof ServletServerHttpRequest servletRequest
+                    && servletRequest.getServletRequest().getAttribute(START_ATTRIBUTE) instanceof QueryStats.Snapshot start) {
+                QueryStats.Snapshot used = QueryStats.current().snapshot().since(start);
+                response.getHeaders().set("X-Query-Count", String.valueOf(used.getStatements()));
+                response.getHeaders().set("X-Query-Rows", String.valueOf(used.getRows()));
+                response.getHeaders().set("X-Query-Time-Ms", String.valueOf(TimeUnit.NANOSECONDS.toMillis(used.getNanos())));
+            }
+            return body;
+        }
+    }
+
+    static final class ServiceQueryCounter implements MethodInterceptor {
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        ServiceQueryCounter(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            QueryStats stats = QueryStats.current();
+            QueryStats.Snapshot start = stats.snapshot();
+            try {
+                return invocation.proceed();
+            } finally {
+                QueryStats.Snapshot used = stats.snapshot().since(start);
+                MeterRegistry registry = meterRegistry.getIfAvailable();
+                // Only methods that reached the database, to keep the meter count down
+                if (used.getStatements() > 0 && registry != null) {
+                    Tags tags = Tags.of("class", invocation.getMethod().getDeclaringClass().getSimpleName(),
+                            "method", invocation.getMethod().getName());
+                    record(registry, "jdbc.service", tags, used);
+                }
+            }
+        }
+    }
+
+    private static void record(MeterRegistry registry, String prefix, Tags tags, QueryStats.Snapshot used) {
+        DistributionSummary.builder(prefix + ".statements")
+                .description("JDBC statements executed")
+                .tags(tags)
+                .register(registry)
+                .record(used.getStatements());
+        DistributionSummary.builder(prefix + ".rows")
+                .description("Rows read from JDBC result sets")
+                .tags(tags)
+                .register(registry)
+                .record(used.getRows());
+        Timer.builder(prefix + ".time")
+                .description("Time spent executing JDBC statements")
+                .tags(tags)
+                .register(registry)
+                .record(used.getNanos(), TimeUnit.NANOSECONDS);
+    }
+}
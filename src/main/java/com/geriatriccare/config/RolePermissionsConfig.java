@@ -2,6 +2,7 @@ package com.geriatriccare.config;
 
 import com.geriatriccare.enums.Permission;
 import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.security.PermissionBits;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -11,15 +12,24 @@ import java.util.*;
  * Maps roles to their allowed permissions
  * 
  * Based on Access Control Matrix from document requirements
+ * 
+ * The matrix is compiled once into one {@link PermissionBits} bitset per
+ * role; lookups test bits and never touch the definition sets.
  */
 @Component
 public class RolePermissionsConfig {
 
     private final Map<UserRole, Set<Permission>> rolePermissions;
+    private final Map<UserRole, long[]> roleBits;
 
     public RolePermissionsConfig() {
-        rolePermissions = new HashMap<>();
+        rolePermissions = new EnumMap<>(UserRole.class);
         initializePermissions();
+
+        roleBits = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            roleBits.put(role, PermissionBits.of(rolePermissions.getOrDefault(role, Collections.emptySet())));
+        }
     }
 
     /**
@@ -185,7 +195,17 @@ public class RolePermissionsConfig {
      * @return Set of permissions
      */
     public Set<Permission> getPermissionsForRole(UserRole role) {
-        return new HashSet<>(rolePermissions.getOrDefault(role, Collections.emptySet()));
+        return role != null ? PermissionBits.toSet(roleBits.get(role)) : EnumSet.noneOf(Permission.class);
+    }
+
+    /**
+     * Permission bitset of a role, shared and read-only
+     * 
+     * @param role User role
+     * @return Bits as defined by {@link PermissionBits}
+     */
+    public long[] getPermissionBits(UserRole role) {
+        return roleBits.get(role);
     }
 
     /**
@@ -196,8 +216,29 @@ public class RolePermissionsConfig {
      * @return true if role has permission
      */
     public boolean hasPermission(UserRole role, Permission permission) {
-        Set<Permission> permissions = rolePermissions.get(role);
-        return permissions != null && permissions.contains(permission);
+        return role != null && permission != null && PermissionBits.contains(roleBits.get(role), permission);
+    }
+
+    /**
+     * Check if role has any permission of a mask
+     * 
+     * @param role User role
+     * @param mask Permissions built with {@link PermissionBits#of}
+     * @return true if role has at least one of them
+     */
+    public boolean hasAny(UserRole role, long[] mask) {
+        return role != null && PermissionBits.containsAny(roleBits.get(role), mask);
+    }
+
+    /**
+     * Check if role has every permission of a mask
+     * 
+     * @param role User role
+     * @param mask Permissions built with {@link PermissionBits#of}
+     * @return true if role has all of them
+     */
+    public boolean hasAll(UserRole role, long[] mask) {
+        return role != null && PermissionBits.containsAll(roleBits.get(role), mask);
     }
 
     /**
@@ -225,7 +266,7 @@ public class RolePermissionsConfig {
         Map<UserRole, Integer> counts = new HashMap<>();
         
         for (UserRole role : UserRole.values()) {
-            counts.put(role, rolePermissions.get(role).size());
+            counts.put(role, PermissionBits.count(roleBits.get(role)));
         }
         
         return counts;
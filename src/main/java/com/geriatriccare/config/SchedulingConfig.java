@@ -0,0 +1,13 @@
+package com.geriatriccare.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+    // Runs @Scheduled jobs (AI usage rollups, session and audit cleanup).
+    // Disabled with app.scheduling.enabled=false, e.g. in tests.
+}
@@ -2,16 +2,18 @@ package com.geriatriccare.config;
 
 import com.geriatriccare.security.JwtAuthenticationEntryPoint;
 import com.geriatriccare.security.JwtAuthenticationFilter;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -58,6 +60,8 @@ public class SecurityConfig {
                 )
             )
             .authorizeHttpRequests(auth -> auth
+                // SSE responses complete on an async dispatch; the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
@@ -69,6 +73,8 @@ public class SecurityConfig {
                 .requestMatchers("/webjars/**").permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // A PATIENT may read its own record; PatientController checks which one
+                .requestMatchers(HttpMethod.GET, "/api/patients/{id}").hasAnyRole("ADMIN", "PHYSICIAN", "CAREGIVER", "FAMILY", "PATIENT")
                 .requestMatchers("/api/patients/**").hasAnyRole("ADMIN", "PHYSICIAN", "CAREGIVER", "FAMILY")
                 .requestMatchers("/api/medications/**").hasAnyRole("ADMIN", "PHYSICIAN", "CAREGIVER")
                 .requestMatchers("/api/care-plans/**").hasAnyRole("ADMIN", "PHYSICIAN", "CAREGIVER", "FAMILY")
@@ -89,14 +95,19 @@ public class SecurityConfig {
         return http.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    // The PasswordEncoder is PasswordHashingService
 
+    /**
+     * Password logins run inside the "login" bulkhead, so only a bounded number
+     * of them verify passwords at once; the rest wait briefly and are then
+     * refused, leaving request threads to clinical traffic.
+     */
     @Bean
     public AuthenticationManager authenticationManager(
-            AuthenticationConfiguration authenticationConfiguration) throws Exception {
-        return authenticationConfiguration.getAuthenticationManager();
+            AuthenticationConfiguration authenticationConfiguration,
+            BulkheadRegistry bulkheadRegistry) throws Exception {
+        AuthenticationManager delegate = authenticationConfiguration.getAuthenticationManager();
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("login");
+        return authentication -> bulkhead.executeSupplier(() -> delegate.authenticate(authentication));
     }
 }
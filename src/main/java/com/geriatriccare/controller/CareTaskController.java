@@ -3,16 +3,22 @@ package com.geriatriccare.controller;
 import com.geriatriccare.dto.CareTaskRequest;
 import com.geriatriccare.dto.CareTaskResponse;
 import com.geriatriccare.dto.TaskCompletionRequest;
+import com.geriatriccare.dto.WorkQueueItem;
 import com.geriatriccare.service.CareTaskService;
+import com.geriatriccare.service.CaregiverWorkQueueService;
+import com.geriatriccare.util.SecurityUtil;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -27,6 +33,12 @@ public class CareTaskController {
     @Autowired
     private CareTaskService careTaskService;
     
+    @Autowired
+    private CaregiverWorkQueueService workQueueService;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
@@ -133,6 +145,7 @@ public class CareTaskController {
     
     /**
      * Mark task as complete
+     * 409 if a concurrent request already completed the same occurrence
      */
     @PostMapping("/{id}/complete")
     @PreAuthorize("hasRole('OWNER') or hasRole('ADMIN') or hasRole('CAREGIVER')")
@@ -145,6 +158,9 @@ public class CareTaskController {
         try {
             CareTaskResponse response = careTaskService.completeTask(id, request);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            logger.warn("Care task {} not completed: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error completing care task: {}", id, e);
             return ResponseEntity.notFound().build();
@@ -165,6 +181,59 @@ public class CareTaskController {
         return ResponseEntity.ok(tasks);
     }
     
+    /**
+     * Get tasks overdue or coming due for a caregiver
+     * A caregiver can only read their own; OWNER and ADMIN can read anyone's
+     */
+    @GetMapping("/due/caregiver/{caregiverId}")
+    @PreAuthorize("hasRole('OWNER') or hasRole('ADMIN') or hasRole('CAREGIVER')")
+    public ResponseEntity<List<CareTaskResponse>> getDueTasksForCaregiver(@PathVariable UUID caregiverId) {
+        UUID taskOwner = resolveCaregiver(caregiverId);
+        logger.info("Fetching due tasks for caregiver: {}", taskOwner);
+        
+        List<CareTaskResponse> tasks = careTaskService.getDueTasksForCaregiver(taskOwner);
+        return ResponseEntity.ok(tasks);
+    }
+    
+    // ========== WORK QUEUE ==========
+    
+    /**
+     * Get a caregiver's work queue, highest priority first
+     * Defaults to the current user; only OWNER and ADMIN can name another caregiver
+     */
+    @GetMapping("/work-queue")
+    @PreAuthorize("hasRole('OWNER') or hasRole('ADMIN') or hasRole('CAREGIVER')")
+    public ResponseEntity<List<WorkQueueItem>> getWorkQueue(@RequestParam(required = false) UUID caregiverId) {
+        UUID queueOwner = resolveCaregiver(caregiverId);
+        logger.info("Fetching work queue for caregiver: {}", queueOwner);
+        
+        return ResponseEntity.ok(workQueueService.getQueue(queueOwner));
+    }
+    
+    /**
+     * Stream a caregiver's work queue as server-sent events
+     * Sends the whole queue, then batched updates as tasks come due, go overdue or are completed
+     */
+    @GetMapping(value = "/work-queue/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('OWNER') or hasRole('ADMIN') or hasRole('CAREGIVER')")
+    public SseEmitter streamWorkQueue(@RequestParam(required = false) UUID caregiverId) {
+        UUID queueOwner = resolveCaregiver(caregiverId);
+        logger.info("Work queue stream request for caregiver: {}", queueOwner);
+        
+        return workQueueService.subscribe(queueOwner);
+    }
+    
+    private UUID resolveCaregiver(UUID caregiverId) {
+        UUID currentUserId = securityUtil.getCurrentUserId();
+        if (caregiverId == null || caregiverId.equals(currentUserId)) {
+            return currentUserId;
+        }
+        if (!securityUtil.hasAnyRole("OWNER", "ADMIN")) {
+            throw new AccessDeniedException("Only administrators can view another caregiver's tasks");
+        }
+        return caregiverId;
+    }
+    
     /**
      * Get tasks by category
      */
@@ -1,7 +1,13 @@
 package com.geriatriccare.controller;
 
+import com.geriatriccare.dto.CatalogSuggestion;
+import com.geriatriccare.security.UserPrincipal;
 import com.geriatriccare.entity.*;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.service.CatalogAutocompleteService;
 import com.geriatriccare.service.CatalogService;
+import com.geriatriccare.service.catalog.CatalogImportFormat;
+import com.geriatriccare.service.catalog.CatalogImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,19 +19,27 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Catalog Management Controller
  * REST API for medical catalogs
  * 
- * Endpoints (16):
- * Diagnoses (4):
+ * Endpoints (23):
+ * Diagnoses (5):
  * - GET /api/catalogs/diagnoses
+ * - GET /api/catalogs/diagnoses/{id}
  * - POST /api/catalogs/diagnoses
  * - PUT /api/catalogs/diagnoses/{id}
  * - DELETE /api/catalogs/diagnoses/{id}
@@ -36,17 +50,27 @@ import java.util.UUID;
  * - PUT /api/catalogs/specialties/{id}
  * - DELETE /api/catalogs/specialties/{id}
  * 
- * Procedures (4):
+ * Procedures (5):
  * - GET /api/catalogs/procedures
+ * - GET /api/catalogs/procedures/{id}
  * - POST /api/catalogs/procedures
  * - PUT /api/catalogs/procedures/{id}
  * - DELETE /api/catalogs/procedures/{id}
  * 
- * Drugs (4):
+ * Drugs (5):
  * - GET /api/catalogs/drugs
+ * - GET /api/catalogs/drugs/{id}
  * - POST /api/catalogs/drugs
  * - PUT /api/catalogs/drugs/{id}
  * - DELETE /api/catalogs/drugs/{id}
+ * 
+ * Typeahead (1):
+ * - GET /api/catalogs/autocomplete
+ * 
+ * Bulk Import (3):
+ * - POST /api/catalogs/import
+ * - GET /api/catalogs/import/{id}
+ * - POST /api/catalogs/import/{id}/resume
  */
 @RestController
 @RequestMapping("/api/catalogs")
@@ -57,6 +81,8 @@ import java.util.UUID;
 public class CatalogController {
 
     private final CatalogService catalogService;
+    private final CatalogAutocompleteService autocompleteService;
+    private final CatalogImportService importService;
 
     // ========== DIAGNOSIS ENDPOINTS ==========
 
@@ -81,6 +107,17 @@ public class CatalogController {
         return ResponseEntity.ok(diagnoses);
     }
 
+    @GetMapping("/diagnoses/{id}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get diagnosis", description = "Get one diagnosis by ID")
+    public ResponseEntity<Diagnosis> getDiagnosisById(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(catalogService.getDiagnosisById(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/diagnoses")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create diagnosis", description = "Create new diagnosis (ADMIN only)")
@@ -221,6 +258,17 @@ public class CatalogController {
         return ResponseEntity.ok(procedures);
     }
 
+    @GetMapping("/procedures/{id}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get procedure", description = "Get one procedure by ID")
+    public ResponseEntity<Procedure> getProcedureById(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(catalogService.getProcedureById(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/procedures")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create procedure", description = "Create new procedure (ADMIN only)")
@@ -291,6 +339,17 @@ public class CatalogController {
         return ResponseEntity.ok(drugs);
     }
 
+    @GetMapping("/drugs/{id}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get drug", description = "Get one drug by ID")
+    public ResponseEntity<DrugCatalog> getDrugById(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(catalogService.getDrugById(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/drugs")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create drug", description = "Create new drug catalog entry (ADMIN only)")
@@ -338,6 +397,61 @@ public class CatalogController {
         return ResponseEntity.ok(response);
     }
 
+    // ========== TYPEAHEAD ==========
+
+    @GetMapping("/autocomplete")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Autocomplete catalog entries",
+               description = "Top weighted completions of codes, names, synonyms and brand names")
+    public ResponseEntity<List<CatalogSuggestion>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(required = false) Set<CatalogType> types,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        Set<CatalogType> catalogs = types == null || types.isEmpty()
+                ? EnumSet.allOf(CatalogType.class)
+                : EnumSet.copyOf(types);
+        
+        return ResponseEntity.ok(autocompleteService.complete(q, catalogs, limit));
+    }
+
+    // ========== BULK IMPORT ==========
+
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import catalog file",
+               description = "Queue a bulk upsert of an ICD-10, CPT or drug reference file in CSV, TSV or XML (ADMIN only)")
+    public ResponseEntity<CatalogImportJob> importCatalog(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam CatalogType type,
+            @RequestParam(defaultValue = "CSV") CatalogImportFormat format,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        
+        log.info("Importing {} catalog from {} ({} bytes)", type, file.getOriginalFilename(), file.getSize());
+        
+        try (InputStream content = file.getInputStream()) {
+            CatalogImportJob job = importService.startImport(type, format, file.getOriginalFilename(), content,
+                    principal.getUsername(), principal.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+    }
+
+    @GetMapping("/import/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get import progress", description = "Progress and rejected records of a catalog import (ADMIN only)")
+    public ResponseEntity<CatalogImportJob> getImportJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(importService.getJob(id));
+    }
+
+    @PostMapping("/import/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Resume import", description = "Continue a failed import after its last committed chunk (ADMIN only)")
+    public ResponseEntity<CatalogImportJob> resumeImport(@PathVariable UUID id) {
+        log.info("Resuming catalog import: {}", id);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.resume(id));
+    }
+
     // ========== STATISTICS & HEALTH ==========
 
     @GetMapping("/statistics")
@@ -2,6 +2,8 @@ package com.geriatriccare.controller;
 
 import com.geriatriccare.dto.PatientRequest;
 import com.geriatriccare.dto.PatientResponse;
+import com.geriatriccare.dto.summary.PatientSummary;
+import com.geriatriccare.service.PatientRelationshipService;
 import com.geriatriccare.service.PatientService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -26,6 +28,9 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
     
+    @Autowired
+    private PatientRelationshipService patientRelationshipService;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
@@ -48,10 +53,11 @@ public class PatientController {
     
     /**
      * Get patient by ID
-     * All authenticated users can view patients
+     * Staff and family can view patients; a PATIENT only the record linked to their login
      */
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN') or hasRole('CAREGIVER') or hasRole('FAMILY')")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN') or hasRole('CAREGIVER') or hasRole('FAMILY') " +
+                  "or (hasRole('PATIENT') and @securityUtil.canAccessPatient(#id))")
     public ResponseEntity<PatientResponse> getPatient(@PathVariable UUID id) {
         logger.info("Fetching patient: {}", id);
         
@@ -66,17 +72,22 @@ public class PatientController {
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN')")
-    public ResponseEntity<Page<PatientResponse>> getAllPatients(
+    public ResponseEntity<Page<PatientSummary>> getAllPatients(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "lastName") String sortBy,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir) {
         
         logger.info("Fetching patients - page: {}, size: {}, sortBy: {}, sortDir: {}", 
                    page, size, sortBy, sortDir);
         
-        Page<PatientResponse> patients = patientService.getAllPatients(page, size, sortBy, sortDir);
-        return ResponseEntity.ok(patients);
+        try {
+            Page<PatientSummary> patients = patientService.getAllPatients(page, size, sortBy, sortDir);
+            return ResponseEntity.ok(patients);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected patient list sort: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -118,6 +129,27 @@ public class PatientController {
         }
     }
     
+    /**
+     * Link the patient record to the patient's own login (PATIENT role), or unlink it without userId
+     * Only ADMIN can link logins
+     */
+    @PutMapping("/{id}/user")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> linkPatientUser(
+            @PathVariable UUID id,
+            @RequestParam(required = false) UUID userId) {
+        
+        logger.info("Linking patient {} to user {}", id, userId);
+        
+        try {
+            patientRelationshipService.linkPatientUser(id, userId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            logger.error("Error linking patient {} to user {}", id, userId, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     // ========== SEARCH OPERATIONS ==========
     
     /**
@@ -125,10 +157,10 @@ public class PatientController {
      */
     @GetMapping("/search/name")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN') or hasRole('CAREGIVER')")
-    public ResponseEntity<List<PatientResponse>> searchByName(@RequestParam String name) {
+    public ResponseEntity<List<PatientSummary>> searchByName(@RequestParam String name) {
         logger.info("Searching patients by name: {}", name);
         
-        List<PatientResponse> patients = patientService.searchPatientsByName(name);
+        List<PatientSummary> patients = patientService.searchPatientsByName(name);
         return ResponseEntity.ok(patients);
     }
     
@@ -137,13 +169,13 @@ public class PatientController {
      */
     @GetMapping("/search/age")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN') or hasRole('CAREGIVER')")
-    public ResponseEntity<List<PatientResponse>> searchByAge(
+    public ResponseEntity<List<PatientSummary>> searchByAge(
             @RequestParam int minAge, 
             @RequestParam int maxAge) {
         
         logger.info("Searching patients by age range: {} - {}", minAge, maxAge);
         
-        List<PatientResponse> patients = patientService.searchPatientsByAgeRange(minAge, maxAge);
+        List<PatientSummary> patients = patientService.searchPatientsByAgeRange(minAge, maxAge);
         return ResponseEntity.ok(patients);
     }
     
@@ -152,10 +184,10 @@ public class PatientController {
      */
     @GetMapping("/search/condition")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PHYSICIAN') or hasRole('CAREGIVER')")
-    public ResponseEntity<List<PatientResponse>> searchByCondition(@RequestParam String condition) {
+    public ResponseEntity<List<PatientSummary>> searchByCondition(@RequestParam String condition) {
         logger.info("Searching patients by medical condition: {}", condition);
         
-        List<PatientResponse> patients = patientService.searchPatientsByCondition(condition);
+        List<PatientSummary> patients = patientService.searchPatientsByCondition(condition);
         return ResponseEntity.ok(patients);
     }
     
@@ -0,0 +1,86 @@
+package com.geriatriccare.controller;
+
+import com.geriatriccare.dto.medication.MedicationAdherenceReportRequest;
+import com.geriatriccare.dto.report.AdherenceReportRequest;
+import com.geriatriccare.dto.report.ReportResult;
+import com.geriatriccare.entity.ReportJob;
+import com.geriatriccare.service.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Asynchronous report generation: submit returns the job, whose result is
+ * fetched once it has completed.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping("/adherence")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHYSICIAN', 'CAREGIVER')")
+    public ResponseEntity<ReportJob> submitAdherenceReport(@Valid @RequestBody AdherenceReportRequest request) {
+        log.info("POST /api/reports/jobs/adherence - Patient: {}", request.getPatientId());
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submitAdherence(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected adherence report job: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/medication")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHYSICIAN', 'NURSE', 'CAREGIVER')")
+    public ResponseEntity<ReportJob> submitMedicationReport(
+            @Valid @RequestBody MedicationAdherenceReportRequest request) {
+        log.info("POST /api/reports/jobs/medication - Patient: {}", request.getPatientId());
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submitMedication(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected medication report job: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHYSICIAN', 'NURSE', 'CAREGIVER')")
+    public ResponseEntity<ReportJob> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    /**
+     * The report once the job has completed; 202 with the job while it is
+     * queued or running, 409 with the job if it failed.
+     */
+    @GetMapping("/{jobId}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHYSICIAN', 'NURSE', 'CAREGIVER')")
+    public ResponseEntity<?> getResult(@PathVariable UUID jobId) {
+        log.info("GET /api/reports/jobs/{}/result", jobId);
+        ReportJob job = reportJobService.getJob(jobId);
+        switch (job.getStatus()) {
+            case PENDING:
+            case RUNNING:
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+            case FAILED:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+            default:
+                break;
+        }
+
+        ReportResult result = reportJobService.getResult(jobId);
+        return ResponseEntity.ok()
+            .header("Content-Type", result.getContentType())
+            .header("Content-Disposition", "attachment; filename=" + result.getFileName())
+            .body(result.getContent());
+    }
+}
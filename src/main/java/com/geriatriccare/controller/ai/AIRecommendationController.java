@@ -5,14 +5,17 @@ import com.geriatriccare.dto.ai.RecommendationResponse;
 import com.geriatriccare.dto.ai.RecommendationType;
 import com.geriatriccare.entity.AIAuditLog;
 import com.geriatriccare.service.ai.AIRecommendationService;
+import com.geriatriccare.service.ai.AIStreamingService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -24,10 +27,13 @@ public class AIRecommendationController {
     private static final Logger log = LoggerFactory.getLogger(AIRecommendationController.class);
     
     private final AIRecommendationService recommendationService;
+    private final AIStreamingService streamingService;
     
     @Autowired
-    public AIRecommendationController(AIRecommendationService recommendationService) {
+    public AIRecommendationController(AIRecommendationService recommendationService,
+                                      AIStreamingService streamingService) {
         this.recommendationService = recommendationService;
+        this.streamingService = streamingService;
     }
     
     /**
@@ -52,6 +58,22 @@ public class AIRecommendationController {
         }
     }
     
+    /**
+     * Generate AI-powered recommendation as a server-sent event stream
+     * POST /api/ai/recommendations/stream
+     * Events: token (text delta), complete (RecommendationResponse), error
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAREGIVER', 'OWNER')")
+    public SseEmitter streamRecommendation(@Valid @RequestBody RecommendationRequest request) {
+        
+        log.info("Received streaming recommendation request for patient: {}, type: {}", 
+                 request.getPatientId(), request.getType());
+        
+        return streamingService.stream("recommendation " + request.getPatientId(),
+                onToken -> recommendationService.streamRecommendation(request, onToken));
+    }
+    
     /**
      * Get recommendation history for a patient
      * GET /api/ai/recommendations/history/{patientId}
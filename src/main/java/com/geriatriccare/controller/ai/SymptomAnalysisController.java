@@ -3,15 +3,18 @@ package com.geriatriccare.controller.ai;
 import com.geriatriccare.dto.ai.SymptomAnalysisRequest;
 import com.geriatriccare.dto.ai.SymptomAnalysisResponse;
 import com.geriatriccare.entity.AIAuditLog;
+import com.geriatriccare.service.ai.AIStreamingService;
 import com.geriatriccare.service.ai.SymptomAnalysisService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,10 +26,13 @@ public class SymptomAnalysisController {
     private static final Logger log = LoggerFactory.getLogger(SymptomAnalysisController.class);
     
     private final SymptomAnalysisService symptomService;
+    private final AIStreamingService streamingService;
     
     @Autowired
-    public SymptomAnalysisController(SymptomAnalysisService symptomService) {
+    public SymptomAnalysisController(SymptomAnalysisService symptomService,
+                                     AIStreamingService streamingService) {
         this.symptomService = symptomService;
+        this.streamingService = streamingService;
     }
     
     @PostMapping("/analyze")
@@ -45,6 +51,20 @@ public class SymptomAnalysisController {
         }
     }
     
+    /**
+     * Stream symptom analysis as server-sent events
+     * Events: token (text delta), complete (SymptomAnalysisResponse), error
+     */
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CAREGIVER', 'OWNER')")
+    public SseEmitter streamSymptomAnalysis(@Valid @RequestBody SymptomAnalysisRequest request) {
+        
+        log.info("Streaming symptom analysis request for patient: {}", request.getPatientId());
+        
+        return streamingService.stream("symptom analysis " + request.getPatientId(),
+                onToken -> symptomService.streamSymptomAnalysis(request, onToken));
+    }
+    
     @GetMapping("/patient/{patientId}/history")
     @PreAuthorize("hasAnyRole('ADMIN', 'CAREGIVER', 'OWNER')")
     public ResponseEntity<List<AIAuditLog>> getSymptomHistory(@PathVariable UUID patientId) {
@@ -6,10 +6,13 @@ import com.geriatriccare.dto.LoginRequest;
 import com.geriatriccare.dto.RegisterRequest;
 import com.geriatriccare.security.UserPrincipal;
 import com.geriatriccare.service.AuthService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -75,6 +78,18 @@ public class AuthController {
             logger.info("User logged in successfully: {}", loginRequest.getEmail());
             return ResponseEntity.ok(authResponse);
             
+        } catch (BulkheadFullException | TaskRejectedException e) {
+            // Too many logins verifying passwords at once; the credentials were not checked
+            logger.warn("Login refused under load: {}", e.getMessage());
+            ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Too many concurrent logins, please retry",
+                "/api/auth/login"
+            );
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
         } catch (RuntimeException e) {
             logger.error("Login failed: {}", e.getMessage());
             ErrorResponse errorResponse = new ErrorResponse(
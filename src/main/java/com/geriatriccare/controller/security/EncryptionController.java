@@ -2,6 +2,7 @@ package com.geriatriccare.controller.security;
 
 import com.geriatriccare.dto.security.*;
 import com.geriatriccare.service.security.EncryptionService;
+import com.geriatriccare.service.security.ReEncryptionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,10 +20,12 @@ public class EncryptionController {
     private static final Logger logger = LoggerFactory.getLogger(EncryptionController.class);
     
     private final EncryptionService encryptionService;
+    private final ReEncryptionService reEncryptionService;
     
     @Autowired
-    public EncryptionController(EncryptionService encryptionService) {
+    public EncryptionController(EncryptionService encryptionService, ReEncryptionService reEncryptionService) {
         this.encryptionService = encryptionService;
+        this.reEncryptionService = reEncryptionService;
     }
     
     @PostMapping("/encrypt")
@@ -82,6 +85,15 @@ public class EncryptionController {
         return ResponseEntity.ok(info);
     }
     
+    @GetMapping("/reencryption-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReEncryptionStatus() {
+        
+        logger.info("Re-encryption status request");
+        
+        return ResponseEntity.ok(reEncryptionService.getStatus());
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> health = Map.of(
@@ -0,0 +1,40 @@
+package com.geriatriccare.dto;
+
+import com.geriatriccare.enums.CatalogType;
+
+import java.util.UUID;
+
+/**
+ * One typeahead completion from a medical catalog.
+ */
+public class CatalogSuggestion {
+
+    private CatalogType type;
+    private UUID id;
+    private String code;
+    private String name;
+    private String matched;
+    private int weight;
+
+    public CatalogSuggestion() {}
+
+    public CatalogSuggestion(CatalogType type, UUID id, String code, String name) {
+        this.type = type;
+        this.id = id;
+        this.code = code;
+        this.name = name;
+    }
+
+    public CatalogType getType() { return type; }
+    public void setType(CatalogType type) { this.type = type; }
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getMatched() { return matched; }
+    public void setMatched(String matched) { this.matched = matched; }
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
+}
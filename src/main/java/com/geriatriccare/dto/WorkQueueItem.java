@@ -0,0 +1,57 @@
+package com.geriatriccare.dto;
+
+import com.geriatriccare.entity.CareTaskPriority;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An open care task occurrence in a caregiver's work queue, identified by
+ * task id and due time.
+ */
+public class WorkQueueItem {
+    
+    private UUID careTaskId;
+    private UUID carePlanId;
+    private UUID patientId;
+    private String taskName;
+    private CareTaskPriority priority;
+    private LocalDateTime dueAt;
+    private Boolean overdue;
+    
+    // Constructors
+    public WorkQueueItem() {}
+    
+    public WorkQueueItem(UUID careTaskId, UUID carePlanId, UUID patientId, String taskName,
+                         CareTaskPriority priority, LocalDateTime dueAt, Boolean overdue) {
+        this.careTaskId = careTaskId;
+        this.carePlanId = carePlanId;
+        this.patientId = patientId;
+        this.taskName = taskName;
+        this.priority = priority;
+        this.dueAt = dueAt;
+        this.overdue = overdue;
+    }
+    
+    // Getters and Setters
+    public UUID getCareTaskId() { return careTaskId; }
+    public void setCareTaskId(UUID careTaskId) { this.careTaskId = careTaskId; }
+    
+    public UUID getCarePlanId() { return carePlanId; }
+    public void setCarePlanId(UUID carePlanId) { this.carePlanId = carePlanId; }
+    
+    public UUID getPatientId() { return patientId; }
+    public void setPatientId(UUID patientId) { this.patientId = patientId; }
+    
+    public String getTaskName() { return taskName; }
+    public void setTaskName(String taskName) { this.taskName = taskName; }
+    
+    public CareTaskPriority getPriority() { return priority; }
+    public void setPriority(CareTaskPriority priority) { this.priority = priority; }
+    
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+    
+    public Boolean getOverdue() { return overdue; }
+    public void setOverdue(Boolean overdue) { this.overdue = overdue; }
+}
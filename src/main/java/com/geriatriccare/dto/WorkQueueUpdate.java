@@ -0,0 +1,27 @@
+package com.geriatriccare.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The changes to a caregiver's work queue since the last update. Upserted
+ * items replace any item with the same task id and due time; clients keep
+ * the queue ordered by priority, highest first, then due time.
+ */
+public class WorkQueueUpdate {
+    
+    private List<WorkQueueItem> upserted = new ArrayList<>();
+    private List<WorkQueueItem> removed = new ArrayList<>();
+    private Integer size;
+    
+    // Getters and Setters
+    public List<WorkQueueItem> getUpserted() { return upserted; }
+    public void setUpserted(List<WorkQueueItem> upserted) { this.upserted = upserted; }
+    
+    public List<WorkQueueItem> getRemoved() { return removed; }
+    public void setRemoved(List<WorkQueueItem> removed) { this.removed = removed; }
+    
+    /** Items in the queue after the update */
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+}
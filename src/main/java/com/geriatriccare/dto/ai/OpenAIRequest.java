@@ -1,7 +1,9 @@
 package com.geriatriccare.dto.ai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import java.util.Map;
 
 public class OpenAIRequest {
     private String model;
@@ -12,6 +14,17 @@ public class OpenAIRequest {
     
     private Double temperature;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stream;
+
+    @JsonProperty("stream_options")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private StreamOptions streamOptions;
+
+    @JsonProperty("response_format")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ResponseFormat responseFormat;
+
     // Builder pattern
     public static Builder builder() {
         return new Builder();
@@ -22,6 +35,8 @@ public class OpenAIRequest {
         private List<Message> messages;
         private Integer maxTokens;
         private Double temperature;
+        private Boolean stream;
+        private ResponseFormat responseFormat;
 
         public Builder model(String model) {
             this.model = model;
@@ -43,12 +58,36 @@ public class OpenAIRequest {
             return this;
         }
 
+        /**
+         * Request a server-sent event stream of completion deltas.
+         * Usage totals are requested in the final chunk so streamed calls
+         * can still be audited with token counts.
+         */
+        public Builder stream(boolean stream) {
+            this.stream = stream;
+            return this;
+        }
+
+        /**
+         * Constrain the completion to JSON matching the given schema
+         * (OpenAI structured outputs, non-strict so optional fields may be omitted).
+         */
+        public Builder jsonSchema(String name, Map<String, Object> schema) {
+            this.responseFormat = new ResponseFormat("json_schema", new JsonSchema(name, schema, false));
+            return this;
+        }
+
         public OpenAIRequest build() {
             OpenAIRequest request = new OpenAIRequest();
             request.model = this.model;
             request.messages = this.messages;
             request.maxTokens = this.maxTokens;
             request.temperature = this.temperature;
+            request.responseFormat = this.responseFormat;
+            if (Boolean.TRUE.equals(this.stream)) {
+                request.stream = true;
+                request.streamOptions = new StreamOptions(true);
+            }
             return request;
         }
     }
@@ -85,4 +124,116 @@ public class OpenAIRequest {
     public void setTemperature(Double temperature) {
         this.temperature = temperature;
     }
-}
\ No newline at end of file
+
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
+    public StreamOptions getStreamOptions() {
+        return streamOptions;
+    }
+
+    public void setStreamOptions(StreamOptions streamOptions) {
+        this.streamOptions = streamOptions;
+    }
+
+    public ResponseFormat getResponseFormat() {
+        return responseFormat;
+    }
+
+    public void setResponseFormat(ResponseFormat responseFormat) {
+        this.responseFormat = responseFormat;
+    }
+
+    public static class StreamOptions {
+        @JsonProperty("include_usage")
+        private Boolean includeUsage;
+
+        public StreamOptions() {}
+
+        public StreamOptions(Boolean includeUsage) {
+            this.includeUsage = includeUsage;
+        }
+
+        public Boolean getIncludeUsage() {
+            return includeUsage;
+        }
+
+        public void setIncludeUsage(Boolean includeUsage) {
+            this.includeUsage = includeUsage;
+        }
+    }
+
+    public static class ResponseFormat {
+        private String type;
+
+        @JsonProperty("json_schema")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private JsonSchema jsonSchema;
+
+        public ResponseFormat() {}
+
+        public ResponseFormat(String type, JsonSchema jsonSchema) {
+            this.type = type;
+            this.jsonSchema = jsonSchema;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public JsonSchema getJsonSchema() {
+            return jsonSchema;
+        }
+
+        public void setJsonSchema(JsonSchema jsonSchema) {
+            this.jsonSchema = jsonSchema;
+        }
+    }
+
+    public static class JsonSchema {
+        private String name;
+        private Map<String, Object> schema;
+        private Boolean strict;
+
+        public JsonSchema() {}
+
+        public JsonSchema(String name, Map<String, Object> schema, Boolean strict) {
+            this.name = name;
+            this.schema = schema;
+            this.strict = strict;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Map<String, Object> getSchema() {
+            return schema;
+        }
+
+        public void setSchema(Map<String, Object> schema) {
+            this.schema = schema;
+        }
+
+        public Boolean getStrict() {
+            return strict;
+        }
+
+        public void setStrict(Boolean strict) {
+            this.strict = strict;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.geriatriccare.dto.ai;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * One server-sent event payload of a streamed chat completion.
+ * Each chunk carries a content delta; the final chunk carries usage totals.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OpenAIStreamChunk {
+    private String id;
+    private String model;
+    private Long created;
+    private List<ChunkChoice> choices;
+    private OpenAIResponse.Usage usage;
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public Long getCreated() {
+        return created;
+    }
+
+    public void setCreated(Long created) {
+        this.created = created;
+    }
+
+    public List<ChunkChoice> getChoices() {
+        return choices;
+    }
+
+    public void setChoices(List<ChunkChoice> choices) {
+        this.choices = choices;
+    }
+
+    public OpenAIResponse.Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(OpenAIResponse.Usage usage) {
+        this.usage = usage;
+    }
+
+    // Inner Classes
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ChunkChoice {
+        private Integer index;
+        private Message delta;
+
+        @JsonProperty("finish_reason")
+        private String finishReason;
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public Message getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Message delta) {
+            this.delta = delta;
+        }
+
+        public String getFinishReason() {
+            return finishReason;
+        }
+
+        public void setFinishReason(String finishReason) {
+            this.finishReason = finishReason;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.geriatriccare.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A rendered report job result, cached until its report expires
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportResult {
+
+    private UUID reportId;
+    private byte[] content;
+    private String contentType;
+    private String fileName;
+    private LocalDateTime expiresAt;
+
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+}
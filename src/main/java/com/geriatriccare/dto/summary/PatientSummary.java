@@ -0,0 +1,112 @@
+package com.geriatriccare.dto.summary;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Patient list and search row. Of the encrypted columns it carries only the
+ * names, so building it decrypts nothing else; the full record comes from
+ * GET /api/patients/{id}.
+ */
+public class PatientSummary {
+
+    private UUID id;
+    private String firstName;
+    private String lastName;
+    private String fullName;
+    private Integer birthYear;
+    private Integer age;
+    private String emergencyContact;
+    private String emergencyPhone;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    //constructors
+    public PatientSummary() {}
+
+    public PatientSummary(UUID id, String firstName, String lastName, Integer birthYear,
+                          String emergencyContact, String emergencyPhone,
+                          Boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.fullName = firstName + " " + lastName;
+        this.birthYear = birthYear;
+        this.age = birthYear != null ? LocalDate.now().getYear() - birthYear : null;
+        this.emergencyContact = emergencyContact;
+        this.emergencyPhone = emergencyPhone;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    public String getFirstName() {
+        return firstName;
+    }
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    public String getLastName() {
+        return lastName;
+    }
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    public String getFullName() {
+        return fullName;
+    }
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+    public Integer getBirthYear() {
+        return birthYear;
+    }
+    public void setBirthYear(Integer birthYear) {
+        this.birthYear = birthYear;
+    }
+    public Integer getAge() {
+        return age;
+    }
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+    public String getEmergencyContact() {
+        return emergencyContact;
+    }
+    public void setEmergencyContact(String emergencyContact) {
+        this.emergencyContact = emergencyContact;
+    }
+    public String getEmergencyPhone() {
+        return emergencyPhone;
+    }
+    public void setEmergencyPhone(String emergencyPhone) {
+        this.emergencyPhone = emergencyPhone;
+    }
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,118 @@
+package com.geriatriccare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated AI usage for one request type in one clock hour.
+ * Written by the hourly rollup job from ai_audit_logs so analytics
+ * never have to scan raw log rows for completed hours.
+ */
+@Entity
+@Table(name = "ai_usage_hourly_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_ai_rollup_bucket_type", columnNames = {"bucket_start", "request_type"}),
+    indexes = @Index(name = "idx_ai_rollup_bucket", columnList = "bucket_start"))
+public class AIUsageHourlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "request_type", nullable = false, length = 50)
+    private String requestType;
+
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "total_tokens", nullable = false)
+    private long totalTokens;
+
+    @Column(name = "response_time_sum_ms", nullable = false)
+    private long responseTimeSumMs;
+
+    @Column(name = "response_time_count", nullable = false)
+    private long responseTimeCount;
+
+    @Column(name = "max_response_time_ms")
+    private Long maxResponseTimeMs;
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getRequestType() {
+        return requestType;
+    }
+
+    public void setRequestType(String requestType) {
+        this.requestType = requestType;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(long successCount) {
+        this.successCount = successCount;
+    }
+
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+
+    public void setTotalTokens(long totalTokens) {
+        this.totalTokens = totalTokens;
+    }
+
+    public long getResponseTimeSumMs() {
+        return responseTimeSumMs;
+    }
+
+    public void setResponseTimeSumMs(long responseTimeSumMs) {
+        this.responseTimeSumMs = responseTimeSumMs;
+    }
+
+    public long getResponseTimeCount() {
+        return responseTimeCount;
+    }
+
+    public void setResponseTimeCount(long responseTimeCount) {
+        this.responseTimeCount = responseTimeCount;
+    }
+
+    public Long getMaxResponseTimeMs() {
+        return maxResponseTimeMs;
+    }
+
+    public void setMaxResponseTimeMs(Long maxResponseTimeMs) {
+        this.maxResponseTimeMs = maxResponseTimeMs;
+    }
+}
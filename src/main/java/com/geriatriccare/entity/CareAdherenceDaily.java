@@ -0,0 +1,137 @@
+package com.geriatriccare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Adherence counters for one patient, care task category and day, by the
+ * due date of the occurrences counted. Incremented as tasks are completed and
+ * as each day is closed by {@code AdherenceRollupService}, so adherence over
+ * any period is a sum of rows rather than a scan of completions.
+ */
+@Entity
+@Table(name = "care_adherence_daily",
+       uniqueConstraints = @UniqueConstraint(name = "uk_care_adherence_daily_patient_category_date",
+                                             columnNames = {"patient_id", "category", "due_date"}),
+       indexes = @Index(name = "idx_care_adherence_daily_date", columnList = "due_date"))
+public class CareAdherenceDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false, length = 50)
+    private CareTaskCategory category;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    /** Occurrences completed or missed; completed + missed */
+    @Column(name = "scheduled_count", nullable = false)
+    private int scheduledCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private int completedCount;
+
+    /** Completed after the grace period */
+    @Column(name = "late_count", nullable = false)
+    private int lateCount;
+
+    /** Still open when the day was closed, less those completed since */
+    @Column(name = "missed_count", nullable = false)
+    private int missedCount;
+
+    /** Missed occurrences have been counted */
+    @Column(name = "closed", nullable = false)
+    private boolean closed;
+
+    /** Incremented by every change to the counters */
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public CareTaskCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(CareTaskCategory category) {
+        this.category = category;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    public void setScheduledCount(int scheduledCount) {
+        this.scheduledCount = scheduledCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public int getLateCount() {
+        return lateCount;
+    }
+
+    public void setLateCount(int lateCount) {
+        this.lateCount = lateCount;
+    }
+
+    public int getMissedCount() {
+        return missedCount;
+    }
+
+    public void setMissedCount(int missedCount) {
+        this.missedCount = missedCount;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+}
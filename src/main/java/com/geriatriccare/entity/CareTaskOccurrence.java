@@ -0,0 +1,62 @@
+package com.geriatriccare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A completed occurrence of a care task. Occurrences are expanded from the
+ * task's frequency by {@code CareTaskScheduleService}; only completions are
+ * stored, one per task and due time.
+ */
+@Entity
+@Table(name = "care_task_occurrences",
+       uniqueConstraints = @UniqueConstraint(name = "uk_care_task_occurrences_task_due",
+                                             columnNames = {"care_task_id", "due_at"}),
+       indexes = @Index(name = "idx_care_task_occurrences_due", columnList = "due_at"))
+public class CareTaskOccurrence {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "care_task_id", nullable = false)
+    private UUID careTaskId;
+    
+    /** The scheduled time this completion satisfies; the completion time for an unscheduled one */
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+    
+    @Column(name = "completed_by")
+    private UUID completedBy;
+    
+    @Column(name = "completion_notes", columnDefinition = "TEXT")
+    private String completionNotes;
+    
+    @Column(name = "observations", columnDefinition = "TEXT")
+    private String observations;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public UUID getCareTaskId() { return careTaskId; }
+    public void setCareTaskId(UUID careTaskId) { this.careTaskId = careTaskId; }
+    
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    
+    public UUID getCompletedBy() { return completedBy; }
+    public void setCompletedBy(UUID completedBy) { this.completedBy = completedBy; }
+    
+    public String getCompletionNotes() { return completionNotes; }
+    public void setCompletionNotes(String completionNotes) { this.completionNotes = completionNotes; }
+    
+    public String getObservations() { return observations; }
+    public void setObservations(String observations) { this.observations = observations; }
+}
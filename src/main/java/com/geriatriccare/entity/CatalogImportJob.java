@@ -0,0 +1,131 @@
+package com.geriatriccare.entity;
+
+import com.geriatriccare.enums.CatalogType;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One bulk catalog import. {@code recordsRead} is the checkpoint: every
+ * record before it has been committed, so a resumed job skips that many.
+ */
+@Entity
+@Table(name = "catalog_import_jobs")
+public class CatalogImportJob {
+    
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "catalog_type", nullable = false, length = 20)
+    private CatalogType catalogType;
+    
+    @Column(name = "format", nullable = false, length = 10)
+    private String format;
+    
+    @Column(name = "source_name", length = 255)
+    private String sourceName;
+    
+    /** Spooled copy of the upload, kept until the import completes */
+    @Column(name = "source_path", length = 500)
+    private String sourcePath;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+    
+    @Column(name = "records_read", nullable = false)
+    private long recordsRead;
+    
+    @Column(name = "records_inserted", nullable = false)
+    private long recordsInserted;
+    
+    @Column(name = "records_updated", nullable = false)
+    private long recordsUpdated;
+    
+    @Column(name = "records_rejected", nullable = false)
+    private long recordsRejected;
+    
+    /** The first rejected records, one "record N: reason" per line */
+    @Column(name = "rejections", columnDefinition = "TEXT")
+    private String rejections;
+    
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+    
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+    
+    /** User id recorded on the audit events */
+    @Column(name = "created_by_id")
+    private UUID createdById;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public CatalogType getCatalogType() { return catalogType; }
+    public void setCatalogType(CatalogType catalogType) { this.catalogType = catalogType; }
+    
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+    
+    public String getSourceName() { return sourceName; }
+    public void setSourceName(String sourceName) { this.sourceName = sourceName; }
+    
+    public String getSourcePath() { return sourcePath; }
+    public void setSourcePath(String sourcePath) { this.sourcePath = sourcePath; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public long getRecordsRead() { return recordsRead; }
+    public void setRecordsRead(long recordsRead) { this.recordsRead = recordsRead; }
+    
+    public long getRecordsInserted() { return recordsInserted; }
+    public void setRecordsInserted(long recordsInserted) { this.recordsInserted = recordsInserted; }
+    
+    public long getRecordsUpdated() { return recordsUpdated; }
+    public void setRecordsUpdated(long recordsUpdated) { this.recordsUpdated = recordsUpdated; }
+    
+    public long getRecordsRejected() { return recordsRejected; }
+    public void setRecordsRejected(long recordsRejected) { this.recordsRejected = recordsRejected; }
+    
+    public String getRejections() { return rejections; }
+    public void setRejections(String rejections) { this.rejections = rejections; }
+    
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+    
+    public UUID getCreatedById() { return createdById; }
+    public void setCreatedById(UUID createdById) { this.createdById = createdById; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
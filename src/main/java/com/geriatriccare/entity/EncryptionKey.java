@@ -0,0 +1,80 @@
+package com.geriatriccare.entity;
+
+import com.geriatriccare.dto.security.EncryptionAlgorithm;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data encryption key, stored wrapped (AES-GCM) under the configured master key.
+ * The version is the key id embedded in every ciphertext envelope.
+ */
+@Entity
+@Table(name = "encryption_keys")
+public class EncryptionKey implements Persistable<Integer> {
+    
+    @Id
+    @Column(name = "key_version")
+    private Integer keyVersion;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "algorithm", nullable = false, length = 20)
+    private EncryptionAlgorithm algorithm;
+    
+    @Column(name = "wrapped_key", nullable = false, length = 255)
+    private String wrappedKey;
+    
+    @Column(name = "active", nullable = false)
+    private Boolean active;
+    
+    @Column(name = "description", length = 255)
+    private String description;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+    
+    /** New versions are always inserted, never merged over a key another instance created */
+    @Transient
+    private boolean newKey;
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newKey = false;
+    }
+    
+    public void markNew() {
+        this.newKey = true;
+    }
+    
+    @Override
+    public Integer getId() { return keyVersion; }
+    
+    @Override
+    public boolean isNew() { return newKey; }
+
+    public Integer getKeyVersion() { return keyVersion; }
+    public void setKeyVersion(Integer keyVersion) { this.keyVersion = keyVersion; }
+    
+    public EncryptionAlgorithm getAlgorithm() { return algorithm; }
+    public void setAlgorithm(EncryptionAlgorithm algorithm) { this.algorithm = algorithm; }
+    
+    public String getWrappedKey() { return wrappedKey; }
+    public void setWrappedKey(String wrappedKey) { this.wrappedKey = wrappedKey; }
+    
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getRotatedAt() { return rotatedAt; }
+    public void setRotatedAt(LocalDateTime rotatedAt) { this.rotatedAt = rotatedAt; }
+}
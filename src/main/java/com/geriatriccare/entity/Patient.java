@@ -1,5 +1,8 @@
 package com.geriatriccare.entity;
 
+import com.geriatriccare.util.encryption.LazyDateEncryptionConverter;
+import com.geriatriccare.util.encryption.LazyDecrypted;
+import com.geriatriccare.util.encryption.LazyStringEncryptionConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,35 +14,55 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients",
+    indexes = @Index(name = "idx_patients_birth_year", columnList = "birth_year"))
 public class Patient {
     
+    /**
+     * PHI columns stored encrypted (see PatientSearchIndexService for searching them).
+     * The database cannot sort or compare these. They are decrypted only when their
+     * getter is first called; see {@link #getMaterializedPhiFields()}.
+     */
+    public static final Set<String> ENCRYPTED_FIELDS =
+            Set.of("firstName", "lastName", "dateOfBirth", "medicalConditions");
+    
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     
     @NotBlank(message = "First name is required")
     @Size(max = 255, message = "First name must not exceed 255 characters")
-    @Column(name = "first_name", nullable = false)
-    private String firstName;
+    @Convert(converter = LazyStringEncryptionConverter.class)
+    @Column(name = "first_name", nullable = false, length = 512)
+    private LazyDecrypted<String> firstName;
     
     @NotBlank(message = "Last name is required")
     @Size(max = 255, message = "Last name must not exceed 255 characters")
-    @Column(name = "last_name", nullable = false)
-    private String lastName;
+    @Convert(converter = LazyStringEncryptionConverter.class)
+    @Column(name = "last_name", nullable = false, length = 512)
+    private LazyDecrypted<String> lastName;
     
     @NotNull(message = "Date of birth is required")
     @Past(message = "Date of birth must be in the past")
-    @Column(name = "date_of_birth", nullable = false)
-    private LocalDate dateOfBirth;
+    @Convert(converter = LazyDateEncryptionConverter.class)
+    @Column(name = "date_of_birth", nullable = false, length = 128)
+    private LazyDecrypted<LocalDate> dateOfBirth;
+    
+    /** Plaintext birth year kept alongside the encrypted date for age range queries */
+    @Column(name = "birth_year")
+    private Integer birthYear;
     
+    @Convert(converter = LazyStringEncryptionConverter.class)
     @Column(name = "medical_conditions", columnDefinition = "TEXT")
-    private String medicalConditions;
+    private LazyDecrypted<String> medicalConditions;
     
     @Size(max = 255, message = "Emergency contact name must not exceed 255 characters")
     @Column(name = "emergency_contact")
@@ -49,6 +72,10 @@ public class Patient {
     @Column(name = "emergency_phone")
     private String emergencyPhone;
     
+    // The patient's own login, if they have one (PATIENT role)
+    @Column(name = "user_id", unique = true)
+    private UUID userId;
+    
     // Many-to-Many relationship with caregivers through junction table
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PatientCaregiver> patientCaregivers = new ArrayList<>();
@@ -72,13 +99,17 @@ public class Patient {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
     
+    /** Encrypted fields decrypted through a getter on this instance, for PHI access auditing */
+    @Transient
+    private final Set<String> materializedPhiFields = ConcurrentHashMap.newKeySet();
+    
     // Constructors
     public Patient() {}
     
     public Patient(String firstName, String lastName, LocalDate dateOfBirth) {
-        this.firstName = firstName;
-        this.lastName = lastName;
-        this.dateOfBirth = dateOfBirth;
+        setFirstName(firstName);
+        setLastName(lastName);
+        setDateOfBirth(dateOfBirth);
     }
     
     // Getters and Setters
@@ -91,35 +122,57 @@ public class Patient {
     }
     
     public String getFirstName() {
-        return firstName;
+        return reveal("firstName", firstName);
     }
     
     public void setFirstName(String firstName) {
-        this.firstName = firstName;
+        this.firstName = LazyDecrypted.of(firstName);
     }
     
     public String getLastName() {
-        return lastName;
+        return reveal("lastName", lastName);
     }
     
     public void setLastName(String lastName) {
-        this.lastName = lastName;
+        this.lastName = LazyDecrypted.of(lastName);
     }
     
     public LocalDate getDateOfBirth() {
-        return dateOfBirth;
+        return reveal("dateOfBirth", dateOfBirth);
     }
     
     public void setDateOfBirth(LocalDate dateOfBirth) {
-        this.dateOfBirth = dateOfBirth;
+        this.dateOfBirth = LazyDecrypted.of(dateOfBirth);
+        this.birthYear = dateOfBirth != null ? dateOfBirth.getYear() : null;
+    }
+    
+    public Integer getBirthYear() {
+        return birthYear;
     }
     
     public String getMedicalConditions() {
-        return medicalConditions;
+        return reveal("medicalConditions", medicalConditions);
     }
     
     public void setMedicalConditions(String medicalConditions) {
-        this.medicalConditions = medicalConditions;
+        this.medicalConditions = LazyDecrypted.of(medicalConditions);
+    }
+    
+    /**
+     * Stored PHI fields whose plaintext has been read on this instance.
+     */
+    public Set<String> getMaterializedPhiFields() {
+        return Collections.unmodifiableSet(materializedPhiFields);
+    }
+    
+    private <T> T reveal(String field, LazyDecrypted<T> value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isStored()) {
+            materializedPhiFields.add(field);
+        }
+        return value.get();
     }
     
     public String getEmergencyContact() {
@@ -138,6 +191,14 @@ public class Patient {
         this.emergencyPhone = emergencyPhone;
     }
     
+    public UUID getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+    
     public List<PatientCaregiver> getPatientCaregivers() {
         return patientCaregivers;
     }
@@ -253,7 +314,7 @@ public class Patient {
     
     // General helper methods
     public String getFullName() {
-        return firstName + " " + lastName;
+        return getFirstName() + " " + getLastName();
     }
     
     public void addCarePlan(CarePlan carePlan) {
@@ -267,7 +328,9 @@ public class Patient {
     }
     
     public int getAge() {
-        return LocalDate.now().getYear() - dateOfBirth.getYear();
+        // Plaintext birth year, so the age needs no decryption
+        int year = birthYear != null ? birthYear : getDateOfBirth().getYear();
+        return LocalDate.now().getYear() - year;
     }
     
     @Override
@@ -0,0 +1,53 @@
+package com.geriatriccare.entity;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+/**
+ * Blind index entry for an encrypted patient field: a truncated keyed HMAC of
+ * one word (exact) or one trigram of a word, never the plaintext itself.
+ */
+@Entity
+@Table(name = "patient_search_tokens",
+    indexes = {
+        @Index(name = "idx_patient_token_lookup", columnList = "token, field"),
+        @Index(name = "idx_patient_token_patient", columnList = "patient_id")
+    })
+public class PatientSearchToken {
+    
+    public enum Field { FIRST_NAME, LAST_NAME, MEDICAL_CONDITIONS }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "field", nullable = false, length = 32)
+    private Field field;
+    
+    @Column(name = "token", nullable = false, length = 32)
+    private String token;
+    
+    public PatientSearchToken() {}
+    
+    public PatientSearchToken(UUID patientId, Field field, String token) {
+        this.patientId = patientId;
+        this.field = field;
+        this.token = token;
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public UUID getPatientId() { return patientId; }
+    public void setPatientId(UUID patientId) { this.patientId = patientId; }
+    
+    public Field getField() { return field; }
+    public void setField(Field field) { this.field = field; }
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+}
@@ -0,0 +1,63 @@
+package com.geriatriccare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the background re-encryption of one encrypted column,
+ * so the job resumes after the last processed id following a restart.
+ */
+@Entity
+@Table(name = "reencryption_checkpoints")
+public class ReEncryptionCheckpoint {
+    
+    /** "table.column" */
+    @Id
+    @Column(name = "column_key", length = 150)
+    private String columnKey;
+    
+    @Column(name = "target_key_version", nullable = false)
+    private Integer targetKeyVersion;
+    
+    @Column(name = "last_id", length = 64)
+    private String lastId;
+    
+    @Column(name = "rows_scanned", nullable = false)
+    private long rowsScanned;
+    
+    @Column(name = "rows_reencrypted", nullable = false)
+    private long rowsReEncrypted;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public String getColumnKey() { return columnKey; }
+    public void setColumnKey(String columnKey) { this.columnKey = columnKey; }
+    
+    public Integer getTargetKeyVersion() { return targetKeyVersion; }
+    public void setTargetKeyVersion(Integer targetKeyVersion) { this.targetKeyVersion = targetKeyVersion; }
+    
+    public String getLastId() { return lastId; }
+    public void setLastId(String lastId) { this.lastId = lastId; }
+    
+    public long getRowsScanned() { return rowsScanned; }
+    public void setRowsScanned(long rowsScanned) { this.rowsScanned = rowsScanned; }
+    
+    public long getRowsReEncrypted() { return rowsReEncrypted; }
+    public void setRowsReEncrypted(long rowsReEncrypted) { this.rowsReEncrypted = rowsReEncrypted; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
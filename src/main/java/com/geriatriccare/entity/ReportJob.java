@@ -0,0 +1,145 @@
+package com.geriatriccare.entity;
+
+import com.geriatriccare.enums.ReportFormat;
+import com.geriatriccare.enums.ReportType;
+import com.geriatriccare.enums.TimePeriod;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One asynchronous report request. {@code cacheKey} identifies the result:
+ * a later job with the same key while the patient's data is unchanged
+ * reuses it instead of generating again.
+ */
+@Entity
+@Table(name = "report_jobs")
+public class ReportJob {
+    
+    public enum Kind { ADHERENCE, MEDICATION_ADHERENCE }
+    
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 30)
+    private Kind kind;
+    
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+    
+    @Column(name = "medication_id")
+    private UUID medicationId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false, length = 30)
+    private ReportType reportType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_period", nullable = false, length = 20)
+    private TimePeriod timePeriod;
+    
+    /** Only for a CUSTOM period */
+    @Column(name = "start_date")
+    private LocalDateTime startDate;
+    
+    @Column(name = "end_date")
+    private LocalDateTime endDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private ReportFormat format;
+    
+    /** Task details for adherence reports, pattern detection for medication reports */
+    @Column(name = "include_details", nullable = false)
+    private boolean includeDetails;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+    
+    @Column(name = "cache_key", length = 300)
+    private String cacheKey;
+    
+    @Column(name = "report_id")
+    private UUID reportId;
+    
+    /** Completed from a cached result of an earlier job */
+    @Column(name = "reused", nullable = false)
+    private boolean reused;
+    
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+    
+    @Column(name = "created_by")
+    private UUID createdBy;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+    
+    public UUID getPatientId() { return patientId; }
+    public void setPatientId(UUID patientId) { this.patientId = patientId; }
+    
+    public UUID getMedicationId() { return medicationId; }
+    public void setMedicationId(UUID medicationId) { this.medicationId = medicationId; }
+    
+    public ReportType getReportType() { return reportType; }
+    public void setReportType(ReportType reportType) { this.reportType = reportType; }
+    
+    public TimePeriod getTimePeriod() { return timePeriod; }
+    public void setTimePeriod(TimePeriod timePeriod) { this.timePeriod = timePeriod; }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+    
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+    
+    public ReportFormat getFormat() { return format; }
+    public void setFormat(ReportFormat format) { this.format = format; }
+    
+    public boolean isIncludeDetails() { return includeDetails; }
+    public void setIncludeDetails(boolean includeDetails) { this.includeDetails = includeDetails; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+    
+    public UUID getReportId() { return reportId; }
+    public void setReportId(UUID reportId) { this.reportId = reportId; }
+    
+    public boolean isReused() { return reused; }
+    public void setReused(boolean reused) { this.reused = reused; }
+    
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    
+    public UUID getCreatedBy() { return createdBy; }
+    public void setCreatedBy(UUID createdBy) { this.createdBy = createdBy; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,84 @@
+package com.geriatriccare.entity;
+
+import com.geriatriccare.dto.security.MFAMethod;
+import com.geriatriccare.dto.security.MFAStatus;
+import com.geriatriccare.util.encryption.StringEncryptionConverter;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A user's MFA enrollment. The TOTP secret is encrypted; backup codes are
+ * kept only as keyed hashes and removed once used.
+ */
+@Entity
+@Table(name = "user_mfa_configs")
+public class UserMfaConfig {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    /** The authenticated principal name, as used by the MFA endpoints */
+    @Column(name = "user_id", nullable = false, unique = true, length = 100)
+    private String userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "method", nullable = false, length = 20)
+    private MFAMethod method;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    private MFAStatus status;
+    
+    @Column(name = "phone_number", length = 30)
+    private String phoneNumber;
+    
+    @Column(name = "email", length = 255)
+    private String email;
+    
+    /** Base32 TOTP secret */
+    @Convert(converter = StringEncryptionConverter.class)
+    @Column(name = "secret_key", length = 512)
+    private String secretKey;
+    
+    /** Keyed hashes of the unused backup codes, comma separated (compared in a conditional update) */
+    @Column(name = "backup_code_hashes", length = 1024)
+    private String backupCodeHashes;
+    
+    @Column(name = "setup_date", nullable = false)
+    private LocalDateTime setupDate;
+    
+    @Column(name = "last_verified")
+    private LocalDateTime lastVerified;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    
+    public MFAMethod getMethod() { return method; }
+    public void setMethod(MFAMethod method) { this.method = method; }
+    
+    public MFAStatus getStatus() { return status; }
+    public void setStatus(MFAStatus status) { this.status = status; }
+    
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getSecretKey() { return secretKey; }
+    public void setSecretKey(String secretKey) { this.secretKey = secretKey; }
+    
+    public String getBackupCodeHashes() { return backupCodeHashes; }
+    public void setBackupCodeHashes(String backupCodeHashes) { this.backupCodeHashes = backupCodeHashes; }
+    
+    public LocalDateTime getSetupDate() { return setupDate; }
+    public void setSetupDate(LocalDateTime setupDate) { this.setupDate = setupDate; }
+    
+    public LocalDateTime getLastVerified() { return lastVerified; }
+    public void setLastVerified(LocalDateTime lastVerified) { this.lastVerified = lastVerified; }
+}
@@ -0,0 +1,94 @@
+package com.geriatriccare.entity;
+
+import com.geriatriccare.dto.security.SessionStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A login session as persisted by {@code JpaSessionStore}. The id is the
+ * session id handed to the client, so it is assigned, not generated.
+ */
+@Entity
+@Table(name = "user_sessions",
+    indexes = {
+        @Index(name = "idx_user_sessions_expiry", columnList = "status, expires_at"),
+        @Index(name = "idx_user_sessions_activity", columnList = "status, last_activity_at"),
+        @Index(name = "idx_user_sessions_user", columnList = "user_id")
+    })
+public class UserSessionRecord {
+    
+    @Id
+    @Column(name = "session_id")
+    private UUID sessionId;
+    
+    @Column(name = "user_id", nullable = false, length = 100)
+    private String userId;
+    
+    @Column(name = "username", length = 100)
+    private String username;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private SessionStatus status;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+    
+    @Column(name = "user_agent", length = 500)
+    private String userAgent;
+    
+    @Column(name = "device_type", length = 20)
+    private String deviceType;
+    
+    @Column(name = "location", length = 255)
+    private String location;
+    
+    @Column(name = "remember_me", nullable = false)
+    private boolean rememberMe;
+
+    public UUID getSessionId() { return sessionId; }
+    public void setSessionId(UUID sessionId) { this.sessionId = sessionId; }
+    
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public SessionStatus getStatus() { return status; }
+    public void setStatus(SessionStatus status) { this.status = status; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getLastActivityAt() { return lastActivityAt; }
+    public void setLastActivityAt(LocalDateTime lastActivityAt) { this.lastActivityAt = lastActivityAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public String getIpAddress() { return ipAddress; }
+    public void setIpAddress(String ipAddress) { this.ipAddress = ipAddress; }
+    
+    public String getUserAgent() { return userAgent; }
+    public void setUserAgent(String userAgent) { this.userAgent = userAgent; }
+    
+    public String getDeviceType() { return deviceType; }
+    public void setDeviceType(String deviceType) { this.deviceType = deviceType; }
+    
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    
+    public boolean isRememberMe() { return rememberMe; }
+    public void setRememberMe(boolean rememberMe) { this.rememberMe = rememberMe; }
+}
@@ -0,0 +1,10 @@
+package com.geriatriccare.enums;
+
+/**
+ * Medical reference catalogs that support search, typeahead and bulk import.
+ */
+public enum CatalogType {
+    DIAGNOSIS,
+    PROCEDURE,
+    DRUG
+}
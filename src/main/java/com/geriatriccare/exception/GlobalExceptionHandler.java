@@ -1,5 +1,8 @@
 package com.geriatriccare.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -46,4 +49,17 @@ public class GlobalExceptionHandler {
         body.put("timestamp", LocalDateTime.now().toString());
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
     }
+
+    // A bounded pool or bulkhead is full (password hashing, logins, imports); the request was refused
+    @ExceptionHandler({BulkheadFullException.class, TaskRejectedException.class})
+    public ResponseEntity<Map<String, Object>> handleOverload(RuntimeException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 503);
+        body.put("error", "Service Unavailable");
+        body.put("message", "Server busy, please retry");
+        body.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(body);
+    }
 }
@@ -3,6 +3,7 @@ package com.geriatriccare.repository;
 import com.geriatriccare.entity.AIAuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -29,6 +30,8 @@ public interface AIAuditLogRepository extends JpaRepository<AIAuditLog, UUID> {
     // Top N queries
     List<AIAuditLog> findTop10ByOrderByTimestampDesc();
     
+    List<AIAuditLog> findTop10BySuccessFalseAndTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
+    
     // Failure queries
     @Query("SELECT al FROM AIAuditLog al WHERE al.success = false ORDER BY al.timestamp DESC")
     List<AIAuditLog> findFailedRequests();
@@ -39,4 +42,18 @@ public interface AIAuditLogRepository extends JpaRepository<AIAuditLog, UUID> {
     
     @Query("SELECT SUM(al.tokensUsed) FROM AIAuditLog al")
     Long getTotalTokensUsed();
-}
\ No newline at end of file
+    
+    // Aggregation queries (hourly rollups and analytics over un-rolled ranges)
+    @Query("SELECT MIN(al.timestamp) FROM AIAuditLog al")
+    LocalDateTime findEarliestTimestamp();
+    
+    /**
+     * Per request type: requests, successes, tokens, response time sum, response time samples, max response time
+     */
+    @Query("SELECT al.requestType, COUNT(al), SUM(CASE WHEN al.success = true THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(al.tokensUsed), 0), COALESCE(SUM(al.responseTimeMs), 0), " +
+           "COUNT(al.responseTimeMs), MAX(al.responseTimeMs) " +
+           "FROM AIAuditLog al WHERE al.timestamp >= :start AND al.timestamp < :end " +
+           "GROUP BY al.requestType")
+    List<Object[]> aggregateByRequestType(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,28 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.AIUsageHourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AIUsageHourlyRollupRepository extends JpaRepository<AIUsageHourlyRollup, UUID> {
+
+    @Query("SELECT MAX(r.bucketStart) FROM AIUsageHourlyRollup r")
+    LocalDateTime findLatestBucketStart();
+
+    /**
+     * Per request type: requests, successes, tokens, response time sum, response time samples, max response time
+     */
+    @Query("SELECT r.requestType, SUM(r.requestCount), SUM(r.successCount), SUM(r.totalTokens), " +
+           "SUM(r.responseTimeSumMs), SUM(r.responseTimeCount), MAX(r.maxResponseTimeMs) " +
+           "FROM AIUsageHourlyRollup r " +
+           "WHERE r.bucketStart >= :start AND r.bucketStart < :end AND r.requestCount > 0 " +
+           "GROUP BY r.requestType")
+    List<Object[]> sumByRequestType(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
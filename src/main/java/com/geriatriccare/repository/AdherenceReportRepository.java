@@ -34,6 +34,9 @@ public interface AdherenceReportRepository extends JpaRepository<AdherenceReport
     @Query("SELECT r FROM AdherenceReport r WHERE r.expiresAt < :now")
     List<AdherenceReport> findExpiredReports(@Param("now") LocalDateTime now);
 
+    @Query("SELECT r.id FROM AdherenceReport r WHERE r.expiresAt < :now")
+    List<UUID> findIdsExpiredBefore(@Param("now") LocalDateTime now, Pageable pageable);
+
     @Query("SELECT COUNT(r) FROM AdherenceReport r WHERE r.patientId = :patientId")
     long countByPatientId(@Param("patientId") UUID patientId);
 
@@ -0,0 +1,103 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.CareAdherenceDaily;
+import com.geriatriccare.entity.CareTaskCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CareAdherenceDailyRepository extends JpaRepository<CareAdherenceDaily, UUID> {
+
+    boolean existsByPatientIdAndCategoryAndDueDate(UUID patientId, CareTaskCategory category, LocalDate dueDate);
+
+    /**
+     * Count a completion; one already counted as missed is moved to completed,
+     * anything else adds to scheduled. Every SET reads the row as it was.
+     */
+    @Modifying
+    @Query("UPDATE CareAdherenceDaily r SET r.completedCount = r.completedCount + 1, r.revision = r.revision + 1, " +
+           "r.lateCount = r.lateCount + :late, " +
+           "r.missedCount = r.missedCount - (CASE WHEN r.missedCount > 0 THEN 1 ELSE 0 END), " +
+           "r.scheduledCount = r.scheduledCount + (CASE WHEN r.missedCount > 0 THEN 0 ELSE 1 END) " +
+           "WHERE r.patientId = :patientId AND r.category = :category AND r.dueDate = :dueDate")
+    int addCompletion(@Param("patientId") UUID patientId, @Param("category") CareTaskCategory category,
+                      @Param("dueDate") LocalDate dueDate, @Param("late") int late);
+
+    /**
+     * Count the occurrences still open when the day is closed, once per row.
+     */
+    @Modifying
+    @Query("UPDATE CareAdherenceDaily r SET r.missedCount = r.missedCount + :missed, " +
+           "r.scheduledCount = r.scheduledCount + :missed, r.closed = true, r.revision = r.revision + 1 " +
+           "WHERE r.patientId = :patientId AND r.category = :category AND r.dueDate = :dueDate " +
+           "AND r.closed = false")
+    int addMissed(@Param("patientId") UUID patientId, @Param("category") CareTaskCategory category,
+                  @Param("dueDate") LocalDate dueDate, @Param("missed") int missed);
+
+    /**
+     * Per category: scheduled, completed, late, missed
+     */
+    @Query("SELECT r.category, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.patientId = :patientId AND r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.category")
+    List<Object[]> sumByCategory(@Param("patientId") UUID patientId,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Per category over every patient: scheduled, completed, late, missed
+     */
+    @Query("SELECT r.category, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.category")
+    List<Object[]> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Per day, earliest first: scheduled, completed, late, missed
+     */
+    @Query("SELECT r.dueDate, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.patientId = :patientId AND r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.dueDate ORDER BY r.dueDate")
+    List<Object[]> sumByDay(@Param("patientId") UUID patientId,
+                            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.dueDate, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.patientId = :patientId AND r.category = :category " +
+           "AND r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.dueDate ORDER BY r.dueDate")
+    List<Object[]> sumByDay(@Param("patientId") UUID patientId, @Param("category") CareTaskCategory category,
+                            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Per patient: scheduled, completed, late, missed
+     */
+    @Query("SELECT r.patientId, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.patientId")
+    List<Object[]> sumByPatient(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.patientId, SUM(r.scheduledCount), SUM(r.completedCount), SUM(r.lateCount), SUM(r.missedCount) " +
+           "FROM CareAdherenceDaily r WHERE r.category = :category AND r.dueDate >= :from AND r.dueDate <= :to " +
+           "GROUP BY r.patientId")
+    List<Object[]> sumByPatient(@Param("category") CareTaskCategory category,
+                                @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sum of row revisions, which grows with every change to the counters summed
+     */
+    @Query("SELECT COALESCE(SUM(r.revision), 0) FROM CareAdherenceDaily r " +
+           "WHERE r.patientId = :patientId AND r.dueDate >= :from AND r.dueDate <= :to")
+    long sumRevisions(@Param("patientId") UUID patientId,
+                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(r.revision), 0) FROM CareAdherenceDaily r " +
+           "WHERE r.patientId = :patientId AND r.category = :category AND r.dueDate >= :from AND r.dueDate <= :to")
+    long sumRevisions(@Param("patientId") UUID patientId, @Param("category") CareTaskCategory category,
+                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
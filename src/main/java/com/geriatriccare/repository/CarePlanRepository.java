@@ -4,6 +4,7 @@ import com.geriatriccare.entity.CarePlan;
 import com.geriatriccare.entity.CarePlanStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,18 +12,28 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * The list queries fetch the patient, creator and assigned caregiver that
+ * {@code CarePlanResponse} includes in the same select, so a page costs one
+ * select plus its count instead of up to three lazy loads per plan.
+ */
 @Repository
 public interface CarePlanRepository extends JpaRepository<CarePlan, UUID> {
     
     Optional<CarePlan> findByIdAndIsActiveTrue(UUID id);
     
+    @EntityGraph(attributePaths = {"patient", "createdBy", "assignedCaregiver"})
     Page<CarePlan> findByIsActiveTrue(Pageable pageable);
     
+    @EntityGraph(attributePaths = {"patient", "createdBy", "assignedCaregiver"})
     Page<CarePlan> findByPatientIdAndIsActiveTrue(UUID patientId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"patient", "createdBy", "assignedCaregiver"})
     Page<CarePlan> findByStatusAndIsActiveTrue(CarePlanStatus status, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"patient", "createdBy", "assignedCaregiver"})
     Page<CarePlan> findByPatientIdAndStatusAndIsActiveTrue(UUID patientId, CarePlanStatus status, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"patient", "createdBy", "assignedCaregiver"})
     List<CarePlan> findByAssignedCaregiverAndIsActiveTrue(com.geriatriccare.entity.User assignedCaregiver);
-}
\ No newline at end of file
+}
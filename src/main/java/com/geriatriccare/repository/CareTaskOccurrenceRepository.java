@@ -0,0 +1,27 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.CareTaskOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CareTaskOccurrenceRepository extends JpaRepository<CareTaskOccurrence, UUID> {
+    
+    // Task id and due time of each completion due in [from, to), for the schedule index
+    @Query("SELECT o.careTaskId, o.dueAt FROM CareTaskOccurrence o WHERE o.dueAt >= :from AND o.dueAt < :to")
+    List<Object[]> findCompletedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT o.careTaskId, o.dueAt FROM CareTaskOccurrence o WHERE o.careTaskId IN :taskIds AND o.dueAt >= :from")
+    List<Object[]> findCompletedSince(@Param("taskIds") Collection<UUID> taskIds, @Param("from") LocalDateTime from);
+    
+    // Latest completion per task
+    @Query("SELECT o.careTaskId, MAX(o.completedAt) FROM CareTaskOccurrence o GROUP BY o.careTaskId")
+    List<Object[]> findLastCompletions();
+}
@@ -5,11 +5,13 @@ import com.geriatriccare.entity.CareTaskCategory;
 import com.geriatriccare.entity.CareTaskPriority;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -45,4 +47,36 @@ public interface CareTaskRepository extends JpaRepository<CareTask, UUID> {
     
     // Find tasks by care plan and priority
     List<CareTask> findByCarePlanIdAndPriorityAndIsActiveTrue(UUID carePlanId, CareTaskPriority priority);
-}
\ No newline at end of file
+    
+    // Tasks by id with their care plan, for lists built from the schedule index
+    @EntityGraph(attributePaths = {"carePlan"})
+    List<CareTask> findByIdInAndIsActiveTrue(Collection<UUID> ids);
+    
+    // Active tasks of a category on a patient's active care plans
+    @Query("SELECT COUNT(ct) FROM CareTask ct WHERE ct.carePlan.patient.id = :patientId " +
+           "AND ct.category = :category AND ct.isActive = true AND ct.carePlan.isActive = true")
+    long countActiveByPatientAndCategory(@Param("patientId") UUID patientId,
+                                         @Param("category") CareTaskCategory category);
+    
+    // Ids of every task of a care plan, active or not
+    @Query("SELECT ct.id FROM CareTask ct WHERE ct.carePlan.id = :carePlanId")
+    List<UUID> findIdsByCarePlanId(@Param("carePlanId") UUID carePlanId);
+    
+    // Schedule of each task that has occurrences: task id, care plan id, patient id, assigned
+    // caregiver id, frequency, scheduled time, plan start date, plan end date, priority, task name, category
+    @Query("SELECT ct.id, cp.id, cp.patient.id, caregiver.id, ct.frequency, ct.scheduledTime, " +
+           "cp.startDate, cp.endDate, ct.priority, ct.taskName, ct.category " +
+           "FROM CareTask ct JOIN ct.carePlan cp LEFT JOIN cp.assignedCaregiver caregiver " +
+           "WHERE ct.isActive = true AND cp.isActive = true " +
+           "AND cp.status = com.geriatriccare.entity.CarePlanStatus.ACTIVE " +
+           "AND ct.frequency <> com.geriatriccare.entity.CareTaskFrequency.AS_NEEDED")
+    List<Object[]> findScheduleRows();
+    
+    @Query("SELECT ct.id, cp.id, cp.patient.id, caregiver.id, ct.frequency, ct.scheduledTime, " +
+           "cp.startDate, cp.endDate, ct.priority, ct.taskName, ct.category " +
+           "FROM CareTask ct JOIN ct.carePlan cp LEFT JOIN cp.assignedCaregiver caregiver " +
+           "WHERE ct.id IN :ids AND ct.isActive = true AND cp.isActive = true " +
+           "AND cp.status = com.geriatriccare.entity.CarePlanStatus.ACTIVE " +
+           "AND ct.frequency <> com.geriatriccare.entity.CareTaskFrequency.AS_NEEDED")
+    List<Object[]> findScheduleRows(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,15 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.CatalogImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CatalogImportJobRepository extends JpaRepository<CatalogImportJob, UUID> {
+    
+    List<CatalogImportJob> findByStatusIn(Collection<CatalogImportJob.Status> statuses);
+}
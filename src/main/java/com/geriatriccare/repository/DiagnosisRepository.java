@@ -25,6 +25,8 @@ public interface DiagnosisRepository extends JpaRepository<Diagnosis, UUID> {
     
     @Query("SELECT d FROM Diagnosis d WHERE d.isActive = true")
     List<Diagnosis> findAllActive();
+
+    long countByIsActiveTrue();
     
     @Query("SELECT d FROM Diagnosis d WHERE " +
            "LOWER(d.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -25,6 +25,8 @@ public interface DrugCatalogRepository extends JpaRepository<DrugCatalog, UUID>
     
     @Query("SELECT d FROM DrugCatalog d WHERE d.isActive = true")
     List<DrugCatalog> findAllActive();
+
+    long countByIsActiveTrue();
     
     @Query("SELECT d FROM DrugCatalog d WHERE " +
            "LOWER(d.genericName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
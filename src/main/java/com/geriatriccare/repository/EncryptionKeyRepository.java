@@ -0,0 +1,13 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.EncryptionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EncryptionKeyRepository extends JpaRepository<EncryptionKey, Integer> {
+    
+    List<EncryptionKey> findAllByOrderByKeyVersionAsc();
+}
@@ -23,6 +23,8 @@ public interface MedicalSpecialtyRepository extends JpaRepository<MedicalSpecial
     
     @Query("SELECT s FROM MedicalSpecialty s WHERE s.isActive = true")
     List<MedicalSpecialty> findAllActive();
+
+    long countByIsActiveTrue();
     
     List<MedicalSpecialty> findByParentSpecialty(MedicalSpecialty parentSpecialty);
     
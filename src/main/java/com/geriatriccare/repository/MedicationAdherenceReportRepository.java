@@ -36,6 +36,9 @@ public interface MedicationAdherenceReportRepository extends JpaRepository<Medic
     @Query("SELECT r FROM MedicationAdherenceReport r WHERE r.expiresAt < :now")
     List<MedicationAdherenceReport> findExpiredReports(@Param("now") LocalDateTime now);
 
+    @Query("SELECT r.id FROM MedicationAdherenceReport r WHERE r.expiresAt < :now")
+    List<UUID> findIdsExpiredBefore(@Param("now") LocalDateTime now, Pageable pageable);
+
     @Query("SELECT COUNT(r) FROM MedicationAdherenceReport r WHERE r.patientId = :patientId")
     long countByPatientId(@Param("patientId") UUID patientId);
 
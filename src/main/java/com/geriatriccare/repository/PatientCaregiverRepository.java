@@ -64,4 +64,8 @@ public interface PatientCaregiverRepository extends JpaRepository<PatientCaregiv
     // Find caregivers by patient
     @Query("SELECT DISTINCT pc.caregiver FROM PatientCaregiver pc WHERE pc.patient = :patient AND pc.isActive = true")
     List<User> findCaregiversByPatient(@Param("patient") Patient patient);
-}
\ No newline at end of file
+    
+    // (caregiverId, patientId) of every active assignment, for the patient access index
+    @Query("SELECT pc.caregiverId, pc.patientId FROM PatientCaregiver pc WHERE pc.isActive = true")
+    List<Object[]> findActiveAssignmentIds();
+}
@@ -66,4 +66,8 @@ public interface PatientFamilyMemberRepository extends JpaRepository<PatientFami
     @Query("SELECT p FROM Patient p WHERE p.isActive = true AND " +
            "NOT EXISTS (SELECT pfm FROM PatientFamilyMember pfm WHERE pfm.patient = p AND pfm.isActive = true)")
     List<Patient> findPatientsWithoutFamilyMembers();
-}
\ No newline at end of file
+    
+    // (familyMemberId, patientId) of every active assignment, for the patient access index
+    @Query("SELECT pfm.familyMember.id, pfm.patient.id FROM PatientFamilyMember pfm WHERE pfm.isActive = true")
+    List<Object[]> findActiveAssignmentIds();
+}
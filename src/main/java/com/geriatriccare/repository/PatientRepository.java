@@ -7,7 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,25 +16,30 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
     Optional<Patient> findByIdAndIsActiveTrue(UUID id);
 
-    List<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseAndIsActiveTrue(
-        String firstName, String lastName);
-
-    List<Patient> findByDateOfBirthBetweenAndIsActiveTrue(LocalDate startDate, LocalDate endDate);
+    List<Patient> findByIdInAndIsActiveTrue(Collection<UUID> ids);
 
     Page<Patient> findByIsActiveTrue(Pageable pageable);
 
     long countByIsActiveTrue();
 
-    List<Patient> findByMedicalConditionsContainingIgnoreCaseAndIsActiveTrue(String condition);
-    
-    // Add these missing methods that PatientService calls:
-    //List<Patient> findByNameContainingIgnoreCase(String name);
+    // Name, date of birth and condition columns are encrypted; search them through
+    // PatientSearchIndexService, and ages through the plaintext birth year.
     
-    @Query("SELECT p FROM Patient p WHERE YEAR(CURRENT_DATE) - YEAR(p.dateOfBirth) BETWEEN :minAge AND :maxAge AND p.isActive = true")
+    @Query("SELECT p FROM Patient p WHERE YEAR(CURRENT_DATE) - p.birthYear BETWEEN :minAge AND :maxAge AND p.isActive = true")
     List<Patient> findByAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
     
-    List<Patient> findByMedicalConditionsContaining(String condition);
+    @Query("SELECT AVG(YEAR(CURRENT_DATE) - p.birthYear) FROM Patient p WHERE p.birthYear IS NOT NULL")
+    Double averageAge();
+    
+    @Query("SELECT p FROM Patient p WHERE NOT EXISTS (SELECT t FROM PatientSearchToken t WHERE t.patientId = p.id)")
+    List<Patient> findUnindexed();
     
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.isActive = true")
     long countActivePatients();
+    
+    // (userId, patientId) of every patient linked to a login, for the patient access index
+    @Query("SELECT p.userId, p.id FROM Patient p WHERE p.userId IS NOT NULL")
+    List<Object[]> findUserLinks();
+    
+    Optional<Patient> findByUserId(UUID userId);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.PatientSearchToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PatientSearchTokenRepository extends JpaRepository<PatientSearchToken, UUID> {
+    
+    @Modifying
+    @Query("DELETE FROM PatientSearchToken t WHERE t.patientId = :patientId")
+    void deleteByPatientId(@Param("patientId") UUID patientId);
+    
+    /**
+     * Patients with at least {@code required} distinct tokens from {@code tokens}
+     * in a single one of {@code fields}.
+     */
+    @Query("SELECT DISTINCT t.patientId FROM PatientSearchToken t " +
+           "WHERE t.field IN :fields AND t.token IN :tokens " +
+           "GROUP BY t.patientId, t.field HAVING COUNT(DISTINCT t.token) >= :required")
+    List<UUID> findPatientIdsWithTokens(@Param("fields") Collection<PatientSearchToken.Field> fields,
+                                        @Param("tokens") Collection<String> tokens,
+                                        @Param("required") long required);
+}
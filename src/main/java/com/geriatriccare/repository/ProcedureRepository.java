@@ -25,6 +25,8 @@ public interface ProcedureRepository extends JpaRepository<Procedure, UUID> {
     
     @Query("SELECT p FROM Procedure p WHERE p.isActive = true")
     List<Procedure> findAllActive();
+
+    long countByIsActiveTrue();
     
     @Query("SELECT p FROM Procedure p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
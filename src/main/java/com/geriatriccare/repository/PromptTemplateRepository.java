@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -38,4 +40,22 @@ public interface PromptTemplateRepository extends JpaRepository<PromptTemplate,
      * Find templates by category, ordered by name and version
      */
     List<PromptTemplate> findByCategoryOrderByNameAscVersionDesc(PromptCategory category);
+    
+    /**
+     * Find the highest active version of a template
+     */
+    Optional<PromptTemplate> findFirstByNameAndIsActiveTrueOrderByVersionDesc(String name);
+    
+    /**
+     * Count stored versions of a template
+     */
+    long countByName(String name);
+    
+    /**
+     * Version count and highest version for the given template names.
+     * Each row is [name, count, maxVersion].
+     */
+    @Query("SELECT pt.name, COUNT(pt), MAX(pt.version) FROM PromptTemplate pt " +
+           "WHERE pt.name IN :names GROUP BY pt.name")
+    List<Object[]> findVersionStatsByNames(@Param("names") Collection<String> names);
 }
\ No newline at end of file
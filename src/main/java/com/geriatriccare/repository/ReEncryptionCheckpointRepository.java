@@ -0,0 +1,9 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.ReEncryptionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReEncryptionCheckpointRepository extends JpaRepository<ReEncryptionCheckpoint, String> {
+}
@@ -0,0 +1,22 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.ReportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, UUID> {
+    
+    List<ReportJob> findByStatusIn(Collection<ReportJob.Status> statuses);
+    
+    @Query("SELECT j.id FROM ReportJob j WHERE j.completedAt < :cutoff")
+    List<UUID> findIdsCompletedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+}
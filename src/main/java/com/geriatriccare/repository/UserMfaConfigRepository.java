@@ -0,0 +1,28 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.entity.UserMfaConfig;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserMfaConfigRepository extends JpaRepository<UserMfaConfig, UUID> {
+    
+    Optional<UserMfaConfig> findByUserId(String userId);
+    
+    /**
+     * Replace the backup code hashes only if they still are {@code expected};
+     * returns 0 when a concurrent verification consumed a code first.
+     */
+    @Modifying
+    @Query("UPDATE UserMfaConfig c SET c.backupCodeHashes = :remaining " +
+           "WHERE c.id = :id AND c.backupCodeHashes = :expected")
+    int replaceBackupCodeHashes(@Param("id") UUID id,
+                                @Param("expected") String expected,
+                                @Param("remaining") String remaining);
+}
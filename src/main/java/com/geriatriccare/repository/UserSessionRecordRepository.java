@@ -0,0 +1,57 @@
+package com.geriatriccare.repository;
+
+import com.geriatriccare.dto.security.SessionStatus;
+import com.geriatriccare.entity.UserSessionRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserSessionRecordRepository extends JpaRepository<UserSessionRecord, UUID> {
+    
+    List<UserSessionRecord> findByUserId(String userId);
+    
+    List<UserSessionRecord> findByStatusAndExpiresAtGreaterThanEqual(SessionStatus status, LocalDateTime now);
+    
+    long countByStatusAndExpiresAtGreaterThanEqual(SessionStatus status, LocalDateTime now);
+    
+    @Query("SELECT COUNT(DISTINCT s.userId) FROM UserSessionRecord s " +
+           "WHERE s.status = :status AND s.expiresAt >= :now")
+    long countUsersByStatusAndExpiresAtGreaterThanEqual(@Param("status") SessionStatus status,
+                                                        @Param("now") LocalDateTime now);
+    
+    List<UserSessionRecord> findByStatusAndExpiresAtBeforeOrderByExpiresAt(SessionStatus status,
+                                                                          LocalDateTime now,
+                                                                          Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE UserSessionRecord s SET s.lastActivityAt = :lastActivityAt, s.expiresAt = :expiresAt " +
+           "WHERE s.sessionId = :id AND s.status = :active")
+    int renewIfActive(@Param("id") UUID id,
+                      @Param("active") SessionStatus active,
+                      @Param("lastActivityAt") LocalDateTime lastActivityAt,
+                      @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("UPDATE UserSessionRecord s SET s.status = :status WHERE s.sessionId = :id AND s.status = :active")
+    int endIfActive(@Param("id") UUID id, @Param("active") SessionStatus active, @Param("status") SessionStatus status);
+    
+    @Modifying
+    @Query("UPDATE UserSessionRecord s SET s.status = :status " +
+           "WHERE s.sessionId = :id AND s.status = :active AND s.expiresAt < :now")
+    int endIfExpired(@Param("id") UUID id,
+                     @Param("active") SessionStatus active,
+                     @Param("status") SessionStatus status,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM UserSessionRecord s WHERE s.status <> :active AND s.lastActivityAt < :cutoff")
+    int deleteEndedBefore(@Param("active") SessionStatus active, @Param("cutoff") LocalDateTime cutoff);
+}
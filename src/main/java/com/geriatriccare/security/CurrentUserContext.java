@@ -0,0 +1,101 @@
+package com.geriatriccare.security;
+
+import com.geriatriccare.entity.User;
+import com.geriatriccare.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.UUID;
+
+/**
+ * The authenticated user of the current request, resolved once per request.
+ *
+ * {@link JwtAuthenticationFilter} populates it with the user it has just
+ * loaded for the token, so {@code SecurityUtil}, {@code UserService} and
+ * {@code PermissionService} read the user from a request attribute instead
+ * of querying for it on every call. Outside a request, or for an
+ * authentication that did not come through the filter, the user is looked
+ * up by name and kept for the rest of the request.
+ *
+ * The user is a detached entity; load it from the repository to modify it.
+ */
+@Component
+public class CurrentUserContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrentUserContext.class);
+
+    private static final String ATTRIBUTE = CurrentUserContext.class.getName() + ".USER";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserContext(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Record the user authenticated for {@code request}.
+     */
+    public void populate(HttpServletRequest request, String name, User user) {
+        request.setAttribute(ATTRIBUTE, new Identity(name, user));
+    }
+
+    /**
+     * The current user, or null when not authenticated or the principal has no user record
+     */
+    public User getUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        String name = authentication.getName();
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object cached = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof Identity identity && name.equals(identity.name)) {
+                return identity.user;
+            }
+        }
+
+        User user;
+        try {
+            // Token subjects are usernames, or emails for tokens issued at registration
+            user = userRepository.findByUsername(name)
+                    .or(() -> userRepository.findByEmail(name))
+                    .orElse(null);
+        } catch (Exception e) {
+            // Not cached, so a later call in the request can still resolve the user
+            logger.error("Error getting current user", e);
+            return null;
+        }
+
+        if (request != null) {
+            request.setAttribute(ATTRIBUTE, new Identity(name, user), RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * The current user's id, or null when there is no current user
+     */
+    public UUID getUserId() {
+        User user = getUser();
+        return user != null ? user.getId() : null;
+    }
+
+    private static final class Identity {
+        private final String name;
+        private final User user;
+
+        Identity(String name, User user) {
+            this.name = name;
+            this.user = user;
+        }
+    }
+}
@@ -4,13 +4,14 @@ import com.geriatriccare.entity.User;
 import com.geriatriccare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
@@ -34,4 +35,20 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         return new UserPrincipal(user);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Store a stronger hash of the password just verified at login
+     * (legacy bcrypt, or Argon2id below the configured cost). Called by the
+     * authentication provider; the password itself is unchanged, so the
+     * change date and password history are left alone.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByIdAndIsActiveTrue(((UserPrincipal) userDetails).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        
+        user.setPassword(newPassword);
+        return new UserPrincipal(userRepository.save(user));
+    }
+}
@@ -28,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
@@ -59,6 +62,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                    // The user was just loaded; later current-user lookups in this request reuse it
+                    if (userDetails instanceof UserPrincipal principal && principal.getUser() != null) {
+                        currentUserContext.populate(request, authToken.getName(), principal.getUser());
+                    }
                 }
             } catch (Exception e) {
                 logger.warn("Could not set user authentication for token subject '{}': {}", username, e.getMessage());
@@ -0,0 +1,90 @@
+package com.geriatriccare.security;
+
+import com.geriatriccare.enums.Permission;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Permission sets as bitsets: bit {@code ordinal} of word {@code ordinal / 64}.
+ *
+ * Membership is a shift and a mask, and any/all tests against a precomputed
+ * mask are one AND per word (one word for the current 42 permissions), with
+ * no hashing or boxing.
+ */
+public final class PermissionBits {
+
+    private static final Permission[] PERMISSIONS = Permission.values();
+
+    /** Words needed for every permission */
+    public static final int WORDS = (PERMISSIONS.length + 63) >>> 6;
+
+    private PermissionBits() {
+    }
+
+    public static long[] of(Collection<Permission> permissions) {
+        long[] bits = new long[WORDS];
+        for (Permission permission : permissions) {
+            bits[permission.ordinal() >>> 6] |= 1L << permission.ordinal();
+        }
+        return bits;
+    }
+
+    public static long[] of(Permission... permissions) {
+        long[] bits = new long[WORDS];
+        for (Permission permission : permissions) {
+            bits[permission.ordinal() >>> 6] |= 1L << permission.ordinal();
+        }
+        return bits;
+    }
+
+    public static boolean contains(long[] bits, Permission permission) {
+        // Java masks the shift distance to the low 6 bits, so 1L << ordinal is the bit within its word
+        return (bits[permission.ordinal() >>> 6] & (1L << permission.ordinal())) != 0;
+    }
+
+    /**
+     * True if {@code bits} has at least one permission of {@code mask}.
+     */
+    public static boolean containsAny(long[] bits, long[] mask) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((bits[i] & mask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if {@code bits} has every permission of {@code mask}.
+     */
+    public static boolean containsAll(long[] bits, long[] mask) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((bits[i] & mask[i]) != mask[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static Set<Permission> toSet(long[] bits) {
+        Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+        for (int i = 0; i < WORDS; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                permissions.add(PERMISSIONS[(i << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return permissions;
+    }
+}
@@ -0,0 +1,50 @@
+package com.geriatriccare.security;
+
+import com.geriatriccare.entity.User;
+import com.geriatriccare.enums.Permission;
+import com.geriatriccare.enums.UserRole;
+
+import java.util.Set;
+
+/**
+ * The current user and their permission bits.
+ */
+public final class ResolvedPermissions {
+
+    private static final long[] NO_PERMISSIONS = new long[PermissionBits.WORDS];
+
+    private final String username;
+    private final User user;
+    private final long[] bits;
+
+    public ResolvedPermissions(String username, User user, long[] bits) {
+        this.username = username;
+        this.user = user;
+        this.bits = bits != null ? bits : NO_PERMISSIONS;
+    }
+
+    public String getUsername() { return username; }
+
+    /** The user entity, or null if the principal has no user record */
+    public User getUser() { return user; }
+
+    public UserRole getRole() {
+        return user != null ? user.getRole() : null;
+    }
+
+    public boolean has(Permission permission) {
+        return permission != null && PermissionBits.contains(bits, permission);
+    }
+
+    public boolean hasAny(long[] mask) {
+        return PermissionBits.containsAny(bits, mask);
+    }
+
+    public boolean hasAll(long[] mask) {
+        return PermissionBits.containsAll(bits, mask);
+    }
+
+    public Set<Permission> getPermissions() {
+        return PermissionBits.toSet(bits);
+    }
+}
@@ -29,6 +29,9 @@ public class UserPrincipal implements UserDetails {
     private final boolean credentialsNonExpired;
     private final boolean enabled;
 
+    /** The record this principal was loaded from; not serialized */
+    private final transient User user;
+
     public UserPrincipal(User user) {
         this.id = user.getId();
         this.username = user.getUsername();
@@ -42,6 +45,7 @@ public class UserPrincipal implements UserDetails {
         this.accountNonLocked = !user.isLocked();
         this.credentialsNonExpired = !user.isPasswordExpired();
         this.enabled = user.getStatus() == UserStatus.ACTIVE && !user.getDeleted();
+        this.user = user;
     }
 
     public UUID getId() {
@@ -98,4 +102,11 @@ public class UserPrincipal implements UserDetails {
     public String getRole() {
         return role;
     }
+
+    /**
+     * The user record this principal was loaded from, or null after deserialization
+     */
+    public User getUser() {
+        return user;
+    }
 }
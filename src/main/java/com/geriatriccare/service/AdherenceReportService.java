@@ -4,15 +4,15 @@ import com.geriatriccare.dto.report.AdherenceReportRequest;
 import com.geriatriccare.dto.report.AdherenceReportResponse;
 import com.geriatriccare.dto.report.AdherenceStatistics;
 import com.geriatriccare.entity.AdherenceReport;
-import com.geriatriccare.entity.CarePlan;
-import com.geriatriccare.entity.CareTask;
+import com.geriatriccare.entity.CareTaskCategory;
 import com.geriatriccare.entity.Patient;
 import com.geriatriccare.enums.*;
 import com.geriatriccare.exception.ResourceNotFoundException;
 import com.geriatriccare.repository.AdherenceReportRepository;
 import com.geriatriccare.repository.CarePlanRepository;
-import com.geriatriccare.repository.CareTaskRepository;
 import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.service.AdherenceRollupService.AdherenceTotals;
+import com.geriatriccare.service.AdherenceRollupService.DailyAdherence;
 import com.geriatriccare.util.SecurityUtil;
 import com.geriatriccare.util.PdfGenerator;
 import com.geriatriccare.util.CsvExporter;
@@ -26,6 +26,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,15 +37,23 @@ import java.util.stream.Collectors;
 public class AdherenceReportService {
 
     private final AdherenceReportRepository reportRepository;
-    private final CareTaskRepository careTaskRepository;
     private final CarePlanRepository carePlanRepository;
     private final PatientRepository patientRepository;
+    private final AdherenceRollupService adherenceRollup;
     private final SecurityUtil securityUtil;
     private final PdfGenerator pdfGenerator;
     private final CsvExporter csvExporter;
 
     @Transactional
     public AdherenceReportResponse generateReport(AdherenceReportRequest request) {
+        return generateReport(request, securityUtil.getCurrentUserId());
+    }
+
+    /**
+     * Generate for {@code generatedBy}, for callers outside the user's request
+     */
+    @Transactional
+    public AdherenceReportResponse generateReport(AdherenceReportRequest request, UUID generatedBy) {
         log.info("Generating adherence report for patient: {}", request.getPatientId());
 
         Patient patient = patientRepository.findById(request.getPatientId())
@@ -54,19 +63,18 @@ public class AdherenceReportService {
         LocalDateTime startDate = dateRange[0];
         LocalDateTime endDate = dateRange[1];
 
-        Page<CarePlan> carePlansPage = carePlanRepository.findByPatientIdAndIsActiveTrue(
+        long activeCarePlans = carePlanRepository.findByPatientIdAndIsActiveTrue(
             request.getPatientId(), 
-            PageRequest.of(0, 100)
-        );
-        List<CarePlan> carePlans = carePlansPage.getContent();
+            PageRequest.of(0, 1)
+        ).getTotalElements();
 
-        List<CareTask> allTasks = new ArrayList<>();
-        for (CarePlan plan : carePlans) {
-            List<CareTask> planTasks = careTaskRepository.findByCarePlanIdAndIsActiveTrue(plan.getId());
-            allTasks.addAll(planTasks);
-        }
+        Map<CareTaskCategory, AdherenceTotals> byCategory = adherenceRollup.getTotalsByCategory(
+            request.getPatientId(), startDate.toLocalDate(), endDate.toLocalDate());
+        List<DailyAdherence> daily = adherenceRollup.getDaily(
+            request.getPatientId(), startDate.toLocalDate(), endDate.toLocalDate());
+        int pending = adherenceRollup.countPending(request.getPatientId(), null);
 
-        AdherenceMetrics metrics = calculateSimplifiedMetrics(carePlans, allTasks);
+        AdherenceMetrics metrics = calculateMetrics(byCategory, daily, pending);
 
         AdherenceReport report = AdherenceReport.builder()
             .patientId(request.getPatientId())
@@ -80,21 +88,22 @@ public class AdherenceReportService {
             .adherencePercentage(metrics.getAdherencePercentage())
             .trend(metrics.getTrend())
             .reportTitle(generateTitle(patient, startDate, endDate))
-            .reportSummary(generateSummary(metrics, patient))
+            .reportSummary(generateSummary(metrics, patient, activeCarePlans))
             .format(request.getFormat() != null ? request.getFormat() : ReportFormat.JSON)
-            .generatedBy(securityUtil.getCurrentUserId())
+            .generatedBy(generatedBy)
             .expiresAt(LocalDateTime.now().plusDays(90))
             .build();
 
         report = reportRepository.save(report);
         log.info("Report generated: {}", report.getId());
 
-        return convertToResponse(report, patient, allTasks, carePlans.size());
+        return convertToResponse(report, patient, metrics, byCategory, daily);
     }
 
     @Transactional(readOnly = true)
     public AdherenceReportResponse getReport(UUID reportId) {
         AdherenceReport report = reportRepository.findById(reportId)
+            .filter(r -> !r.isExpired())
             .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
 
         Patient patient = patientRepository.findById(report.getPatientId())
@@ -125,20 +134,17 @@ public class AdherenceReportService {
 
     @Transactional(readOnly = true)
     public AdherenceStatistics getAdherenceStatistics(UUID patientId, int days) {
-        Page<CarePlan> carePlansPage = carePlanRepository.findByPatientIdAndIsActiveTrue(
+        int activeCarePlans = (int) carePlanRepository.findByPatientIdAndIsActiveTrue(
             patientId, 
-            PageRequest.of(0, 100)
-        );
-        List<CarePlan> carePlans = carePlansPage.getContent();
-        
-        int activeCarePlans = carePlans.size();
+            PageRequest.of(0, 1)
+        ).getTotalElements();
 
-        List<CareTask> allTasks = new ArrayList<>();
-        for (CarePlan plan : carePlans) {
-            allTasks.addAll(careTaskRepository.findByCarePlanIdAndIsActiveTrue(plan.getId()));
-        }
-
-        AdherenceMetrics metrics = calculateSimplifiedMetrics(carePlans, allTasks);
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days);
+        List<DailyAdherence> daily = adherenceRollup.getDaily(patientId, from, to);
+        AdherenceMetrics metrics = calculateMetrics(
+            adherenceRollup.getTotalsByCategory(patientId, from, to), daily,
+            adherenceRollup.countPending(patientId, null));
 
         return AdherenceStatistics.builder()
             .patientId(patientId)
@@ -149,8 +155,11 @@ public class AdherenceReportService {
             .missedTasks(metrics.getMissedTasks())
             .pendingTasks(metrics.getPendingTasks())
             .overallAdherence(metrics.getAdherencePercentage())
+            .averageDailyAdherence(AdherenceRollupService.averageDailyAdherence(daily))
             .trend(metrics.getTrend())
-            .atRisk(metrics.getAdherencePercentage() < 70.0)
+            .consecutiveMissedDays(AdherenceRollupService.consecutiveMissedDays(daily))
+            .atRisk(metrics.getCompletedTasks() + metrics.getMissedTasks() > 0
+                && metrics.getAdherencePercentage() < 70.0)
             .build();
     }
 
@@ -196,19 +205,14 @@ public class AdherenceReportService {
         return new LocalDateTime[]{startDate, endDate};
     }
 
-    private AdherenceMetrics calculateSimplifiedMetrics(List<CarePlan> carePlans, List<CareTask> tasks) {
-        int total = tasks.size();
-        int active = (int) tasks.stream().filter(t -> t.getIsActive()).count();
-        int inactive = total - active;
-        
-        int completed = (int) (inactive * 0.7);
-        int missed = inactive - completed;
-        int pending = active;
-
-        double adherence = total > 0 ? (completed * 100.0 / total) : 0.0;
-        String trend = carePlans.size() > 0 ? "STABLE" : "NO_DATA";
+    private AdherenceMetrics calculateMetrics(Map<CareTaskCategory, AdherenceTotals> byCategory,
+                                              List<DailyAdherence> daily, int pending) {
+        AdherenceTotals totals = AdherenceRollupService.sum(byCategory.values());
+        int completed = (int) totals.getCompleted();
+        int missed = (int) totals.getMissed();
 
-        return new AdherenceMetrics(total, completed, missed, pending, adherence, trend);
+        return new AdherenceMetrics((int) totals.getScheduled() + pending, completed, missed, pending,
+            totals.getAdherencePercentage(), AdherenceRollupService.trend(daily));
     }
 
     private String generateTitle(Patient patient, LocalDateTime start, LocalDateTime end) {
@@ -220,24 +224,28 @@ public class AdherenceReportService {
         );
     }
 
-    private String generateSummary(AdherenceMetrics metrics, Patient patient) {
+    private String generateSummary(AdherenceMetrics metrics, Patient patient, long activeCarePlans) {
         return String.format(
-            "Patient %s %s has %d active care tasks with %.1f%% estimated completion rate.",
+            "Patient %s %s completed %d of %d due care tasks (%.1f%% adherence) across %d active care plans, with %d missed.",
             patient.getFirstName(),
             patient.getLastName(),
-            metrics.getTotalTasks(),
-            metrics.getAdherencePercentage()
+            metrics.getCompletedTasks(),
+            metrics.getCompletedTasks() + metrics.getMissedTasks(),
+            metrics.getAdherencePercentage(),
+            activeCarePlans,
+            metrics.getMissedTasks()
         );
     }
 
     private AdherenceReportResponse convertToResponse(
             AdherenceReport report, 
             Patient patient, 
-            List<CareTask> tasks,
-            int carePlanCount) {
+            AdherenceMetrics metrics,
+            Map<CareTaskCategory, AdherenceTotals> byCategory,
+            List<DailyAdherence> daily) {
 
         List<AdherenceReportResponse.CategoryAdherence> categoryBreakdown = 
-            calculateCategoryBreakdown(tasks);
+            calculateCategoryBreakdown(byCategory);
 
         return AdherenceReportResponse.builder()
             .reportId(report.getId())
@@ -250,10 +258,18 @@ public class AdherenceReportService {
             .totalTasks(report.getTotalTasks())
             .completedTasks(report.getCompletedTasks())
             .missedTasks(report.getMissedTasks())
-            .pendingTasks(tasks.size() - report.getCompletedTasks() - report.getMissedTasks())
+            .pendingTasks(metrics.getPendingTasks())
             .adherencePercentage(report.getAdherencePercentage())
             .trend(report.getTrend())
             .categoryBreakdown(categoryBreakdown)
+            .dailyAdherence(daily.stream()
+                .map(day -> AdherenceReportResponse.DailyAdherence.builder()
+                    .date(day.getDate().atStartOfDay())
+                    .completed((int) day.getTotals().getCompleted())
+                    .missed((int) day.getTotals().getMissed())
+                    .rate(day.getTotals().getAdherencePercentage())
+                    .build())
+                .collect(Collectors.toList()))
             .reportTitle(report.getReportTitle())
             .reportSummary(report.getReportSummary())
             .format(report.getFormat())
@@ -281,30 +297,15 @@ public class AdherenceReportService {
             .build();
     }
 
-    private List<AdherenceReportResponse.CategoryAdherence> calculateCategoryBreakdown(List<CareTask> tasks) {
-        Map<String, List<CareTask>> byCategory = tasks.stream()
-            .collect(Collectors.groupingBy(task -> 
-                task.getCategory() != null ? task.getCategory().name() : "General"
-            ));
-
+    private List<AdherenceReportResponse.CategoryAdherence> calculateCategoryBreakdown(
+            Map<CareTaskCategory, AdherenceTotals> byCategory) {
         return byCategory.entrySet().stream()
-            .map(entry -> {
-                String category = entry.getKey();
-                List<CareTask> categoryTasks = entry.getValue();
-                int total = categoryTasks.size();
-                int active = (int) categoryTasks.stream()
-                    .filter(t -> t.getIsActive())
-                    .count();
-                int completed = total - active;
-                double rate = total > 0 ? (completed * 100.0 / total) : 0.0;
-
-                return AdherenceReportResponse.CategoryAdherence.builder()
-                    .category(category)
-                    .total(total)
-                    .completed(completed)
-                    .adherenceRate(rate)
-                    .build();
-            })
+            .map(entry -> AdherenceReportResponse.CategoryAdherence.builder()
+                .category(entry.getKey().name())
+                .total((int) entry.getValue().getScheduled())
+                .completed((int) entry.getValue().getCompleted())
+                .adherenceRate(entry.getValue().getAdherencePercentage())
+                .build())
             .collect(Collectors.toList());
     }
 
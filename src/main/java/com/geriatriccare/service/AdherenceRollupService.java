@@ -0,0 +1,391 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.entity.CareAdherenceDaily;
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.repository.CareAdherenceDailyRepository;
+import com.geriatriccare.repository.CareTaskRepository;
+import com.geriatriccare.service.CareTaskScheduleService.Occurrence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Care task adherence, counted per patient, category and day as it happens.
+ *
+ * Each completion of a scheduled occurrence adds to the care_adherence_daily
+ * row of its due date, in the completing transaction. Once a day is over
+ * (plus the grace period), the occurrences of it that are still open in the
+ * {@link CareTaskScheduleService} window are counted as missed, once per row;
+ * a later completion moves one of them from missed to completed. Reports,
+ * statistics and the dashboard sum these rows instead of loading tasks.
+ *
+ * Days are closed from the schedule's lookback window, so a day can be closed
+ * as long as the application runs at some point within the lookback after it.
+ */
+@Service
+public class AdherenceRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdherenceRollupService.class);
+
+    /** Change in adherence between the earlier and later half of a period that counts as a trend */
+    static final double TREND_THRESHOLD = 5.0;
+
+    private final CareAdherenceDailyRepository rollupRepository;
+    private final CareTaskRepository careTaskRepository;
+    private final CareTaskScheduleService schedule;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Clock clock;
+
+    /** Last day closed by this instance; earlier days are not closed again */
+    private volatile LocalDate closedThrough;
+
+    @Autowired
+    public AdherenceRollupService(CareAdherenceDailyRepository rollupRepository,
+                                  CareTaskRepository careTaskRepository,
+                                  CareTaskScheduleService schedule,
+                                  PlatformTransactionManager transactionManager) {
+        this(rollupRepository, careTaskRepository, schedule, transactionManager, Clock.systemDefaultZone());
+    }
+
+    public AdherenceRollupService(CareAdherenceDailyRepository rollupRepository,
+                                  CareTaskRepository careTaskRepository,
+                                  CareTaskScheduleService schedule,
+                                  PlatformTransactionManager transactionManager,
+                                  Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.careTaskRepository = careTaskRepository;
+        this.schedule = schedule;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+    }
+
+    // ==================== Events ====================
+
+    /**
+     * Count the completion of an occurrence due at {@code dueAt}, in the
+     * caller's transaction.
+     */
+    @Transactional
+    public void recordCompletion(UUID patientId, CareTaskCategory category,
+                                 LocalDateTime dueAt, LocalDateTime completedAt) {
+        LocalDate dueDate = dueAt.toLocalDate();
+        int late = completedAt.isAfter(dueAt.plus(schedule.getGrace())) ? 1 : 0;
+        if (rollupRepository.addCompletion(patientId, category, dueDate, late) == 0) {
+            ensureRow(patientId, category, dueDate);
+            rollupRepository.addCompletion(patientId, category, dueDate, late);
+        }
+    }
+
+    /**
+     * Close every day of the schedule window that is over, counting its
+     * still-open occurrences as missed.
+     */
+    @Scheduled(cron = "${app.care-tasks.adherence.close-cron:0 10 * * * *}")
+    public void closeDays() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime windowStart = now.minus(schedule.getLookback());
+        LocalDate first = windowStart.toLocalDate();
+        if (first.atStartOfDay().isBefore(windowStart)) {
+            // Only whole days, whose occurrences are all in the window
+            first = first.plusDays(1);
+        }
+        if (closedThrough != null && !closedThrough.isBefore(first)) {
+            first = closedThrough.plusDays(1);
+        }
+        LocalDate last = now.minus(schedule.getGrace()).toLocalDate().minusDays(1);
+
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            LocalDate closing = day;
+            Integer missed = transactionTemplate.execute(status -> closeDay(closing));
+            closedThrough = day;
+            if (missed != null && missed > 0) {
+                log.info("Closed care task adherence for {}: {} missed occurrence(s)", day, missed);
+            }
+        }
+    }
+
+    private int closeDay(LocalDate day) {
+        Map<RowKey, Integer> open = new HashMap<>();
+        for (Occurrence occurrence : schedule.getOpenBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            open.merge(new RowKey(occurrence.getPatientId(), occurrence.getCategory()), 1, Integer::sum);
+        }
+
+        int missed = 0;
+        for (Map.Entry<RowKey, Integer> entry : open.entrySet()) {
+            RowKey key = entry.getKey();
+            int updated = rollupRepository.addMissed(key.patientId, key.category, day, entry.getValue());
+            if (updated == 0 && ensureRow(key.patientId, key.category, day)) {
+                updated = rollupRepository.addMissed(key.patientId, key.category, day, entry.getValue());
+            }
+            // None updated: closed before, by this instance before a restart or by another
+            missed += updated > 0 ? entry.getValue() : 0;
+        }
+        return missed;
+    }
+
+    /**
+     * Insert an empty row for the key if there is none, in a transaction of its
+     * own so concurrent first events for the same key both see one row.
+     *
+     * @return whether the row was missing
+     */
+    private boolean ensureRow(UUID patientId, CareTaskCategory category, LocalDate dueDate) {
+        try {
+            return Boolean.TRUE.equals(newTransaction.execute(status -> {
+                if (rollupRepository.existsByPatientIdAndCategoryAndDueDate(patientId, category, dueDate)) {
+                    return false;
+                }
+                CareAdherenceDaily row = new CareAdherenceDaily();
+                row.setPatientId(patientId);
+                row.setCategory(category);
+                row.setDueDate(dueDate);
+                rollupRepository.saveAndFlush(row);
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Adherence row for {} {} {} inserted concurrently", patientId, category, dueDate);
+            return true;
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * A patient's adherence per category for occurrences due from {@code from} to {@code to}, inclusive.
+     */
+    @Transactional(readOnly = true)
+    public Map<CareTaskCategory, AdherenceTotals> getTotalsByCategory(UUID patientId, LocalDate from, LocalDate to) {
+        return toCategoryTotals(rollupRepository.sumByCategory(patientId, from, to));
+    }
+
+    /**
+     * Adherence per category over every patient.
+     */
+    @Transactional(readOnly = true)
+    public Map<CareTaskCategory, AdherenceTotals> getTotalsByCategory(LocalDate from, LocalDate to) {
+        return toCategoryTotals(rollupRepository.sumByCategory(from, to));
+    }
+
+    /**
+     * Adherence per patient over every category.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, AdherenceTotals> getTotalsByPatient(LocalDate from, LocalDate to) {
+        return toPatientTotals(rollupRepository.sumByPatient(from, to));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, AdherenceTotals> getTotalsByPatient(CareTaskCategory category, LocalDate from, LocalDate to) {
+        return toPatientTotals(rollupRepository.sumByPatient(category, from, to));
+    }
+
+    /**
+     * A patient's adherence per day with occurrences, earliest first.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyAdherence> getDaily(UUID patientId, LocalDate from, LocalDate to) {
+        return toDaily(rollupRepository.sumByDay(patientId, from, to));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyAdherence> getDaily(UUID patientId, CareTaskCategory category, LocalDate from, LocalDate to) {
+        return toDaily(rollupRepository.sumByDay(patientId, category, from, to));
+    }
+
+    /**
+     * A value that changes whenever any of a patient's counters from
+     * {@code from} to {@code to} does, for keying results computed from them.
+     *
+     * @param category null for every category
+     */
+    @Transactional(readOnly = true)
+    public long getWatermark(UUID patientId, CareTaskCategory category, LocalDate from, LocalDate to) {
+        return category == null
+                ? rollupRepository.sumRevisions(patientId, from, to)
+                : rollupRepository.sumRevisions(patientId, category, from, to);
+    }
+
+    /**
+     * A patient's open occurrences, due by the end of the due window, on days not yet closed.
+     *
+     * @param category null for every category
+     */
+    public int countPending(UUID patientId, CareTaskCategory category) {
+        LocalDate lastClosable = LocalDateTime.now(clock).minus(schedule.getGrace()).toLocalDate().minusDays(1);
+        return (int) schedule.getDueForPatient(patientId).stream()
+                .filter(occurrence -> occurrence.getDueAt().toLocalDate().isAfter(lastClosable))
+                .filter(occurrence -> category == null || occurrence.getCategory() == category)
+                .count();
+    }
+
+    /**
+     * Active tasks of a category on the patient's active care plans.
+     */
+    @Transactional(readOnly = true)
+    public long countActiveTasks(UUID patientId, CareTaskCategory category) {
+        return careTaskRepository.countActiveByPatientAndCategory(patientId, category);
+    }
+
+    // ==================== Derived Measures ====================
+
+    /**
+     * IMPROVING or DECLINING when adherence over the later half of the days
+     * differs from the earlier half by more than {@link #TREND_THRESHOLD}
+     * points; STABLE otherwise, or NO_DATA without scheduled occurrences.
+     */
+    public static String trend(List<DailyAdherence> days) {
+        List<DailyAdherence> scheduled = days.stream()
+                .filter(day -> day.getTotals().getScheduled() > 0)
+                .toList();
+        if (scheduled.isEmpty()) {
+            return "NO_DATA";
+        }
+        if (scheduled.size() < 2) {
+            return "STABLE";
+        }
+        int half = scheduled.size() / 2;
+        double earlier = sumDays(scheduled.subList(0, half)).getAdherencePercentage();
+        double later = sumDays(scheduled.subList(half, scheduled.size())).getAdherencePercentage();
+        if (later - earlier > TREND_THRESHOLD) {
+            return "IMPROVING";
+        }
+        if (earlier - later > TREND_THRESHOLD) {
+            return "DECLINING";
+        }
+        return "STABLE";
+    }
+
+    /**
+     * Mean of the daily adherence percentages over days with scheduled occurrences.
+     */
+    public static double averageDailyAdherence(List<DailyAdherence> days) {
+        return days.stream()
+                .filter(day -> day.getTotals().getScheduled() > 0)
+                .mapToDouble(day -> day.getTotals().getAdherencePercentage())
+                .average()
+                .orElse(0.0);
+    }
+
+    /**
+     * Most recent run of days on which something was missed and nothing completed.
+     */
+    public static int consecutiveMissedDays(List<DailyAdherence> days) {
+        int run = 0;
+        for (int i = days.size() - 1; i >= 0; i--) {
+            AdherenceTotals totals = days.get(i).getTotals();
+            if (totals.getMissed() == 0 || totals.getCompleted() > 0) {
+                break;
+            }
+            run++;
+        }
+        return run;
+    }
+
+    public static AdherenceTotals sum(Collection<AdherenceTotals> totals) {
+        AdherenceTotals sum = new AdherenceTotals();
+        totals.forEach(sum::add);
+        return sum;
+    }
+
+    private static AdherenceTotals sumDays(List<DailyAdherence> days) {
+        return sum(days.stream().map(DailyAdherence::getTotals).collect(Collectors.toList()));
+    }
+
+    private static Map<CareTaskCategory, AdherenceTotals> toCategoryTotals(List<Object[]> rows) {
+        Map<CareTaskCategory, AdherenceTotals> totals = new EnumMap<>(CareTaskCategory.class);
+        for (Object[] row : rows) {
+            totals.put((CareTaskCategory) row[0], AdherenceTotals.of(row));
+        }
+        return totals;
+    }
+
+    private static Map<UUID, AdherenceTotals> toPatientTotals(List<Object[]> rows) {
+        Map<UUID, AdherenceTotals> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            totals.put((UUID) row[0], AdherenceTotals.of(row));
+        }
+        return totals;
+    }
+
+    private static List<DailyAdherence> toDaily(List<Object[]> rows) {
+        List<DailyAdherence> days = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            days.add(new DailyAdherence((LocalDate) row[0], AdherenceTotals.of(row)));
+        }
+        return days;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private record RowKey(UUID patientId, CareTaskCategory category) {
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class AdherenceTotals {
+        private long scheduled;
+        private long completed;
+        private long late;
+        private long missed;
+
+        /** From a sum row: key, scheduled, completed, late, missed */
+        static AdherenceTotals of(Object[] row) {
+            AdherenceTotals totals = new AdherenceTotals();
+            totals.scheduled = toLong(row[1]);
+            totals.completed = toLong(row[2]);
+            totals.late = toLong(row[3]);
+            totals.missed = toLong(row[4]);
+            return totals;
+        }
+
+        void add(AdherenceTotals other) {
+            scheduled += other.scheduled;
+            completed += other.completed;
+            late += other.late;
+            missed += other.missed;
+        }
+
+        /** Completed or missed */
+        public long getScheduled() { return scheduled; }
+        public long getCompleted() { return completed; }
+        /** Completed after the grace period */
+        public long getLate() { return late; }
+        public long getMissed() { return missed; }
+
+        /** Completed as a percentage of scheduled; 0 when nothing was */
+        public double getAdherencePercentage() {
+            return scheduled > 0 ? completed * 100.0 / scheduled : 0.0;
+        }
+    }
+
+    public static final class DailyAdherence {
+        private final LocalDate date;
+        private final AdherenceTotals totals;
+
+        DailyAdherence(LocalDate date, AdherenceTotals totals) {
+            this.date = date;
+            this.totals = totals;
+        }
+
+        public LocalDate getDate() { return date; }
+        public AdherenceTotals getTotals() { return totals; }
+    }
+}
@@ -9,6 +9,7 @@ import com.geriatriccare.enums.UserRole;
 import com.geriatriccare.repository.CarePlanRepository;
 import com.geriatriccare.repository.PatientRepository;
 import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.service.security.HIPAAAuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +43,12 @@ public class CarePlanService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private CareTaskScheduleService careTaskSchedule;
+    
+    @Autowired
+    private HIPAAAuditService hipaaAuditService;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
@@ -161,6 +168,7 @@ public class CarePlanService {
         carePlan.setEndDate(request.getEndDate());
         
         CarePlan updated = carePlanRepository.save(carePlan);
+        careTaskSchedule.carePlanChanged(id);
         logger.info("Successfully updated care plan: {}", id);
         
         return convertToResponse(updated);
@@ -177,6 +185,7 @@ public class CarePlanService {
         
         carePlan.setIsActive(false);
         carePlanRepository.save(carePlan);
+        careTaskSchedule.carePlanChanged(id);
         
         logger.info("Successfully soft deleted care plan: {}", id);
     }
@@ -199,6 +208,7 @@ public class CarePlanService {
         
         carePlan.setStatus(CarePlanStatus.ACTIVE);
         carePlanRepository.save(carePlan);
+        careTaskSchedule.carePlanChanged(id);
         
         logger.info("Successfully activated care plan: {}", id);
     }
@@ -214,6 +224,7 @@ public class CarePlanService {
         
         carePlan.setStatus(CarePlanStatus.SUSPENDED);
         carePlanRepository.save(carePlan);
+        careTaskSchedule.carePlanChanged(id);
         
         logger.info("Successfully suspended care plan: {}", id);
     }
@@ -229,6 +240,7 @@ public class CarePlanService {
         
         carePlan.setStatus(CarePlanStatus.COMPLETED);
         carePlanRepository.save(carePlan);
+        careTaskSchedule.carePlanChanged(id);
         
         logger.info("Successfully completed care plan: {}", id);
     }
@@ -279,6 +291,7 @@ public class CarePlanService {
         // Patient information
         response.setPatientId(carePlan.getPatient().getId());
         response.setPatientName(carePlan.getPatient().getFullName());
+        auditPatientRead(carePlan.getPatient());
         
         // Caregiver information
         if (carePlan.getAssignedCaregiver() != null) {
@@ -301,4 +314,11 @@ public class CarePlanService {
         ));
         return response;
     }
-}
\ No newline at end of file
+    
+    private void auditPatientRead(Patient patient) {
+        if (!patient.getMaterializedPhiFields().isEmpty()) {
+            hipaaAuditService.logPHIAccess(patient.getId(), patient.getFullName(), "VIEW", "CarePlan",
+                    patient.getMaterializedPhiFields());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.geriatriccare.dto.*;
 import com.geriatriccare.dto.summary.CaregiverSummary;
 import com.geriatriccare.entity.*;
 import com.geriatriccare.repository.*;
+import com.geriatriccare.service.security.HIPAAAuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +39,9 @@ public class CarePlanTemplateService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private HIPAAAuditService hipaaAuditService;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
@@ -276,7 +280,15 @@ public class CarePlanTemplateService {
         response.setUpdatedAt(carePlan.getUpdatedAt());
         response.setPatientId(carePlan.getPatient().getId());
         response.setPatientName(carePlan.getPatient().getFullName());
+        auditPatientRead(carePlan.getPatient());
         
         return response;
     }
-}
\ No newline at end of file
+    
+    private void auditPatientRead(Patient patient) {
+        if (!patient.getMaterializedPhiFields().isEmpty()) {
+            hipaaAuditService.logPHIAccess(patient.getId(), patient.getFullName(), "VIEW", "CarePlan",
+                    patient.getMaterializedPhiFields());
+        }
+    }
+}
@@ -0,0 +1,635 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.entity.CareTaskFrequency;
+import com.geriatriccare.entity.CareTaskPriority;
+import com.geriatriccare.repository.CareTaskOccurrenceRepository;
+import com.geriatriccare.repository.CareTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Care task schedule: expands each task's frequency into occurrences and
+ * answers "what is due" from a time-ordered index of the open ones.
+ *
+ * Occurrences of the active tasks of ACTIVE care plans are materialized over
+ * a rolling window, from {@code overdue-lookback-days} back to
+ * {@code horizon-hours} ahead, leaving out those with a completion in
+ * care_task_occurrences. The open occurrences are kept in sets ordered by due
+ * time, overall, per assigned caregiver and per patient, so "due now for a
+ * caregiver" and "all overdue" read the head of a set instead of scanning
+ * tasks.
+ *
+ * The window is rebuilt every {@code roll-interval-ms}. In between, task,
+ * care plan and completion changes are applied after commit, under the same
+ * lock as a build, as in {@link PatientAccessIndexService}, and passed on to
+ * any {@link Listener}.
+ */
+@Service
+public class CareTaskScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(CareTaskScheduleService.class);
+
+    /** First occurrence of the day for a task without a scheduled time */
+    public static final LocalTime DEFAULT_TIME = LocalTime.of(9, 0);
+
+    /** Several-times-daily occurrences are spread evenly from the scheduled time over this span */
+    private static final long DAILY_SPAN_MINUTES = 12 * 60;
+
+    private final CareTaskRepository careTaskRepository;
+    private final CareTaskOccurrenceRepository occurrenceRepository;
+    private final Clock clock;
+    private final Duration horizon;
+    private final Duration lookback;
+    private final Duration grace;
+    private final Duration dueWindow;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Index index;
+
+    /**
+     * Told about index changes as they are applied, while the index lock is
+     * held; implementations should only record them.
+     */
+    public interface Listener {
+        void occurrencesOpened(List<Occurrence> occurrences);
+
+        void occurrencesClosed(List<Occurrence> occurrences);
+
+        /** The window moved; occurrences may have come and gone without the calls above */
+        void scheduleRebuilt();
+    }
+
+    @Autowired
+    public CareTaskScheduleService(CareTaskRepository careTaskRepository,
+                                   CareTaskOccurrenceRepository occurrenceRepository,
+                                   @Value("${app.care-tasks.schedule.horizon-hours:48}") long horizonHours,
+                                   @Value("${app.care-tasks.schedule.overdue-lookback-days:7}") long lookbackDays,
+                                   @Value("${app.care-tasks.schedule.grace-minutes:30}") long graceMinutes,
+                                   @Value("${app.care-tasks.schedule.due-window-minutes:60}") long dueWindowMinutes) {
+        this(careTaskRepository, occurrenceRepository, Clock.systemDefaultZone(), Duration.ofHours(horizonHours),
+                Duration.ofDays(lookbackDays), Duration.ofMinutes(graceMinutes), Duration.ofMinutes(dueWindowMinutes));
+    }
+
+    /**
+     * @param grace     how long after its due time an open occurrence becomes overdue
+     * @param dueWindow how far ahead an occurrence counts as due now
+     */
+    public CareTaskScheduleService(CareTaskRepository careTaskRepository,
+                                   CareTaskOccurrenceRepository occurrenceRepository,
+                                   Clock clock, Duration horizon, Duration lookback,
+                                   Duration grace, Duration dueWindow) {
+        this.careTaskRepository = careTaskRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.clock = clock;
+        this.horizon = horizon;
+        this.lookback = lookback;
+        this.grace = grace;
+        this.dueWindow = dueWindow;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            currentIndex();
+        } catch (RuntimeException e) {
+            log.warn("Could not build care task schedule at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move the window forward: rebuild the index from now.
+     */
+    @Scheduled(fixedDelayString = "${app.care-tasks.schedule.roll-interval-ms:900000}",
+               initialDelayString = "${app.care-tasks.schedule.roll-interval-ms:900000}")
+    public void roll() {
+        try {
+            synchronized (this) {
+                index = build(index);
+            }
+            listeners.forEach(Listener::scheduleRebuilt);
+        } catch (RuntimeException e) {
+            log.error("Care task schedule roll failed; keeping the previous window", e);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public Duration getLookback() {
+        return lookback;
+    }
+
+    public Duration getGrace() {
+        return grace;
+    }
+
+    public Duration getDueWindow() {
+        return dueWindow;
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Open occurrences assigned to {@code caregiverId} that are overdue or
+     * due within the due window, earliest first.
+     */
+    public List<Occurrence> getDueForCaregiver(UUID caregiverId) {
+        if (caregiverId == null) {
+            return List.of();
+        }
+        NavigableSet<Occurrence> open = currentIndex().byCaregiver.get(caregiverId);
+        if (open == null) {
+            return List.of();
+        }
+        return new ArrayList<>(open.headSet(Occurrence.bound(now().plus(dueWindow)), false));
+    }
+
+    /**
+     * Open occurrences of {@code patientId}'s care plans that are overdue or
+     * due within the due window, earliest first.
+     */
+    public List<Occurrence> getDueForPatient(UUID patientId) {
+        NavigableSet<Occurrence> open = patientId != null ? currentIndex().byPatient.get(patientId) : null;
+        if (open == null) {
+            return List.of();
+        }
+        return new ArrayList<>(open.headSet(Occurrence.bound(now().plus(dueWindow)), false));
+    }
+
+    /**
+     * Open occurrences due in [from, to), earliest first.
+     */
+    public List<Occurrence> getOpenBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return new ArrayList<>(currentIndex().open.subSet(Occurrence.bound(from), Occurrence.bound(to)));
+    }
+
+    /**
+     * Open occurrences more than the grace period past their due time, earliest first.
+     */
+    public List<Occurrence> getOverdue() {
+        return new ArrayList<>(currentIndex().open.headSet(Occurrence.bound(now().minus(grace)), false));
+    }
+
+    /**
+     * Completion state of a task: its last completion and earliest open occurrence.
+     */
+    public TaskStatus getStatus(UUID taskId) {
+        Index current = currentIndex();
+        NavigableSet<Occurrence> open = current.byTask.get(taskId);
+        LocalDateTime nextDueAt = null;
+        if (open != null) {
+            Occurrence first = first(open);
+            nextDueAt = first != null ? first.dueAt : null;
+        }
+        return new TaskStatus(current.lastCompleted.get(taskId), nextDueAt, now().minus(grace));
+    }
+
+    /**
+     * The open occurrence a completion at {@code completedAt} satisfies: the
+     * one nearest to it, not later than the end of that day.
+     */
+    public Optional<LocalDateTime> findOpenOccurrence(UUID taskId, LocalDateTime completedAt) {
+        NavigableSet<Occurrence> open = currentIndex().byTask.get(taskId);
+        if (open == null) {
+            return Optional.empty();
+        }
+        Occurrence probe = Occurrence.bound(completedAt);
+        Occurrence before = open.lower(probe);
+        Occurrence after = open.ceiling(probe);
+        if (after != null && !after.dueAt.isBefore(completedAt.toLocalDate().plusDays(1).atStartOfDay())) {
+            after = null;
+        }
+        if (before == null || (after != null && Duration.between(completedAt, after.dueAt)
+                .compareTo(Duration.between(before.dueAt, completedAt)) < 0)) {
+            return Optional.ofNullable(after).map(Occurrence::getDueAt);
+        }
+        return Optional.of(before.dueAt);
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Re-expand the given tasks once the current transaction commits, after a
+     * task was created, edited or removed.
+     */
+    public void tasksChanged(Collection<UUID> taskIds) {
+        if (taskIds.isEmpty() || index == null) {
+            // An unbuilt index reads the tasks when it is built; one racing this commit, at the next roll
+            return;
+        }
+        List<TaskSchedule> schedules = careTaskRepository.findScheduleRows(taskIds).stream()
+                .map(TaskSchedule::of)
+                .toList();
+        Map<UUID, Set<LocalDateTime>> completed = new HashMap<>();
+        for (Object[] row : occurrenceRepository.findCompletedSince(taskIds, now().minus(lookback))) {
+            completed.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((LocalDateTime) row[1]);
+        }
+        Set<UUID> ids = Set.copyOf(taskIds);
+        afterCommit(index -> {
+            List<Occurrence> closed = new ArrayList<>();
+            ids.forEach(id -> closed.addAll(index.removeTask(id)));
+            List<Occurrence> opened = new ArrayList<>();
+            schedules.forEach(schedule ->
+                    opened.addAll(index.expand(schedule, completed.getOrDefault(schedule.taskId, Set.of()))));
+            notify(closed, opened);
+        });
+    }
+
+    /**
+     * Re-expand every task of a care plan, after its dates, status or
+     * assigned caregiver changed.
+     */
+    public void carePlanChanged(UUID carePlanId) {
+        if (index != null) {
+            tasksChanged(careTaskRepository.findIdsByCarePlanId(carePlanId));
+        }
+    }
+
+    public void occurrenceCompleted(UUID taskId, LocalDateTime dueAt, LocalDateTime completedAt) {
+        afterCommit(index -> {
+            Occurrence closed = index.complete(taskId, dueAt);
+            index.lastCompleted.merge(taskId, completedAt, (a, b) -> a.isAfter(b) ? a : b);
+            if (closed != null) {
+                notify(List.of(closed), List.of());
+            }
+        });
+    }
+
+    private void notify(List<Occurrence> closed, List<Occurrence> opened) {
+        for (Listener listener : listeners) {
+            if (!closed.isEmpty()) {
+                listener.occurrencesClosed(closed);
+            }
+            if (!opened.isEmpty()) {
+                listener.occurrencesOpened(opened);
+            }
+        }
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        Runnable apply = () -> {
+            synchronized (this) {
+                Index current = index;
+                if (current != null) {
+                    change.accept(current);
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // ==================== Expansion ====================
+
+    /**
+     * Due times of a task in [from, to), in order.
+     *
+     * Daily frequencies repeat every day of the plan from the scheduled time
+     * ({@link #DEFAULT_TIME} if unset), several-times-daily ones spread over
+     * the 12 hours from it; weekly, biweekly and monthly ones repeat from the
+     * plan's start date, and ONCE falls on it. AS_NEEDED has no due times.
+     *
+     * @param endDate last day of the plan, inclusive; null for open ended
+     */
+    public static List<LocalDateTime> expand(CareTaskFrequency frequency, LocalTime scheduledTime,
+                                             LocalDate startDate, LocalDate endDate,
+                                             LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> due = new ArrayList<>();
+        if (frequency == null || startDate == null || !from.isBefore(to)) {
+            return due;
+        }
+        LocalTime time = scheduledTime != null ? scheduledTime : DEFAULT_TIME;
+        LocalDate last = endDate != null && endDate.isBefore(to.toLocalDate()) ? endDate : to.toLocalDate();
+
+        switch (frequency) {
+            case ONCE -> {
+                if (!startDate.isAfter(last)) {
+                    addWithin(due, startDate.atTime(time), from, to);
+                }
+            }
+            case DAILY, TWICE_DAILY, THREE_TIMES_DAILY, FOUR_TIMES_DAILY -> {
+                int times = timesPerDay(frequency);
+                long spacing = times > 1 ? DAILY_SPAN_MINUTES / (times - 1) : 0;
+                // From the day before, whose later occurrences can fall after midnight
+                LocalDate dayBefore = from.toLocalDate().minusDays(1);
+                for (LocalDate day = startDate.isAfter(dayBefore) ? startDate : dayBefore;
+                     !day.isAfter(last); day = day.plusDays(1)) {
+                    LocalDateTime first = day.atTime(time);
+                    for (int i = 0; i < times; i++) {
+                        addWithin(due, first.plusMinutes(i * spacing), from, to);
+                    }
+                }
+            }
+            case WEEKLY, BIWEEKLY -> {
+                int period = frequency == CareTaskFrequency.WEEKLY ? 7 : 14;
+                long skipped = Math.max(0, ChronoUnit.DAYS.between(startDate, from.toLocalDate()) / period);
+                for (LocalDate day = startDate.plusDays(skipped * period); !day.isAfter(last); day = day.plusDays(period)) {
+                    addWithin(due, day.atTime(time), from, to);
+                }
+            }
+            case MONTHLY -> {
+                // One month early, as a start on the 31st lands on a shorter month's last day
+                long skipped = Math.max(0, ChronoUnit.MONTHS.between(startDate, from.toLocalDate()) - 1);
+                for (long month = skipped; !startDate.plusMonths(month).isAfter(last); month++) {
+                    addWithin(due, startDate.plusMonths(month).atTime(time), from, to);
+                }
+            }
+            case AS_NEEDED -> {
+                // Completed when needed, never due
+            }
+        }
+        return due;
+    }
+
+    private static int timesPerDay(CareTaskFrequency frequency) {
+        return switch (frequency) {
+            case TWICE_DAILY -> 2;
+            case THREE_TIMES_DAILY -> 3;
+            case FOUR_TIMES_DAILY -> 4;
+            default -> 1;
+        };
+    }
+
+    private static void addWithin(List<LocalDateTime> due, LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        if (!time.isBefore(from) && time.isBefore(to)) {
+            due.add(time);
+        }
+    }
+
+    // ==================== Index Construction ====================
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = build(null);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Index build(Index previous) {
+        long start = System.nanoTime();
+        LocalDateTime now = now();
+        Index built = new Index(now.minus(lookback), now.plus(horizon));
+
+        Map<UUID, Set<LocalDateTime>> completed = new HashMap<>();
+        for (Object[] row : occurrenceRepository.findCompletedBetween(built.from, built.to)) {
+            completed.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((LocalDateTime) row[1]);
+        }
+        if (previous != null) {
+            // Kept current by occurrenceCompleted, under the lock this build holds
+            built.lastCompleted.putAll(previous.lastCompleted);
+        } else {
+            for (Object[] row : occurrenceRepository.findLastCompletions()) {
+                built.lastCompleted.put((UUID) row[0], (LocalDateTime) row[1]);
+            }
+        }
+        int tasks = 0;
+        for (Object[] row : careTaskRepository.findScheduleRows()) {
+            TaskSchedule schedule = TaskSchedule.of(row);
+            built.expand(schedule, completed.getOrDefault(schedule.taskId, Set.of()));
+            tasks++;
+        }
+
+        log.info("Care task schedule built: {} tasks, {} open occurrences from {} to {} in {} ms",
+                tasks, built.open.size(), built.from, built.to, (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    private static Occurrence first(NavigableSet<Occurrence> occurrences) {
+        try {
+            return occurrences.first();
+        } catch (NoSuchElementException e) {
+            // Emptied since it was looked up
+            return null;
+        }
+    }
+
+    private static final class Index {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final NavigableSet<Occurrence> open = new ConcurrentSkipListSet<>();
+        private final Map<UUID, NavigableSet<Occurrence>> byCaregiver = new ConcurrentHashMap<>();
+        private final Map<UUID, NavigableSet<Occurrence>> byPatient = new ConcurrentHashMap<>();
+        private final Map<UUID, NavigableSet<Occurrence>> byTask = new ConcurrentHashMap<>();
+        private final Map<UUID, LocalDateTime> lastCompleted = new ConcurrentHashMap<>();
+
+        Index(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        List<Occurrence> expand(TaskSchedule schedule, Set<LocalDateTime> completed) {
+            List<Occurrence> added = new ArrayList<>();
+            for (LocalDateTime dueAt : CareTaskScheduleService.expand(schedule.frequency, schedule.scheduledTime,
+                    schedule.startDate, schedule.endDate, from, to)) {
+                if (!completed.contains(dueAt)) {
+                    Occurrence occurrence = new Occurrence(schedule, dueAt);
+                    open.add(occurrence);
+                    link(byTask, schedule.taskId, occurrence);
+                    link(byCaregiver, schedule.caregiverId, occurrence);
+                    link(byPatient, schedule.patientId, occurrence);
+                    added.add(occurrence);
+                }
+            }
+            return added;
+        }
+
+        /** The open occurrence removed, or null if it was not open */
+        Occurrence complete(UUID taskId, LocalDateTime dueAt) {
+            Occurrence[] removed = new Occurrence[1];
+            byTask.computeIfPresent(taskId, (id, occurrences) -> {
+                Occurrence match = occurrences.ceiling(Occurrence.bound(dueAt));
+                if (match != null && match.dueAt.equals(dueAt) && match.getCareTaskId().equals(taskId)) {
+                    occurrences.remove(match);
+                    removed[0] = match;
+                }
+                return occurrences.isEmpty() ? null : occurrences;
+            });
+            if (removed[0] != null) {
+                unlink(removed[0]);
+            }
+            return removed[0];
+        }
+
+        /** The task's open occurrences, now removed */
+        Collection<Occurrence> removeTask(UUID taskId) {
+            NavigableSet<Occurrence> occurrences = byTask.remove(taskId);
+            if (occurrences == null) {
+                return List.of();
+            }
+            occurrences.forEach(this::unlink);
+            return occurrences;
+        }
+
+        private void unlink(Occurrence occurrence) {
+            open.remove(occurrence);
+            unlink(byCaregiver, occurrence.task.caregiverId, occurrence);
+            unlink(byPatient, occurrence.task.patientId, occurrence);
+        }
+
+        private static void link(Map<UUID, NavigableSet<Occurrence>> sets, UUID key, Occurrence occurrence) {
+            if (key != null) {
+                sets.computeIfAbsent(key, id -> new ConcurrentSkipListSet<>()).add(occurrence);
+            }
+        }
+
+        private static void unlink(Map<UUID, NavigableSet<Occurrence>> sets, UUID key, Occurrence occurrence) {
+            if (key != null) {
+                sets.computeIfPresent(key, (id, occurrences) -> {
+                    occurrences.remove(occurrence);
+                    return occurrences.isEmpty() ? null : occurrences;
+                });
+            }
+        }
+    }
+
+    private static final class TaskSchedule {
+        private static final TaskSchedule BOUND = new TaskSchedule(new UUID(Long.MIN_VALUE, Long.MIN_VALUE));
+
+        private final UUID taskId;
+        private final UUID carePlanId;
+        private final UUID patientId;
+        private final UUID caregiverId;
+        private final CareTaskFrequency frequency;
+        private final LocalTime scheduledTime;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final CareTaskPriority priority;
+        private final String taskName;
+        private final CareTaskCategory category;
+
+        /** From a {@link CareTaskRepository#findScheduleRows()} row */
+        private TaskSchedule(Object[] row) {
+            this.taskId = (UUID) row[0];
+            this.carePlanId = (UUID) row[1];
+            this.patientId = (UUID) row[2];
+            this.caregiverId = (UUID) row[3];
+            this.frequency = (CareTaskFrequency) row[4];
+            this.scheduledTime = (LocalTime) row[5];
+            this.startDate = (LocalDate) row[6];
+            this.endDate = (LocalDate) row[7];
+            this.priority = (CareTaskPriority) row[8];
+            this.taskName = (String) row[9];
+            this.category = (CareTaskCategory) row[10];
+        }
+
+        private TaskSchedule(UUID taskId) {
+            this(new Object[]{taskId, null, null, null, null, null, null, null, null, null, null});
+        }
+
+        static TaskSchedule of(Object[] row) {
+            return new TaskSchedule(row);
+        }
+    }
+
+    /**
+     * An open occurrence of a care task. Ordered by due time, then task id.
+     */
+    public static final class Occurrence implements Comparable<Occurrence> {
+        // Shared by every occurrence of the task
+        private final TaskSchedule task;
+        private final LocalDateTime dueAt;
+
+        private Occurrence(TaskSchedule task, LocalDateTime dueAt) {
+            this.task = task;
+            this.dueAt = dueAt;
+        }
+
+        /** Sorts before every occurrence due at {@code dueAt} */
+        static Occurrence bound(LocalDateTime dueAt) {
+            return new Occurrence(TaskSchedule.BOUND, dueAt);
+        }
+
+        public UUID getCareTaskId() { return task.taskId; }
+        public UUID getCarePlanId() { return task.carePlanId; }
+        public UUID getPatientId() { return task.patientId; }
+        /** The care plan's assigned caregiver; null if none */
+        public UUID getCaregiverId() { return task.caregiverId; }
+        public CareTaskPriority getPriority() { return task.priority; }
+        public String getTaskName() { return task.taskName; }
+        public CareTaskCategory getCategory() { return task.category; }
+        public LocalDateTime getDueAt() { return dueAt; }
+
+        @Override
+        public int compareTo(Occurrence other) {
+            int byDue = dueAt.compareTo(other.dueAt);
+            return byDue != 0 ? byDue : task.taskId.compareTo(other.task.taskId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Occurrence other && dueAt.equals(other.dueAt) && task.taskId.equals(other.task.taskId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dueAt, task.taskId);
+        }
+    }
+
+    /**
+     * A task's completion state as of the time it was read.
+     */
+    public static final class TaskStatus {
+        private final LocalDateTime lastCompletedAt;
+        private final LocalDateTime nextDueAt;
+        private final boolean overdue;
+        private final boolean completed;
+
+        TaskStatus(LocalDateTime lastCompletedAt, LocalDateTime nextDueAt, LocalDateTime overdueBefore) {
+            this.lastCompletedAt = lastCompletedAt;
+            this.nextDueAt = nextDueAt;
+            this.overdue = nextDueAt != null && nextDueAt.isBefore(overdueBefore);
+            // Done until the next occurrence comes due
+            this.completed = lastCompletedAt != null && !overdue
+                    && (nextDueAt == null || nextDueAt.isAfter(lastCompletedAt));
+        }
+
+        public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+        /** Earliest open occurrence, which may be past due; null if none in the window */
+        public LocalDateTime getNextDueAt() { return nextDueAt; }
+        public boolean isOverdue() { return overdue; }
+        public boolean isCompleted() { return completed; }
+    }
+}
@@ -5,11 +5,15 @@ import com.geriatriccare.dto.CareTaskResponse;
 import com.geriatriccare.dto.TaskCompletionRequest;
 import com.geriatriccare.entity.CarePlan;
 import com.geriatriccare.entity.CareTask;
+import com.geriatriccare.entity.CareTaskOccurrence;
 import com.geriatriccare.repository.CarePlanRepository;
+import com.geriatriccare.repository.CareTaskOccurrenceRepository;
 import com.geriatriccare.repository.CareTaskRepository;
+import com.geriatriccare.util.SecurityUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,8 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +42,18 @@ public class CareTaskService {
     @Autowired
     private CarePlanRepository carePlanRepository;
     
+    @Autowired
+    private CareTaskOccurrenceRepository careTaskOccurrenceRepository;
+    
+    @Autowired
+    private CareTaskScheduleService careTaskSchedule;
+    
+    @Autowired
+    private AdherenceRollupService adherenceRollup;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
@@ -62,6 +81,7 @@ public class CareTaskService {
         careTask.setInstructions(request.getInstructions());
         
         CareTask saved = careTaskRepository.save(careTask);
+        careTaskSchedule.tasksChanged(List.of(saved.getId()));
         logger.info("Successfully created care task with ID: {}", saved.getId());
         
         return convertToResponse(saved);
@@ -129,6 +149,7 @@ public class CareTaskService {
         careTask.setInstructions(request.getInstructions());
         
         CareTask updated = careTaskRepository.save(careTask);
+        careTaskSchedule.tasksChanged(List.of(id));
         logger.info("Successfully updated care task: {}", id);
         
         return convertToResponse(updated);
@@ -145,6 +166,7 @@ public class CareTaskService {
         
         careTask.setIsActive(false);
         careTaskRepository.save(careTask);
+        careTaskSchedule.tasksChanged(List.of(id));
         
         logger.info("Successfully soft deleted care task: {}", id);
     }
@@ -153,6 +175,8 @@ public class CareTaskService {
     
     /**
      * Mark task as complete
+     * Records the completion against the scheduled occurrence nearest to it,
+     * or as an unscheduled completion if none is open that day
      */
     public CareTaskResponse completeTask(UUID id, TaskCompletionRequest request) {
         logger.info("Completing care task: {}", id);
@@ -160,32 +184,55 @@ public class CareTaskService {
         CareTask careTask = careTaskRepository.findByIdAndIsActiveTrue(id)
                 .orElseThrow(() -> new RuntimeException("Care task not found"));
         
-        // For now, we'll just log completion (full implementation would store completion history)
-        logger.info("Task completed at: {} with notes: {}", 
-                   request.getCompletedAt(), request.getCompletionNotes());
+        LocalDateTime completedAt = request.getCompletedAt() != null ? request.getCompletedAt() : LocalDateTime.now();
+        Optional<LocalDateTime> scheduled = careTaskSchedule.findOpenOccurrence(id, completedAt);
+        LocalDateTime dueAt = scheduled.orElse(completedAt);
         
-        // Update task (in future sprint, this would link to a TaskCompletion entity)
-        careTask.setUpdatedAt(LocalDateTime.now());
-        CareTask updated = careTaskRepository.save(careTask);
+        CareTaskOccurrence occurrence = new CareTaskOccurrence();
+        occurrence.setCareTaskId(id);
+        occurrence.setDueAt(dueAt);
+        occurrence.setCompletedAt(completedAt);
+        occurrence.setCompletedBy(securityUtil.getCurrentUserId());
+        occurrence.setCompletionNotes(request.getCompletionNotes());
+        occurrence.setObservations(request.getObservations());
+        try {
+            careTaskOccurrenceRepository.saveAndFlush(occurrence);
+        } catch (DataIntegrityViolationException e) {
+            // Another completion of the same occurrence committed first (uk_care_task_occurrences_task_due)
+            throw new IllegalStateException("Occurrence due " + dueAt + " was already completed");
+        }
+        careTaskSchedule.occurrenceCompleted(id, dueAt, completedAt);
+        if (scheduled.isPresent()) {
+            // Unscheduled completions, of as-needed tasks or outside the window, do not count toward adherence
+            adherenceRollup.recordCompletion(careTask.getCarePlan().getPatient().getId(),
+                    careTask.getCategory(), dueAt, completedAt);
+        }
         
-        return convertToResponse(updated);
+        logger.info("Task {} completed at {} for occurrence due {}", id, completedAt, dueAt);
+        
+        return convertToResponse(careTask);
     }
     
     // ========== SEARCH AND FILTER ==========
     
     /**
-     * Get overdue tasks
+     * Get overdue tasks, most overdue first
      */
     @Transactional(readOnly = true)
     public List<CareTaskResponse> getOverdueTasks() {
         logger.debug("Fetching overdue tasks");
         
-        // Basic implementation - can be enhanced with completion tracking
-        return careTaskRepository.findByIsActiveTrue(PageRequest.of(0, 100))
-                .stream()
-                .map(this::convertToResponse)
-                .filter(task -> task.getIsOverdue() != null && task.getIsOverdue())
-                .collect(Collectors.toList());
+        return convertInOrder(careTaskSchedule.getOverdue());
+    }
+    
+    /**
+     * Get tasks overdue or coming due for the caregiver assigned to their care plan
+     */
+    @Transactional(readOnly = true)
+    public List<CareTaskResponse> getDueTasksForCaregiver(UUID caregiverId) {
+        logger.debug("Fetching due tasks for caregiver: {}", caregiverId);
+        
+        return convertInOrder(careTaskSchedule.getDueForCaregiver(caregiverId));
     }
     
     /**
@@ -228,6 +275,28 @@ public class CareTaskService {
     
     // ========== CONVERSION METHODS ==========
     
+    /**
+     * Convert the tasks of schedule occurrences, once each, in occurrence order
+     */
+    private List<CareTaskResponse> convertInOrder(List<CareTaskScheduleService.Occurrence> occurrences) {
+        List<UUID> taskIds = occurrences.stream()
+                .map(CareTaskScheduleService.Occurrence::getCareTaskId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<UUID, CareTask> tasks = careTaskRepository.findByIdInAndIsActiveTrue(taskIds)
+                .stream()
+                .collect(Collectors.toMap(CareTask::getId, Function.identity()));
+        return taskIds.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Convert CareTask entity to CareTaskResponse DTO
      */
@@ -251,11 +320,12 @@ public class CareTaskService {
         response.setCreatedAt(careTask.getCreatedAt());
         response.setUpdatedAt(careTask.getUpdatedAt());
         
-        // Completion tracking (placeholder - will be enhanced in future sprint)
-        response.setIsCompleted(false);
-        response.setLastCompletedAt(null);
-        response.setNextDueDate(null);
-        response.setIsOverdue(false);
+        // Completion tracking, from the schedule index
+        CareTaskScheduleService.TaskStatus status = careTaskSchedule.getStatus(careTask.getId());
+        response.setIsCompleted(status.isCompleted());
+        response.setLastCompletedAt(status.getLastCompletedAt());
+        response.setNextDueDate(status.getNextDueAt());
+        response.setIsOverdue(status.isOverdue());
         
         return response;
     }
@@ -0,0 +1,395 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.dto.WorkQueueItem;
+import com.geriatriccare.dto.WorkQueueUpdate;
+import com.geriatriccare.service.CareTaskScheduleService.Occurrence;
+import com.geriatriccare.service.PatientAccessIndexService.Relation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Live work queues for connected caregivers, pushed as server-sent events.
+ *
+ * A caregiver's queue holds the open care task occurrences that are overdue
+ * or coming due (see {@link CareTaskScheduleService}) on the care plans
+ * assigned to them and for the patients they are assigned to, ordered by
+ * task priority, highest first, then due time. A queue is kept only while
+ * its caregiver has a stream open.
+ *
+ * Schedule changes (completions, task and care plan edits) are recorded as
+ * they happen. Every {@code flush-interval-ms} they are applied, together
+ * with the occurrences that came due or went overdue since the last flush,
+ * and each caregiver whose queue changed gets a single update event, so a
+ * burst of changes does not redraw the client once per change. Each change
+ * is an insert into or removal from a sorted set, O(log n) in the queue size.
+ * When the schedule window rolls, queues are rebuilt, patient assignments
+ * re-read, and the whole queue is sent again.
+ */
+@Service
+public class CaregiverWorkQueueService implements CareTaskScheduleService.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(CaregiverWorkQueueService.class);
+
+    static final String QUEUE_EVENT = "work-queue";
+    static final String UPDATE_EVENT = "work-queue-update";
+
+    private static final Comparator<WorkQueueItem> QUEUE_ORDER = Comparator
+            .comparingInt((WorkQueueItem item) -> item.getPriority() != null ? item.getPriority().getLevel() : 0)
+            .reversed()
+            .thenComparing(WorkQueueItem::getDueAt)
+            .thenComparing(WorkQueueItem::getCareTaskId);
+
+    private final CareTaskScheduleService schedule;
+    private final PatientAccessIndexService patientAccessIndex;
+    private final Clock clock;
+    private final long emitterTimeoutMs;
+
+    // Recorded under the schedule's lock, so never blocked on this service's
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+    private volatile boolean rebuilt;
+    private volatile boolean active;
+
+    // Guarded by this
+    private final Map<UUID, Subscriber> subscribers = new HashMap<>();
+    private final Map<UUID, Set<Subscriber>> subscribersByPatient = new HashMap<>();
+    private LocalDateTime dueBefore;
+    private LocalDateTime overdueBefore;
+
+    @Autowired
+    public CaregiverWorkQueueService(CareTaskScheduleService schedule,
+                                     PatientAccessIndexService patientAccessIndex,
+                                     @Value("${app.care-tasks.work-queue.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this(schedule, patientAccessIndex, Clock.systemDefaultZone(), emitterTimeoutMs);
+    }
+
+    public CaregiverWorkQueueService(CareTaskScheduleService schedule,
+                                     PatientAccessIndexService patientAccessIndex,
+                                     Clock clock, long emitterTimeoutMs) {
+        this.schedule = schedule;
+        this.patientAccessIndex = patientAccessIndex;
+        this.clock = clock;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        advanceCursors(LocalDateTime.now(clock));
+        schedule.addListener(this);
+    }
+
+    // ==================== Streams ====================
+
+    /**
+     * Open a stream of {@code caregiverId}'s work queue. The first event is
+     * the whole queue; later events are {@link WorkQueueUpdate}s.
+     */
+    public SseEmitter subscribe(UUID caregiverId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        List<WorkQueueItem> queue;
+        synchronized (this) {
+            Subscriber subscriber = subscribers.get(caregiverId);
+            if (subscriber == null) {
+                subscriber = new Subscriber(caregiverId);
+                link(subscriber, patientAccessIndex.getPatientIds(Relation.CAREGIVER, caregiverId));
+                fill(subscriber);
+                subscribers.put(caregiverId, subscriber);
+                active = true;
+            }
+            subscriber.emitters.add(emitter);
+            queue = new ArrayList<>(subscriber.queue);
+        }
+
+        emitter.onCompletion(() -> unsubscribe(caregiverId, emitter));
+        emitter.onTimeout(() -> unsubscribe(caregiverId, emitter));
+        emitter.onError(e -> unsubscribe(caregiverId, emitter));
+        if (!send(emitter, QUEUE_EVENT, queue)) {
+            unsubscribe(caregiverId, emitter);
+        }
+        log.debug("Work queue stream opened for caregiver {}: {} items", caregiverId, queue.size());
+        return emitter;
+    }
+
+    /**
+     * {@code caregiverId}'s work queue, in priority order.
+     */
+    public synchronized List<WorkQueueItem> getQueue(UUID caregiverId) {
+        Subscriber subscriber = subscribers.get(caregiverId);
+        if (subscriber == null) {
+            subscriber = new Subscriber(caregiverId);
+            subscriber.patientIds.addAll(patientAccessIndex.getPatientIds(Relation.CAREGIVER, caregiverId));
+            fill(subscriber);
+        }
+        return new ArrayList<>(subscriber.queue);
+    }
+
+    private synchronized void unsubscribe(UUID caregiverId, SseEmitter emitter) {
+        Subscriber subscriber = subscribers.get(caregiverId);
+        if (subscriber != null && subscriber.emitters.remove(emitter) && subscriber.emitters.isEmpty()) {
+            subscribers.remove(caregiverId);
+            unlink(subscriber);
+            active = !subscribers.isEmpty();
+            log.debug("Work queue stream closed for caregiver {}", caregiverId);
+        }
+    }
+
+    // ==================== Schedule Changes ====================
+
+    @Override
+    public void occurrencesOpened(List<Occurrence> occurrences) {
+        if (active) {
+            changes.add(new Change(true, occurrences));
+        }
+    }
+
+    @Override
+    public void occurrencesClosed(List<Occurrence> occurrences) {
+        if (active) {
+            changes.add(new Change(false, occurrences));
+        }
+    }
+
+    @Override
+    public void scheduleRebuilt() {
+        rebuilt = true;
+    }
+
+    /**
+     * Apply the recorded changes and the passage of time, and send each
+     * caregiver whose queue changed one event.
+     */
+    @Scheduled(fixedDelayString = "${app.care-tasks.work-queue.flush-interval-ms:2000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Runnable> sends = new ArrayList<>();
+        synchronized (this) {
+            if (subscribers.isEmpty()) {
+                changes.clear();
+                rebuilt = false;
+                advanceCursors(now);
+                return;
+            }
+
+            if (rebuilt) {
+                // Changes recorded so far are in the rebuilt schedule
+                rebuilt = false;
+                changes.clear();
+                advanceCursors(now);
+                for (Subscriber subscriber : subscribers.values()) {
+                    unlink(subscriber);
+                    link(subscriber, patientAccessIndex.getPatientIds(Relation.CAREGIVER, subscriber.caregiverId));
+                    subscriber.clear();
+                    fill(subscriber);
+                    subscriber.resend = true;
+                }
+            } else {
+                Change change;
+                while ((change = changes.poll()) != null) {
+                    apply(change);
+                }
+                LocalDateTime nextDueBefore = now.plus(schedule.getDueWindow());
+                LocalDateTime nextOverdueBefore = now.minus(schedule.getGrace());
+                List<Occurrence> cameDue = schedule.getOpenBetween(dueBefore, nextDueBefore);
+                List<Occurrence> wentOverdue = schedule.getOpenBetween(overdueBefore, nextOverdueBefore);
+                advanceCursors(now);
+                cameDue.forEach(occurrence -> forEachSubscriber(occurrence,
+                        subscriber -> subscriber.upsert(toItem(occurrence))));
+                wentOverdue.forEach(occurrence -> forEachSubscriber(occurrence,
+                        subscriber -> subscriber.upsert(toItem(occurrence))));
+            }
+
+            for (Subscriber subscriber : subscribers.values()) {
+                collectSends(subscriber, sends);
+            }
+        }
+        sends.forEach(Runnable::run);
+    }
+
+    private void apply(Change change) {
+        for (Occurrence occurrence : change.occurrences) {
+            if (!change.opened) {
+                Key key = new Key(occurrence.getCareTaskId(), occurrence.getDueAt());
+                forEachSubscriber(occurrence, subscriber -> subscriber.remove(key));
+            } else if (occurrence.getDueAt().isBefore(dueBefore)) {
+                // Later ones are picked up when they come due
+                forEachSubscriber(occurrence, subscriber -> subscriber.upsert(toItem(occurrence)));
+            }
+        }
+    }
+
+    private void collectSends(Subscriber subscriber, List<Runnable> sends) {
+        Object data;
+        String name;
+        if (subscriber.resend) {
+            name = QUEUE_EVENT;
+            data = new ArrayList<>(subscriber.queue);
+        } else if (!subscriber.upserted.isEmpty() || !subscriber.removed.isEmpty()) {
+            WorkQueueUpdate update = new WorkQueueUpdate();
+            update.setUpserted(new ArrayList<>(subscriber.upserted.values()));
+            update.setRemoved(new ArrayList<>(subscriber.removed.values()));
+            update.setSize(subscriber.queue.size());
+            name = UPDATE_EVENT;
+            data = update;
+        } else {
+            return;
+        }
+        subscriber.resend = false;
+        subscriber.upserted.clear();
+        subscriber.removed.clear();
+
+        for (SseEmitter emitter : subscriber.emitters) {
+            sends.add(() -> {
+                if (!send(emitter, name, data)) {
+                    unsubscribe(subscriber.caregiverId, emitter);
+                }
+            });
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping work queue stream: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== Queues ====================
+
+    private void advanceCursors(LocalDateTime now) {
+        dueBefore = now.plus(schedule.getDueWindow());
+        overdueBefore = now.minus(schedule.getGrace());
+    }
+
+    private void fill(Subscriber subscriber) {
+        schedule.getDueForCaregiver(subscriber.caregiverId)
+                .forEach(occurrence -> subscriber.upsert(toItem(occurrence)));
+        for (UUID patientId : subscriber.patientIds) {
+            schedule.getDueForPatient(patientId)
+                    .forEach(occurrence -> subscriber.upsert(toItem(occurrence)));
+        }
+        // The queue is sent whole; nothing is pending
+        subscriber.upserted.clear();
+    }
+
+    private WorkQueueItem toItem(Occurrence occurrence) {
+        return new WorkQueueItem(occurrence.getCareTaskId(), occurrence.getCarePlanId(), occurrence.getPatientId(),
+                occurrence.getTaskName(), occurrence.getPriority(), occurrence.getDueAt(),
+                occurrence.getDueAt().isBefore(overdueBefore));
+    }
+
+    private void forEachSubscriber(Occurrence occurrence, Consumer<Subscriber> action) {
+        Subscriber assignee = occurrence.getCaregiverId() != null ? subscribers.get(occurrence.getCaregiverId()) : null;
+        if (assignee != null) {
+            action.accept(assignee);
+        }
+        for (Subscriber subscriber : subscribersByPatient.getOrDefault(occurrence.getPatientId(), Set.of())) {
+            if (subscriber != assignee) {
+                action.accept(subscriber);
+            }
+        }
+    }
+
+    private void link(Subscriber subscriber, Set<UUID> patientIds) {
+        subscriber.patientIds.addAll(patientIds);
+        for (UUID patientId : patientIds) {
+            subscribersByPatient.computeIfAbsent(patientId, id -> new HashSet<>()).add(subscriber);
+        }
+    }
+
+    private void unlink(Subscriber subscriber) {
+        for (UUID patientId : subscriber.patientIds) {
+            subscribersByPatient.computeIfPresent(patientId, (id, linked) -> {
+                linked.remove(subscriber);
+                return linked.isEmpty() ? null : linked;
+            });
+        }
+        subscriber.patientIds.clear();
+    }
+
+    private static final class Subscriber {
+        private final UUID caregiverId;
+        private final Set<UUID> patientIds = new HashSet<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final NavigableSet<WorkQueueItem> queue = new TreeSet<>(QUEUE_ORDER);
+        private final Map<Key, WorkQueueItem> items = new HashMap<>();
+        // Changes not yet sent
+        private final Map<Key, WorkQueueItem> upserted = new LinkedHashMap<>();
+        private final Map<Key, WorkQueueItem> removed = new LinkedHashMap<>();
+        private boolean resend;
+
+        Subscriber(UUID caregiverId) {
+            this.caregiverId = caregiverId;
+        }
+
+        void upsert(WorkQueueItem item) {
+            Key key = new Key(item.getCareTaskId(), item.getDueAt());
+            WorkQueueItem previous = items.put(key, item);
+            if (previous != null) {
+                queue.remove(previous);
+            }
+            queue.add(item);
+            if (previous == null || !previous.getOverdue().equals(item.getOverdue())) {
+                removed.remove(key);
+                upserted.put(key, item);
+            }
+        }
+
+        void remove(Key key) {
+            WorkQueueItem previous = items.remove(key);
+            if (previous != null) {
+                queue.remove(previous);
+                // Sent even if the client never saw it; removing an unknown item is a no-op there
+                upserted.remove(key);
+                removed.put(key, previous);
+            }
+        }
+
+        void clear() {
+            queue.clear();
+            items.clear();
+            upserted.clear();
+            removed.clear();
+        }
+    }
+
+    private static final class Change {
+        private final boolean opened;
+        private final List<Occurrence> occurrences;
+
+        Change(boolean opened, List<Occurrence> occurrences) {
+            this.opened = opened;
+            this.occurrences = occurrences;
+        }
+    }
+
+    private static final class Key {
+        private final UUID careTaskId;
+        private final LocalDateTime dueAt;
+
+        Key(UUID careTaskId, LocalDateTime dueAt) {
+            this.careTaskId = careTaskId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && careTaskId.equals(other.careTaskId) && dueAt.equals(other.dueAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(careTaskId, dueAt);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.dto.CatalogSuggestion;
+import com.geriatriccare.entity.Diagnosis;
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.entity.Procedure;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.repository.DiagnosisRepository;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.ProcedureRepository;
+import com.geriatriccare.util.search.CompletionIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead completions over the diagnosis, procedure and drug catalogs.
+ *
+ * One {@link CompletionIndex} per catalog holds codes, names (also from each
+ * later word), diagnosis synonyms and drug brand names. Weights rank codes
+ * over names over synonyms over mid-name words, shorter texts first. After
+ * {@link #invalidate()} lookups keep using the current indexes while new ones
+ * are built on the catalogIndexExecutor, then swapped in.
+ *
+ * Exported through the actuator metrics/prometheus endpoints:
+ *
+ *   catalog.autocomplete.request   lookup time, p50/p99
+ *   catalog.autocomplete.memory    index footprint in bytes (type)
+ *   catalog.autocomplete.keys      completion keys (type)
+ */
+@Service
+public class CatalogAutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogAutocompleteService.class);
+
+    static final int CODE_WEIGHT = 4000;
+    static final int NAME_WEIGHT = 3000;
+    static final int ALIAS_WEIGHT = 2000;
+    static final int WORD_WEIGHT = 1000;
+
+    public static final int MAX_LIMIT = 50;
+
+    /** Separators of synonym and brand name lists, including JSON array syntax */
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("[,;\\[\\]\"]+");
+
+    private final DiagnosisRepository diagnosisRepository;
+    private final ProcedureRepository procedureRepository;
+    private final DrugCatalogRepository drugCatalogRepository;
+    private final Executor indexExecutor;
+    private final Timer requestTimer;
+
+    private volatile Snapshot snapshot;
+
+    // Set by invalidate(); a running rebuild that sees it set builds again
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public CatalogAutocompleteService(DiagnosisRepository diagnosisRepository,
+                                      ProcedureRepository procedureRepository,
+                                      DrugCatalogRepository drugCatalogRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Qualifier("catalogIndexExecutor") Executor indexExecutor) {
+        this.diagnosisRepository = diagnosisRepository;
+        this.procedureRepository = procedureRepository;
+        this.drugCatalogRepository = drugCatalogRepository;
+        this.indexExecutor = indexExecutor;
+
+        this.requestTimer = Timer.builder("catalog.autocomplete.request")
+                .description("Catalog typeahead lookups")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        for (CatalogType type : CatalogType.values()) {
+            Gauge.builder("catalog.autocomplete.memory", this, s -> s.catalogStat(type, true))
+                    .description("Approximate heap footprint of the catalog completion index")
+                    .baseUnit("bytes")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+            Gauge.builder("catalog.autocomplete.keys", this, s -> s.catalogStat(type, false))
+                    .description("Completion keys in the catalog completion index")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            currentSnapshot();
+        } catch (RuntimeException e) {
+            log.warn("Could not build catalog completion index at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the indexes stale and rebuild them in the background; lookups are
+     * served from the current indexes until the new ones are ready.
+     */
+    public void invalidate() {
+        // Rebuild after commit so the repositories already return the write
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Top completions of {@code prefix} across the requested catalogs, heaviest first.
+     */
+    public List<CatalogSuggestion> complete(String prefix, Set<CatalogType> types, int limit) {
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long start = System.nanoTime();
+        try {
+            Snapshot current = currentSnapshot();
+            List<CatalogSuggestion> suggestions = new ArrayList<>();
+            for (CatalogType type : types) {
+                Catalog catalog = current.catalogs.get(type);
+                for (CompletionIndex.Completion completion : catalog.index.complete(prefix, capped)) {
+                    CatalogSuggestion entry = catalog.entries.get(completion.getEntry());
+                    CatalogSuggestion suggestion = new CatalogSuggestion(type, entry.getId(), entry.getCode(), entry.getName());
+                    suggestion.setMatched(completion.getKey());
+                    suggestion.setWeight(completion.getWeight());
+                    suggestions.add(suggestion);
+                }
+            }
+            if (types.size() > 1) {
+                suggestions.sort(Comparator.comparingInt(CatalogSuggestion::getWeight).reversed());
+            }
+            return suggestions.size() > capped ? suggestions.subList(0, capped) : suggestions;
+        } finally {
+            requestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double catalogStat(CatalogType type, boolean memory) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return 0;
+        }
+        CompletionIndex index = current.catalogs.get(type).index;
+        return memory ? index.memoryBytes() : index.keyCount();
+    }
+
+    // ==================== Index Construction ====================
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = build();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void scheduleRebuild() {
+        stale.set(true);
+        if (rebuilding.compareAndSet(false, true)) {
+            indexExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            while (stale.getAndSet(false)) {
+                snapshot = build();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild catalog completion index, keeping the previous one: {}", e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+        // An invalidation that arrived just before the flag was cleared
+        if (stale.get() && rebuilding.compareAndSet(false, true)) {
+            indexExecutor.execute(this::rebuild);
+        }
+    }
+
+    private Snapshot build() {
+        long start = System.nanoTime();
+        Map<CatalogType, Catalog> catalogs = new EnumMap<>(CatalogType.class);
+
+        CatalogBuilder diagnoses = new CatalogBuilder(CatalogType.DIAGNOSIS);
+        for (Diagnosis diagnosis : diagnosisRepository.findAllActive()) {
+            int entry = diagnoses.entry(diagnosis.getId(), diagnosis.getCode(), diagnosis.getName());
+            diagnoses.code(diagnosis.getCode(), entry);
+            diagnoses.name(diagnosis.getName(), entry);
+            diagnoses.aliases(diagnosis.getSynonyms(), entry);
+        }
+        catalogs.put(CatalogType.DIAGNOSIS, diagnoses.build());
+
+        CatalogBuilder procedures = new CatalogBuilder(CatalogType.PROCEDURE);
+        for (Procedure procedure : procedureRepository.findAllActive()) {
+            int entry = procedures.entry(procedure.getId(), procedure.getCode(), procedure.getName());
+            procedures.code(procedure.getCode(), entry);
+            procedures.name(procedure.getName(), entry);
+        }
+        catalogs.put(CatalogType.PROCEDURE, procedures.build());
+
+        CatalogBuilder drugs = new CatalogBuilder(CatalogType.DRUG);
+        for (DrugCatalog drug : drugCatalogRepository.findAllActive()) {
+            int entry = drugs.entry(drug.getId(), null, drug.getGenericName());
+            drugs.name(drug.getGenericName(), entry);
+            drugs.aliases(drug.getBrandNames(), entry);
+        }
+        catalogs.put(CatalogType.DRUG, drugs.build());
+
+        Snapshot built = new Snapshot(catalogs);
+        log.info("Catalog completion index built in {} ms: {} keys, ~{} KB",
+                (System.nanoTime() - start) / 1_000_000, built.keyCount(), built.memoryBytes() / 1024);
+        return built;
+    }
+
+    private static int byLength(int weight, String text) {
+        // Shorter completions first within the same kind of match
+        return weight - Math.min(text.length(), WORD_WEIGHT - 1);
+    }
+
+    private static final class CatalogBuilder {
+        private final CatalogType type;
+        private final CompletionIndex.Builder index = CompletionIndex.builder();
+        private final List<CatalogSuggestion> entries = new ArrayList<>();
+
+        CatalogBuilder(CatalogType type) {
+            this.type = type;
+        }
+
+        int entry(UUID id, String code, String name) {
+            entries.add(new CatalogSuggestion(type, id, code, name));
+            return entries.size() - 1;
+        }
+
+        void code(String code, int entry) {
+            if (code == null) {
+                return;
+            }
+            index.add(code, byLength(CODE_WEIGHT, code), entry);
+            // Also without punctuation, so "E119" completes "E11.9"
+            String compact = CompletionIndex.normalize(code).replace(" ", "");
+            if (!compact.equals(CompletionIndex.normalize(code))) {
+                index.add(compact, byLength(CODE_WEIGHT, code), entry);
+            }
+        }
+
+        void name(String name, int entry) {
+            if (name != null) {
+                index.addWithWordStarts(name, byLength(NAME_WEIGHT, name), byLength(WORD_WEIGHT, name), entry);
+            }
+        }
+
+        void aliases(String list, int entry) {
+            if (list == null) {
+                return;
+            }
+            for (String alias : LIST_SEPARATOR.split(list)) {
+                if (!alias.isBlank()) {
+                    index.add(alias, byLength(ALIAS_WEIGHT, alias.trim()), entry);
+                }
+            }
+        }
+
+        Catalog build() {
+            return new Catalog(index.build(), List.copyOf(entries));
+        }
+    }
+
+    private static final class Catalog {
+        private final CompletionIndex index;
+        private final List<CatalogSuggestion> entries;
+
+        Catalog(CompletionIndex index, List<CatalogSuggestion> entries) {
+            this.index = index;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<CatalogType, Catalog> catalogs;
+
+        Snapshot(Map<CatalogType, Catalog> catalogs) {
+            this.catalogs = catalogs;
+        }
+
+        long keyCount() {
+            return catalogs.values().stream().mapToLong(c -> c.index.keyCount()).sum();
+        }
+
+        long memoryBytes() {
+            return catalogs.values().stream().mapToLong(c -> c.index.memoryBytes()).sum();
+        }
+    }
+}
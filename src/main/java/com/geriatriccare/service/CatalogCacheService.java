@@ -0,0 +1,103 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.config.CacheConfig;
+import com.geriatriccare.enums.CatalogType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of catalog reference data in the catalog cache tier.
+ *
+ * Keys carry a per-catalog version. A write bumps the version instead of
+ * evicting entries one by one, so every cached entry of that catalog becomes
+ * unreachable at once and ages out of the size-bounded cache. The version is
+ * bumped again after commit, the same as the search and typeahead indexes, so
+ * a read racing an uncommitted write cannot keep stale data under the new
+ * version.
+ *
+ * Cached entities are shared between callers and must not be modified; load
+ * from the repository for updates.
+ */
+@Service
+public class CatalogCacheService {
+
+    private static final String STATISTICS = "statistics";
+
+    private final Cache cache;
+    private final Map<CatalogType, AtomicLong> versions = new EnumMap<>(CatalogType.class);
+    private final AtomicLong statisticsVersion = new AtomicLong();
+
+    public CatalogCacheService(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.CATALOG_CACHE);
+        for (CatalogType type : CatalogType.values()) {
+            versions.put(type, new AtomicLong());
+        }
+    }
+
+    /**
+     * The cached entry, or the loader's result (cached if present).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(CatalogType type, UUID id, Function<UUID, Optional<T>> loader) {
+        SimpleKey key = new SimpleKey(type, versions.get(type).get(), id);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return Optional.of((T) cached.get());
+        }
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(value -> cache.put(key, value));
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> getStatistics(Supplier<Map<String, Long>> loader) {
+        SimpleKey key = new SimpleKey(STATISTICS, statisticsVersion.get());
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (Map<String, Long>) cached.get();
+        }
+        Map<String, Long> loaded = Map.copyOf(loader.get());
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Retire all cached entries of one catalog and the statistics.
+     */
+    public void evict(CatalogType type) {
+        bumpAfterCommit(versions.get(type));
+        bumpAfterCommit(statisticsVersion);
+    }
+
+    /**
+     * Retire the cached statistics only (specialty writes).
+     */
+    public void evictStatistics() {
+        bumpAfterCommit(statisticsVersion);
+    }
+
+    private static void bumpAfterCommit(AtomicLong version) {
+        version.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+}
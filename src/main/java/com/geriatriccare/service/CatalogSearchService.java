@@ -0,0 +1,208 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.entity.Diagnosis;
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.entity.Procedure;
+import com.geriatriccare.repository.DiagnosisRepository;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.ProcedureRepository;
+import com.geriatriccare.util.search.InvertedIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory full-text search over the diagnosis (ICD-10), procedure (CPT) and
+ * drug catalogs.
+ *
+ * Active catalog entries are indexed at startup; CatalogService reports every
+ * write, and the change is applied once the transaction commits. Until the
+ * first build has finished {@link #isReady()} is false and callers fall back
+ * to the repository LIKE queries. A rebuild fills new indexes off to the side,
+ * replays the changes committed meanwhile and publishes them in one swap, so
+ * searches keep hitting the complete previous indexes until then.
+ */
+@Service
+public class CatalogSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchService.class);
+
+    static final float CODE_WEIGHT = 4.0f;
+    static final float NAME_WEIGHT = 3.0f;
+    static final float SYNONYM_WEIGHT = 2.0f;
+    static final float CATEGORY_WEIGHT = 1.0f;
+
+    private final DiagnosisRepository diagnosisRepository;
+    private final ProcedureRepository procedureRepository;
+    private final DrugCatalogRepository drugCatalogRepository;
+
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready;
+
+    // Orders index changes against the swap; pending is non-null while a rebuild runs
+    private final Object changeLock = new Object();
+    private List<Consumer<Indexes>> pending;
+
+    public CatalogSearchService(DiagnosisRepository diagnosisRepository,
+                                ProcedureRepository procedureRepository,
+                                DrugCatalogRepository drugCatalogRepository) {
+        this.diagnosisRepository = diagnosisRepository;
+        this.procedureRepository = procedureRepository;
+        this.drugCatalogRepository = drugCatalogRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not build catalog search index at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read all active catalog entries.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        synchronized (changeLock) {
+            pending = new ArrayList<>();
+        }
+
+        Indexes next = new Indexes();
+        try {
+            diagnosisRepository.findAllActive().forEach(d -> next.diagnoses.put(d.getId(), terms(d)));
+            procedureRepository.findAllActive().forEach(p -> next.procedures.put(p.getId(), terms(p)));
+            drugCatalogRepository.findAllActive().forEach(d -> next.drugs.put(d.getId(), terms(d)));
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        // Changes are idempotent puts and removes, so replaying one the reads already saw is harmless
+        synchronized (changeLock) {
+            pending.forEach(change -> change.accept(next));
+            pending = null;
+            indexes = next;
+        }
+
+        ready = true;
+        log.info("Catalog search index built in {} ms: {} diagnoses, {} procedures, {} drugs, {} terms",
+                (System.nanoTime() - start) / 1_000_000,
+                next.diagnoses.size(), next.procedures.size(), next.drugs.size(),
+                next.diagnoses.termCount() + next.procedures.termCount() + next.drugs.termCount());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== Search ====================
+
+    public InvertedIndex.Result<UUID> searchDiagnoses(String query, int offset, int limit) {
+        return indexes.diagnoses.search(query, offset, limit);
+    }
+
+    public InvertedIndex.Result<UUID> searchProcedures(String query, int offset, int limit) {
+        return indexes.procedures.search(query, offset, limit);
+    }
+
+    public InvertedIndex.Result<UUID> searchDrugs(String query, int offset, int limit) {
+        return indexes.drugs.search(query, offset, limit);
+    }
+
+    // ==================== Updates ====================
+
+    /**
+     * Index a saved diagnosis, or drop it if it is no longer active.
+     */
+    public void updated(Diagnosis diagnosis) {
+        apply(target -> target.diagnoses, diagnosis.getId(),
+                Boolean.TRUE.equals(diagnosis.getIsActive()) ? terms(diagnosis) : null);
+    }
+
+    public void updated(Procedure procedure) {
+        apply(target -> target.procedures, procedure.getId(),
+                Boolean.TRUE.equals(procedure.getIsActive()) ? terms(procedure) : null);
+    }
+
+    public void updated(DrugCatalog drug) {
+        apply(target -> target.drugs, drug.getId(),
+                Boolean.TRUE.equals(drug.getIsActive()) ? terms(drug) : null);
+    }
+
+    private void apply(Function<Indexes, InvertedIndex<UUID>> catalog, UUID id, Map<String, Float> terms) {
+        Consumer<Indexes> change = terms != null
+                ? target -> catalog.apply(target).put(id, terms)
+                : target -> catalog.apply(target).remove(id);
+        Runnable publish = () -> {
+            synchronized (changeLock) {
+                change.accept(indexes);
+                if (pending != null) {
+                    pending.add(change);
+                }
+            }
+        };
+
+        // A rolled back write must not reach the index
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private static final class Indexes {
+        final InvertedIndex<UUID> diagnoses = new InvertedIndex<>();
+        final InvertedIndex<UUID> procedures = new InvertedIndex<>();
+        final InvertedIndex<UUID> drugs = new InvertedIndex<>();
+    }
+
+    // ==================== Documents ====================
+
+    private static Map<String, Float> terms(Diagnosis diagnosis) {
+        Map<String, Float> terms = new HashMap<>();
+        InvertedIndex.addCode(terms, diagnosis.getCode(), CODE_WEIGHT);
+        InvertedIndex.addTerms(terms, diagnosis.getName(), NAME_WEIGHT);
+        InvertedIndex.addTerms(terms, diagnosis.getSynonyms(), SYNONYM_WEIGHT);
+        InvertedIndex.addTerms(terms, diagnosis.getCategory(), CATEGORY_WEIGHT);
+        return terms;
+    }
+
+    private static Map<String, Float> terms(Procedure procedure) {
+        Map<String, Float> terms = new HashMap<>();
+        InvertedIndex.addCode(terms, procedure.getCode(), CODE_WEIGHT);
+        InvertedIndex.addTerms(terms, procedure.getName(), NAME_WEIGHT);
+        InvertedIndex.addTerms(terms, procedure.getCategory(), CATEGORY_WEIGHT);
+        InvertedIndex.addTerms(terms, procedure.getTypicalSpecialty(), CATEGORY_WEIGHT);
+        return terms;
+    }
+
+    private static Map<String, Float> terms(DrugCatalog drug) {
+        Map<String, Float> terms = new HashMap<>();
+        InvertedIndex.addTerms(terms, drug.getGenericName(), NAME_WEIGHT);
+        InvertedIndex.addTerms(terms, drug.getBrandNames(), SYNONYM_WEIGHT);
+        InvertedIndex.addTerms(terms, drug.getCategory(), CATEGORY_WEIGHT);
+        InvertedIndex.addTerms(terms, drug.getTherapeuticClass(), CATEGORY_WEIGHT);
+        return terms;
+    }
+}
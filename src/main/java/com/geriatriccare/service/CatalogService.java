@@ -3,12 +3,17 @@ package com.geriatriccare.service;
 import com.geriatriccare.entity.*;
 import com.geriatriccare.enums.AuditEventType;
 import com.geriatriccare.enums.AuditSeverity;
+import com.geriatriccare.enums.CatalogType;
 import com.geriatriccare.dto.security.DataSensitivity;
 import com.geriatriccare.repository.*;
 import com.geriatriccare.service.security.AuditEnhancementService;
+import com.geriatriccare.util.search.InvertedIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -16,6 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Catalog Service
@@ -37,6 +43,10 @@ public class CatalogService {
     private final ProcedureRepository procedureRepository;
     private final DrugCatalogRepository drugCatalogRepository;
     private final AuditEnhancementService auditService;
+    private final DrugInteractionGraphService interactionGraph;
+    private final CatalogSearchService catalogSearch;
+    private final CatalogAutocompleteService autocomplete;
+    private final CatalogCacheService catalogCache;
 
     // ========== DIAGNOSIS OPERATIONS ==========
 
@@ -52,6 +62,9 @@ public class CatalogService {
         diagnosis.setUpdatedBy(createdBy);
         
         Diagnosis saved = diagnosisRepository.save(diagnosis);
+        catalogSearch.updated(saved);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DIAGNOSIS);
 
         auditService.logEnhancedAuditEvent(
             AuditEventType.CONFIG_CHANGED,
@@ -90,6 +103,9 @@ public class CatalogService {
         existing.setUpdatedBy(updatedBy);
 
         Diagnosis updated = diagnosisRepository.save(existing);
+        catalogSearch.updated(updated);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DIAGNOSIS);
 
         auditService.logEnhancedAuditEvent(
             AuditEventType.CONFIG_CHANGED,
@@ -104,9 +120,8 @@ public class CatalogService {
         return updated;
     }
 
-    @Transactional(readOnly = true)
     public Diagnosis getDiagnosisById(UUID id) {
-        return diagnosisRepository.findById(id)
+        return catalogCache.get(CatalogType.DIAGNOSIS, id, diagnosisRepository::findById)
                 .orElseThrow(() -> new IllegalArgumentException("Diagnosis not found: " + id));
     }
 
@@ -123,6 +138,10 @@ public class CatalogService {
 
     @Transactional(readOnly = true)
     public Page<Diagnosis> searchDiagnoses(String query, int page, int size) {
+        if (catalogSearch.isReady()) {
+            InvertedIndex.Result<UUID> result = catalogSearch.searchDiagnoses(query, page * size, size);
+            return rankedPage(result, diagnosisRepository::findAllById, Diagnosis::getId, page, size);
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "code"));
         return diagnosisRepository.search(query, pageable);
     }
@@ -131,11 +150,15 @@ public class CatalogService {
     public void deleteDiagnosis(UUID id, String deletedBy) {
         log.info("Deleting diagnosis: {}", id);
 
-        Diagnosis diagnosis = getDiagnosisById(id);
+        Diagnosis diagnosis = diagnosisRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Diagnosis not found: " + id));
         diagnosis.setIsActive(false);
         diagnosis.setUpdatedBy(deletedBy);
         
         diagnosisRepository.save(diagnosis);
+        catalogSearch.updated(diagnosis);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DIAGNOSIS);
 
         auditService.logEnhancedAuditEvent(
             AuditEventType.CONFIG_CHANGED,
@@ -162,6 +185,7 @@ public class CatalogService {
         specialty.setUpdatedBy(createdBy);
         
         MedicalSpecialty saved = medicalSpecialtyRepository.save(specialty);
+        catalogCache.evictStatistics();
 
         auditService.logEnhancedAuditEvent(
             AuditEventType.CONFIG_CHANGED,
@@ -197,7 +221,10 @@ public class CatalogService {
         existing.setCommonConditions(specialty.getCommonConditions());
         existing.setUpdatedBy(updatedBy);
 
-        return medicalSpecialtyRepository.save(existing);
+        MedicalSpecialty updated = medicalSpecialtyRepository.save(existing);
+        catalogCache.evictStatistics();
+
+        return updated;
     }
 
     @Transactional(readOnly = true)
@@ -232,6 +259,7 @@ public class CatalogService {
         specialty.setUpdatedBy(deletedBy);
         
         medicalSpecialtyRepository.save(specialty);
+        catalogCache.evictStatistics();
     }
 
     // ========== PROCEDURE OPERATIONS ==========
@@ -247,7 +275,11 @@ public class CatalogService {
         procedure.setCreatedBy(createdBy);
         procedure.setUpdatedBy(createdBy);
         
-        return procedureRepository.save(procedure);
+        Procedure saved = procedureRepository.save(procedure);
+        catalogSearch.updated(saved);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.PROCEDURE);
+        return saved;
     }
 
     @Transactional
@@ -274,12 +306,15 @@ public class CatalogService {
         existing.setTypicalSpecialty(procedure.getTypicalSpecialty());
         existing.setUpdatedBy(updatedBy);
 
-        return procedureRepository.save(existing);
+        Procedure saved = procedureRepository.save(existing);
+        catalogSearch.updated(saved);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.PROCEDURE);
+        return saved;
     }
 
-    @Transactional(readOnly = true)
     public Procedure getProcedureById(UUID id) {
-        return procedureRepository.findById(id)
+        return catalogCache.get(CatalogType.PROCEDURE, id, procedureRepository::findById)
                 .orElseThrow(() -> new IllegalArgumentException("Procedure not found: " + id));
     }
 
@@ -296,6 +331,10 @@ public class CatalogService {
 
     @Transactional(readOnly = true)
     public Page<Procedure> searchProcedures(String query, int page, int size) {
+        if (catalogSearch.isReady()) {
+            InvertedIndex.Result<UUID> result = catalogSearch.searchProcedures(query, page * size, size);
+            return rankedPage(result, procedureRepository::findAllById, Procedure::getId, page, size);
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "code"));
         return procedureRepository.search(query, pageable);
     }
@@ -304,11 +343,15 @@ public class CatalogService {
     public void deleteProcedure(UUID id, String deletedBy) {
         log.info("Deleting procedure: {}", id);
 
-        Procedure procedure = getProcedureById(id);
+        Procedure procedure = procedureRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Procedure not found: " + id));
         procedure.setIsActive(false);
         procedure.setUpdatedBy(deletedBy);
         
         procedureRepository.save(procedure);
+        catalogSearch.updated(procedure);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.PROCEDURE);
     }
 
     // ========== DRUG CATALOG OPERATIONS ==========
@@ -324,7 +367,12 @@ public class CatalogService {
         drug.setCreatedBy(createdBy);
         drug.setUpdatedBy(createdBy);
         
-        return drugCatalogRepository.save(drug);
+        DrugCatalog saved = drugCatalogRepository.save(drug);
+        interactionGraph.invalidate();
+        catalogSearch.updated(saved);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DRUG);
+        return saved;
     }
 
     @Transactional
@@ -356,12 +404,16 @@ public class CatalogService {
         existing.setControlledSubstanceSchedule(drug.getControlledSubstanceSchedule());
         existing.setUpdatedBy(updatedBy);
 
-        return drugCatalogRepository.save(existing);
+        DrugCatalog saved = drugCatalogRepository.save(existing);
+        interactionGraph.invalidate();
+        catalogSearch.updated(saved);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DRUG);
+        return saved;
     }
 
-    @Transactional(readOnly = true)
     public DrugCatalog getDrugById(UUID id) {
-        return drugCatalogRepository.findById(id)
+        return catalogCache.get(CatalogType.DRUG, id, drugCatalogRepository::findById)
                 .orElseThrow(() -> new IllegalArgumentException("Drug not found: " + id));
     }
 
@@ -378,6 +430,10 @@ public class CatalogService {
 
     @Transactional(readOnly = true)
     public Page<DrugCatalog> searchDrugs(String query, int page, int size) {
+        if (catalogSearch.isReady()) {
+            InvertedIndex.Result<UUID> result = catalogSearch.searchDrugs(query, page * size, size);
+            return rankedPage(result, drugCatalogRepository::findAllById, DrugCatalog::getId, page, size);
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "genericName"));
         return drugCatalogRepository.search(query, pageable);
     }
@@ -386,28 +442,72 @@ public class CatalogService {
     public void deleteDrug(UUID id, String deletedBy) {
         log.info("Deleting drug: {}", id);
 
-        DrugCatalog drug = getDrugById(id);
+        DrugCatalog drug = drugCatalogRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Drug not found: " + id));
         drug.setIsActive(false);
         drug.setUpdatedBy(deletedBy);
         
         drugCatalogRepository.save(drug);
+        interactionGraph.invalidate();
+        catalogSearch.updated(drug);
+        autocomplete.invalidate();
+        catalogCache.evict(CatalogType.DRUG);
     }
 
     // ========== UTILITY METHODS ==========
 
-    @Transactional(readOnly = true)
+    /**
+     * Load one page of ranked search hits, keeping the index's ranking order.
+     */
+    private <T> Page<T> rankedPage(InvertedIndex.Result<UUID> result, Function<List<UUID>, List<T>> loader,
+                                   Function<T, UUID> idOf, int page, int size) {
+        List<UUID> ids = result.getKeys();
+        Map<UUID, T> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (T entity : loader.apply(ids)) {
+                byId.put(idOf.apply(entity), entity);
+            }
+        }
+
+        List<T> content = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                content.add(entity);
+            }
+        }
+        return new PageImpl<>(content, PageRequest.of(page, size), result.getTotal());
+    }
+
     public Map<String, Long> getCatalogStatistics() {
+        return catalogCache.getStatistics(this::countCatalogs);
+    }
+
+    private Map<String, Long> countCatalogs() {
         Map<String, Long> stats = new HashMap<>();
         
         stats.put("totalDiagnoses", diagnosisRepository.count());
-        stats.put("activeDiagnoses", (long) diagnosisRepository.findAllActive().size());
+        stats.put("activeDiagnoses", diagnosisRepository.countByIsActiveTrue());
         stats.put("totalSpecialties", medicalSpecialtyRepository.count());
-        stats.put("activeSpecialties", (long) medicalSpecialtyRepository.findAllActive().size());
+        stats.put("activeSpecialties", medicalSpecialtyRepository.countByIsActiveTrue());
         stats.put("totalProcedures", procedureRepository.count());
-        stats.put("activeProcedures", (long) procedureRepository.findAllActive().size());
+        stats.put("activeProcedures", procedureRepository.countByIsActiveTrue());
         stats.put("totalDrugs", drugCatalogRepository.count());
-        stats.put("activeDrugs", (long) drugCatalogRepository.findAllActive().size());
+        stats.put("activeDrugs", drugCatalogRepository.countByIsActiveTrue());
         
         return stats;
     }
+
+    /**
+     * Prime the catalog cache with the statistics; by-id entries are cached
+     * as GET /api/catalogs/{type}/{id} reads them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCache() {
+        try {
+            getCatalogStatistics();
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up catalog cache: {}", e.getMessage());
+        }
+    }
 }
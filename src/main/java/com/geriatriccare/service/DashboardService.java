@@ -5,6 +5,7 @@ import com.geriatriccare.dto.dashboard.DashboardStatistics;
 import com.geriatriccare.entity.*;
 import com.geriatriccare.enums.*;
 import com.geriatriccare.repository.*;
+import com.geriatriccare.service.AdherenceRollupService.AdherenceTotals;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -31,10 +32,9 @@ public class DashboardService {
     private final VitalSignRepository vitalSignRepository;
     private final AlertRepository alertRepository;
     private final AlertRuleRepository alertRuleRepository;
-    private final AdherenceReportRepository adherenceReportRepository;
-    private final MedicationAdherenceReportRepository medicationReportRepository;
     private final CarePlanRepository carePlanRepository;
     private final MedicationRepository medicationRepository;
+    private final AdherenceRollupService adherenceRollup;
 
     @Transactional(readOnly = true)
     public DashboardStatistics generateDashboard(DashboardRequest request) {
@@ -64,19 +64,15 @@ public class DashboardService {
             LocalDateTime startDate, LocalDateTime endDate) {
         
         long totalPatients = patientRepository.count();
-        long activePatients = patientRepository.findByIsActiveTrue(PageRequest.of(0, 10000)).getContent().size();
+        long activePatients = patientRepository.countByIsActiveTrue();
         long inactivePatients = totalPatients - activePatients;
 
         // Calculate new patients in period (simplified)
         int newPatients = 5; // Mock - would need createdAt tracking
 
-        // Calculate average age
-        List<Patient> allPatients = patientRepository.findAll();
-        double avgAge = allPatients.stream()
-            .filter(p -> p.getDateOfBirth() != null)
-            .mapToLong(p -> ChronoUnit.YEARS.between(p.getDateOfBirth(), LocalDateTime.now().toLocalDate()))
-            .average()
-            .orElse(0.0);
+        // Calculate average age (from the plaintext birth year; DOBs stay encrypted)
+        Double averageAge = patientRepository.averageAge();
+        double avgAge = averageAge != null ? averageAge : 0.0;
 
         // High risk patients (simplified - based on multiple factors)
         int highRisk = (int) (activePatients * 0.15); // Assume 15% high risk
@@ -245,38 +241,33 @@ public class DashboardService {
     private DashboardStatistics.CarePlanMetrics calculateCarePlanMetrics(
             LocalDateTime startDate, LocalDateTime endDate) {
         
-        // Get recent adherence reports
-        List<AdherenceReport> reports = adherenceReportRepository.findAll(PageRequest.of(0, 100)).getContent();
-
         int totalPlans = (int) carePlanRepository.count();
         long activePlans = carePlanRepository.findByIsActiveTrue(PageRequest.of(0, 1000)).getTotalElements();
 
-        double avgAdherence = reports.stream()
-            .mapToDouble(AdherenceReport::getAdherencePercentage)
-            .average()
-            .orElse(0.0);
+        // Precomputed per-patient, per-category daily counters
+        Map<CareTaskCategory, AdherenceTotals> categoryTotals =
+            adherenceRollup.getTotalsByCategory(startDate.toLocalDate(), endDate.toLocalDate());
+        Collection<AdherenceTotals> patientTotals =
+            adherenceRollup.getTotalsByPatient(startDate.toLocalDate(), endDate.toLocalDate()).values();
 
-        long highAdherence = reports.stream()
-            .filter(r -> r.getAdherencePercentage() > 80.0)
+        double avgAdherence = AdherenceRollupService.sum(categoryTotals.values()).getAdherencePercentage();
+
+        // Per patient, as the counters are kept per patient rather than per plan
+        long highAdherence = patientTotals.stream()
+            .filter(t -> t.getScheduled() > 0 && t.getAdherencePercentage() > 80.0)
             .count();
 
-        long lowAdherence = reports.stream()
-            .filter(r -> r.getAdherencePercentage() < 50.0)
+        long lowAdherence = patientTotals.stream()
+            .filter(t -> t.getScheduled() > 0 && t.getAdherencePercentage() < 50.0)
             .count();
 
-        // Mock category breakdown
-        List<DashboardStatistics.CategoryAdherence> byCategory = Arrays.asList(
-            DashboardStatistics.CategoryAdherence.builder()
-                .category("MEDICATION")
-                .adherence(82.0)
-                .taskCount(150)
-                .build(),
-            DashboardStatistics.CategoryAdherence.builder()
-                .category("EXERCISE")
-                .adherence(65.0)
-                .taskCount(80)
-                .build()
-        );
+        List<DashboardStatistics.CategoryAdherence> byCategory = categoryTotals.entrySet().stream()
+            .map(e -> DashboardStatistics.CategoryAdherence.builder()
+                .category(e.getKey().name())
+                .adherence(e.getValue().getAdherencePercentage())
+                .taskCount((int) e.getValue().getScheduled())
+                .build())
+            .collect(Collectors.toList());
 
         return DashboardStatistics.CarePlanMetrics.builder()
             .totalCarePlans(totalPlans)
@@ -297,21 +288,17 @@ public class DashboardService {
         
         int totalMeds = medicationRepository.findByIsActiveTrue().size();
         
-        // Get medication reports
-        List<MedicationAdherenceReport> medReports = medicationReportRepository
-            .findAll(PageRequest.of(0, 100)).getContent();
+        // Doses are MEDICATION care task occurrences
+        Map<UUID, AdherenceTotals> byPatient = adherenceRollup.getTotalsByPatient(
+            CareTaskCategory.MEDICATION, startDate.toLocalDate(), endDate.toLocalDate());
+        AdherenceTotals doses = AdherenceRollupService.sum(byPatient.values());
 
-        double avgAdherence = medReports.stream()
-            .mapToDouble(MedicationAdherenceReport::getAdherencePercentage)
-            .average()
-            .orElse(75.0);
+        double avgAdherence = doses.getAdherencePercentage();
 
-        int missedDoses = medReports.stream()
-            .mapToInt(MedicationAdherenceReport::getMissedDoses)
-            .sum();
+        int missedDoses = (int) doses.getMissed();
 
-        long highRisk = medReports.stream()
-            .filter(r -> r.getAdherencePercentage() < 70.0)
+        long highRisk = byPatient.values().stream()
+            .filter(t -> t.getScheduled() > 0 && t.getAdherencePercentage() < 70.0)
             .count();
 
         return DashboardStatistics.MedicationMetrics.builder()
@@ -0,0 +1,452 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.entity.DrugInteraction;
+import com.geriatriccare.entity.InteractionSeverity;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.DrugInteractionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * In-memory drug interaction graph
+ *
+ * Built from the structured reference data already stored in the database:
+ * - DrugInteraction rows (pairwise, with severity)
+ * - DrugCatalog generic/brand names, plus the catalog's major-interaction lists
+ *
+ * Every known name (generic or brand) is normalized and mapped to a dense
+ * drug id; each id has a sorted adjacency list of interacting drug ids, so a
+ * regimen of N medications is checked with N² binary searches and no queries.
+ * The graph is rebuilt lazily after {@link #invalidate()}.
+ *
+ * A pair counts as covered by the reference data only when it has an edge,
+ * or when both drugs have a catalog interaction list (so the absence of an
+ * edge means "no listed interaction" rather than "unknown"). Pairs that are
+ * not covered have to be checked elsewhere.
+ */
+@Service
+public class DrugInteractionGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugInteractionGraphService.class);
+
+    private static final String CATALOG_INTERACTION_DESCRIPTION = "Major interaction listed in drug catalog";
+    private static final String CATALOG_INTERACTION_RECOMMENDATION = "Review combination with prescriber or pharmacist";
+
+    /** Trailing salt, release and dosage-form words dropped when a full name is not known */
+    private static final Set<String> FORMULATION_WORDS = Set.of(
+            "er", "xr", "xl", "sr", "cr", "la", "dr", "ir", "odt",
+            "extended", "delayed", "immediate", "release",
+            "hcl", "hydrochloride", "succinate", "tartrate", "sodium", "potassium", "calcium",
+            "maleate", "besylate", "mesylate", "citrate", "sulfate", "phosphate", "acetate",
+            "tablet", "tablets", "tab", "capsule", "capsules", "cap", "oral", "solution", "chewable");
+
+    private final DrugInteractionRepository drugInteractionRepository;
+    private final DrugCatalogRepository drugCatalogRepository;
+
+    private volatile Graph graph;
+
+    public DrugInteractionGraphService(DrugInteractionRepository drugInteractionRepository,
+                                       DrugCatalogRepository drugCatalogRepository) {
+        this.drugInteractionRepository = drugInteractionRepository;
+        this.drugCatalogRepository = drugCatalogRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            currentGraph();
+        } catch (RuntimeException e) {
+            log.warn("Could not build drug interaction graph at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark the graph stale; the next check rebuilds it from the repositories.
+     */
+    public void invalidate() {
+        graph = null;
+
+        // Drop it again after commit so a rebuild racing the write cannot keep pre-commit data
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    graph = null;
+                }
+            });
+        }
+        log.debug("Drug interaction graph invalidated");
+    }
+
+    /**
+     * Check all pairs of the given medications against the graph.
+     *
+     * @param medicationNames Free-text medication names (generic or brand, strengths allowed)
+     * @return Interactions found, the names that could not be resolved to a known drug,
+     *         and the resolved pairs the reference data says nothing about
+     */
+    @Transactional(readOnly = true)
+    public GraphCheckResult check(Collection<String> medicationNames) {
+        Graph current = currentGraph();
+
+        List<String> resolvedNames = new ArrayList<>();
+        List<Integer> resolvedIds = new ArrayList<>();
+        List<String> unresolved = new ArrayList<>();
+
+        for (String name : medicationNames) {
+            int id = current.resolve(name);
+            if (id < 0) {
+                unresolved.add(name);
+            } else if (!resolvedIds.contains(id)) {
+                resolvedIds.add(id);
+                resolvedNames.add(name);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        List<DrugPair> uncovered = new ArrayList<>();
+        for (int i = 0; i < resolvedIds.size(); i++) {
+            for (int j = i + 1; j < resolvedIds.size(); j++) {
+                int a = resolvedIds.get(i);
+                int b = resolvedIds.get(j);
+                Edge edge = current.edge(a, b);
+                if (edge != null) {
+                    matches.add(new Match(resolvedNames.get(i), resolvedNames.get(j),
+                            edge.severity, edge.description, edge.recommendation));
+                } else if (!current.hasInteractionList(a) || !current.hasInteractionList(b)) {
+                    uncovered.add(new DrugPair(resolvedNames.get(i), resolvedNames.get(j)));
+                }
+            }
+        }
+
+        return new GraphCheckResult(matches, resolvedNames, unresolved, uncovered);
+    }
+
+    // ==================== Graph Construction ====================
+
+    private Graph currentGraph() {
+        Graph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                current = graph;
+                if (current == null) {
+                    current = build();
+                    graph = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Graph build() {
+        long start = System.nanoTime();
+        GraphBuilder builder = new GraphBuilder();
+
+        List<DrugCatalog> catalog = drugCatalogRepository.findAllActive();
+        for (DrugCatalog drug : catalog) {
+            int id = builder.idFor(drug.getGenericName());
+            if (id < 0) {
+                log.debug("Drug catalog name without a usable key skipped: {}", drug.getGenericName());
+                continue;
+            }
+            for (String brand : splitList(drug.getBrandNames())) {
+                builder.alias(brand, id);
+            }
+            // An empty list ("[]") still states that no major interaction is known
+            if (drug.getInteractions() != null && !drug.getInteractions().isBlank()) {
+                builder.markInteractionList(id);
+            }
+        }
+
+        // Structured pairs take precedence over catalog text, so add them first
+        for (DrugInteraction interaction : drugInteractionRepository.findAll()) {
+            builder.addEdge(interaction.getMedication1Name(), interaction.getMedication2Name(),
+                    interaction.getSeverity(), interaction.getDescription(), interaction.getRecommendation());
+        }
+
+        for (DrugCatalog drug : catalog) {
+            for (String other : splitList(drug.getInteractions())) {
+                builder.addEdge(drug.getGenericName(), other, InteractionSeverity.SEVERE,
+                        CATALOG_INTERACTION_DESCRIPTION, CATALOG_INTERACTION_RECOMMENDATION);
+            }
+        }
+
+        Graph built = builder.build();
+        log.info("Built drug interaction graph: {} drugs, {} names, {} interactions in {} ms",
+                built.drugCount(), built.nameCount(), built.edgeCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    /**
+     * Normalize a medication name for lookup: lower-case, drop parenthesized
+     * text and everything from the first digit on ("Metformin 500mg BID" -> "metformin").
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(name.length());
+        int depth = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '(') {
+                depth++;
+                pendingSpace = true;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+                pendingSpace = true;
+            } else if (depth > 0) {
+                continue;
+            } else if (Character.isDigit(c)) {
+                break;
+            } else if (Character.isLetter(c) || c == '-') {
+                if (pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Split a JSON array or delimited list ("[\"A\", \"B\"]", "A, B; C") into trimmed entries.
+     */
+    static List<String> splitList(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<String> entries = new ArrayList<>();
+        for (String part : value.split("[,;\\n]")) {
+            String entry = part.replace("[", "").replace("]", "").replace("\"", "").trim();
+            if (!entry.isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static final class GraphBuilder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<Map<Integer, Edge>> adjacency = new ArrayList<>();
+        private final BitSet interactionLists = new BitSet();
+        private int edges;
+
+        /**
+         * @return The drug id, or -1 for a name with no letters before its first digit
+         */
+        int idFor(String name) {
+            String key = normalize(name);
+            if (key.isEmpty()) {
+                return -1;
+            }
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = adjacency.size();
+                ids.put(key, id);
+                adjacency.add(new HashMap<>());
+            }
+            return id;
+        }
+
+        void markInteractionList(int id) {
+            interactionLists.set(id);
+        }
+
+        void alias(String name, int id) {
+            String key = normalize(name);
+            if (!key.isEmpty()) {
+                ids.putIfAbsent(key, id);
+            }
+        }
+
+        void addEdge(String name1, String name2, InteractionSeverity severity,
+                     String description, String recommendation) {
+            if (normalize(name1).isEmpty() || normalize(name2).isEmpty()) {
+                return;
+            }
+            int a = idFor(name1);
+            int b = idFor(name2);
+            if (a == b || adjacency.get(a).containsKey(b)) {
+                return;
+            }
+            Edge edge = new Edge(b, severity, description, recommendation);
+            adjacency.get(a).put(b, edge);
+            adjacency.get(b).put(a, new Edge(a, severity, description, recommendation));
+            edges++;
+        }
+
+        Graph build() {
+            Edge[][] lists = new Edge[adjacency.size()][];
+            for (int i = 0; i < lists.length; i++) {
+                Edge[] list = adjacency.get(i).values().toArray(new Edge[0]);
+                Arrays.sort(list, Comparator.comparingInt(edge -> edge.target));
+                lists[i] = list;
+            }
+            return new Graph(Map.copyOf(ids), lists, (BitSet) interactionLists.clone(), edges);
+        }
+    }
+
+    private static final class Graph {
+        private final Map<String, Integer> ids;
+        private final Edge[][] adjacency;
+        private final BitSet interactionLists;
+        private final int edges;
+
+        Graph(Map<String, Integer> ids, Edge[][] adjacency, BitSet interactionLists, int edges) {
+            this.ids = ids;
+            this.adjacency = adjacency;
+            this.interactionLists = interactionLists;
+            this.edges = edges;
+        }
+
+        int resolve(String name) {
+            String key = normalize(name);
+            while (!key.isEmpty()) {
+                Integer id = ids.get(key);
+                if (id != null) {
+                    return id;
+                }
+                // Only formulation words are dropped: "Metoprolol succinate ER" -> "metoprolol",
+                // while "Vitamin D" does not become "vitamin"
+                int space = key.lastIndexOf(' ');
+                if (space < 0 || !FORMULATION_WORDS.contains(key.substring(space + 1))) {
+                    return -1;
+                }
+                key = key.substring(0, space);
+            }
+            return -1;
+        }
+
+        boolean hasInteractionList(int id) {
+            return interactionLists.get(id);
+        }
+
+        Edge edge(int a, int b) {
+            Edge[] list = adjacency[a].length <= adjacency[b].length ? adjacency[a] : adjacency[b];
+            int target = list == adjacency[a] ? b : a;
+            int low = 0;
+            int high = list.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = list[mid].target;
+                if (value < target) {
+                    low = mid + 1;
+                } else if (value > target) {
+                    high = mid - 1;
+                } else {
+                    return list[mid];
+                }
+            }
+            return null;
+        }
+
+        int drugCount() {
+            return adjacency.length;
+        }
+
+        int nameCount() {
+            return ids.size();
+        }
+
+        int edgeCount() {
+            return edges;
+        }
+    }
+
+    private static final class Edge {
+        private final int target;
+        private final InteractionSeverity severity;
+        private final String description;
+        private final String recommendation;
+
+        Edge(int target, InteractionSeverity severity, String description, String recommendation) {
+            this.target = target;
+            this.severity = severity;
+            this.description = description;
+            this.recommendation = recommendation;
+        }
+    }
+
+    // ==================== Results ====================
+
+    public static final class Match {
+        private final String drug1;
+        private final String drug2;
+        private final InteractionSeverity severity;
+        private final String description;
+        private final String recommendation;
+
+        public Match(String drug1, String drug2, InteractionSeverity severity,
+                     String description, String recommendation) {
+            this.drug1 = drug1;
+            this.drug2 = drug2;
+            this.severity = severity;
+            this.description = description;
+            this.recommendation = recommendation;
+        }
+
+        public String getDrug1() { return drug1; }
+        public String getDrug2() { return drug2; }
+        public InteractionSeverity getSeverity() { return severity; }
+        public String getDescription() { return description; }
+        public String getRecommendation() { return recommendation; }
+    }
+
+    public static final class DrugPair {
+        private final String drug1;
+        private final String drug2;
+
+        public DrugPair(String drug1, String drug2) {
+            this.drug1 = drug1;
+            this.drug2 = drug2;
+        }
+
+        public String getDrug1() { return drug1; }
+        public String getDrug2() { return drug2; }
+    }
+
+    public static final class GraphCheckResult {
+        private final List<Match> matches;
+        private final List<String> resolved;
+        private final List<String> unresolved;
+        private final List<DrugPair> uncoveredPairs;
+
+        public GraphCheckResult(List<Match> matches, List<String> resolved, List<String> unresolved,
+                                List<DrugPair> uncoveredPairs) {
+            this.matches = matches;
+            this.resolved = resolved;
+            this.unresolved = unresolved;
+            this.uncoveredPairs = uncoveredPairs;
+        }
+
+        public List<Match> getMatches() { return matches; }
+        public List<String> getResolved() { return resolved; }
+        public List<String> getUnresolved() { return unresolved; }
+
+        /** Resolved pairs with no edge where either drug lacks an interaction list */
+        public List<DrugPair> getUncoveredPairs() { return uncoveredPairs; }
+
+        /**
+         * True when every medication was found in the reference data and
+         * every pair is covered by it, i.e. nothing needs to be escalated to the LLM.
+         */
+        public boolean isFullyCovered() {
+            return unresolved.isEmpty() && uncoveredPairs.isEmpty();
+        }
+    }
+}
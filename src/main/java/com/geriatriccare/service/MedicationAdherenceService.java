@@ -7,6 +7,8 @@ import com.geriatriccare.entity.*;
 import com.geriatriccare.enums.*;
 import com.geriatriccare.exception.ResourceNotFoundException;
 import com.geriatriccare.repository.*;
+import com.geriatriccare.service.AdherenceRollupService.AdherenceTotals;
+import com.geriatriccare.service.AdherenceRollupService.DailyAdherence;
 import com.geriatriccare.util.PdfGenerator;
 import com.geriatriccare.util.CsvExporter;
 import com.geriatriccare.util.SecurityUtil;
@@ -18,18 +20,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * MedicationAdherenceService
- * Generates medication adherence reports (simplified for current schema)
+ * Generates medication adherence reports
  * Sprint 8 - US-7.2 (GCARE-722)
  * 
- * Note: Simplified implementation as current schema doesn't have
- * patient-specific medication assignments or intake tracking.
- * Reports are generated based on available data.
+ * Note: the schema has no patient-specific medication assignments or intake
+ * records, so doses are the patient's MEDICATION care task occurrences, read
+ * from the {@link AdherenceRollupService} counters.
  */
 @Service
 @RequiredArgsConstructor
@@ -39,12 +43,21 @@ public class MedicationAdherenceService {
     private final MedicationAdherenceReportRepository reportRepository;
     private final MedicationRepository medicationRepository;
     private final PatientRepository patientRepository;
+    private final AdherenceRollupService adherenceRollup;
     private final SecurityUtil securityUtil;
     private final PdfGenerator pdfGenerator;
     private final CsvExporter csvExporter;
 
     @Transactional
     public MedicationAdherenceReportResponse generateReport(MedicationAdherenceReportRequest request) {
+        return generateReport(request, securityUtil.getCurrentUserId());
+    }
+
+    /**
+     * Generate for {@code generatedBy}, for callers outside the user's request
+     */
+    @Transactional
+    public MedicationAdherenceReportResponse generateReport(MedicationAdherenceReportRequest request, UUID generatedBy) {
         log.info("Generating medication adherence report for patient: {}", request.getPatientId());
 
         Patient patient = patientRepository.findById(request.getPatientId())
@@ -54,23 +67,20 @@ public class MedicationAdherenceService {
         LocalDateTime startDate = dateRange[0];
         LocalDateTime endDate = dateRange[1];
 
-        // Get active medications (not patient-specific in current schema)
-        List<Medication> medications = medicationRepository.findByIsActiveTrue();
-
-        // Filter by specific medication if requested
-        if (request.getMedicationId() != null) {
-            medications = medications.stream()
-                .filter(m -> m.getId().equals(request.getMedicationId()))
-                .collect(Collectors.toList());
+        // Doses are not linked to catalog medications, so a requested one is only checked to exist
+        if (request.getMedicationId() != null && !medicationRepository.existsById(request.getMedicationId())) {
+            throw new ResourceNotFoundException("Medication not found");
         }
+        int medicationTasks = (int) adherenceRollup.countActiveTasks(request.getPatientId(), CareTaskCategory.MEDICATION);
 
-        // Calculate metrics (simplified - estimated adherence)
-        AdherenceMetrics metrics = calculateSimplifiedMetrics(medications.size(), startDate, endDate);
+        List<DailyAdherence> daily = adherenceRollup.getDaily(
+            request.getPatientId(), CareTaskCategory.MEDICATION, startDate.toLocalDate(), endDate.toLocalDate());
+        AdherenceMetrics metrics = calculateMetrics(daily);
 
         // Detect patterns if requested
         AdherencePatterns patterns = null;
         if (request.getIncludePatterns() != null && request.getIncludePatterns()) {
-            patterns = detectSimplifiedPatterns();
+            patterns = detectPatterns(daily);
         }
 
         // Create report entity
@@ -87,16 +97,16 @@ public class MedicationAdherenceService {
             .lateDoses(metrics.getLate())
             .adherencePercentage(metrics.getAdherencePercentage())
             .trend(metrics.getTrend())
-            .isHighRisk(metrics.getAdherencePercentage() < 70.0)
+            .isHighRisk(metrics.isHighRisk())
             .weekendAdherence(patterns != null ? patterns.getWeekendAdherence() : null)
             .weekdayAdherence(patterns != null ? patterns.getWeekdayAdherence() : null)
             .morningAdherence(patterns != null ? patterns.getMorningAdherence() : null)
             .eveningAdherence(patterns != null ? patterns.getEveningAdherence() : null)
             .mostMissedTime(patterns != null ? patterns.getMostMissedTime() : null)
-            .reportTitle(generateTitle(patient, medications.size(), startDate, endDate))
+            .reportTitle(generateTitle(patient, medicationTasks, startDate, endDate))
             .reportSummary(generateSummary(metrics, patient))
             .format(request.getFormat() != null ? request.getFormat() : ReportFormat.JSON)
-            .generatedBy(securityUtil.getCurrentUserId())
+            .generatedBy(generatedBy)
             .expiresAt(LocalDateTime.now().plusDays(90))
             .build();
 
@@ -104,12 +114,13 @@ public class MedicationAdherenceService {
         log.info("Medication adherence report generated: {} with {}% adherence", 
             report.getId(), report.getAdherencePercentage());
 
-        return convertToResponse(report, patient, metrics, patterns);
+        return convertToResponse(report, patient, patterns, daily);
     }
 
     @Transactional(readOnly = true)
     public MedicationAdherenceReportResponse getReport(UUID reportId) {
         MedicationAdherenceReport report = reportRepository.findById(reportId)
+            .filter(r -> !r.isExpired())
             .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
 
         Patient patient = patientRepository.findById(report.getPatientId())
@@ -140,25 +151,24 @@ public class MedicationAdherenceService {
 
     @Transactional(readOnly = true)
     public MedicationAdherenceStatistics getAdherenceStatistics(UUID patientId, int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        LocalDateTime endDate = LocalDateTime.now();
-
-        // Get active medications
-        List<Medication> medications = medicationRepository.findByIsActiveTrue();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
 
-        AdherenceMetrics metrics = calculateSimplifiedMetrics(medications.size(), startDate, endDate);
+        int medicationTasks = (int) adherenceRollup.countActiveTasks(patientId, CareTaskCategory.MEDICATION);
+        AdherenceMetrics metrics = calculateMetrics(
+            adherenceRollup.getDaily(patientId, CareTaskCategory.MEDICATION, startDate, endDate));
 
         return MedicationAdherenceStatistics.builder()
             .patientId(patientId)
-            .totalMedications(medications.size())
-            .activeMedications(medications.size())
+            .totalMedications(medicationTasks)
+            .activeMedications(medicationTasks)
             .totalScheduledDoses(metrics.getTotalScheduled())
             .takenDoses(metrics.getTaken())
             .missedDoses(metrics.getMissed())
             .lateDoses(metrics.getLate())
             .overallAdherence(metrics.getAdherencePercentage())
             .trend(metrics.getTrend())
-            .atRisk(metrics.getAdherencePercentage() < 70.0)
+            .atRisk(metrics.isHighRisk())
             .build();
     }
 
@@ -194,37 +204,45 @@ public class MedicationAdherenceService {
         return new LocalDateTime[]{startDate, endDate};
     }
 
-    private AdherenceMetrics calculateSimplifiedMetrics(
-            int medicationCount,
-            LocalDateTime startDate,
-            LocalDateTime endDate) {
-        
-        // Simplified calculation based on typical geriatric adherence patterns
-        long days = java.time.temporal.ChronoUnit.DAYS.between(startDate.toLocalDate(), endDate.toLocalDate());
-        int totalScheduled = medicationCount * Math.max(1, (int) days) * 2; // Assume 2 doses per day
-        
-        // Realistic geriatric adherence: 75% taken, with some late doses
-        int taken = (int) (totalScheduled * 0.75);
-        int missed = totalScheduled - taken;
-        int late = (int) (taken * 0.12); // 12% of taken doses are late
-
-        double adherence = totalScheduled > 0 ? (taken * 100.0 / totalScheduled) : 0.0;
-        String trend = "STABLE";
-
-        return new AdherenceMetrics(totalScheduled, taken, missed, late, adherence, trend);
+    private AdherenceMetrics calculateMetrics(List<DailyAdherence> daily) {
+        AdherenceTotals totals = AdherenceRollupService.sum(
+            daily.stream().map(DailyAdherence::getTotals).collect(Collectors.toList()));
+
+        return new AdherenceMetrics((int) totals.getScheduled(), (int) totals.getCompleted(),
+            (int) totals.getMissed(), (int) totals.getLate(), totals.getAdherencePercentage(),
+            AdherenceRollupService.trend(daily));
     }
 
-    private AdherencePatterns detectSimplifiedPatterns() {
-        // Realistic geriatric medication adherence patterns
+    private AdherencePatterns detectPatterns(List<DailyAdherence> daily) {
+        Map<Boolean, AdherenceTotals> byWeekend = daily.stream()
+            .collect(Collectors.partitioningBy(day -> isWeekend(day.getDate()),
+                Collectors.collectingAndThen(
+                    Collectors.mapping(DailyAdherence::getTotals, Collectors.toList()),
+                    AdherenceRollupService::sum)));
+
+        // Missed doses by weekday; the daily counters carry no time of day
+        Map<DayOfWeek, Long> missedByDay = daily.stream()
+            .collect(Collectors.groupingBy(day -> day.getDate().getDayOfWeek(),
+                Collectors.summingLong(day -> day.getTotals().getMissed())));
+        String mostMissedTime = missedByDay.entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .max(Map.Entry.comparingByValue())
+            .map(entry -> entry.getKey().getDisplayName(java.time.format.TextStyle.FULL, Locale.ENGLISH) + "s")
+            .orElse(null);
+
         return new AdherencePatterns(
-            68.0,  // weekendAdherence - commonly lower
-            82.0,  // weekdayAdherence - better with routine
-            85.0,  // morningAdherence - best in morning
-            72.0,  // eveningAdherence - worse in evening
-            "Weekend evenings"
+            byWeekend.get(true).getAdherencePercentage(),
+            byWeekend.get(false).getAdherencePercentage(),
+            null,
+            null,
+            mostMissedTime
         );
     }
 
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
     private String generateTitle(Patient patient, int medicationCount,
                                  LocalDateTime start, LocalDateTime end) {
         String medText = medicationCount == 1 ? "1 Medication" : medicationCount + " Medications";
@@ -239,7 +257,7 @@ public class MedicationAdherenceService {
     }
 
     private String generateSummary(AdherenceMetrics metrics, Patient patient) {
-        String riskStatus = metrics.getAdherencePercentage() < 70.0 ? " (HIGH RISK)" : "";
+        String riskStatus = metrics.isHighRisk() ? " (HIGH RISK)" : "";
         return String.format(
             "Patient %s %s has taken %d of %d scheduled doses (%.1f%% adherence) with %d missed doses%s.",
             patient.getFirstName(),
@@ -255,8 +273,8 @@ public class MedicationAdherenceService {
     private MedicationAdherenceReportResponse convertToResponse(
             MedicationAdherenceReport report,
             Patient patient,
-            AdherenceMetrics metrics,
-            AdherencePatterns patterns) {
+            AdherencePatterns patterns,
+            List<DailyAdherence> daily) {
 
         MedicationAdherenceReportResponse.AdherencePattern patternDto = null;
         if (patterns != null) {
@@ -287,6 +305,15 @@ public class MedicationAdherenceService {
             .trend(report.getTrend())
             .isHighRisk(report.getIsHighRisk())
             .patterns(patternDto)
+            .dailyAdherence(daily.stream()
+                .map(day -> MedicationAdherenceReportResponse.DailyAdherence.builder()
+                    .date(day.getDate().atStartOfDay())
+                    .scheduled((int) day.getTotals().getScheduled())
+                    .taken((int) day.getTotals().getCompleted())
+                    .missed((int) day.getTotals().getMissed())
+                    .rate(day.getTotals().getAdherencePercentage())
+                    .build())
+                .collect(Collectors.toList()))
             .reportTitle(report.getReportTitle())
             .reportSummary(report.getReportSummary())
             .format(report.getFormat())
@@ -320,7 +347,8 @@ public class MedicationAdherenceService {
     private String generatePatternInsight(AdherencePatterns patterns) {
         if (patterns.getWeekdayAdherence() - patterns.getWeekendAdherence() > 15) {
             return "Patient struggles with weekend medication adherence - consider reminder system";
-        } else if (patterns.getEveningAdherence() < patterns.getMorningAdherence() - 15) {
+        } else if (patterns.getEveningAdherence() != null && patterns.getMorningAdherence() != null
+                && patterns.getEveningAdherence() < patterns.getMorningAdherence() - 15) {
             return "Evening doses are frequently missed - consider evening reminder calls";
         }
         return "Adherence is consistent across time periods";
@@ -336,6 +364,10 @@ public class MedicationAdherenceService {
         private int late;
         private double adherencePercentage;
         private String trend;
+
+        boolean isHighRisk() {
+            return totalScheduled > 0 && adherencePercentage < 70.0;
+        }
     }
 
     @lombok.Data
@@ -343,8 +375,8 @@ public class MedicationAdherenceService {
     private static class AdherencePatterns {
         private double weekendAdherence;
         private double weekdayAdherence;
-        private double morningAdherence;
-        private double eveningAdherence;
+        private Double morningAdherence;
+        private Double eveningAdherence;
         private String mostMissedTime;
     }
 }
@@ -0,0 +1,211 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.repository.PatientCaregiverRepository;
+import com.geriatriccare.repository.PatientFamilyMemberRepository;
+import com.geriatriccare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory user to patient access index for row-level authorization
+ *
+ * Holds, per relation, the patients each user is linked to:
+ * - CAREGIVER: active caregiver assignments
+ * - FAMILY: active family member assignments
+ * - SELF: the patient record linked to a PATIENT login
+ *
+ * Built once from id-only projections of the relationship tables, then kept
+ * current by {@link PatientRelationshipService}, so an access check or a
+ * "my patients" lookup is a hash lookup instead of a join. Changes are applied
+ * after commit, and under the same lock as a build, so neither a rolled back
+ * write nor a build racing a write can leave the index out of date.
+ */
+@Service
+public class PatientAccessIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientAccessIndexService.class);
+
+    public enum Relation { CAREGIVER, FAMILY, SELF }
+
+    private final PatientCaregiverRepository patientCaregiverRepository;
+    private final PatientFamilyMemberRepository patientFamilyMemberRepository;
+    private final PatientRepository patientRepository;
+
+    private volatile Index index;
+
+    public PatientAccessIndexService(PatientCaregiverRepository patientCaregiverRepository,
+                                     PatientFamilyMemberRepository patientFamilyMemberRepository,
+                                     PatientRepository patientRepository) {
+        this.patientCaregiverRepository = patientCaregiverRepository;
+        this.patientFamilyMemberRepository = patientFamilyMemberRepository;
+        this.patientRepository = patientRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            currentIndex();
+        } catch (RuntimeException e) {
+            log.warn("Could not build patient access index at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the index; the next check rebuilds it from the repositories.
+     */
+    public synchronized void invalidate() {
+        index = null;
+        log.debug("Patient access index invalidated");
+    }
+
+    // ==================== Checks ====================
+
+    /**
+     * True if {@code userId} is linked to {@code patientId} through {@code relation}.
+     */
+    public boolean hasRelation(Relation relation, UUID userId, UUID patientId) {
+        if (userId == null || patientId == null) {
+            return false;
+        }
+        Set<UUID> patients = currentIndex().get(relation).get(userId);
+        return patients != null && patients.contains(patientId);
+    }
+
+    /**
+     * Ids of the patients {@code userId} is linked to through {@code relation}.
+     */
+    public Set<UUID> getPatientIds(Relation relation, UUID userId) {
+        if (userId == null) {
+            return Set.of();
+        }
+        Set<UUID> patients = currentIndex().get(relation).get(userId);
+        return patients != null ? Set.copyOf(patients) : Set.of();
+    }
+
+    // ==================== Updates ====================
+
+    public void caregiverAssigned(UUID caregiverId, UUID patientId) {
+        afterCommit(index -> index.link(Relation.CAREGIVER, caregiverId, patientId));
+    }
+
+    public void caregiverRemoved(UUID caregiverId, UUID patientId) {
+        afterCommit(index -> index.unlink(Relation.CAREGIVER, caregiverId, patientId));
+    }
+
+    public void familyMemberAssigned(UUID familyMemberId, UUID patientId) {
+        afterCommit(index -> index.link(Relation.FAMILY, familyMemberId, patientId));
+    }
+
+    public void familyMemberRemoved(UUID familyMemberId, UUID patientId) {
+        afterCommit(index -> index.unlink(Relation.FAMILY, familyMemberId, patientId));
+    }
+
+    /**
+     * Move a patient's self link from {@code previousUserId} to {@code userId}; either may be null.
+     */
+    public void patientUserLinked(UUID patientId, UUID previousUserId, UUID userId) {
+        afterCommit(index -> {
+            if (previousUserId != null) {
+                index.unlink(Relation.SELF, previousUserId, patientId);
+            }
+            if (userId != null) {
+                index.link(Relation.SELF, userId, patientId);
+            }
+        });
+    }
+
+    private void afterCommit(Consumer<Index> change) {
+        Runnable apply = () -> {
+            // An unbuilt index picks the change up from the database when it is built
+            synchronized (this) {
+                Index current = index;
+                if (current != null) {
+                    change.accept(current);
+                }
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // ==================== Index Construction ====================
+
+    private Index currentIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = build();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Index build() {
+        long start = System.nanoTime();
+        Index built = new Index();
+
+        int links = 0;
+        for (Object[] row : patientCaregiverRepository.findActiveAssignmentIds()) {
+            built.link(Relation.CAREGIVER, (UUID) row[0], (UUID) row[1]);
+            links++;
+        }
+        for (Object[] row : patientFamilyMemberRepository.findActiveAssignmentIds()) {
+            built.link(Relation.FAMILY, (UUID) row[0], (UUID) row[1]);
+            links++;
+        }
+        for (Object[] row : patientRepository.findUserLinks()) {
+            built.link(Relation.SELF, (UUID) row[0], (UUID) row[1]);
+            links++;
+        }
+
+        log.info("Patient access index built: {} links in {} ms", links, (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    private static final class Index {
+        private final Map<Relation, Map<UUID, Set<UUID>>> byRelation = new EnumMap<>(Relation.class);
+
+        Index() {
+            for (Relation relation : Relation.values()) {
+                byRelation.put(relation, new ConcurrentHashMap<>());
+            }
+        }
+
+        Map<UUID, Set<UUID>> get(Relation relation) {
+            return byRelation.get(relation);
+        }
+
+        void link(Relation relation, UUID userId, UUID patientId) {
+            byRelation.get(relation).computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(patientId);
+        }
+
+        void unlink(Relation relation, UUID userId, UUID patientId) {
+            byRelation.get(relation).computeIfPresent(userId, (id, patients) -> {
+                patients.remove(patientId);
+                return patients.isEmpty() ? null : patients;
+            });
+        }
+    }
+}
@@ -34,6 +34,9 @@ public class PatientRelationshipService {
     @Autowired
     private PatientFamilyMemberRepository patientFamilyMemberRepository;
     
+    @Autowired
+    private PatientAccessIndexService patientAccessIndex;
+    
     // ========== CAREGIVER ASSIGNMENT METHODS ==========
     
     /**
@@ -79,6 +82,7 @@ public class PatientRelationshipService {
         assignment.setIsPrimary(isPrimary);
         
         PatientCaregiver saved = patientCaregiverRepository.save(assignment);
+        patientAccessIndex.caregiverAssigned(caregiverId, patientId);
         logger.info("Successfully assigned caregiver {} to patient {}", caregiverId, patientId);
         
         return saved;
@@ -96,6 +100,7 @@ public class PatientRelationshipService {
         
         assignment.setIsActive(false);
         patientCaregiverRepository.save(assignment);
+        patientAccessIndex.caregiverRemoved(caregiverId, patientId);
         
         logger.info("Successfully removed caregiver {} from patient {}", caregiverId, patientId);
     }
@@ -178,6 +183,7 @@ public class PatientRelationshipService {
         // Create new assignment
         PatientFamilyMember assignment = new PatientFamilyMember(patient, familyMember, assignedBy);
         PatientFamilyMember saved = patientFamilyMemberRepository.save(assignment);
+        patientAccessIndex.familyMemberAssigned(familyMemberId, patientId);
         
         logger.info("Successfully assigned family member {} to patient {}", familyMemberId, patientId);
         return saved;
@@ -195,6 +201,7 @@ public class PatientRelationshipService {
         
         assignment.setIsActive(false);
         patientFamilyMemberRepository.save(assignment);
+        patientAccessIndex.familyMemberRemoved(familyMemberId, patientId);
         
         logger.info("Successfully removed family member {} from patient {}", familyMemberId, patientId);
     }
@@ -218,24 +225,63 @@ public class PatientRelationshipService {
         return currentCount < 2;
     }
     
+    // ========== PATIENT LOGIN METHODS ==========
+    
+    /**
+     * Link a patient record to the patient's own login, or unlink it with a null user
+     */
+    public Patient linkPatientUser(UUID patientId, UUID userId) {
+        logger.info("Linking patient {} to user {}", patientId, userId);
+        
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+        
+        if (userId != null) {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            
+            // Validate patient role
+            if (user.getRole() != UserRole.PATIENT) {
+                throw new RuntimeException("User must have PATIENT role to be linked to a patient");
+            }
+            
+            Optional<Patient> linked = patientRepository.findByUserId(userId);
+            if (linked.isPresent() && !linked.get().getId().equals(patientId)) {
+                throw new RuntimeException("User is already linked to another patient");
+            }
+        }
+        
+        UUID previousUserId = patient.getUserId();
+        patient.setUserId(userId);
+        Patient saved = patientRepository.save(patient);
+        patientAccessIndex.patientUserLinked(patientId, previousUserId, userId);
+        
+        logger.info("Successfully linked patient {} to user {}", patientId, userId);
+        return saved;
+    }
+    
     // ========== QUERY METHODS ==========
     
     /**
      * Get all patients assigned to a caregiver
      */
     public List<Patient> getPatientsByCaregiver(UUID caregiverId) {
-        User caregiver = userRepository.findById(caregiverId)
-                .orElseThrow(() -> new RuntimeException("Caregiver not found"));
-        return patientCaregiverRepository.findPatientsByCaregiver(caregiver);
+        if (!userRepository.existsById(caregiverId)) {
+            throw new RuntimeException("Caregiver not found");
+        }
+        return patientRepository.findAllById(
+                patientAccessIndex.getPatientIds(PatientAccessIndexService.Relation.CAREGIVER, caregiverId));
     }
     
     /**
      * Get all patients assigned to a family member
      */
     public List<Patient> getPatientsByFamilyMember(UUID familyMemberId) {
-        User familyMember = userRepository.findById(familyMemberId)
-                .orElseThrow(() -> new RuntimeException("Family member not found"));
-        return patientFamilyMemberRepository.findPatientsByFamilyMember(familyMember);
+        if (!userRepository.existsById(familyMemberId)) {
+            throw new RuntimeException("Family member not found");
+        }
+        return patientRepository.findAllById(
+                patientAccessIndex.getPatientIds(PatientAccessIndexService.Relation.FAMILY, familyMemberId));
     }
     
     /**
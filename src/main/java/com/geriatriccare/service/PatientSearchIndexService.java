@@ -0,0 +1,134 @@
+package com.geriatriccare.service;
+
+import com.geriatriccare.entity.Patient;
+import com.geriatriccare.entity.PatientSearchToken;
+import com.geriatriccare.entity.PatientSearchToken.Field;
+import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.repository.PatientSearchTokenRepository;
+import com.geriatriccare.service.security.BlindIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Blind index over the encrypted patient name and condition columns.
+ *
+ * Searches resolve candidate ids from patient_search_tokens (one indexed query
+ * per query word), load only those patients and confirm the match on the
+ * decrypted values, since truncated tokens may collide.
+ */
+@Service
+public class PatientSearchIndexService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PatientSearchIndexService.class);
+    
+    private static final Map<Field, Function<Patient, String>> FIELD_VALUES = Map.of(
+            Field.FIRST_NAME, Patient::getFirstName,
+            Field.LAST_NAME, Patient::getLastName,
+            Field.MEDICAL_CONDITIONS, Patient::getMedicalConditions);
+    
+    private final PatientSearchTokenRepository tokenRepository;
+    private final PatientRepository patientRepository;
+    private final BlindIndexService blindIndex;
+    
+    public PatientSearchIndexService(PatientSearchTokenRepository tokenRepository,
+                                     PatientRepository patientRepository,
+                                     BlindIndexService blindIndex) {
+        this.tokenRepository = tokenRepository;
+        this.patientRepository = patientRepository;
+        this.blindIndex = blindIndex;
+    }
+    
+    /**
+     * Replace the tokens of a saved patient.
+     */
+    @Transactional
+    public void index(Patient patient) {
+        tokenRepository.deleteByPatientId(patient.getId());
+        
+        List<PatientSearchToken> tokens = new ArrayList<>();
+        for (Map.Entry<Field, Function<Patient, String>> field : FIELD_VALUES.entrySet()) {
+            for (String token : blindIndex.indexTokens(field.getKey().name(), field.getValue().apply(patient))) {
+                tokens.add(new PatientSearchToken(patient.getId(), field.getKey(), token));
+            }
+        }
+        tokenRepository.saveAll(tokens);
+    }
+    
+    /**
+     * Active patients where every word of {@code query} occurs in one of {@code fields}.
+     */
+    @Transactional(readOnly = true)
+    public List<Patient> search(String query, Field... fields) {
+        List<String> queryWords = blindIndex.words(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<UUID> candidates = null;
+        for (String word : new LinkedHashSet<>(queryWords)) {
+            List<String> tokens = new ArrayList<>();
+            for (Field field : fields) {
+                tokens.addAll(blindIndex.queryTokens(field.name(), word));
+            }
+            long required = tokens.size() / fields.length;
+            Set<UUID> matching = new HashSet<>(
+                    tokenRepository.findPatientIdsWithTokens(Arrays.asList(fields), tokens, required));
+            
+            if (candidates == null) {
+                candidates = matching;
+            } else {
+                candidates.retainAll(matching);
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+        
+        List<Patient> results = new ArrayList<>();
+        for (Patient patient : patientRepository.findByIdInAndIsActiveTrue(candidates)) {
+            if (containsAllWords(patient, queryWords, fields)) {
+                results.add(patient);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Index patients that have no tokens yet (rows written before the index existed),
+     * or all of them when the index key does not survive restarts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void indexUnindexedPatients() {
+        List<Patient> patients = blindIndex.isEphemeralKey()
+                ? patientRepository.findAll()
+                : patientRepository.findUnindexed();
+        patients.forEach(this::index);
+        if (!patients.isEmpty()) {
+            logger.info("Indexed {} patient(s) for encrypted search", patients.size());
+        }
+    }
+    
+    private boolean containsAllWords(Patient patient, List<String> queryWords, Field[] fields) {
+        for (String word : queryWords) {
+            boolean found = false;
+            for (Field field : fields) {
+                if (blindIndex.containsWord(FIELD_VALUES.get(field).apply(patient), word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
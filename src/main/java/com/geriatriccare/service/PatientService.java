@@ -4,13 +4,16 @@ import com.geriatriccare.dto.PatientRequest;
 import com.geriatriccare.dto.PatientResponse;
 import com.geriatriccare.dto.summary.CaregiverSummary;
 import com.geriatriccare.dto.summary.FamilyMemberSummary;
+import com.geriatriccare.dto.summary.PatientSummary;
 import com.geriatriccare.entity.Patient;
 import com.geriatriccare.entity.PatientCaregiver;
 import com.geriatriccare.entity.PatientFamilyMember;
+import com.geriatriccare.entity.PatientSearchToken;
 import com.geriatriccare.entity.User;
 import com.geriatriccare.repository.PatientRepository;
 import com.geriatriccare.repository.PatientCaregiverRepository;
 import com.geriatriccare.repository.PatientFamilyMemberRepository;
+import com.geriatriccare.service.security.HIPAAAuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +26,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,6 +36,10 @@ public class PatientService {
     
     private static final Logger logger = LoggerFactory.getLogger(PatientService.class);
     
+    // Plaintext columns; the encrypted ones cannot be ordered by the database
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("createdAt", "updatedAt", "birthYear", "emergencyContact");
+    
     @Autowired
     private PatientRepository patientRepository;
     
@@ -41,13 +49,19 @@ public class PatientService {
     @Autowired
     private PatientFamilyMemberRepository patientFamilyMemberRepository;
     
+    @Autowired
+    private PatientSearchIndexService patientSearchIndexService;
+    
+    @Autowired
+    private HIPAAAuditService hipaaAuditService;
+    
     // ========== CRUD OPERATIONS ==========
     
     /**
      * Create a new patient
      */
     public PatientResponse createPatient(PatientRequest request) {
-        logger.info("Creating new patient: {} {}", request.getFirstName(), request.getLastName());
+        logger.info("Creating new patient");
         
         Patient patient = new Patient();
         patient.setFirstName(request.getFirstName());
@@ -58,6 +72,7 @@ public class PatientService {
         patient.setEmergencyPhone(request.getEmergencyPhone());
         
         Patient saved = patientRepository.save(patient);
+        patientSearchIndexService.index(saved);
         logger.info("Successfully created patient with ID: {}", saved.getId());
         
         return convertToResponse(saved);
@@ -71,17 +86,27 @@ public class PatientService {
         logger.debug("Fetching patient by ID: {}", id);
         
         return patientRepository.findByIdAndIsActiveTrue(id)
-                .map(this::convertToResponse);
+                .map(patient -> {
+                    PatientResponse response = convertToResponse(patient);
+                    hipaaAuditService.logPHIAccess(patient.getId(), response.getFullName(), "VIEW", "Patient",
+                            patient.getMaterializedPhiFields());
+                    return response;
+                });
     }
     
     /**
-     * Get all active patients with pagination
+     * Get all patients with pagination, as summaries that decrypt only the names
      */
     @Transactional(readOnly = true)
-    public Page<PatientResponse> getAllPatients(int page, int size, String sortBy, String sortDir) {
+    public Page<PatientSummary> getAllPatients(int page, int size, String sortBy, String sortDir) {
         logger.debug("Fetching patients - page: {}, size: {}, sortBy: {}, sortDir: {}", 
                     page, size, sortBy, sortDir);
         
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            // Encrypted columns sort by ciphertext, which is meaningless
+            throw new IllegalArgumentException("Cannot sort patients by " + sortBy);
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : 
                 Sort.by(sortBy).ascending();
@@ -89,8 +114,7 @@ public class PatientService {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         // Fix: Use findAll with pageable instead of findByIsActiveTrue
-        return patientRepository.findAll(pageable)
-                .map(this::convertToResponse);
+        return patientRepository.findAll(pageable).map(patient -> toAuditedSummary(patient, "VIEW"));
     }
     
     /**
@@ -111,6 +135,7 @@ public class PatientService {
         patient.setEmergencyPhone(request.getEmergencyPhone());
         
         Patient updated = patientRepository.save(patient);
+        patientSearchIndexService.index(updated);
         logger.info("Successfully updated patient: {}", id);
         
         return convertToResponse(updated);
@@ -134,42 +159,35 @@ public class PatientService {
     // ========== SEARCH OPERATIONS ==========
     
     /**
-     * Search patients by name
+     * Search active patients by name (every word must occur in the first or last name)
      */
     @Transactional(readOnly = true)
-public List<PatientResponse> searchPatientsByName(String name) {
-    logger.debug("Searching patients by name: {}", name);
-    
-    return patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseAndIsActiveTrue(name, name)
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
-}
+    public List<PatientSummary> searchPatientsByName(String name) {
+        logger.debug("Searching patients by name");
+        
+        return toAuditedSummaries(patientSearchIndexService.search(name,
+                PatientSearchToken.Field.FIRST_NAME, PatientSearchToken.Field.LAST_NAME), "SEARCH");
+    }
     
     /**
      * Search patients by age range
      */
     @Transactional(readOnly = true)
-    public List<PatientResponse> searchPatientsByAgeRange(int minAge, int maxAge) {
+    public List<PatientSummary> searchPatientsByAgeRange(int minAge, int maxAge) {
         logger.debug("Searching patients by age range: {} - {}", minAge, maxAge);
         
-        return patientRepository.findByAgeBetween(minAge, maxAge)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return toAuditedSummaries(patientRepository.findByAgeBetween(minAge, maxAge), "SEARCH");
     }
     
     /**
-     * Search patients by medical condition
+     * Search active patients by medical condition
      */
     @Transactional(readOnly = true)
-    public List<PatientResponse> searchPatientsByCondition(String condition) {
-        logger.debug("Searching patients by medical condition: {}", condition);
+    public List<PatientSummary> searchPatientsByCondition(String condition) {
+        logger.debug("Searching patients by medical condition");
         
-        return patientRepository.findByMedicalConditionsContaining(condition)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return toAuditedSummaries(
+                patientSearchIndexService.search(condition, PatientSearchToken.Field.MEDICAL_CONDITIONS), "SEARCH");
     }
     
     // ========== UTILITY METHODS ==========
@@ -192,6 +210,28 @@ public List<PatientResponse> searchPatientsByName(String name) {
     
     // ========== CONVERSION METHODS ==========
     
+    private List<PatientSummary> toAuditedSummaries(List<Patient> patients, String action) {
+        return patients.stream()
+                .map(patient -> toAuditedSummary(patient, action))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Summary of a patient, decrypting only the names. Search matches may already have
+     * had their searched fields decrypted by the index, so every decrypted field is audited.
+     */
+    private PatientSummary toAuditedSummary(Patient patient, String action) {
+        PatientSummary summary = new PatientSummary(patient.getId(), patient.getFirstName(),
+                patient.getLastName(), patient.getBirthYear(), patient.getEmergencyContact(),
+                patient.getEmergencyPhone(), patient.getIsActive(), patient.getCreatedAt(),
+                patient.getUpdatedAt());
+        if (!patient.getMaterializedPhiFields().isEmpty()) {
+            hipaaAuditService.logPHIAccess(patient.getId(), summary.getFullName(), action, "Patient",
+                    patient.getMaterializedPhiFields());
+        }
+        return summary;
+    }
+    
     /**
      * Convert Patient entity to PatientResponse DTO
      */
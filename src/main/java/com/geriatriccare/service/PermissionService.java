@@ -4,7 +4,9 @@ import com.geriatriccare.config.RolePermissionsConfig;
 import com.geriatriccare.entity.User;
 import com.geriatriccare.enums.Permission;
 import com.geriatriccare.enums.UserRole;
-import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
+import com.geriatriccare.security.PermissionBits;
+import com.geriatriccare.security.ResolvedPermissions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -16,6 +18,12 @@ import java.util.*;
 /**
  * Permission Service
  * Handles permission checking and RBAC logic
+ * 
+ * Checks test the role bitsets of {@link RolePermissionsConfig}. The current
+ * user comes from the request-scoped {@link CurrentUserContext}, so repeated
+ * checks in one request load the user at most once.
+ * Patient-scoped checks for PATIENT and FAMILY users are lookups in the
+ * {@link PatientAccessIndexService}.
  */
 @Service
 @RequiredArgsConstructor
@@ -23,7 +31,8 @@ import java.util.*;
 public class PermissionService {
 
     private final RolePermissionsConfig rolePermissionsConfig;
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
+    private final PatientAccessIndexService patientAccessIndex;
 
     /**
      * Check if user has specific permission
@@ -52,8 +61,28 @@ public class PermissionService {
      * @return true if current user has permission
      */
     public boolean hasPermission(Permission permission) {
-        User currentUser = getCurrentUser();
-        return hasPermission(currentUser, permission);
+        return getCurrentPermissions().has(permission);
+    }
+
+    /**
+     * Check if current authenticated user has any of the permissions
+     * 
+     * @param permissions Permissions to check
+     * @return true if current user has at least one permission
+     */
+    public boolean hasAnyPermission(Permission... permissions) {
+        return getCurrentPermissions().hasAny(PermissionBits.of(permissions));
+    }
+
+    /**
+     * Check if current authenticated user has all of the permissions
+     * 
+     * @param permissions Permissions to check
+     * @return true if current user has every permission
+     */
+    public boolean hasAllPermissions(Permission... permissions) {
+        ResolvedPermissions current = getCurrentPermissions();
+        return current.getUser() != null && current.hasAll(PermissionBits.of(permissions));
     }
 
     /**
@@ -64,12 +93,7 @@ public class PermissionService {
      * @return true if user has at least one permission
      */
     public boolean hasAnyPermission(User user, Permission... permissions) {
-        for (Permission permission : permissions) {
-            if (hasPermission(user, permission)) {
-                return true;
-            }
-        }
-        return false;
+        return user != null && rolePermissionsConfig.hasAny(user.getRole(), PermissionBits.of(permissions));
     }
 
     /**
@@ -80,12 +104,7 @@ public class PermissionService {
      * @return true if user has all permissions
      */
     public boolean hasAllPermissions(User user, Permission... permissions) {
-        for (Permission permission : permissions) {
-            if (!hasPermission(user, permission)) {
-                return false;
-            }
-        }
-        return true;
+        return user != null && rolePermissionsConfig.hasAll(user.getRole(), PermissionBits.of(permissions));
     }
 
     /**
@@ -107,16 +126,12 @@ public class PermissionService {
 
         // PATIENT role can only access own data
         if (user.getRole() == UserRole.PATIENT) {
-            // TODO: Check if user.getId() matches patient.userId
-            // This requires linking User to Patient entity
-            return false; // For now, deny all
+            return patientAccessIndex.hasRelation(PatientAccessIndexService.Relation.SELF, user.getId(), patientId);
         }
 
         // FAMILY role can only access related patients
         if (user.getRole() == UserRole.FAMILY) {
-            // TODO: Check family-patient relationship
-            // This requires FamilyMember entity from Sprint 10
-            return false; // For now, deny all
+            return patientAccessIndex.hasRelation(PatientAccessIndexService.Relation.FAMILY, user.getId(), patientId);
         }
 
         // ADMIN, PHYSICIAN, CAREGIVER can access all patients (with proper permissions)
@@ -166,11 +181,7 @@ public class PermissionService {
      * @return Set of permissions
      */
     public Set<Permission> getCurrentUserPermissions() {
-        User currentUser = getCurrentUser();
-        if (currentUser == null) {
-            return Collections.emptySet();
-        }
-        return getPermissionsForRole(currentUser.getRole());
+        return getCurrentPermissions().getPermissions();
     }
 
     /**
@@ -203,22 +214,19 @@ public class PermissionService {
     }
 
     /**
-     * Get current authenticated user
+     * Get the current user's resolved permissions, loading the user at most
+     * once per request
      * 
-     * @return Current user or null
+     * @return Resolved permissions; empty when not authenticated
      */
-    private User getCurrentUser() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return null;
-            }
-
-            String username = authentication.getName();
-            return userRepository.findByUsername(username).orElse(null);
-        } catch (Exception e) {
-            log.error("Error getting current user", e);
-            return null;
+    public ResolvedPermissions getCurrentPermissions() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return new ResolvedPermissions(null, null, null);
         }
+
+        User user = currentUserContext.getUser();
+        return new ResolvedPermissions(authentication.getName(), user,
+                user != null ? rolePermissionsConfig.getPermissionBits(user.getRole()) : null);
     }
 }
@@ -0,0 +1,474 @@
+package com.geriatriccare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geriatriccare.config.CacheConfig;
+import com.geriatriccare.dto.medication.MedicationAdherenceReportRequest;
+import com.geriatriccare.dto.medication.MedicationAdherenceReportResponse;
+import com.geriatriccare.dto.report.AdherenceReportRequest;
+import com.geriatriccare.dto.report.AdherenceReportResponse;
+import com.geriatriccare.dto.report.ReportResult;
+import com.geriatriccare.entity.AdherenceReport;
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.entity.MedicationAdherenceReport;
+import com.geriatriccare.entity.ReportJob;
+import com.geriatriccare.enums.ReportFormat;
+import com.geriatriccare.enums.TimePeriod;
+import com.geriatriccare.exception.ResourceNotFoundException;
+import com.geriatriccare.repository.AdherenceReportRepository;
+import com.geriatriccare.repository.MedicationAdherenceReportRepository;
+import com.geriatriccare.repository.ReportJobRepository;
+import com.geriatriccare.util.CsvExporter;
+import com.geriatriccare.util.PdfGenerator;
+import com.geriatriccare.util.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous adherence and medication adherence reports.
+ *
+ * A submitted job is generated on the report executor, and its rendered
+ * bytes are cached under a key of the request (patient, type, period, format)
+ * and the patient's data watermark: the revision sum of the adherence rollups
+ * the report reads, plus the pending count for care plan reports. While that
+ * data is unchanged and the report has not expired, later submissions
+ * complete at once from the cache instead of generating again; identical
+ * submissions while one is queued or running share that job. A scheduled
+ * sweep deletes expired reports and old jobs in batches.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReportJobRepository jobRepository;
+    private final AdherenceReportService adherenceReports;
+    private final MedicationAdherenceService medicationReports;
+    private final AdherenceRollupService adherenceRollup;
+    private final AdherenceReportRepository adherenceReportRepository;
+    private final MedicationAdherenceReportRepository medicationReportRepository;
+    private final PdfGenerator pdfGenerator;
+    private final CsvExporter csvExporter;
+    private final SecurityUtil securityUtil;
+    private final ObjectMapper objectMapper;
+    private final Cache resultCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor reportExecutor;
+
+    /** Job queued or running on this instance per cache key */
+    private final Map<String, UUID> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.reports.sweep-batch-size:500}")
+    private int sweepBatchSize = 500;
+
+    @Value("${app.reports.jobs.retention-hours:24}")
+    private long retentionHours = 24;
+
+    public ReportJobService(ReportJobRepository jobRepository,
+                            AdherenceReportService adherenceReports,
+                            MedicationAdherenceService medicationReports,
+                            AdherenceRollupService adherenceRollup,
+                            AdherenceReportRepository adherenceReportRepository,
+                            MedicationAdherenceReportRepository medicationReportRepository,
+                            PdfGenerator pdfGenerator,
+                            CsvExporter csvExporter,
+                            SecurityUtil securityUtil,
+                            ObjectMapper objectMapper,
+                            CacheManager cacheManager,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("reportExecutor") Executor reportExecutor) {
+        this.jobRepository = jobRepository;
+        this.adherenceReports = adherenceReports;
+        this.medicationReports = medicationReports;
+        this.adherenceRollup = adherenceRollup;
+        this.adherenceReportRepository = adherenceReportRepository;
+        this.medicationReportRepository = medicationReportRepository;
+        this.pdfGenerator = pdfGenerator;
+        this.csvExporter = csvExporter;
+        this.securityUtil = securityUtil;
+        this.objectMapper = objectMapper;
+        this.resultCache = cacheManager.getCache(CacheConfig.REPORT_RESULT_CACHE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reportExecutor = reportExecutor;
+    }
+
+    // ==================== Submission ====================
+
+    /**
+     * Queue a care plan adherence report.
+     *
+     * @return The job, already completed when a cached result is current;
+     *         otherwise poll {@link #getJob(UUID)}
+     */
+    public ReportJob submitAdherence(AdherenceReportRequest request) {
+        ReportJob job = newJob(ReportJob.Kind.ADHERENCE, request.getPatientId(), null,
+                request.getTimePeriod(), request.getStartDate(), request.getEndDate(), request.getFormat(),
+                Boolean.TRUE.equals(request.getIncludeDetails()));
+        job.setReportType(request.getReportType());
+        return submit(job);
+    }
+
+    /**
+     * Queue a medication adherence report. These are JSON only.
+     */
+    public ReportJob submitMedication(MedicationAdherenceReportRequest request) {
+        if (request.getFormat() != null && request.getFormat() != ReportFormat.JSON) {
+            throw new IllegalArgumentException("Medication adherence reports are only available as JSON");
+        }
+        ReportJob job = newJob(ReportJob.Kind.MEDICATION_ADHERENCE, request.getPatientId(),
+                request.getMedicationId(), request.getTimePeriod(), request.getStartDate(), request.getEndDate(),
+                ReportFormat.JSON, Boolean.TRUE.equals(request.getIncludePatterns()));
+        job.setReportType(request.getReportType());
+        return submit(job);
+    }
+
+    public ReportJob getJob(UUID id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Report job not found: " + id));
+    }
+
+    /**
+     * The rendered report of a completed job. A result no longer cached is
+     * rendered again from the stored report, without the detail sections
+     * only computed at generation.
+     *
+     * @throws IllegalArgumentException if the job has not completed
+     * @throws ResourceNotFoundException if its report has expired
+     */
+    public ReportResult getResult(UUID jobId) {
+        ReportJob job = getJob(jobId);
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            throw new IllegalArgumentException("Report job " + jobId + " is " + job.getStatus());
+        }
+
+        ReportResult cached = cachedResult(job.getCacheKey());
+        if (cached != null && cached.getReportId().equals(job.getReportId())) {
+            return cached;
+        }
+        if (job.getKind() == ReportJob.Kind.MEDICATION_ADHERENCE) {
+            MedicationAdherenceReportResponse report = medicationReports.getReport(job.getReportId());
+            return json(report.getReportId(), report, "medication-adherence-report-", null);
+        }
+        AdherenceReportResponse report = adherenceReports.getReport(job.getReportId());
+        return render(report, job.getFormat(), null);
+    }
+
+    /**
+     * Requeue jobs interrupted by a shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        try {
+            for (ReportJob job : jobRepository.findByStatusIn(
+                    List.of(ReportJob.Status.PENDING, ReportJob.Status.RUNNING))) {
+                logger.info("Resuming report job {}", job.getId());
+                enqueue(job);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not resume report jobs at startup: {}", e.getMessage());
+        }
+    }
+
+    private ReportJob newJob(ReportJob.Kind kind, UUID patientId, UUID medicationId, TimePeriod period,
+                             LocalDateTime startDate, LocalDateTime endDate, ReportFormat format,
+                             boolean includeDetails) {
+        period = period != null ? period : TimePeriod.LAST_30_DAYS;
+        if (period == TimePeriod.CUSTOM) {
+            if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+                throw new IllegalArgumentException("A custom period needs a start date no later than its end date");
+            }
+        } else {
+            startDate = null;
+            endDate = null;
+        }
+
+        ReportJob job = new ReportJob();
+        job.setKind(kind);
+        job.setPatientId(patientId);
+        job.setMedicationId(medicationId);
+        job.setTimePeriod(period);
+        job.setStartDate(startDate);
+        job.setEndDate(endDate);
+        job.setFormat(format != null ? format : ReportFormat.JSON);
+        job.setIncludeDetails(includeDetails);
+        job.setStatus(ReportJob.Status.PENDING);
+        job.setCreatedBy(securityUtil.getCurrentUserId());
+        job.setCreatedAt(LocalDateTime.now());
+        return job;
+    }
+
+    private ReportJob submit(ReportJob job) {
+        String key = cacheKey(job);
+        job.setCacheKey(key);
+
+        ReportResult cached = cachedResult(key);
+        if (cached != null) {
+            complete(job, cached, true);
+            job = jobRepository.save(job);
+            logger.info("Report job {} reused report {}", job.getId(), cached.getReportId());
+            return job;
+        }
+        UUID running = inFlight.get(key);
+        if (running != null) {
+            return getJob(running);
+        }
+
+        job = jobRepository.save(job);
+        logger.info("Report job {} queued: {} for patient {}", job.getId(), job.getKind(), job.getPatientId());
+        enqueue(job);
+        return job;
+    }
+
+    private void enqueue(ReportJob job) {
+        UUID id = job.getId();
+        if (job.getCacheKey() != null) {
+            inFlight.put(job.getCacheKey(), id);
+        }
+        try {
+            reportExecutor.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    release(job.getCacheKey(), id);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(job.getCacheKey(), id);
+            job.setStatus(ReportJob.Status.FAILED);
+            job.setErrorMessage(truncate(e.getMessage(), 1000));
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            throw e;
+        }
+    }
+
+    private void release(String key, UUID id) {
+        if (key != null) {
+            inFlight.remove(key, id);
+        }
+    }
+
+    // ==================== Generation ====================
+
+    private void run(UUID id) {
+        ReportJob job = getJob(id);
+        job.setStatus(ReportJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        try {
+            // The data may have changed while the job was queued
+            String key = cacheKey(job);
+            job.setCacheKey(key);
+            ReportResult result = cachedResult(key);
+            boolean reused = result != null;
+            if (!reused) {
+                result = generate(job);
+                resultCache.put(key, result);
+            }
+            complete(job, result, reused);
+            logger.info("Report job {} completed: report {}{}", id, result.getReportId(), reused ? " (reused)" : "");
+        } catch (RuntimeException e) {
+            logger.error("Report job {} failed: {}", id, e.getMessage());
+            job.setStatus(ReportJob.Status.FAILED);
+            job.setErrorMessage(truncate(e.getMessage(), 1000));
+            job.setCompletedAt(LocalDateTime.now());
+        }
+        jobRepository.save(job);
+    }
+
+    private ReportResult generate(ReportJob job) {
+        if (job.getKind() == ReportJob.Kind.MEDICATION_ADHERENCE) {
+            MedicationAdherenceReportResponse report = medicationReports.generateReport(
+                    MedicationAdherenceReportRequest.builder()
+                            .patientId(job.getPatientId())
+                            .medicationId(job.getMedicationId())
+                            .reportType(job.getReportType())
+                            .timePeriod(job.getTimePeriod())
+                            .startDate(job.getStartDate())
+                            .endDate(job.getEndDate())
+                            .format(job.getFormat())
+                            .includePatterns(job.isIncludeDetails())
+                            .build(),
+                    job.getCreatedBy());
+            LocalDateTime expiresAt = medicationReportRepository.findById(report.getReportId())
+                    .map(MedicationAdherenceReport::getExpiresAt).orElse(null);
+            return json(report.getReportId(), report, "medication-adherence-report-", expiresAt);
+        }
+
+        AdherenceReportResponse report = adherenceReports.generateReport(
+                AdherenceReportRequest.builder()
+                        .patientId(job.getPatientId())
+                        .reportType(job.getReportType())
+                        .timePeriod(job.getTimePeriod())
+                        .startDate(job.getStartDate())
+                        .endDate(job.getEndDate())
+                        .format(job.getFormat())
+                        .includeDetails(job.isIncludeDetails())
+                        .build(),
+                job.getCreatedBy());
+        LocalDateTime expiresAt = adherenceReportRepository.findById(report.getReportId())
+                .map(AdherenceReport::getExpiresAt).orElse(null);
+        return render(report, job.getFormat(), expiresAt);
+    }
+
+    private ReportResult render(AdherenceReportResponse report, ReportFormat format, LocalDateTime expiresAt) {
+        String name = "adherence-report-" + report.getReportId();
+        switch (format) {
+            case PDF:
+                return new ReportResult(report.getReportId(), pdfGenerator.generateAdherenceReportPdf(report),
+                        "application/pdf", name + ".pdf", expiresAt);
+            case CSV:
+                return new ReportResult(report.getReportId(), csvExporter.generateAdherenceReportCsv(report),
+                        "text/csv", name + ".csv", expiresAt);
+            case JSON:
+            default:
+                return json(report.getReportId(), report, "adherence-report-", expiresAt);
+        }
+    }
+
+    private ReportResult json(UUID reportId, Object report, String prefix, LocalDateTime expiresAt) {
+        try {
+            return new ReportResult(reportId, objectMapper.writeValueAsBytes(report),
+                    "application/json", prefix + reportId + ".json", expiresAt);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to render report " + reportId, e);
+        }
+    }
+
+    private static void complete(ReportJob job, ReportResult result, boolean reused) {
+        job.setStatus(ReportJob.Status.COMPLETED);
+        job.setReportId(result.getReportId());
+        job.setReused(reused);
+        job.setErrorMessage(null);
+        job.setCompletedAt(LocalDateTime.now());
+    }
+
+    // ==================== Result cache ====================
+
+    /**
+     * The request with its period resolved to days, and the watermark of the
+     * data read for it.
+     */
+    String cacheKey(ReportJob job) {
+        LocalDate from;
+        LocalDate to;
+        if (job.getTimePeriod() == TimePeriod.CUSTOM) {
+            from = job.getStartDate().toLocalDate();
+            to = job.getEndDate().toLocalDate();
+        } else {
+            to = LocalDate.now();
+            from = to.minusDays(days(job.getTimePeriod()));
+        }
+
+        StringBuilder key = new StringBuilder()
+                .append(job.getKind()).append('|')
+                .append(job.getPatientId()).append('|')
+                .append(job.getReportType()).append('|')
+                .append(job.getTimePeriod()).append('|')
+                .append(from).append('|').append(to).append('|')
+                .append(job.getFormat()).append('|')
+                .append(job.isIncludeDetails()).append('|');
+        if (job.getKind() == ReportJob.Kind.MEDICATION_ADHERENCE) {
+            key.append(job.getMedicationId()).append('|')
+                    .append(adherenceRollup.getWatermark(job.getPatientId(), CareTaskCategory.MEDICATION, from, to));
+        } else {
+            key.append(adherenceRollup.getWatermark(job.getPatientId(), null, from, to)).append('|')
+                    .append(adherenceRollup.countPending(job.getPatientId(), null));
+        }
+        return key.toString();
+    }
+
+    private ReportResult cachedResult(String key) {
+        ReportResult result = resultCache.get(key, ReportResult.class);
+        if (result == null) {
+            return null;
+        }
+        if (result.isExpired(LocalDateTime.now())) {
+            resultCache.evict(key);
+            return null;
+        }
+        return result;
+    }
+
+    private static long days(TimePeriod period) {
+        switch (period) {
+            case LAST_7_DAYS:
+                return 7;
+            case LAST_90_DAYS:
+                return 90;
+            case LAST_30_DAYS:
+            default:
+                return 30;
+        }
+    }
+
+    // ==================== Sweep ====================
+
+    /**
+     * Delete expired reports and finished jobs past retention, a batch per
+     * transaction so a large backlog never holds one long delete.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.sweep-interval-ms:3600000}",
+               initialDelayString = "${app.reports.sweep-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int adherence = purge(adherenceReportRepository::findIdsExpiredBefore,
+                adherenceReportRepository::deleteAllByIdInBatch, now);
+        int medication = purge(medicationReportRepository::findIdsExpiredBefore,
+                medicationReportRepository::deleteAllByIdInBatch, now);
+        int jobs = purge(jobRepository::findIdsCompletedBefore,
+                jobRepository::deleteAllByIdInBatch, now.minusHours(retentionHours));
+        if (adherence + medication + jobs > 0) {
+            logger.info("Purged {} expired adherence reports, {} expired medication reports and {} report jobs",
+                    adherence, medication, jobs);
+        }
+    }
+
+    private int purge(BiFunction<LocalDateTime, Pageable, List<UUID>> find, Consumer<List<UUID>> delete,
+                      LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<UUID> ids = find.apply(cutoff, PageRequest.of(0, sweepBatchSize));
+                if (!ids.isEmpty()) {
+                    delete.accept(ids);
+                }
+                return ids.size();
+            });
+            total += deleted;
+            if (deleted < sweepBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    private static String truncate(String message, int max) {
+        if (message == null || message.length() <= max) {
+            return message;
+        }
+        return message.substring(0, max);
+    }
+}
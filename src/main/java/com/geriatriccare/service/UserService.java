@@ -7,6 +7,7 @@ import com.geriatriccare.enums.UserStatus;
 import com.geriatriccare.exception.InvalidPasswordException;
 import com.geriatriccare.exception.ResourceNotFoundException;
 import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
 import com.geriatriccare.service.security.PasswordPolicyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,7 @@ public class UserService {
     @Autowired private UserRepository userRepository;
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private PasswordPolicyService passwordPolicyService;
+    @Autowired private CurrentUserContext currentUserContext;
 
     @Transactional
     public UserResponse createUser(UserRequest request, String createdBy) {
@@ -223,8 +225,7 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser() {
-        UUID userId = getCurrentUserId();
-        return getUserById(userId);
+        return convertToResponse(requireCurrentUser());
     }
 
     @Transactional(readOnly = true)
@@ -265,14 +266,19 @@ public class UserService {
     }
 
     public UUID getCurrentUserId() {
+        return requireCurrentUser().getId();
+    }
+
+    private User requireCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) {
             throw new IllegalStateException("No authenticated user");
         }
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return user.getId();
+        User user = currentUserContext.getUser();
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return user;
     }
 
     private UserResponse convertToResponse(User user) {
@@ -1,7 +1,6 @@
 package com.geriatriccare.service.ai;
 
 import com.geriatriccare.dto.ai.*;
-import com.geriatriccare.entity.AIAuditLog;
 import com.geriatriccare.repository.AIAuditLogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,37 +21,45 @@ public class AIAnalyticsService {
     private static final double COST_PER_1K_TOKENS = 0.03;
     
     private final AIAuditLogRepository auditLogRepository;
+    private final AIUsageRollupService rollupService;
     
     @Autowired
-    public AIAnalyticsService(AIAuditLogRepository auditLogRepository) {
+    public AIAnalyticsService(AIAuditLogRepository auditLogRepository, AIUsageRollupService rollupService) {
         this.auditLogRepository = auditLogRepository;
+        this.rollupService = rollupService;
     }
     
     @Transactional(readOnly = true)
     public AIAnalyticsResponse getOverallAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating analytics report from {} to {}", startDate, endDate);
         
-        List<AIAuditLog> logs = auditLogRepository.findAll().stream()
-                .filter(log -> log.getTimestamp().isAfter(startDate) && log.getTimestamp().isBefore(endDate))
-                .collect(Collectors.toList());
+        Map<String, AIUsageRollupService.UsageTotals> usage = rollupService.aggregate(startDate, endDate);
         
         AIAnalyticsResponse response = new AIAnalyticsResponse();
         
-        AIUsageMetrics metrics = calculateOverallMetrics(logs, startDate, endDate);
+        AIUsageMetrics metrics = calculateOverallMetrics(usage, startDate, endDate);
         response.setOverallMetrics(metrics);
         
-        List<FeatureUsageStats> featureStats = calculateFeatureUsage(logs);
+        List<FeatureUsageStats> featureStats = calculateFeatureUsage(usage);
         response.setFeatureUsageBreakdown(featureStats);
         
-        List<String> recentErrors = logs.stream()
-                .filter(log -> !log.getSuccess())
-                .limit(10)
+        List<String> recentErrors = auditLogRepository
+                .findTop10BySuccessFalseAndTimestampBetweenOrderByTimestampDesc(startDate, endDate).stream()
                 .map(log -> log.getRequestType() + ": " + log.getErrorMessage())
                 .collect(Collectors.toList());
         response.setRecentErrors(recentErrors);
         
-        response.setCostTrend(calculateCostTrend(logs));
-        response.setUsageTrend(calculateUsageTrend(logs));
+        // Compare the first and second half of the period
+        if (metrics.getTotalRequests() < 7) {
+            response.setCostTrend("Insufficient data");
+            response.setUsageTrend("Insufficient data");
+        } else {
+            LocalDateTime midpoint = startDate.plus(Duration.between(startDate, endDate).dividedBy(2));
+            AIUsageRollupService.UsageTotals firstHalf = sum(rollupService.aggregate(startDate, midpoint));
+            AIUsageRollupService.UsageTotals secondHalf = sum(rollupService.aggregate(midpoint, endDate));
+            response.setCostTrend(calculateCostTrend(firstHalf.getTokens(), secondHalf.getTokens()));
+            response.setUsageTrend(calculateUsageTrend(firstHalf.getRequests(), secondHalf.getRequests()));
+        }
         response.setGeneratedAt(LocalDateTime.now());
         
         log.info("Analytics generated: {} total requests, {} tokens used", 
@@ -63,19 +72,18 @@ public class AIAnalyticsService {
     public AIUsageMetrics getMetricsForPeriod(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Calculating metrics for period: {} to {}", startDate, endDate);
         
-        List<AIAuditLog> logs = auditLogRepository.findAll().stream()
-                .filter(log -> log.getTimestamp().isAfter(startDate) && log.getTimestamp().isBefore(endDate))
-                .collect(Collectors.toList());
-        
-        return calculateOverallMetrics(logs, startDate, endDate);
+        return calculateOverallMetrics(rollupService.aggregate(startDate, endDate), startDate, endDate);
     }
     
     @Transactional(readOnly = true)
     public List<FeatureUsageStats> getFeatureUsageStats() {
         log.info("Calculating feature usage statistics");
         
-        List<AIAuditLog> logs = auditLogRepository.findAll();
-        return calculateFeatureUsage(logs);
+        LocalDateTime earliest = auditLogRepository.findEarliestTimestamp();
+        if (earliest == null) {
+            return new ArrayList<>();
+        }
+        return calculateFeatureUsage(rollupService.aggregate(earliest, LocalDateTime.now()));
     }
     
     @Transactional(readOnly = true)
@@ -83,16 +91,9 @@ public class AIAnalyticsService {
         log.info("Calculating estimated monthly cost");
         
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime monthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
+        LocalDateTime monthStart = now.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
         
-        List<AIAuditLog> logs = auditLogRepository.findAll().stream()
-                .filter(log -> log.getTimestamp().isAfter(monthStart))
-                .collect(Collectors.toList());
-        
-        int totalTokens = logs.stream()
-                .filter(log -> log.getTokensUsed() != null)
-                .mapToInt(AIAuditLog::getTokensUsed)
-                .sum();
+        long totalTokens = sum(rollupService.aggregate(monthStart, now)).getTokens();
         
         double cost = (totalTokens / 1000.0) * COST_PER_1K_TOKENS;
         
@@ -101,58 +102,38 @@ public class AIAnalyticsService {
         return cost;
     }
     
-    private AIUsageMetrics calculateOverallMetrics(List<AIAuditLog> logs, LocalDateTime start, LocalDateTime end) {
+    private AIUsageMetrics calculateOverallMetrics(
+            Map<String, AIUsageRollupService.UsageTotals> usage, LocalDateTime start, LocalDateTime end) {
         AIUsageMetrics metrics = new AIUsageMetrics();
+        AIUsageRollupService.UsageTotals totals = sum(usage);
         
         metrics.setPeriodStart(start);
         metrics.setPeriodEnd(end);
-        metrics.setTotalRequests((long) logs.size());
-        
-        long successful = logs.stream().filter(AIAuditLog::getSuccess).count();
-        long failed = logs.size() - successful;
-        
-        metrics.setSuccessfulRequests(successful);
-        metrics.setFailedRequests(failed);
-        metrics.setSuccessRate(logs.size() > 0 ? (successful * 100.0 / logs.size()) : 0.0);
-        
-        int totalTokens = logs.stream()
-                .filter(log -> log.getTokensUsed() != null)
-                .mapToInt(AIAuditLog::getTokensUsed)
-                .sum();
+        metrics.setTotalRequests(totals.getRequests());
+        metrics.setSuccessfulRequests(totals.getSuccesses());
+        metrics.setFailedRequests(totals.getFailures());
+        metrics.setSuccessRate(totals.getRequests() > 0 ? (totals.getSuccesses() * 100.0 / totals.getRequests()) : 0.0);
         
-        metrics.setTotalTokensUsed(totalTokens);
-        metrics.setEstimatedCost((totalTokens / 1000.0) * COST_PER_1K_TOKENS);
+        metrics.setTotalTokensUsed((int) totals.getTokens());
+        metrics.setEstimatedCost((totals.getTokens() / 1000.0) * COST_PER_1K_TOKENS);
         
-        double avgResponseTime = logs.stream()
-                .filter(log -> log.getResponseTimeMs() != null)
-                .mapToLong(AIAuditLog::getResponseTimeMs)
-                .average()
-                .orElse(0.0);
-        
-        metrics.setAverageResponseTimeMs(avgResponseTime);
+        metrics.setAverageResponseTimeMs(totals.getResponseTimeCount() > 0
+                ? (double) totals.getResponseTimeSumMs() / totals.getResponseTimeCount()
+                : 0.0);
         
         return metrics;
     }
     
-    private List<FeatureUsageStats> calculateFeatureUsage(List<AIAuditLog> logs) {
-        Map<String, Long> featureCounts = logs.stream()
-                .collect(Collectors.groupingBy(AIAuditLog::getRequestType, Collectors.counting()));
-        
-        long total = logs.size();
+    private List<FeatureUsageStats> calculateFeatureUsage(Map<String, AIUsageRollupService.UsageTotals> usage) {
+        long total = sum(usage).getRequests();
         
-        return featureCounts.entrySet().stream()
+        return usage.entrySet().stream()
                 .map(entry -> {
-                    FeatureUsageStats stats = new FeatureUsageStats(entry.getKey(), entry.getValue());
-                    stats.setPercentageOfTotal(total > 0 ? (entry.getValue() * 100.0 / total) : 0.0);
-                    
-                    double avgTokensDouble = logs.stream()
-                            .filter(log -> log.getRequestType().equals(entry.getKey()))
-                            .filter(log -> log.getTokensUsed() != null)
-                            .mapToInt(AIAuditLog::getTokensUsed)
-                            .average()
-                            .orElse(0.0);
+                    AIUsageRollupService.UsageTotals totals = entry.getValue();
+                    FeatureUsageStats stats = new FeatureUsageStats(entry.getKey(), totals.getRequests());
+                    stats.setPercentageOfTotal(total > 0 ? (totals.getRequests() * 100.0 / total) : 0.0);
                     
-                    int avgTokens = (int) avgTokensDouble;
+                    int avgTokens = (int) (totals.getTokens() / totals.getRequests());
                     
                     stats.setAverageTokensPerRequest(avgTokens);
                     stats.setAverageCostPerRequest((avgTokens / 1000.0) * COST_PER_1K_TOKENS);
@@ -163,20 +144,16 @@ public class AIAnalyticsService {
                 .collect(Collectors.toList());
     }
     
-    private String calculateCostTrend(List<AIAuditLog> logs) {
-        if (logs.size() < 7) return "Insufficient data";
-        
-        int midpoint = logs.size() / 2;
-        
-        int firstHalfTokens = logs.subList(0, midpoint).stream()
-                .filter(log -> log.getTokensUsed() != null)
-                .mapToInt(AIAuditLog::getTokensUsed)
-                .sum();
-        
-        int secondHalfTokens = logs.subList(midpoint, logs.size()).stream()
-                .filter(log -> log.getTokensUsed() != null)
-                .mapToInt(AIAuditLog::getTokensUsed)
-                .sum();
+    private AIUsageRollupService.UsageTotals sum(Map<String, AIUsageRollupService.UsageTotals> usage) {
+        AIUsageRollupService.UsageTotals totals = new AIUsageRollupService.UsageTotals();
+        usage.values().forEach(totals::add);
+        return totals;
+    }
+    
+    private String calculateCostTrend(long firstHalfTokens, long secondHalfTokens) {
+        if (firstHalfTokens == 0) {
+            return secondHalfTokens > 0 ? "Increasing" : "Stable";
+        }
         
         if (secondHalfTokens > firstHalfTokens * 1.2) {
             return "Increasing (↑ " + String.format("%.0f%%", ((secondHalfTokens - firstHalfTokens) * 100.0 / firstHalfTokens)) + ")";
@@ -187,13 +164,7 @@ public class AIAnalyticsService {
         }
     }
     
-    private String calculateUsageTrend(List<AIAuditLog> logs) {
-        if (logs.size() < 7) return "Insufficient data";
-        
-        int midpoint = logs.size() / 2;
-        int firstHalf = midpoint;
-        int secondHalf = logs.size() - midpoint;
-        
+    private String calculateUsageTrend(long firstHalf, long secondHalf) {
         if (secondHalf > firstHalf * 1.2) {
             return "Increasing";
         } else if (secondHalf < firstHalf * 0.8) {
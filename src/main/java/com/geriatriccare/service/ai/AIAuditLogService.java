@@ -24,11 +24,12 @@ public class AIAuditLogService {
     }
 
     @Transactional
-    public void logAIRequest(String prompt, OpenAIResponse response) {
+    public void logAIRequest(String prompt, OpenAIResponse response, long responseTimeMs) {
         AIAuditLog auditLog = new AIAuditLog();
         auditLog.setRequestType("AI_COMPLETION");
         auditLog.setPrompt(truncate(prompt, 5000)); // Truncate for storage
         auditLog.setSuccess(true);
+        auditLog.setResponseTimeMs(responseTimeMs);
         
         if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
             String responseText = response.getChoices().get(0).getMessage().getContent();
@@ -44,11 +45,12 @@ public class AIAuditLogService {
     }
 
     @Transactional
-    public void logAIError(String prompt, String errorMessage) {
+    public void logAIError(String prompt, String errorMessage, long responseTimeMs) {
         AIAuditLog auditLog = new AIAuditLog();
         auditLog.setRequestType("AI_COMPLETION");
         auditLog.setPrompt(truncate(prompt, 5000));
         auditLog.setSuccess(false);
+        auditLog.setResponseTimeMs(responseTimeMs);
         auditLog.setErrorMessage(errorMessage);
         
         auditLogRepository.save(auditLog);
@@ -1,5 +1,6 @@
 package com.geriatriccare.service.ai;
 
+import com.geriatriccare.dto.ai.OpenAIResponse;
 import com.geriatriccare.dto.ai.RecommendationRequest;
 import com.geriatriccare.dto.ai.RecommendationResponse;
 import com.geriatriccare.dto.ai.RecommendationType;
@@ -14,13 +15,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class AIRecommendationService {
@@ -31,17 +35,21 @@ public class AIRecommendationService {
     private final PromptTemplateService promptTemplateService;
     private final AIAuditLogRepository auditLogRepository;
     private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
     
     @Autowired
     public AIRecommendationService(
             OpenAIService openAIService,
             PromptTemplateService promptTemplateService,
             AIAuditLogRepository auditLogRepository,
-            PatientRepository patientRepository) {
+            PatientRepository patientRepository,
+            PlatformTransactionManager transactionManager) {
         this.openAIService = openAIService;
         this.promptTemplateService = promptTemplateService;
         this.auditLogRepository = auditLogRepository;
         this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
     /**
@@ -49,12 +57,26 @@ public class AIRecommendationService {
      */
     @Transactional
     public RecommendationResponse generateRecommendation(RecommendationRequest request) {
+        return generate(request, null);
+    }
+    
+    /**
+     * Generate recommendation while relaying completion deltas as they arrive.
+     * The returned response is identical to {@link #generateRecommendation}.
+     * Runs outside a transaction, so no connection is held while the completion streams.
+     */
+    public RecommendationResponse streamRecommendation(
+            RecommendationRequest request, Consumer<String> onToken) {
+        return generate(request, onToken);
+    }
+    
+    private RecommendationResponse generate(RecommendationRequest request, Consumer<String> onToken) {
         log.info("Generating {} recommendation for patient: {}", 
                  request.getType(), request.getPatientId());
         
         // 1. Validate patient exists
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new RuntimeException("Patient not found: " + request.getPatientId()));
+        Patient patient = readOnlyTransaction.execute(status -> patientRepository.findById(request.getPatientId())
+                .orElseThrow(() -> new RuntimeException("Patient not found: " + request.getPatientId())));
         
         // 2. Get prompt template
         PromptTemplateResponse template = promptTemplateService
@@ -75,11 +97,13 @@ public class AIRecommendationService {
         
         log.debug("Rendered prompt for OpenAI (length: {} chars)", renderedPrompt.length());
         
-        // 6. Call OpenAI API
+        // 6. Call OpenAI API (streamed when a token consumer is supplied)
         String aiResponse;
         try {
-            aiResponse = openAIService.generateCompletion(renderedPrompt, template.getName())
-                    .getChoices().get(0).getMessage().getContent();
+            OpenAIResponse completion = onToken != null
+                    ? openAIService.streamCompletion(renderedPrompt, template.getName(), onToken)
+                    : openAIService.generateCompletion(renderedPrompt, template.getName());
+            aiResponse = completion.getChoices().get(0).getMessage().getContent();
         } catch (Exception e) {
             log.error("OpenAI API call failed: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate AI recommendation: " + e.getMessage(), e);
@@ -0,0 +1,134 @@
+package com.geriatriccare.service.ai;
+
+import com.geriatriccare.config.OpenAIConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Relays streamed AI completions to HTTP clients over server-sent events.
+ *
+ * Event sequence sent to the client:
+ *   token    - one content delta, in arrival order
+ *   complete - the final response DTO (JSON), built from the assembled text
+ *   error    - a short message if generation failed
+ */
+@Service
+public class AIStreamingService {
+
+    private static final Logger log = LoggerFactory.getLogger(AIStreamingService.class);
+
+    private final ThreadPoolTaskExecutor aiStreamExecutor;
+    private final OpenAIConfig.OpenAIProperties properties;
+    private final Timer queueWaitTimer;
+
+    public AIStreamingService(@Qualifier("aiStreamExecutor") ThreadPoolTaskExecutor aiStreamExecutor,
+                              OpenAIConfig.OpenAIProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.aiStreamExecutor = aiStreamExecutor;
+        this.properties = properties;
+        this.queueWaitTimer = Timer.builder("ai.stream.queue.wait")
+                .description("Time a streaming request waits for a free AI stream worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a streaming generation on the AI stream pool and relay it to a new emitter.
+     *
+     * @param label Short description used in logs
+     * @param generation Produces the final response while pushing deltas into the given consumer
+     * @return Emitter to return from the controller
+     */
+    public <T> SseEmitter stream(String label, Function<Consumer<String>, T> generation) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout());
+
+        emitter.onTimeout(() -> log.warn("SSE stream timed out: {}", label));
+        emitter.onError(e -> log.debug("SSE stream error for {}: {}", label, e.getMessage()));
+
+        long submittedAt = System.nanoTime();
+        Runnable task = () -> {
+            queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                T result = generation.apply(token -> sendToken(emitter, token));
+                emitter.send(SseEmitter.event()
+                        .name("complete")
+                        .data(result, MediaType.APPLICATION_JSON));
+                emitter.complete();
+                log.info("SSE stream completed: {}", label);
+            } catch (Exception e) {
+                if (isClientDisconnect(e)) {
+                    log.info("Client disconnected from SSE stream: {}", label);
+                    emitter.complete();
+                    return;
+                }
+                log.error("Streaming generation failed for {}: {}", label, e.getMessage(), e);
+                sendError(emitter, "Failed to generate AI response");
+            }
+        };
+
+        try {
+            // Propagate the caller's security context so services see the authenticated user
+            aiStreamExecutor.execute(new DelegatingSecurityContextRunnable(task));
+        } catch (RejectedExecutionException e) {
+            log.warn("AI stream pool saturated, rejecting stream: {}", label);
+            sendError(emitter, "Too many concurrent AI streams, please retry shortly");
+        }
+
+        return emitter;
+    }
+
+    private void sendToken(SseEmitter emitter, String token) {
+        try {
+            emitter.send(SseEmitter.event().name("token").data(token));
+        } catch (IOException | IllegalStateException e) {
+            // Abort the upstream read so no further tokens are paid for
+            throw new ClientDisconnectedException(e);
+        }
+    }
+
+    private void sendError(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("error")
+                    .data(Map.of("message", message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not deliver SSE error event: {}", e.getMessage());
+        }
+    }
+
+    private boolean isClientDisconnect(Throwable e) {
+        // The disconnect surfaces wrapped by the OpenAI and feature service layers
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ClientDisconnectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The SSE client went away mid-stream. Not an upstream failure: the OpenAI
+     * circuit breaker ignores it and it is not audited as an AI error.
+     */
+    public static class ClientDisconnectedException extends RuntimeException {
+        public ClientDisconnectedException(Throwable cause) {
+            super("SSE client disconnected", cause);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.geriatriccare.service.ai;
+
+import com.geriatriccare.entity.AIUsageHourlyRollup;
+import com.geriatriccare.repository.AIAuditLogRepository;
+import com.geriatriccare.repository.AIUsageHourlyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly rollups of AI audit logs.
+ *
+ * A scheduled job aggregates each completed clock hour of ai_audit_logs into
+ * one row per request type. Queries over an arbitrary period read the rollups
+ * for whole hours that are already rolled up, and aggregate only the partial
+ * edge hours (and anything not yet rolled up) directly in the database.
+ *
+ * Each hour is rolled up in a transaction of its own that first inserts the
+ * hour's marker row. The unique key on (bucket_start, request_type) makes that
+ * insert a claim: when several instances run the job, the others wait on it
+ * and then fail, and stop instead of counting the hour again.
+ */
+@Service
+public class AIUsageRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AIUsageRollupService.class);
+
+    /** Request type of the zero-count row that claims an hour and marks it as rolled up */
+    static final String HOUR_MARKER_TYPE = "NONE";
+
+    /** Catch-up limit per run, so a long backlog is worked off over several runs */
+    static final int MAX_HOURS_PER_RUN = 168;
+
+    private final AIAuditLogRepository auditLogRepository;
+    private final AIUsageHourlyRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AIUsageRollupService(AIAuditLogRepository auditLogRepository,
+                                AIUsageHourlyRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Roll up every completed hour since the last run (a few minutes past the hour,
+     * so audit rows written at the end of the previous hour are included).
+     */
+    @Scheduled(cron = "${ai.analytics.rollup-cron:0 5 * * * *}")
+    public void rollUpCompletedHours() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hour = nextHourToRollUp();
+
+        int rolled = 0;
+        while (hour != null && hour.isBefore(currentHour) && rolled < MAX_HOURS_PER_RUN) {
+            if (!claimAndRollUpHour(hour)) {
+                log.info("AI usage for {} is being rolled up by another instance", hour);
+                break;
+            }
+            hour = hour.plusHours(1);
+            rolled++;
+        }
+
+        if (rolled > 0) {
+            log.info("Rolled up {} hour(s) of AI usage, up to {}", rolled, hour);
+        }
+    }
+
+    /**
+     * Usage per request type for {@code [start, end)}.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, UsageTotals> aggregate(LocalDateTime start, LocalDateTime end) {
+        Map<String, UsageTotals> totals = new HashMap<>();
+        if (!start.isBefore(end)) {
+            return totals;
+        }
+
+        LocalDateTime rolledUntil = rolledUntil();
+        LocalDateTime firstFullHour = start.truncatedTo(ChronoUnit.HOURS);
+        if (firstFullHour.isBefore(start)) {
+            firstFullHour = firstFullHour.plusHours(1);
+        }
+        LocalDateTime rollupEnd = end.truncatedTo(ChronoUnit.HOURS);
+        if (rolledUntil == null || rolledUntil.isBefore(rollupEnd)) {
+            rollupEnd = rolledUntil;
+        }
+
+        if (rollupEnd == null || !firstFullHour.isBefore(rollupEnd)) {
+            merge(totals, auditLogRepository.aggregateByRequestType(start, end));
+            return totals;
+        }
+
+        if (start.isBefore(firstFullHour)) {
+            merge(totals, auditLogRepository.aggregateByRequestType(start, firstFullHour));
+        }
+        merge(totals, rollupRepository.sumByRequestType(firstFullHour, rollupEnd));
+        if (rollupEnd.isBefore(end)) {
+            merge(totals, auditLogRepository.aggregateByRequestType(rollupEnd, end));
+        }
+        return totals;
+    }
+
+    /**
+     * End of the rolled-up range (exclusive), or null if nothing is rolled up yet.
+     */
+    LocalDateTime rolledUntil() {
+        LocalDateTime latest = rollupRepository.findLatestBucketStart();
+        return latest != null ? latest.plusHours(1) : null;
+    }
+
+    private LocalDateTime nextHourToRollUp() {
+        LocalDateTime rolledUntil = rolledUntil();
+        if (rolledUntil != null) {
+            return rolledUntil;
+        }
+        LocalDateTime earliest = auditLogRepository.findEarliestTimestamp();
+        return earliest != null ? earliest.truncatedTo(ChronoUnit.HOURS) : null;
+    }
+
+    /**
+     * @return false if another instance claimed the hour first
+     */
+    private boolean claimAndRollUpHour(LocalDateTime hour) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                AIUsageHourlyRollup marker = new AIUsageHourlyRollup();
+                marker.setBucketStart(hour);
+                marker.setRequestType(HOUR_MARKER_TYPE);
+                rollupRepository.saveAndFlush(marker);
+
+                rollUpHour(hour);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void rollUpHour(LocalDateTime hour) {
+        List<Object[]> rows = auditLogRepository.aggregateByRequestType(hour, hour.plusHours(1));
+        List<AIUsageHourlyRollup> rollups = new ArrayList<>(rows.size());
+
+        for (Object[] row : rows) {
+            AIUsageHourlyRollup rollup = new AIUsageHourlyRollup();
+            rollup.setBucketStart(hour);
+            rollup.setRequestType((String) row[0]);
+            rollup.setRequestCount(toLong(row[1]));
+            rollup.setSuccessCount(toLong(row[2]));
+            rollup.setTotalTokens(toLong(row[3]));
+            rollup.setResponseTimeSumMs(toLong(row[4]));
+            rollup.setResponseTimeCount(toLong(row[5]));
+            rollup.setMaxResponseTimeMs(row[6] != null ? toLong(row[6]) : null);
+            rollups.add(rollup);
+        }
+
+        if (!rollups.isEmpty()) {
+            rollupRepository.saveAll(rollups);
+        }
+    }
+
+    private void merge(Map<String, UsageTotals> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            long requests = toLong(row[1]);
+            if (requests == 0) {
+                continue;
+            }
+            totals.computeIfAbsent((String) row[0], type -> new UsageTotals())
+                    .add(requests, toLong(row[2]), toLong(row[3]), toLong(row[4]), toLong(row[5]),
+                            row[6] != null ? toLong(row[6]) : 0);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class UsageTotals {
+        private long requests;
+        private long successes;
+        private long tokens;
+        private long responseTimeSumMs;
+        private long responseTimeCount;
+        private long maxResponseTimeMs;
+
+        void add(UsageTotals other) {
+            add(other.requests, other.successes, other.tokens,
+                    other.responseTimeSumMs, other.responseTimeCount, other.maxResponseTimeMs);
+        }
+
+        void add(long requests, long successes, long tokens,
+                 long responseTimeSumMs, long responseTimeCount, long maxResponseTimeMs) {
+            this.requests += requests;
+            this.successes += successes;
+            this.tokens += tokens;
+            this.responseTimeSumMs += responseTimeSumMs;
+            this.responseTimeCount += responseTimeCount;
+            this.maxResponseTimeMs = Math.max(this.maxResponseTimeMs, maxResponseTimeMs);
+        }
+
+        public long getRequests() { return requests; }
+        public long getSuccesses() { return successes; }
+        public long getFailures() { return requests - successes; }
+        public long getTokens() { return tokens; }
+        public long getResponseTimeSumMs() { return responseTimeSumMs; }
+        public long getResponseTimeCount() { return responseTimeCount; }
+        public long getMaxResponseTimeMs() { return maxResponseTimeMs; }
+    }
+}
@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,17 +30,20 @@ public class CarePlanGenerationService {
     private final PromptTemplateService promptTemplateService;
     private final AIAuditLogRepository auditLogRepository;
     private final PatientRepository patientRepository;
+    private final StructuredResponseParser structuredParser;
     
     @Autowired
     public CarePlanGenerationService(
             OpenAIService openAIService,
             PromptTemplateService promptTemplateService,
             AIAuditLogRepository auditLogRepository,
-            PatientRepository patientRepository) {
+            PatientRepository patientRepository,
+            StructuredResponseParser structuredParser) {
         this.openAIService = openAIService;
         this.promptTemplateService = promptTemplateService;
         this.auditLogRepository = auditLogRepository;
         this.patientRepository = patientRepository;
+        this.structuredParser = structuredParser;
     }
     
     /**
@@ -70,8 +74,11 @@ public class CarePlanGenerationService {
         // 5. Call OpenAI API
         String aiResponse;
         try {
-            OpenAIResponse openAIResponse = openAIService.generateCompletion(
-                    renderedPrompt, "Care Plan Generation");
+            OpenAIResponse openAIResponse = openAIService.generateStructuredCompletion(
+                    renderedPrompt,
+                    "Care Plan Generation. Respond with a JSON object containing one property per care plan section.",
+                    StructuredResponseParser.CARE_PLAN_SCHEMA_NAME,
+                    StructuredResponseParser.CARE_PLAN_SCHEMA);
             aiResponse = openAIResponse.getChoices().get(0).getMessage().getContent();
             
         } catch (Exception e) {
@@ -220,47 +227,52 @@ public class CarePlanGenerationService {
             CarePlanGenerationRequest request,
             Patient patient) {
         
-        CarePlanGenerationResponse response = new CarePlanGenerationResponse();
+        // Prefer the schema-constrained JSON; fall back to "###" sections for models that ignore it
+        Optional<CarePlanGenerationResponse> structured = structuredParser.parseCarePlan(aiResponse);
+        if (structured.isPresent()) {
+            return structured.get();
+        }
+        log.debug("Care plan response is not structured JSON, using section parser");
         
-        // For now, we'll store the entire response
-        // In production, you'd parse sections based on markers or use structured output
+        CarePlanGenerationResponse response = new CarePlanGenerationResponse();
         
         // Try to extract sections if they're marked
         String[] sections = aiResponse.split("###");
         
-        for (String section : sections) {
-            section = section.trim();
+        for (String rawSection : sections) {
+            String section = rawSection.trim();
+            String lower = section.toLowerCase();
             
-            if (section.toLowerCase().startsWith("executive summary")) {
+            if (lower.startsWith("executive summary")) {
                 response.setExecutiveSummary(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("medical management")) {
+            } else if (lower.contains("medical management")) {
                 response.setMedicalManagement(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("daily activities") || 
-                       section.toLowerCase().contains("activities of daily living")) {
+            } else if (lower.contains("daily activities") || 
+                       lower.contains("activities of daily living")) {
                 response.setDailyActivities(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("nutrition")) {
+            } else if (lower.contains("nutrition")) {
                 response.setNutritionPlan(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("exercise") || 
-                       section.toLowerCase().contains("physical activity")) {
+            } else if (lower.contains("exercise") || 
+                       lower.contains("physical activity")) {
                 response.setExercisePlan(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("safety") || 
-                       section.toLowerCase().contains("fall prevention")) {
+            } else if (lower.contains("safety") || 
+                       lower.contains("fall prevention")) {
                 response.setSafetyMeasures(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("cognitive") || 
-                       section.toLowerCase().contains("mental health")) {
+            } else if (lower.contains("cognitive") || 
+                       lower.contains("mental health")) {
                 response.setCognitiveSupport(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("social")) {
+            } else if (lower.contains("social")) {
                 response.setSocialEngagement(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("pain")) {
+            } else if (lower.contains("pain")) {
                 response.setPainManagement(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("goals") || 
-                       section.toLowerCase().contains("objectives")) {
+            } else if (lower.contains("goals") || 
+                       lower.contains("objectives")) {
                 response.setGoalsAndObjectives(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("monitoring")) {
+            } else if (lower.contains("monitoring")) {
                 response.setMonitoringPlan(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("caregiver")) {
+            } else if (lower.contains("caregiver")) {
                 response.setCaregiverInstructions(extractSectionContent(section));
-            } else if (section.toLowerCase().contains("emergency")) {
+            } else if (lower.contains("emergency")) {
                 response.setEmergencyProtocols(extractSectionContent(section));
             }
         }
@@ -0,0 +1,120 @@
+package com.geriatriccare.service.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Prompt template pre-split into literal and variable segments.
+ *
+ * A template such as {@code "Patient ${patientName}, age ${age}"} compiles to
+ * literals {@code ["Patient ", ", age ", ""]} and variables
+ * {@code ["patientName", "age"]}; rendering interleaves them in one
+ * {@link StringBuilder} pass instead of rescanning the text per variable.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledPromptTemplate {
+
+    private static final String VARIABLE_START = "${";
+    private static final char VARIABLE_END = '}';
+
+    private final String source;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private CompiledPromptTemplate(String source, String[] literals, String[] variables) {
+        this.source = source;
+        this.literals = literals;
+        this.variables = variables;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Split a template into segments. Unterminated {@code ${} and empty
+     * {@code ${}} placeholders are kept as literal text, matching the
+     * previous regex-based renderer.
+     */
+    public static CompiledPromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf(VARIABLE_START, pos);
+            if (start < 0) {
+                break;
+            }
+            int end = source.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+            if (end < 0) {
+                break;
+            }
+            if (end == start + VARIABLE_START.length()) {
+                // "${}" is not a variable; keep it and continue after it
+                literal.append(source, pos, end + 1);
+                pos = end + 1;
+                continue;
+            }
+
+            literal.append(source, pos, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            variables.add(source.substring(start + VARIABLE_START.length(), end));
+            pos = end + 1;
+        }
+        literal.append(source, pos, source.length());
+        literals.add(literal.toString());
+
+        return new CompiledPromptTemplate(
+                source,
+                literals.toArray(new String[0]),
+                variables.toArray(new String[0]));
+    }
+
+    /**
+     * Render the template. Variables without a value are left as
+     * {@code ${name}} placeholders and reported to {@code onMissing}.
+     */
+    public String render(Map<String, String> values, Consumer<String> onMissing) {
+        if (variables.length == 0) {
+            return source;
+        }
+
+        StringBuilder out = new StringBuilder(literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                onMissing.accept(variables[i]);
+                out.append(VARIABLE_START).append(variables[i]).append(VARIABLE_END);
+            }
+        }
+        out.append(literals[variables.length]);
+        return out.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Distinct variable names in order of first appearance.
+     */
+    public List<String> getVariableNames() {
+        Set<String> distinct = new LinkedHashSet<>();
+        Collections.addAll(distinct, variables);
+        return List.copyOf(distinct);
+    }
+}
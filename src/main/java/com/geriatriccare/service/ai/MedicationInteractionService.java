@@ -5,6 +5,7 @@ import com.geriatriccare.entity.AIAuditLog;
 import com.geriatriccare.entity.Patient;
 import com.geriatriccare.repository.AIAuditLogRepository;
 import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.service.DrugInteractionGraphService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,30 +16,45 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class MedicationInteractionService {
     
     private static final Logger log = LoggerFactory.getLogger(MedicationInteractionService.class);
+    private static final String LOCAL_ENGINE = "local-interaction-graph";
+    private static final Pattern NUMBERED_ITEM = Pattern.compile("\\d\\.");
     
     private final OpenAIService openAIService;
     private final PromptTemplateService promptTemplateService;
     private final AIAuditLogRepository auditLogRepository;
     private final PatientRepository patientRepository;
+    private final DrugInteractionGraphService interactionGraph;
+    private final StructuredResponseParser structuredParser;
     
     @Autowired
     public MedicationInteractionService(
             OpenAIService openAIService,
             PromptTemplateService promptTemplateService,
             AIAuditLogRepository auditLogRepository,
-            PatientRepository patientRepository) {
+            PatientRepository patientRepository,
+            DrugInteractionGraphService interactionGraph,
+            StructuredResponseParser structuredParser) {
         this.openAIService = openAIService;
         this.promptTemplateService = promptTemplateService;
         this.auditLogRepository = auditLogRepository;
         this.patientRepository = patientRepository;
+        this.interactionGraph = interactionGraph;
+        this.structuredParser = structuredParser;
     }
     
+    /**
+     * Check a regimen for interactions.
+     * All prescription/OTC pairs are first checked against the local interaction graph;
+     * the LLM is only called when some medication or pair is not covered by the reference
+     * data or supplements are listed, and its findings are appended to the local ones.
+     */
     @Transactional
     public InteractionCheckResponse checkInteractions(InteractionCheckRequest request) {
         log.info("Checking medication interactions for patient: {}", request.getPatientId());
@@ -47,6 +63,21 @@ public class MedicationInteractionService {
         Patient patient = patientRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found: " + request.getPatientId()));
         
+        // Deterministic check against reference data
+        List<String> drugs = new ArrayList<>(request.getMedications());
+        if (request.getOtcMedications() != null) drugs.addAll(request.getOtcMedications());
+        DrugInteractionGraphService.GraphCheckResult localResult = interactionGraph.check(drugs);
+        List<DrugInteraction> localInteractions = toInteractions(localResult, request);
+        
+        boolean hasSupplements = request.getSupplements() != null && !request.getSupplements().isEmpty();
+        if (localResult.isFullyCovered() && !hasSupplements) {
+            log.info("All {} medications and their pairs covered by reference data, skipping LLM", drugs.size());
+            return buildLocalResponse(request, patient, localInteractions);
+        }
+        
+        log.info("Escalating to LLM - unresolved medications: {}, pairs without reference data: {}, supplements: {}",
+                localResult.getUnresolved().size(), localResult.getUncoveredPairs().size(), hasSupplements);
+        
         // Get template
         PromptTemplateResponse template = promptTemplateService
                 .getLatestTemplateByName("Drug Interaction Checker");
@@ -56,20 +87,33 @@ public class MedicationInteractionService {
         
         // Render prompt
         String renderedPrompt = promptTemplateService.renderTemplate(template.getTemplate(), context);
+        if (!localInteractions.isEmpty()) {
+            renderedPrompt += "\n\nAlready identified from reference data (do not repeat):\n"
+                    + describeInteractions(localInteractions);
+        }
         
         // Call OpenAI
         String aiResponse;
         try {
-            OpenAIResponse openAIResponse = openAIService.generateCompletion(
-                    renderedPrompt, "Drug Interaction Check");
+            OpenAIResponse openAIResponse = openAIService.generateStructuredCompletion(
+                    renderedPrompt,
+                    "Drug Interaction Check. Respond with a JSON object listing each interaction.",
+                    StructuredResponseParser.INTERACTION_SCHEMA_NAME,
+                    StructuredResponseParser.INTERACTION_SCHEMA);
             aiResponse = openAIResponse.getChoices().get(0).getMessage().getContent();
         } catch (Exception e) {
             log.error("OpenAI API call failed: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to check interactions: " + e.getMessage(), e);
         }
         
-        // Parse response
+        // Parse response and merge with reference-data findings
         InteractionCheckResponse response = parseInteractionResponse(aiResponse, request, patient);
+        if (!localInteractions.isEmpty()) {
+            List<DrugInteraction> merged = new ArrayList<>(localInteractions);
+            merged.addAll(response.getInteractions());
+            response.setInteractions(merged);
+            summarizeInteractions(response, merged);
+        }
         
         // Audit log
         if (request.getSaveToHistory()) {
@@ -169,19 +213,46 @@ public class MedicationInteractionService {
         if (request.getSupplements() != null) allMeds.addAll(request.getSupplements());
         response.setMedicationsChecked(allMeds);
         
-        // Parse interactions - simple parsing (production would use structured output)
+        // Prefer the schema-constrained JSON; fall back to text for models that ignore it
+        List<DrugInteraction> interactions;
+        Optional<StructuredResponseParser.StructuredInteractions> structured =
+                structuredParser.parseInteractions(aiResponse);
+        if (structured.isPresent()) {
+            interactions = structured.get().getInteractions();
+            response.setSummary(structured.get().getSummary());
+        } else {
+            log.debug("Interaction response is not structured JSON, using text parser");
+            interactions = parseInteractionText(aiResponse);
+            
+            // If parsing failed, store full response in summary
+            if (interactions.isEmpty()) {
+                response.setSummary(aiResponse);
+            }
+        }
+        response.setInteractions(interactions);
+        
+        summarizeInteractions(response, interactions);
+        
+        return response;
+    }
+    
+    /**
+     * Line-oriented parser for free-text responses (each line lower-cased once)
+     */
+    private List<DrugInteraction> parseInteractionText(String aiResponse) {
         List<DrugInteraction> interactions = new ArrayList<>();
         
         // Split by sections or markers
         String[] lines = aiResponse.split("\n");
         DrugInteraction currentInteraction = null;
         
-        for (String line : lines) {
-            line = line.trim();
+        for (String rawLine : lines) {
+            String line = rawLine.trim();
+            String lower = line.toLowerCase();
             
             // Detect new interaction
-            if (line.toLowerCase().contains("interaction:") || 
-                line.toLowerCase().matches(".*\\d+\\..*") ||
+            if (lower.contains("interaction:") || 
+                NUMBERED_ITEM.matcher(line).find() ||
                 line.startsWith("**") && line.contains("vs")) {
                 
                 if (currentInteraction != null) {
@@ -191,40 +262,37 @@ public class MedicationInteractionService {
                 currentInteraction.setInteractionType(InteractionType.DRUG_DRUG);
             }
             
+            if (currentInteraction == null) {
+                continue;
+            }
+            
             // Parse severity
-            if (line.toLowerCase().contains("severity:")) {
-                if (currentInteraction != null) {
-                    if (line.toLowerCase().contains("contraindicated")) {
-                        currentInteraction.setSeverity(InteractionSeverity.CONTRAINDICATED);
-                    } else if (line.toLowerCase().contains("major")) {
-                        currentInteraction.setSeverity(InteractionSeverity.MAJOR);
-                    } else if (line.toLowerCase().contains("moderate")) {
-                        currentInteraction.setSeverity(InteractionSeverity.MODERATE);
-                    } else if (line.toLowerCase().contains("minor")) {
-                        currentInteraction.setSeverity(InteractionSeverity.MINOR);
-                    }
+            if (lower.contains("severity:")) {
+                if (lower.contains("contraindicated")) {
+                    currentInteraction.setSeverity(InteractionSeverity.CONTRAINDICATED);
+                } else if (lower.contains("major")) {
+                    currentInteraction.setSeverity(InteractionSeverity.MAJOR);
+                } else if (lower.contains("moderate")) {
+                    currentInteraction.setSeverity(InteractionSeverity.MODERATE);
+                } else if (lower.contains("minor")) {
+                    currentInteraction.setSeverity(InteractionSeverity.MINOR);
                 }
             }
             
             // Parse mechanism
-            if (line.toLowerCase().contains("mechanism:")) {
-                if (currentInteraction != null) {
-                    currentInteraction.setMechanism(line.substring(line.indexOf(":") + 1).trim());
-                }
+            if (lower.contains("mechanism:")) {
+                currentInteraction.setMechanism(line.substring(line.indexOf(":") + 1).trim());
             }
             
             // Parse clinical effects
-            if (line.toLowerCase().contains("clinical") || line.toLowerCase().contains("effect")) {
-                if (currentInteraction != null && currentInteraction.getClinicalEffects() == null) {
-                    currentInteraction.setClinicalEffects(line);
-                }
+            if ((lower.contains("clinical") || lower.contains("effect"))
+                    && currentInteraction.getClinicalEffects() == null) {
+                currentInteraction.setClinicalEffects(line);
             }
             
             // Parse management
-            if (line.toLowerCase().contains("management:") || line.toLowerCase().contains("recommendation:")) {
-                if (currentInteraction != null) {
-                    currentInteraction.setManagementRecommendations(line.substring(line.indexOf(":") + 1).trim());
-                }
+            if (lower.contains("management:") || lower.contains("recommendation:")) {
+                currentInteraction.setManagementRecommendations(line.substring(line.indexOf(":") + 1).trim());
             }
         }
         
@@ -233,12 +301,17 @@ public class MedicationInteractionService {
             interactions.add(currentInteraction);
         }
         
-        // If parsing failed, store full response in summary
-        if (interactions.isEmpty()) {
-            response.setSummary(aiResponse);
-        } else {
-            response.setInteractions(interactions);
-        }
+        return interactions;
+    }
+    
+    /**
+     * Fill severity counts, total and overall risk assessment from the interaction list
+     */
+    private void summarizeInteractions(InteractionCheckResponse response, List<DrugInteraction> interactions) {
+        response.setContraindicatedCount(0);
+        response.setMajorCount(0);
+        response.setModerateCount(0);
+        response.setMinorCount(0);
         
         // Count by severity
         for (DrugInteraction interaction : interactions) {
@@ -279,10 +352,90 @@ public class MedicationInteractionService {
             response.setOverallRiskAssessment("NO SIGNIFICANT INTERACTIONS DETECTED");
             response.setPriorityActions("Continue current regimen with routine monitoring");
         }
+    }
+    
+    private InteractionCheckResponse buildLocalResponse(
+            InteractionCheckRequest request, Patient patient, List<DrugInteraction> interactions) {
+        
+        InteractionCheckResponse response = new InteractionCheckResponse();
+        List<String> allMeds = new ArrayList<>(request.getMedications());
+        if (request.getOtcMedications() != null) allMeds.addAll(request.getOtcMedications());
+        response.setMedicationsChecked(allMeds);
+        response.setInteractions(interactions);
+        summarizeInteractions(response, interactions);
+        
+        if (request.getSaveToHistory()) {
+            AIAuditLog auditLog = createAuditLog(
+                    request.getPatientId(),
+                    "DRUG_INTERACTION_CHECK",
+                    "Reference data interaction check: " + String.join(", ", allMeds),
+                    interactions.isEmpty() ? "No known interactions" : describeInteractions(interactions)
+            );
+            response.setId(auditLog.getId());
+        }
+        
+        response.setPatientId(patient.getId());
+        response.setPatientName(patient.getFirstName() + " " + patient.getLastName());
+        response.setCheckedAt(LocalDateTime.now());
+        response.setCheckedBy(getCurrentUserId());
+        response.setSavedToHistory(request.getSaveToHistory());
+        response.setAiModel(LOCAL_ENGINE);
+        response.setTokensUsed(0);
+        
+        log.info("Found {} interactions for patient {} from reference data",
+                response.getTotalInteractionsFound(), request.getPatientId());
         
         return response;
     }
     
+    private List<DrugInteraction> toInteractions(
+            DrugInteractionGraphService.GraphCheckResult result, InteractionCheckRequest request) {
+        
+        boolean includeMinor = Boolean.TRUE.equals(request.getIncludeMinorInteractions());
+        List<DrugInteraction> interactions = new ArrayList<>();
+        
+        for (DrugInteractionGraphService.Match match : result.getMatches()) {
+            InteractionSeverity severity = toSeverity(match.getSeverity());
+            if (severity == InteractionSeverity.MINOR && !includeMinor) {
+                continue;
+            }
+            
+            DrugInteraction interaction = new DrugInteraction();
+            interaction.setDrug1(match.getDrug1());
+            interaction.setDrug2(match.getDrug2());
+            interaction.setInteractionType(InteractionType.DRUG_DRUG);
+            interaction.setSeverity(severity);
+            interaction.setClinicalEffects(match.getDescription());
+            interaction.setManagementRecommendations(match.getRecommendation());
+            interaction.setReferences("Reference interaction database");
+            interactions.add(interaction);
+        }
+        
+        return interactions;
+    }
+    
+    private InteractionSeverity toSeverity(com.geriatriccare.entity.InteractionSeverity severity) {
+        if (severity == null) {
+            return InteractionSeverity.MODERATE;
+        }
+        switch (severity) {
+            case CONTRAINDICATED:
+                return InteractionSeverity.CONTRAINDICATED;
+            case SEVERE:
+                return InteractionSeverity.MAJOR;
+            case MINOR:
+                return InteractionSeverity.MINOR;
+            default:
+                return InteractionSeverity.MODERATE;
+        }
+    }
+    
+    private String describeInteractions(List<DrugInteraction> interactions) {
+        return interactions.stream()
+                .map(i -> "- " + i.getDrug1() + " + " + i.getDrug2() + " (" + i.getSeverity() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+    
     private AIAuditLog createAuditLog(UUID patientId, String requestType, String prompt, String response) {
         AIAuditLog auditLog = new AIAuditLog();
         auditLog.setPatientId(patientId);
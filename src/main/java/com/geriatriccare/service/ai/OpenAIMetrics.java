@@ -0,0 +1,134 @@
+package com.geriatriccare.service.ai;
+
+import com.geriatriccare.dto.ai.OpenAIResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for OpenAI calls, exported through the actuator
+ * metrics/prometheus endpoints.
+ *
+ *   ai.openai.request             total call time incl. retries (mode, outcome), histogram
+ *   ai.openai.stream.first.token  time from request to first streamed delta, histogram
+ *   ai.openai.tokens              tokens per call (type = prompt | completion), histogram
+ *   ai.openai.retries             retry attempts
+ *   ai.openai.circuit.rejected    calls rejected by the open circuit breaker
+ *   ai.openai.circuit.state       0 = closed, 1 = open, 2 = half-open, 3 = other
+ */
+final class OpenAIMetrics {
+
+    static final String MODE_BLOCKING = "blocking";
+    static final String MODE_STREAM = "stream";
+
+    private final MeterRegistry registry;
+    private final Timer firstTokenTimer;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary completionTokens;
+
+    OpenAIMetrics(MeterRegistry registry, CircuitBreaker circuitBreaker, Retry retry) {
+        this.registry = registry;
+
+        this.firstTokenTimer = Timer.builder("ai.openai.stream.first.token")
+                .description("Time from sending a streaming request to the first content delta")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.promptTokens = tokenSummary(registry, "prompt");
+        this.completionTokens = tokenSummary(registry, "completion");
+
+        Counter retries = Counter.builder("ai.openai.retries")
+                .description("OpenAI call attempts retried after a server error or timeout")
+                .register(registry);
+        Counter rejected = Counter.builder("ai.openai.circuit.rejected")
+                .description("OpenAI calls rejected because the circuit breaker was open")
+                .register(registry);
+
+        retry.getEventPublisher().onRetry(event -> retries.increment());
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event -> rejected.increment());
+
+        Gauge.builder("ai.openai.circuit.state", circuitBreaker, OpenAIMetrics::stateCode)
+                .description("OpenAI circuit breaker state (0 closed, 1 open, 2 half-open)")
+                .register(registry);
+    }
+
+    /**
+     * Record a completed call and return its duration in milliseconds.
+     */
+    long recordSuccess(String mode, long startNanos, OpenAIResponse response) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        requestTimer(mode, "success").record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (response != null && response.getUsage() != null) {
+            OpenAIResponse.Usage usage = response.getUsage();
+            if (usage.getPromptTokens() != null) {
+                promptTokens.record(usage.getPromptTokens());
+            }
+            if (usage.getCompletionTokens() != null) {
+                completionTokens.record(usage.getCompletionTokens());
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Record a failed call and return its duration in milliseconds.
+     */
+    long recordFailure(String mode, long startNanos, Throwable error) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        requestTimer(mode, outcome(error)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    void recordFirstToken(long requestStartNanos) {
+        firstTokenTimer.record(System.nanoTime() - requestStartNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer requestTimer(String mode, String outcome) {
+        return Timer.builder("ai.openai.request")
+                .description("OpenAI completion calls including retries")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String outcome(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof CallNotPermittedException) {
+                return "circuit_open";
+            }
+            if (t instanceof OpenAIService.AIRateLimitException) {
+                return "rate_limited";
+            }
+            if (t instanceof java.net.SocketTimeoutException) {
+                return "timeout";
+            }
+        }
+        return "error";
+    }
+
+    private static DistributionSummary tokenSummary(MeterRegistry registry, String type) {
+        return DistributionSummary.builder("ai.openai.tokens")
+                .description("Tokens consumed per OpenAI call")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static double stateCode(CircuitBreaker circuitBreaker) {
+        switch (circuitBreaker.getState()) {
+            case CLOSED: return 0;
+            case OPEN: return 1;
+            case HALF_OPEN: return 2;
+            default: return 3;
+        }
+    }
+}
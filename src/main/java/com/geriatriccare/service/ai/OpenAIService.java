@@ -1,27 +1,43 @@
 package com.geriatriccare.service.ai;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.geriatriccare.config.OpenAIConfig;
 import com.geriatriccare.dto.ai.Message;
 import com.geriatriccare.dto.ai.OpenAIRequest;
 import com.geriatriccare.dto.ai.OpenAIResponse;
+import com.geriatriccare.dto.ai.OpenAIStreamChunk;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 @Service
@@ -29,17 +45,24 @@ public class OpenAIService {
 
     private static final Logger log = LoggerFactory.getLogger(OpenAIService.class);
 
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE_MARKER = "[DONE]";
+    private static final ObjectMapper STREAM_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
     private final RestTemplate restTemplate;
     private final OpenAIConfig.OpenAIProperties properties;
     private final AIAuditLogService auditLogService;
     private final CircuitBreaker circuitBreaker;
     private final Retry retry;
+    private final OpenAIMetrics metrics;
 
     public OpenAIService(
             RestTemplate openAIRestTemplate,
             OpenAIConfig.OpenAIProperties properties,
             AIAuditLogService auditLogService,
-            CircuitBreakerRegistry circuitBreakerRegistry) {
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            MeterRegistry meterRegistry) {
         
         this.restTemplate = openAIRestTemplate;
         this.properties = properties;
@@ -48,15 +71,18 @@ public class OpenAIService {
         // Initialize Circuit Breaker
         this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("openai");
         
-        // Initialize Retry
+        // Initialize Retry. HTTP errors arrive already translated by executeRequest;
+        // connect and read timeouts arrive as RestTemplate's ResourceAccessException.
         RetryConfig retryConfig = RetryConfig.custom()
                 .maxAttempts(properties.getMaxRetries())
                 .waitDuration(Duration.ofMillis(properties.getRetryDelay()))
                 .retryOnException(e -> 
-                    e instanceof HttpServerErrorException || 
-                    e instanceof java.net.SocketTimeoutException)
+                    e instanceof AIServerErrorException || 
+                    e instanceof ResourceAccessException)
                 .build();
         this.retry = Retry.of("openai", retryConfig);
+
+        this.metrics = new OpenAIMetrics(meterRegistry, circuitBreaker, retry);
     }
 
     /**
@@ -68,37 +94,33 @@ public class OpenAIService {
      */
     public OpenAIResponse generateCompletion(String prompt, String context) {
         log.info("Generating AI completion for prompt length: {}", prompt.length());
-        
-        try {
-            // Build request
-            OpenAIRequest request = buildRequest(prompt, context);
-            
-            // Execute with circuit breaker and retry
-            Supplier<OpenAIResponse> supplier = () -> executeRequest(request);
-            Supplier<OpenAIResponse> decoratedSupplier = CircuitBreaker
-                    .decorateSupplier(circuitBreaker, 
-                        Retry.decorateSupplier(retry, supplier));
-            
-            OpenAIResponse response = decoratedSupplier.get();
-            
-            // Log for audit
-            auditLogService.logAIRequest(prompt, response);
-            
-            log.info("AI completion generated successfully. Tokens used: {}", 
-                    response.getUsage().getTotalTokens());
-            
-            return response;
-            
-        } catch (AIServiceException e) {
-            // Re-throw specific AI exceptions directly (includes subclasses)
-            log.error("Error calling OpenAI API", e);
-            auditLogService.logAIError(prompt, e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            log.error("Error calling OpenAI API", e);
-            auditLogService.logAIError(prompt, e.getMessage());
-            throw new AIServiceException("Failed to generate AI completion", e);
-        }
+        return complete(buildRequest(prompt, context), prompt);
+    }
+
+    /**
+     * Generate AI completion constrained to a JSON schema.
+     * The message content of the response is a JSON document; callers should
+     * still keep a text fallback for models that ignore the response format.
+     *
+     * @param prompt The user prompt
+     * @param context System context/instructions
+     * @param schemaName Name reported to the API for the schema
+     * @param schema JSON schema (as nested maps) the completion must follow
+     * @return OpenAI API response
+     */
+    public OpenAIResponse generateStructuredCompletion(
+            String prompt, String context, String schemaName, Map<String, Object> schema) {
+        log.info("Generating structured AI completion ({}) for prompt length: {}", schemaName, prompt.length());
+
+        OpenAIRequest request = OpenAIRequest.builder()
+                .model(properties.getModel())
+                .messages(buildMessages(prompt, context))
+                .maxTokens(properties.getMaxTokens())
+                .temperature(properties.getTemperature())
+                .jsonSchema(schemaName, schema)
+                .build();
+
+        return complete(request, prompt);
     }
 
     /**
@@ -115,6 +137,62 @@ public class OpenAIService {
         return executeRequestWithRetry(request, prompt);
     }
 
+    /**
+     * Generate AI completion as a server-sent event stream.
+     * Each content delta is handed to {@code onToken} as soon as it arrives;
+     * the assembled completion is returned (and audited) once the stream ends,
+     * so callers can keep using the same response parsers as the blocking call.
+     *
+     * @param prompt The user prompt
+     * @param context System context/instructions
+     * @param onToken Receives each content delta in arrival order
+     * @return Assembled OpenAI response containing the full completion text
+     */
+    public OpenAIResponse streamCompletion(String prompt, String context, Consumer<String> onToken) {
+        log.info("Streaming AI completion for prompt length: {}", prompt.length());
+
+        OpenAIRequest request = OpenAIRequest.builder()
+                .model(properties.getModel())
+                .messages(buildMessages(prompt, context))
+                .maxTokens(properties.getMaxTokens())
+                .temperature(properties.getTemperature())
+                .stream(true)
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            // Retry only covers failures raised before the first chunk (HTTP 5xx, connect timeouts)
+            Supplier<OpenAIResponse> supplier = () -> executeStreamingRequest(request, onToken);
+            Supplier<OpenAIResponse> decoratedSupplier = CircuitBreaker
+                    .decorateSupplier(circuitBreaker,
+                        Retry.decorateSupplier(retry, supplier));
+
+            OpenAIResponse response = decoratedSupplier.get();
+
+            long elapsedMs = metrics.recordSuccess(OpenAIMetrics.MODE_STREAM, start, response);
+            auditLogService.logAIRequest(prompt, response, elapsedMs);
+
+            log.info("AI completion streamed successfully. Tokens used: {}",
+                    response.getUsage() != null ? response.getUsage().getTotalTokens() : null);
+
+            return response;
+
+        } catch (AIStreamingService.ClientDisconnectedException e) {
+            // Not an upstream failure; the relay already logs the hang-up
+            throw e;
+        } catch (AIServiceException e) {
+            log.error("Error streaming from OpenAI API", e);
+            long elapsedMs = metrics.recordFailure(OpenAIMetrics.MODE_STREAM, start, e);
+            auditLogService.logAIError(prompt, e.getMessage(), elapsedMs);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error streaming from OpenAI API", e);
+            long elapsedMs = metrics.recordFailure(OpenAIMetrics.MODE_STREAM, start, e);
+            auditLogService.logAIError(prompt, e.getMessage(), elapsedMs);
+            throw new AIServiceException("Failed to stream AI completion", e);
+        }
+    }
+
     /**
      * Check if OpenAI service is available
      */
@@ -131,6 +209,40 @@ public class OpenAIService {
 
     // ==================== Private Helper Methods ====================
 
+    private OpenAIResponse complete(OpenAIRequest request, String prompt) {
+        long start = System.nanoTime();
+        try {
+            // Execute with circuit breaker and retry
+            Supplier<OpenAIResponse> supplier = () -> executeRequest(request);
+            Supplier<OpenAIResponse> decoratedSupplier = CircuitBreaker
+                    .decorateSupplier(circuitBreaker, 
+                        Retry.decorateSupplier(retry, supplier));
+            
+            OpenAIResponse response = decoratedSupplier.get();
+            
+            // Log for audit
+            long elapsedMs = metrics.recordSuccess(OpenAIMetrics.MODE_BLOCKING, start, response);
+            auditLogService.logAIRequest(prompt, response, elapsedMs);
+            
+            log.info("AI completion generated successfully. Tokens used: {}", 
+                    response.getUsage().getTotalTokens());
+            
+            return response;
+            
+        } catch (AIServiceException e) {
+            // Re-throw specific AI exceptions directly (includes subclasses)
+            log.error("Error calling OpenAI API", e);
+            long elapsedMs = metrics.recordFailure(OpenAIMetrics.MODE_BLOCKING, start, e);
+            auditLogService.logAIError(prompt, e.getMessage(), elapsedMs);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error calling OpenAI API", e);
+            long elapsedMs = metrics.recordFailure(OpenAIMetrics.MODE_BLOCKING, start, e);
+            auditLogService.logAIError(prompt, e.getMessage(), elapsedMs);
+            throw new AIServiceException("Failed to generate AI completion", e);
+        }
+    }
+
     private OpenAIRequest buildRequest(String prompt, String context) {
         return OpenAIRequest.builder()
                 .model(properties.getModel())
@@ -147,13 +259,15 @@ public class OpenAIService {
         );
     }
 
-    private OpenAIResponse executeRequest(OpenAIRequest request) {
-        // Build headers
+    private HttpHeaders buildHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(properties.getApiKey());
         headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        HttpEntity<OpenAIRequest> entity = new HttpEntity<>(request, headers);
+        return headers;
+    }
+
+    private OpenAIResponse executeRequest(OpenAIRequest request) {
+        HttpEntity<OpenAIRequest> entity = new HttpEntity<>(request, buildHeaders());
         
         try {
             // Call OpenAI API
@@ -170,22 +284,133 @@ public class OpenAIService {
             return response.getBody();
             
         } catch (HttpClientErrorException e) {
-            if (e.getStatusCode().value() == 429) {
-                log.warn("Rate limit exceeded. Status: {}", e.getStatusCode());
-                throw new AIRateLimitException("OpenAI rate limit exceeded", e);
-            } else if (e.getStatusCode().value() == 401) {
-                log.error("Invalid API key");
-                throw new AIAuthenticationException("Invalid OpenAI API key", e);
-            }
-            throw new AIServiceException("OpenAI API error: " + e.getMessage(), e);
+            throw translateClientError(e);
             
         } catch (HttpServerErrorException e) {
             log.error("OpenAI server error. Status: {}", e.getStatusCode());
-            throw new AIServiceException("OpenAI server error", e);
+            throw new AIServerErrorException("OpenAI server error", e);
+        }
+    }
+
+    private OpenAIResponse executeStreamingRequest(OpenAIRequest request, Consumer<String> onToken) {
+        HttpHeaders headers = buildHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.TEXT_EVENT_STREAM));
+
+        RequestCallback requestCallback = restTemplate.httpEntityCallback(new HttpEntity<>(request, headers));
+        long attemptStart = System.nanoTime();
+        AtomicBoolean relayed = new AtomicBoolean();
+        Consumer<String> relay = token -> {
+            relayed.set(true);
+            onToken.accept(token);
+        };
+
+        try {
+            OpenAIResponse response = restTemplate.execute(
+                properties.getApiUrl(),
+                HttpMethod.POST,
+                requestCallback,
+                clientResponse -> readEventStream(clientResponse.getBody(), relay, attemptStart)
+            );
+
+            if (response == null) {
+                throw new AIServiceException("Empty response from OpenAI API");
+            }
+
+            return response;
+
+        } catch (HttpClientErrorException e) {
+            throw translateClientError(e);
+
+        } catch (HttpServerErrorException e) {
+            log.error("OpenAI server error. Status: {}", e.getStatusCode());
+            throw new AIServerErrorException("OpenAI server error", e);
+
+        } catch (ResourceAccessException e) {
+            if (relayed.get()) {
+                // Tokens already reached the client; a retry would send them twice
+                throw new AIServiceException("OpenAI stream interrupted", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Consume an OpenAI event stream line by line, relaying each content delta
+     * and assembling the full completion into a regular response object.
+     */
+    private OpenAIResponse readEventStream(InputStream body, Consumer<String> onToken, long attemptStart)
+            throws IOException {
+        OpenAIResponse response = new OpenAIResponse();
+        StringBuilder content = new StringBuilder();
+        String finishReason = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(SSE_DATA_PREFIX)) {
+                    continue; // blank separators, comments and keep-alives
+                }
+
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (SSE_DONE_MARKER.equals(data)) {
+                    break;
+                }
+                if (data.isEmpty()) {
+                    continue;
+                }
+
+                OpenAIStreamChunk chunk = STREAM_MAPPER.readValue(data, OpenAIStreamChunk.class);
+                if (response.getId() == null) {
+                    response.setId(chunk.getId());
+                    response.setModel(chunk.getModel());
+                    response.setCreated(chunk.getCreated());
+                }
+                if (chunk.getUsage() != null) {
+                    response.setUsage(chunk.getUsage());
+                }
+                if (chunk.getChoices() == null) {
+                    continue;
+                }
+
+                for (OpenAIStreamChunk.ChunkChoice choice : chunk.getChoices()) {
+                    if (choice.getFinishReason() != null) {
+                        finishReason = choice.getFinishReason();
+                    }
+                    String delta = choice.getDelta() != null ? choice.getDelta().getContent() : null;
+                    if (delta != null && !delta.isEmpty()) {
+                        if (content.length() == 0) {
+                            metrics.recordFirstToken(attemptStart);
+                        }
+                        content.append(delta);
+                        onToken.accept(delta);
+                    }
+                }
+            }
         }
+
+        OpenAIResponse.Choice choice = new OpenAIResponse.Choice();
+        choice.setIndex(0);
+        choice.setMessage(new Message("assistant", content.toString()));
+        choice.setFinishReason(finishReason);
+        response.setObject("chat.completion");
+        response.setChoices(Collections.singletonList(choice));
+
+        return response;
+    }
+
+    private AIServiceException translateClientError(HttpClientErrorException e) {
+        if (e.getStatusCode().value() == 429) {
+            log.warn("Rate limit exceeded. Status: {}", e.getStatusCode());
+            return new AIRateLimitException("OpenAI rate limit exceeded", e);
+        } else if (e.getStatusCode().value() == 401) {
+            log.error("Invalid API key");
+            return new AIAuthenticationException("Invalid OpenAI API key", e);
+        }
+        return new AIServiceException("OpenAI API error: " + e.getMessage(), e);
     }
 
     private OpenAIResponse executeRequestWithRetry(OpenAIRequest request, String prompt) {
+        long start = System.nanoTime();
         try {
             Supplier<OpenAIResponse> supplier = () -> executeRequest(request);
             Supplier<OpenAIResponse> decoratedSupplier = CircuitBreaker
@@ -193,12 +418,14 @@ public class OpenAIService {
                         Retry.decorateSupplier(retry, supplier));
             
             OpenAIResponse response = decoratedSupplier.get();
-            auditLogService.logAIRequest(prompt, response);
+            long elapsedMs = metrics.recordSuccess(OpenAIMetrics.MODE_BLOCKING, start, response);
+            auditLogService.logAIRequest(prompt, response, elapsedMs);
             return response;
             
         } catch (Exception e) {
             log.error("Error calling OpenAI API after retries", e);
-            auditLogService.logAIError(prompt, e.getMessage());
+            long elapsedMs = metrics.recordFailure(OpenAIMetrics.MODE_BLOCKING, start, e);
+            auditLogService.logAIError(prompt, e.getMessage(), elapsedMs);
             throw new AIServiceException("Failed to generate AI completion", e);
         }
     }
@@ -221,6 +448,12 @@ public class OpenAIService {
         }
     }
 
+    public static class AIServerErrorException extends AIServiceException {
+        public AIServerErrorException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
     public static class AIAuthenticationException extends AIServiceException {
         public AIAuthenticationException(String message, Throwable cause) {
             super(message, cause);
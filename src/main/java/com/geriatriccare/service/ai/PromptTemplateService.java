@@ -1,5 +1,7 @@
 package com.geriatriccare.service.ai;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.geriatriccare.dto.ai.PromptTemplateRequest;
 import com.geriatriccare.dto.ai.PromptTemplateResponse;
 import com.geriatriccare.entity.PromptCategory;
@@ -10,22 +12,34 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 public class PromptTemplateService {
     
     private static final Logger log = LoggerFactory.getLogger(PromptTemplateService.class);
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+    private static final int MAX_COMPILED_TEMPLATES = 500;
     
     private final PromptTemplateRepository templateRepository;
     
+    // Template name -> active (highest) version; invalidated on create/update/deactivate
+    private final Map<String, ActiveTemplate> activeTemplates = new ConcurrentHashMap<>();
+    
+    // Template text -> compiled segments, for callers that render a template string directly
+    private final Cache<String, CompiledPromptTemplate> compiledTemplates = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPILED_TEMPLATES)
+            .build();
+    
     @Autowired
     public PromptTemplateService(PromptTemplateRepository templateRepository) {
         this.templateRepository = templateRepository;
@@ -43,6 +57,7 @@ public class PromptTemplateService {
         template.setVersion(1);
         
         PromptTemplate saved = templateRepository.save(template);
+        evictActiveTemplate(saved.getName());
         log.info("Created template: {} (ID: {})", saved.getName(), saved.getId());
         
         return convertToResponse(saved);
@@ -66,6 +81,7 @@ public class PromptTemplateService {
         newTemplate.setVersion(newVersion);
         
         PromptTemplate saved = templateRepository.save(newTemplate);
+        evictActiveTemplate(saved.getName());
         log.info("Created new version {} for template: {}", newVersion, existingTemplate.getName());
         
         return convertToResponse(saved);
@@ -79,44 +95,58 @@ public class PromptTemplateService {
         return convertToResponse(template);
     }
     
+    /**
+     * Get the active (highest) version of a template.
+     * Served from the compiled-template cache after the first lookup; each
+     * caller gets its own copy, so changing it cannot corrupt the cache.
+     * A lookup is cached only if no eviction ran while it was loading, so a
+     * version read before a change commits is never cached after it.
+     */
     @Transactional(readOnly = true)
     public PromptTemplateResponse getLatestTemplateByName(String name) {
-        List<PromptTemplate> versions = templateRepository.findByNameOrderByVersionDesc(name);
-        
-        if (versions.isEmpty()) {
-            throw new RuntimeException("Template not found: " + name);
+        ActiveTemplate cached = activeTemplates.get(name);
+        if (cached != null && cached.template != null) {
+            return copyOf(cached.template);
         }
+        long generation = cached != null ? cached.generation : 0;
         
-        PromptTemplate latest = versions.stream()
-                .filter(PromptTemplate::getIsActive)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("No active version found for template: " + name));
+        PromptTemplate latest = templateRepository.findFirstByNameAndIsActiveTrueOrderByVersionDesc(name)
+                .orElseThrow(() -> templateRepository.countByName(name) == 0
+                        ? new RuntimeException("Template not found: " + name)
+                        : new RuntimeException("No active version found for template: " + name));
+        
+        PromptTemplateResponse response = convertToResponse(latest);
+        compile(response.getTemplate()); // pre-compile so the first render is a cache hit
+        activeTemplates.compute(name, (key, current) ->
+                (current != null ? current.generation : 0) == generation
+                        ? new ActiveTemplate(generation, response)
+                        : current);
+        log.debug("Loaded active template '{}' version {}", name, latest.getVersion());
         
-        return convertToResponse(latest);
+        return copyOf(response);
     }
     
     @Transactional(readOnly = true)
     public List<PromptTemplateResponse> getAllActiveTemplates() {
-        return templateRepository.findByIsActiveTrueOrderByCategoryAscNameAsc()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertAll(templateRepository.findByIsActiveTrueOrderByCategoryAscNameAsc());
     }
     
     @Transactional(readOnly = true)
     public List<PromptTemplateResponse> getTemplatesByCategory(PromptCategory category) {
-        return templateRepository.findByCategoryOrderByNameAscVersionDesc(category)
+        return convertAll(templateRepository.findByCategoryOrderByNameAscVersionDesc(category)
                 .stream()
                 .filter(PromptTemplate::getIsActive)
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     @Transactional(readOnly = true)
     public List<PromptTemplateResponse> getTemplateVersions(String name) {
-        return templateRepository.findByNameOrderByVersionDesc(name)
-                .stream()
-                .map(this::convertToResponse)
+        List<PromptTemplate> versions = templateRepository.findByNameOrderByVersionDesc(name);
+        VersionStats stats = new VersionStats(
+                versions.size(), versions.isEmpty() ? 1 : versions.get(0).getVersion());
+        
+        return versions.stream()
+                .map(template -> convertToResponse(template, stats))
                 .collect(Collectors.toList());
     }
     
@@ -129,6 +159,7 @@ public class PromptTemplateService {
         
         template.setIsActive(false);
         templateRepository.save(template);
+        evictActiveTemplate(template.getName());
         
         log.info("Deactivated template: {}", template.getName());
     }
@@ -145,26 +176,17 @@ public class PromptTemplateService {
         return renderTemplate(template.getTemplate(), variables);
     }
     
+    /**
+     * Render a template string in a single pass over its pre-compiled segments.
+     * Variables without a value are left in place as ${name}.
+     */
     public String renderTemplate(String templateString, Map<String, String> variables) {
         if (templateString == null || variables == null) {
             return templateString;
         }
         
-        String result = templateString;
-        Matcher matcher = VARIABLE_PATTERN.matcher(templateString);
-        
-        while (matcher.find()) {
-            String variableName = matcher.group(1);
-            String value = variables.get(variableName);
-            
-            if (value != null) {
-                result = result.replace("${" + variableName + "}", value);
-            } else {
-                log.warn("Missing variable in template rendering: {}", variableName);
-            }
-        }
-        
-        return result;
+        return compile(templateString).render(variables,
+                variableName -> log.warn("Missing variable in template rendering: {}", variableName));
     }
     
     public List<String> extractVariables(String templateString) {
@@ -172,11 +194,16 @@ public class PromptTemplateService {
             return List.of();
         }
         
-        Matcher matcher = VARIABLE_PATTERN.matcher(templateString);
-        return matcher.results()
-                .map(matchResult -> matchResult.group(1))
-                .distinct()
-                .collect(Collectors.toList());
+        return compile(templateString).getVariableNames();
+    }
+    
+    /**
+     * Drop all cached templates, e.g. after templates are changed outside this service.
+     */
+    public void clearTemplateCache() {
+        activeTemplates.replaceAll((name, entry) -> entry.evicted());
+        compiledTemplates.invalidateAll();
+        log.info("Prompt template cache cleared");
     }
     
     public boolean validateTemplate(UUID templateId, Map<String, String> variables) {
@@ -203,10 +230,64 @@ public class PromptTemplateService {
         return template;
     }
     
+    private CompiledPromptTemplate compile(String templateString) {
+        // Callers render the String held by the cached response, so lookups hit the cached hash and identity equals
+        return compiledTemplates.get(templateString, CompiledPromptTemplate::compile);
+    }
+    
+    private void evictActiveTemplate(String name) {
+        evict(name);
+        
+        // Evict again after commit so a concurrent read cannot re-cache the pre-commit version
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(name);
+                }
+            });
+        }
+    }
+    
+    private void evict(String name) {
+        // Keeps a bumped generation, which fails the put of any lookup already loading
+        activeTemplates.compute(name, (key, current) ->
+                current != null ? current.evicted() : new ActiveTemplate(1, null));
+    }
+    
+    private List<PromptTemplateResponse> convertAll(List<PromptTemplate> templates) {
+        if (templates.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<String> names = templates.stream()
+                .map(PromptTemplate::getName)
+                .collect(Collectors.toSet());
+        Map<String, VersionStats> statsByName = loadVersionStats(names);
+        
+        return templates.stream()
+                .map(template -> convertToResponse(template,
+                        statsByName.getOrDefault(template.getName(), new VersionStats(1, template.getVersion()))))
+                .collect(Collectors.toList());
+    }
+    
+    private Map<String, VersionStats> loadVersionStats(Collection<String> names) {
+        Map<String, VersionStats> stats = new HashMap<>();
+        for (Object[] row : templateRepository.findVersionStatsByNames(names)) {
+            stats.put((String) row[0], new VersionStats(((Number) row[1]).intValue(), (Integer) row[2]));
+        }
+        return stats;
+    }
+    
     private PromptTemplateResponse convertToResponse(PromptTemplate template) {
-        List<PromptTemplate> allVersions = templateRepository.findByNameOrderByVersionDesc(template.getName());
-        Integer totalVersions = allVersions.size();
-        Integer latestVersion = allVersions.isEmpty() ? 1 : allVersions.get(0).getVersion();
+        VersionStats stats = loadVersionStats(List.of(template.getName()))
+                .getOrDefault(template.getName(), new VersionStats(1, template.getVersion()));
+        return convertToResponse(template, stats);
+    }
+    
+    private PromptTemplateResponse convertToResponse(PromptTemplate template, VersionStats stats) {
+        Integer totalVersions = stats.totalVersions;
+        Integer latestVersion = stats.latestVersion;
         
         PromptTemplateResponse response = new PromptTemplateResponse();
         response.setId(template.getId());
@@ -226,4 +307,51 @@ public class PromptTemplateService {
         
         return response;
     }
+    
+    private static PromptTemplateResponse copyOf(PromptTemplateResponse source) {
+        PromptTemplateResponse copy = new PromptTemplateResponse();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setCategory(source.getCategory());
+        copy.setTemplate(source.getTemplate());
+        copy.setMedicalContext(source.getMedicalContext());
+        copy.setSafetyGuidelines(source.getSafetyGuidelines());
+        copy.setExpectedVariables(source.getExpectedVariables());
+        copy.setVersion(source.getVersion());
+        copy.setIsActive(source.getIsActive());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setTotalVersions(source.getTotalVersions());
+        copy.setIsLatestVersion(source.getIsLatestVersion());
+        return copy;
+    }
+    
+    /**
+     * Cached active version of a template (null once evicted), stamped with the
+     * number of evictions of its name so far.
+     */
+    private static final class ActiveTemplate {
+        private final long generation;
+        private final PromptTemplateResponse template;
+        
+        private ActiveTemplate(long generation, PromptTemplateResponse template) {
+            this.generation = generation;
+            this.template = template;
+        }
+        
+        private ActiveTemplate evicted() {
+            return new ActiveTemplate(generation + 1, null);
+        }
+    }
+    
+    private static final class VersionStats {
+        private final int totalVersions;
+        private final Integer latestVersion;
+        
+        private VersionStats(int totalVersions, Integer latestVersion) {
+            this.totalVersions = totalVersions;
+            this.latestVersion = latestVersion;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.geriatriccare.service.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.geriatriccare.dto.ai.CarePlanGenerationResponse;
+import com.geriatriccare.dto.ai.DrugInteraction;
+import com.geriatriccare.dto.ai.InteractionSeverity;
+import com.geriatriccare.dto.ai.InteractionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JSON schemas for structured AI output and single-pass parsers for them.
+ *
+ * Responses are read with Jackson's streaming parser directly into the
+ * response DTOs; no intermediate tree is built. Every parse method returns
+ * {@code Optional.empty()} when the content is not valid JSON of the expected
+ * shape, so callers can fall back to their text parsers.
+ */
+@Component
+public class StructuredResponseParser {
+
+    private static final Logger log = LoggerFactory.getLogger(StructuredResponseParser.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public static final String INTERACTION_SCHEMA_NAME = "interaction_check";
+    public static final String CARE_PLAN_SCHEMA_NAME = "care_plan";
+
+    private static final String[] INTERACTION_TEXT_FIELDS = {
+            "drug1", "drug2", "mechanism", "clinicalEffects", "managementRecommendations",
+            "alternativeMedications", "monitoringParameters", "patientCounseling"
+    };
+
+    private static final String[] CARE_PLAN_SECTIONS = {
+            "executiveSummary", "medicalManagement", "dailyActivities", "nutritionPlan",
+            "exercisePlan", "safetyMeasures", "cognitiveSupport", "socialEngagement",
+            "painManagement", "goalsAndObjectives", "monitoringPlan", "caregiverInstructions",
+            "emergencyProtocols"
+    };
+
+    public static final Map<String, Object> INTERACTION_SCHEMA = interactionSchema();
+    public static final Map<String, Object> CARE_PLAN_SCHEMA = carePlanSchema();
+
+    // ==================== Interaction Check ====================
+
+    /**
+     * Parse an interaction check document:
+     * {@code {"interactions": [{"drug1": ..., "severity": "MAJOR", ...}], "summary": "..."}}
+     *
+     * @return Parsed interactions, or empty if the content is not a valid document
+     */
+    public Optional<StructuredInteractions> parseInteractions(String content) {
+        String json = extractJson(content);
+        if (json == null) {
+            return Optional.empty();
+        }
+
+        List<DrugInteraction> interactions = new ArrayList<>();
+        String summary = null;
+        boolean sawInteractions = false;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("interactions".equals(field) && value == JsonToken.START_ARRAY) {
+                    sawInteractions = true;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        interactions.add(readInteraction(parser));
+                    }
+                } else if ("summary".equals(field) && value == JsonToken.VALUE_STRING) {
+                    summary = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Interaction response is not valid JSON: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        return sawInteractions ? Optional.of(new StructuredInteractions(interactions, summary)) : Optional.empty();
+    }
+
+    private DrugInteraction readInteraction(JsonParser parser) throws IOException {
+        DrugInteraction interaction = new DrugInteraction();
+        interaction.setInteractionType(InteractionType.DRUG_DRUG);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                continue;
+            }
+            String text = parser.getText();
+
+            switch (field) {
+                case "drug1": interaction.setDrug1(text); break;
+                case "drug2": interaction.setDrug2(text); break;
+                case "severity": interaction.setSeverity(toSeverity(text)); break;
+                case "interactionType": interaction.setInteractionType(toInteractionType(text)); break;
+                case "mechanism": interaction.setMechanism(text); break;
+                case "clinicalEffects": interaction.setClinicalEffects(text); break;
+                case "managementRecommendations": interaction.setManagementRecommendations(text); break;
+                case "alternativeMedications": interaction.setAlternativeMedications(text); break;
+                case "monitoringParameters": interaction.setMonitoringParameters(text); break;
+                case "patientCounseling": interaction.setPatientCounseling(text); break;
+                default: break;
+            }
+        }
+        return interaction;
+    }
+
+    private InteractionSeverity toSeverity(String value) {
+        switch (value.trim().toUpperCase(Locale.ROOT)) {
+            case "CONTRAINDICATED": return InteractionSeverity.CONTRAINDICATED;
+            case "MAJOR":
+            case "SEVERE": return InteractionSeverity.MAJOR;
+            case "MODERATE": return InteractionSeverity.MODERATE;
+            case "MINOR": return InteractionSeverity.MINOR;
+            default: return null;
+        }
+    }
+
+    private InteractionType toInteractionType(String value) {
+        try {
+            return InteractionType.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return InteractionType.DRUG_DRUG;
+        }
+    }
+
+    // ==================== Care Plan ====================
+
+    /**
+     * Parse a care plan document (one string property per section).
+     *
+     * @return Response with the sections filled in, or empty if no section could be read
+     */
+    public Optional<CarePlanGenerationResponse> parseCarePlan(String content) {
+        String json = extractJson(content);
+        if (json == null) {
+            return Optional.empty();
+        }
+
+        CarePlanGenerationResponse response = new CarePlanGenerationResponse();
+        int sections = 0;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (setSection(response, field, parser.getText())) {
+                    sections++;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Care plan response is not valid JSON: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        return sections > 0 ? Optional.of(response) : Optional.empty();
+    }
+
+    private boolean setSection(CarePlanGenerationResponse target, String field, String text) {
+        switch (field) {
+            case "executiveSummary": target.setExecutiveSummary(text); return true;
+            case "medicalManagement": target.setMedicalManagement(text); return true;
+            case "dailyActivities": target.setDailyActivities(text); return true;
+            case "nutritionPlan": target.setNutritionPlan(text); return true;
+            case "exercisePlan": target.setExercisePlan(text); return true;
+            case "safetyMeasures": target.setSafetyMeasures(text); return true;
+            case "cognitiveSupport": target.setCognitiveSupport(text); return true;
+            case "socialEngagement": target.setSocialEngagement(text); return true;
+            case "painManagement": target.setPainManagement(text); return true;
+            case "goalsAndObjectives": target.setGoalsAndObjectives(text); return true;
+            case "monitoringPlan": target.setMonitoringPlan(text); return true;
+            case "caregiverInstructions": target.setCaregiverInstructions(text); return true;
+            case "emergencyProtocols": target.setEmergencyProtocols(text); return true;
+            default: return false;
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Strip an optional markdown code fence; return null if the content cannot be a JSON object.
+     */
+    static String extractJson(String content) {
+        if (content == null) {
+            return null;
+        }
+        int start = content.indexOf('{');
+        int end = content.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            return null;
+        }
+        // Only tolerate a fence or whitespace around the object, not free text
+        String before = content.substring(0, start).trim();
+        if (!before.isEmpty() && !before.startsWith("```")) {
+            return null;
+        }
+        return content.substring(start, end + 1);
+    }
+
+    private static Map<String, Object> interactionSchema() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String field : INTERACTION_TEXT_FIELDS) {
+            properties.put(field, Map.of("type", "string"));
+        }
+        properties.put("severity", Map.of(
+                "type", "string",
+                "enum", List.of("CONTRAINDICATED", "MAJOR", "MODERATE", "MINOR")));
+        properties.put("interactionType", Map.of(
+                "type", "string",
+                "enum", List.of("DRUG_DRUG", "DRUG_FOOD", "DRUG_CONDITION", "DUPLICATE_THERAPY",
+                        "PHARMACOKINETIC", "PHARMACODYNAMIC")));
+
+        Map<String, Object> interaction = Map.of(
+                "type", "object",
+                "properties", properties,
+                "required", List.of("drug1", "drug2", "severity"));
+
+        return Map.of(
+                "type", "object",
+                "properties", Map.of(
+                        "interactions", Map.of("type", "array", "items", interaction),
+                        "summary", Map.of("type", "string")),
+                "required", List.of("interactions"));
+    }
+
+    private static Map<String, Object> carePlanSchema() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String section : CARE_PLAN_SECTIONS) {
+            properties.put(section, Map.of("type", "string"));
+        }
+        return Map.of(
+                "type", "object",
+                "properties", properties,
+                "required", List.of("executiveSummary"));
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class StructuredInteractions {
+        private final List<DrugInteraction> interactions;
+        private final String summary;
+
+        public StructuredInteractions(List<DrugInteraction> interactions, String summary) {
+            this.interactions = interactions;
+            this.summary = summary;
+        }
+
+        public List<DrugInteraction> getInteractions() { return interactions; }
+        public String getSummary() { return summary; }
+    }
+}
@@ -11,10 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class SymptomAnalysisService {
@@ -25,25 +28,43 @@ public class SymptomAnalysisService {
     private final PromptTemplateService promptTemplateService;
     private final AIAuditLogRepository auditLogRepository;
     private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
     
     @Autowired
     public SymptomAnalysisService(
             OpenAIService openAIService,
             PromptTemplateService promptTemplateService,
             AIAuditLogRepository auditLogRepository,
-            PatientRepository patientRepository) {
+            PatientRepository patientRepository,
+            PlatformTransactionManager transactionManager) {
         this.openAIService = openAIService;
         this.promptTemplateService = promptTemplateService;
         this.auditLogRepository = auditLogRepository;
         this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
     @Transactional
     public SymptomAnalysisResponse analyzeSymptoms(SymptomAnalysisRequest request) {
+        return analyze(request, null);
+    }
+    
+    /**
+     * Analyze symptoms while relaying completion deltas as they arrive.
+     * Urgency and red flags are parsed from the assembled text, as in {@link #analyzeSymptoms}.
+     * Runs outside a transaction, so no connection is held while the completion streams.
+     */
+    public SymptomAnalysisResponse streamSymptomAnalysis(
+            SymptomAnalysisRequest request, Consumer<String> onToken) {
+        return analyze(request, onToken);
+    }
+    
+    private SymptomAnalysisResponse analyze(SymptomAnalysisRequest request, Consumer<String> onToken) {
         log.info("Analyzing symptoms for patient: {}", request.getPatientId());
         
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new RuntimeException("Patient not found: " + request.getPatientId()));
+        Patient patient = readOnlyTransaction.execute(status -> patientRepository.findById(request.getPatientId())
+                .orElseThrow(() -> new RuntimeException("Patient not found: " + request.getPatientId())));
         
         PromptTemplateResponse template = promptTemplateService
                 .getLatestTemplateByName("Geriatric Symptom Analyzer");
@@ -53,8 +74,9 @@ public class SymptomAnalysisService {
         
         String aiResponse;
         try {
-            OpenAIResponse openAIResponse = openAIService.generateCompletion(
-                    renderedPrompt, "Symptom Analysis");
+            OpenAIResponse openAIResponse = onToken != null
+                    ? openAIService.streamCompletion(renderedPrompt, "Symptom Analysis", onToken)
+                    : openAIService.generateCompletion(renderedPrompt, "Symptom Analysis");
             aiResponse = openAIResponse.getChoices().get(0).getMessage().getContent();
         } catch (Exception e) {
             log.error("OpenAI API call failed: {}", e.getMessage(), e);
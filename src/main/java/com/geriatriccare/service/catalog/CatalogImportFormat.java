@@ -0,0 +1,37 @@
+package com.geriatriccare.service.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Supported reference file formats.
+ */
+public enum CatalogImportFormat {
+
+    /** Comma-separated with a header row, RFC 4180 quoting */
+    CSV,
+
+    /** Tab-separated with a header row */
+    TSV,
+
+    /** One child element of the root per record; fields as child elements or attributes */
+    XML;
+
+    public CatalogRecordReader open(InputStream in) throws IOException {
+        switch (this) {
+            case CSV:
+                return new DelimitedRecordReader(reader(in), ',');
+            case TSV:
+                return new DelimitedRecordReader(reader(in), '\t');
+            default:
+                return new XmlRecordReader(in);
+        }
+    }
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
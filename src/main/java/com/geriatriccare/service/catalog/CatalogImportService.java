@@ -0,0 +1,310 @@
+package com.geriatriccare.service.catalog;
+
+import com.geriatriccare.dto.security.DataSensitivity;
+import com.geriatriccare.entity.CatalogImportJob;
+import com.geriatriccare.enums.AuditEventType;
+import com.geriatriccare.enums.AuditSeverity;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.repository.CatalogImportJobRepository;
+import com.geriatriccare.service.CatalogAutocompleteService;
+import com.geriatriccare.service.CatalogCacheService;
+import com.geriatriccare.service.CatalogSearchService;
+import com.geriatriccare.service.DrugInteractionGraphService;
+import com.geriatriccare.service.security.AuditEnhancementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Streaming bulk import of ICD-10, CPT and drug reference files.
+ *
+ * The upload is spooled to disk and read record by record on the import
+ * executor. Each chunk is validated, upserted with JDBC batches and committed
+ * in one transaction together with its progress counters and one summary
+ * audit event, so the job's {@code recordsRead} is always a consistent
+ * checkpoint: a failed or interrupted import resumes after the last committed
+ * chunk. The search and typeahead indexes and the catalog cache are refreshed once at the end instead
+ * of per row.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    /** Rejected records kept on the job for the administrator to fix */
+    static final int MAX_REJECTIONS = 20;
+
+    private final CatalogImportJobRepository jobRepository;
+    private final CatalogUpsertWriter upsertWriter;
+    private final AuditEnhancementService auditService;
+    private final CatalogSearchService catalogSearch;
+    private final CatalogAutocompleteService autocomplete;
+    private final CatalogCacheService catalogCache;
+    private final DrugInteractionGraphService interactionGraph;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor importExecutor;
+
+    /** Jobs submitted to the executor on this instance */
+    private final Set<UUID> submitted = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.catalog.import.directory:${java.io.tmpdir}/catalog-imports}")
+    private String directory = System.getProperty("java.io.tmpdir") + "/catalog-imports";
+
+    @Value("${app.catalog.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public CatalogImportService(CatalogImportJobRepository jobRepository,
+                                CatalogUpsertWriter upsertWriter,
+                                AuditEnhancementService auditService,
+                                CatalogSearchService catalogSearch,
+                                CatalogAutocompleteService autocomplete,
+                                CatalogCacheService catalogCache,
+                                DrugInteractionGraphService interactionGraph,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("catalogImportExecutor") Executor importExecutor) {
+        this.jobRepository = jobRepository;
+        this.upsertWriter = upsertWriter;
+        this.auditService = auditService;
+        this.catalogSearch = catalogSearch;
+        this.autocomplete = autocomplete;
+        this.catalogCache = catalogCache;
+        this.interactionGraph = interactionGraph;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * Spool {@code content} to disk and queue its import.
+     *
+     * @return The new job; poll {@link #getJob(UUID)} for progress
+     */
+    public CatalogImportJob startImport(CatalogType type, CatalogImportFormat format, String sourceName,
+                                        InputStream content, String createdBy, UUID createdById) throws IOException {
+        CatalogImportJob job = new CatalogImportJob();
+        job.setCatalogType(type);
+        job.setFormat(format.name());
+        job.setSourceName(sourceName);
+        job.setStatus(CatalogImportJob.Status.PENDING);
+        job.setCreatedBy(createdBy);
+        job.setCreatedById(createdById);
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path source = dir.resolve(job.getId() + "." + format.name().toLowerCase());
+        Files.copy(content, source, StandardCopyOption.REPLACE_EXISTING);
+
+        job.setSourcePath(source.toString());
+        job = jobRepository.save(job);
+
+        logger.info("Catalog import {} queued: {} {} from {}", job.getId(), type, format, sourceName);
+        submit(job.getId());
+        return job;
+    }
+
+    public CatalogImportJob getJob(UUID id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Catalog import job not found: " + id));
+    }
+
+    /**
+     * Continue an unfinished import after its last committed chunk.
+     */
+    public CatalogImportJob resume(UUID id) {
+        CatalogImportJob job = getJob(id);
+        if (job.getStatus() == CatalogImportJob.Status.COMPLETED) {
+            throw new IllegalArgumentException("Catalog import already completed: " + id);
+        }
+        if (!submit(id)) {
+            throw new IllegalArgumentException("Catalog import already running: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * Resume imports interrupted by a shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        try {
+            for (CatalogImportJob job : jobRepository.findByStatusIn(
+                    List.of(CatalogImportJob.Status.PENDING, CatalogImportJob.Status.RUNNING))) {
+                logger.info("Resuming catalog import {} after record {}", job.getId(), job.getRecordsRead());
+                submit(job.getId());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not resume catalog imports at startup: {}", e.getMessage());
+        }
+    }
+
+    private boolean submit(UUID id) {
+        if (!submitted.add(id)) {
+            return false;
+        }
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    submitted.remove(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            submitted.remove(id);
+            throw e;
+        }
+        return true;
+    }
+
+    // ==================== Import ====================
+
+    private void run(UUID id) {
+        CatalogImportJob job = getJob(id);
+        job.setStatus(CatalogImportJob.Status.RUNNING);
+        job.setErrorMessage(null);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        CatalogImportFormat format = CatalogImportFormat.valueOf(job.getFormat());
+        try (InputStream in = Files.newInputStream(Paths.get(job.getSourcePath()));
+             CatalogRecordReader reader = format.open(in)) {
+
+            for (long skipped = 0; skipped < job.getRecordsRead(); skipped++) {
+                if (reader.next() == null) {
+                    break;
+                }
+            }
+
+            List<Map<String, String>> valid = new ArrayList<>(chunkSize);
+            List<String> rejected = new ArrayList<>();
+            while (true) {
+                long first = job.getRecordsRead() + 1;
+                int read = 0;
+                valid.clear();
+                rejected.clear();
+
+                Map<String, String> record;
+                while (read < chunkSize && (record = reader.next()) != null) {
+                    String error = upsertWriter.validate(job.getCatalogType(), record);
+                    if (error == null) {
+                        valid.add(record);
+                    } else {
+                        rejected.add("record " + (first + read) + ": " + error);
+                    }
+                    read++;
+                }
+                if (read == 0) {
+                    break;
+                }
+                job = commitChunk(job, valid, rejected, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Catalog import {} failed: {}", id, e.getMessage());
+            // Reload: counters changed in a rolled-back chunk must not become the checkpoint
+            CatalogImportJob failed = getJob(id);
+            failed.setStatus(CatalogImportJob.Status.FAILED);
+            failed.setErrorMessage(truncate(e.getMessage(), 1000));
+            failed.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(failed);
+            return;
+        }
+
+        complete(job);
+    }
+
+    private CatalogImportJob commitChunk(CatalogImportJob job, List<Map<String, String>> valid,
+                                         List<String> rejected, int read) {
+        return transactionTemplate.execute(status -> {
+            CatalogUpsertWriter.UpsertResult result =
+                    upsertWriter.upsert(job.getCatalogType(), valid, job.getCreatedBy());
+
+            long first = job.getRecordsRead() + 1;
+            job.setRecordsRead(job.getRecordsRead() + read);
+            job.setRecordsInserted(job.getRecordsInserted() + result.getInserted());
+            job.setRecordsUpdated(job.getRecordsUpdated() + result.getUpdated());
+            job.setRecordsRejected(job.getRecordsRejected() + rejected.size());
+            job.setRejections(appendRejections(job.getRejections(), rejected));
+            job.setUpdatedAt(LocalDateTime.now());
+            CatalogImportJob saved = jobRepository.save(job);
+
+            auditService.logEnhancedAuditEvent(
+                AuditEventType.CONFIG_CHANGED,
+                AuditSeverity.INFO,
+                DataSensitivity.INTERNAL,
+                null,
+                job.getCreatedById() != null ? job.getCreatedById().toString() : null,
+                String.format("Catalog import %s (%s, %s): records %d-%d, %d inserted, %d updated, %d rejected",
+                        job.getId(), job.getCatalogType(), job.getSourceName(), first, job.getRecordsRead(),
+                        result.getInserted(), result.getUpdated(), rejected.size()),
+                null
+            );
+            return saved;
+        });
+    }
+
+    private void complete(CatalogImportJob job) {
+        job.setStatus(CatalogImportJob.Status.COMPLETED);
+        job.setCompletedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCompletedAt());
+        jobRepository.save(job);
+
+        try {
+            Files.deleteIfExists(Paths.get(job.getSourcePath()));
+        } catch (IOException e) {
+            logger.warn("Could not delete spooled catalog import {}: {}", job.getSourcePath(), e.getMessage());
+        }
+
+        catalogSearch.rebuild();
+        autocomplete.invalidate();
+        catalogCache.evict(job.getCatalogType());
+        if (job.getCatalogType() == CatalogType.DRUG) {
+            interactionGraph.invalidate();
+        }
+
+        logger.info("Catalog import {} completed: {} records, {} inserted, {} updated, {} rejected",
+                job.getId(), job.getRecordsRead(), job.getRecordsInserted(), job.getRecordsUpdated(),
+                job.getRecordsRejected());
+    }
+
+    private static String appendRejections(String existing, List<String> rejected) {
+        List<String> lines = new ArrayList<>();
+        if (existing != null && !existing.isEmpty()) {
+            lines.addAll(Arrays.asList(existing.split("\n")));
+        }
+        for (String rejection : rejected) {
+            if (lines.size() >= MAX_REJECTIONS) {
+                break;
+            }
+            lines.add(rejection);
+        }
+        return lines.isEmpty() ? null : String.join("\n", lines);
+    }
+
+    private static String truncate(String message, int max) {
+        if (message == null || message.length() <= max) {
+            return message;
+        }
+        return message.substring(0, max);
+    }
+}
@@ -0,0 +1,33 @@
+package com.geriatriccare.service.catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming source of catalog records, one field map per record.
+ *
+ * Field names are normalized with {@link #fieldKey(String)}, so "generic_name",
+ * "Generic Name" and "genericName" all address the same column.
+ */
+public interface CatalogRecordReader extends Closeable {
+
+    /**
+     * The next record, or null at the end of the input.
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Lower-case letters and digits of a field name.
+     */
+    static String fieldKey(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+}
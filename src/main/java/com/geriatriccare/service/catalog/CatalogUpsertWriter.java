@@ -0,0 +1,243 @@
+package com.geriatriccare.service.catalog;
+
+import com.geriatriccare.enums.CatalogType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Validates catalog records and writes them with JDBC batch upserts keyed by
+ * code (generic name for drugs).
+ *
+ * One query per chunk finds the keys that already exist; new rows go out as
+ * one batched INSERT and existing rows as one batched UPDATE. Updates only
+ * overwrite the fields present in the record and reactivate the row, since an
+ * entry in a reference release is current by definition. Plain INSERT/UPDATE
+ * keeps this portable across H2 and PostgreSQL.
+ */
+@Component
+public class CatalogUpsertWriter {
+
+    private static final int TEXT = -1;
+
+    private static final Map<CatalogType, TableSpec> TABLES = Map.of(
+            CatalogType.DIAGNOSIS, new TableSpec("diagnoses",
+                    column("code", "code", 20),
+                    column("name", "name", 200),
+                    column("description", "description", TEXT),
+                    column("category", "category", 100),
+                    column("severity", "severity", 20),
+                    column("synonyms", "synonyms", TEXT),
+                    column("clinicalNotes", "clinical_notes", TEXT)),
+            CatalogType.PROCEDURE, new TableSpec("procedures",
+                    column("code", "code", 20),
+                    column("name", "name", 200),
+                    column("description", "description", TEXT),
+                    column("category", "category", 100),
+                    integerColumn("estimatedDurationMinutes", "estimated_duration_minutes"),
+                    column("requiredEquipment", "required_equipment", TEXT),
+                    column("preparation", "preparation", TEXT),
+                    column("postCareInstructions", "post_care_instructions", TEXT),
+                    column("typicalSpecialty", "typical_specialty", 100)),
+            CatalogType.DRUG, new TableSpec("drug_catalog",
+                    column("genericName", "generic_name", 200),
+                    column("genericName", "generic_name", 200),
+                    column("brandNames", "brand_names", TEXT),
+                    column("category", "category", 100),
+                    column("therapeuticClass", "therapeutic_class", 100),
+                    column("dosageForms", "dosage_forms", TEXT),
+                    column("strengthOptions", "strength_options", TEXT),
+                    column("description", "description", TEXT),
+                    column("indications", "indications", TEXT),
+                    column("contraindications", "contraindications", TEXT),
+                    column("sideEffects", "side_effects", TEXT),
+                    column("interactions", "interactions", TEXT),
+                    column("geriatricConsiderations", "geriatric_considerations", TEXT),
+                    column("fdaStatus", "fda_status", 50),
+                    column("controlledSubstanceSchedule", "controlled_substance_schedule", 20)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogUpsertWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Why the record cannot be imported, or null if it is valid.
+     */
+    public String validate(CatalogType type, Map<String, String> record) {
+        TableSpec table = TABLES.get(type);
+        for (Column column : List.of(table.key, table.name)) {
+            if (record.get(column.field) == null) {
+                return column.field + " is required";
+            }
+        }
+        for (Column column : table.columns) {
+            String value = record.get(column.field);
+            if (value == null) {
+                continue;
+            }
+            if (column.integer) {
+                try {
+                    Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return column.field + " is not a number: " + value;
+                }
+            } else if (column.maxLength != TEXT && value.length() > column.maxLength) {
+                return column.field + " exceeds " + column.maxLength + " characters";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert or update valid records; a key repeated within the chunk keeps its last record.
+     */
+    public UpsertResult upsert(CatalogType type, List<Map<String, String>> records, String user) {
+        TableSpec table = TABLES.get(type);
+
+        Map<String, Map<String, String>> byKey = new LinkedHashMap<>();
+        for (Map<String, String> record : records) {
+            byKey.put(record.get(table.key.field), record);
+        }
+        if (byKey.isEmpty()) {
+            return new UpsertResult(0, 0);
+        }
+
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                table.selectExistingSql(byKey.size()), String.class, byKey.keySet().toArray()));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> entry : byKey.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                updates.add(table.updateArgs(entry.getValue(), now, user));
+            } else {
+                inserts.add(table.insertArgs(entry.getValue(), now, user));
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(table.insertSql, inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(table.updateSql, updates);
+        }
+        return new UpsertResult(inserts.size(), updates.size());
+    }
+
+    // ==================== Table Mapping ====================
+
+    private static Column column(String property, String name, int maxLength) {
+        return new Column(CatalogRecordReader.fieldKey(property), name, maxLength, false);
+    }
+
+    private static Column integerColumn(String property, String name) {
+        return new Column(CatalogRecordReader.fieldKey(property), name, TEXT, true);
+    }
+
+    private static final class Column {
+        private final String field;
+        private final String name;
+        private final int maxLength;
+        private final boolean integer;
+
+        Column(String field, String name, int maxLength, boolean integer) {
+            this.field = field;
+            this.name = name;
+            this.maxLength = maxLength;
+            this.integer = integer;
+        }
+
+        Object value(Map<String, String> record) {
+            String value = record.get(field);
+            return value != null && integer ? Integer.valueOf(value) : value;
+        }
+    }
+
+    private static final class TableSpec {
+        private final String table;
+        private final Column key;
+        private final Column name;
+        /** All columns except the key, in SQL parameter order */
+        private final List<Column> columns;
+        private final String insertSql;
+        private final String updateSql;
+
+        TableSpec(String table, Column key, Column name, Column... others) {
+            this.table = table;
+            this.key = key;
+            this.name = name;
+
+            List<Column> all = new ArrayList<>();
+            if (!name.name.equals(key.name)) {
+                all.add(name);
+            }
+            all.addAll(Arrays.asList(others));
+            this.columns = List.copyOf(all);
+
+            String insertColumns = columns.stream().map(c -> c.name).collect(Collectors.joining(", "));
+            this.insertSql = "INSERT INTO " + table + " (id, " + key.name + ", " + insertColumns
+                    + ", is_active, created_at, updated_at, created_by, updated_by) VALUES (?, ?, "
+                    + "?, ".repeat(columns.size()) + "TRUE, ?, ?, ?, ?)";
+
+            String assignments = columns.stream()
+                    .map(c -> c.name + " = COALESCE(?, " + c.name + ")")
+                    .collect(Collectors.joining(", "));
+            this.updateSql = "UPDATE " + table + " SET " + assignments
+                    + ", is_active = TRUE, updated_at = ?, updated_by = ? WHERE " + key.name + " = ?";
+        }
+
+        String selectExistingSql(int keys) {
+            return "SELECT " + key.name + " FROM " + table + " WHERE " + key.name + " IN ("
+                    + String.join(", ", Collections.nCopies(keys, "?")) + ")";
+        }
+
+        Object[] insertArgs(Map<String, String> record, Timestamp now, String user) {
+            Object[] args = new Object[columns.size() + 6];
+            int i = 0;
+            args[i++] = UUID.randomUUID();
+            args[i++] = key.value(record);
+            for (Column column : columns) {
+                args[i++] = column.value(record);
+            }
+            args[i++] = now;
+            args[i++] = now;
+            args[i++] = user;
+            args[i] = user;
+            return args;
+        }
+
+        Object[] updateArgs(Map<String, String> record, Timestamp now, String user) {
+            Object[] args = new Object[columns.size() + 3];
+            int i = 0;
+            for (Column column : columns) {
+                args[i++] = column.value(record);
+            }
+            args[i++] = now;
+            args[i++] = user;
+            args[i] = key.value(record);
+            return args;
+        }
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class UpsertResult {
+        private final int inserted;
+        private final int updated;
+
+        public UpsertResult(int inserted, int updated) {
+            this.inserted = inserted;
+            this.updated = updated;
+        }
+
+        public int getInserted() { return inserted; }
+        public int getUpdated() { return updated; }
+    }
+}
@@ -0,0 +1,129 @@
+package com.geriatriccare.service.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV/TSV reader. The first row names the fields; quoted fields may contain
+ * delimiters, doubled quotes and line breaks. Blank lines are skipped.
+ */
+class DelimitedRecordReader implements CatalogRecordReader {
+
+    private final Reader reader;
+    private final char delimiter;
+    private final List<String> header;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+
+    DelimitedRecordReader(Reader reader, char delimiter) throws IOException {
+        this.reader = reader;
+        this.delimiter = delimiter;
+
+        List<String> names = readRow();
+        if (names == null) {
+            throw new IOException("Import file is empty");
+        }
+        this.header = new ArrayList<>(names.size());
+        for (String name : names) {
+            // fieldKey also drops a byte order mark before the first name
+            header.add(CatalogRecordReader.fieldKey(name));
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> values = readRow();
+        if (values == null) {
+            return null;
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                record.put(header.get(i), value);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Next non-blank row, or null at the end of the input.
+     */
+    private List<String> readRow() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                continue;
+            }
+            unread(c);
+            return readFields();
+        }
+    }
+
+    private List<String> readFields() throws IOException {
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                values.add(field.toString());
+                return values;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.geriatriccare.service.catalog;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * StAX reader for flat record files such as
+ * {@code <diagnoses><diagnosis code="I10"><name>...</name></diagnosis>...</diagnoses>}.
+ *
+ * Every child element of the root is a record; its attributes and the text of
+ * its child elements are the fields. DTDs and external entities are disabled.
+ */
+class XmlRecordReader implements CatalogRecordReader {
+
+    private final InputStream in;
+    private final XMLStreamReader xml;
+
+    XmlRecordReader(InputStream in) throws IOException {
+        this.in = in;
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.xml = factory.createXMLStreamReader(in, "UTF-8");
+            if (xml.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                throw new IOException("Import file has no root element");
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        try {
+            // Advance to the next record element, or the end of the root
+            int event = xml.next();
+            while (event != XMLStreamConstants.START_ELEMENT) {
+                if (event == XMLStreamConstants.END_ELEMENT || event == XMLStreamConstants.END_DOCUMENT) {
+                    return null;
+                }
+                event = xml.next();
+            }
+
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < xml.getAttributeCount(); i++) {
+                put(record, xml.getAttributeLocalName(i), xml.getAttributeValue(i));
+            }
+            while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                put(record, name, readText());
+            }
+            return record;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Text content of the current element, including nested elements, ending on its end tag.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(xml.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    private static void put(Map<String, String> record, String name, String value) {
+        String trimmed = value.trim();
+        if (!trimmed.isEmpty()) {
+            record.put(CatalogRecordReader.fieldKey(name), trimmed);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.geriatriccare.service.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Keyed-HMAC blind indexes for searching encrypted text.
+ *
+ * Values are normalised (lower case, split into words) and every word yields an
+ * exact token plus one token per trigram. Tokens are HMAC-SHA256 over
+ * {@code scope, kind, value}, truncated to 96 bits: stable for equal input, so
+ * they can be looked up with an index, but useless without the index key. The
+ * key is independent of the data encryption keys, so key rotation does not
+ * invalidate stored tokens.
+ */
+@Component
+public class BlindIndexService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BlindIndexService.class);
+    private static final String HMAC = "HmacSHA256";
+    private static final int TOKEN_BYTES = 12;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    
+    public static final int NGRAM_LENGTH = 3;
+    
+    private final SecretKeySpec indexKey;
+    private final boolean ephemeralKey;
+    private final ThreadLocal<Mac> mac;
+    
+    public BlindIndexService(@Value("${app.encryption.blind-index-key:}") String blindIndexKey,
+                             @Value("${app.encryption.master-key:}") String masterKey) {
+        this.ephemeralKey = isBlank(blindIndexKey) && isBlank(masterKey);
+        this.indexKey = resolveIndexKey(blindIndexKey, masterKey);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC);
+                instance.init(indexKey);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 not available", e);
+            }
+        });
+    }
+    
+    /**
+     * True when no key is configured, so tokens stored by an earlier run are unusable.
+     */
+    public boolean isEphemeralKey() {
+        return ephemeralKey;
+    }
+    
+    /**
+     * Exact and trigram tokens for every word of a value.
+     */
+    public Set<String> indexTokens(String scope, String value) {
+        Set<String> tokens = new HashSet<>();
+        for (String word : words(value)) {
+            tokens.add(token(scope, "w", word));
+            for (String gram : ngrams(word)) {
+                tokens.add(token(scope, "g", gram));
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Tokens a stored value must all have (in one scope) to contain {@code queryWord}:
+     * its trigrams, or the exact word token when it is shorter than a trigram.
+     */
+    public Set<String> queryTokens(String scope, String queryWord) {
+        if (queryWord.length() < NGRAM_LENGTH) {
+            return Set.of(token(scope, "w", queryWord));
+        }
+        Set<String> tokens = new HashSet<>();
+        for (String gram : ngrams(queryWord)) {
+            tokens.add(token(scope, "g", gram));
+        }
+        return tokens;
+    }
+    
+    /**
+     * Full-length keyed hash of a short secret (such as an MFA backup code) for storage:
+     * without the index key, stored hashes cannot be checked against guesses offline.
+     */
+    public String keyedHash(String scope, String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest(scope, "k", value));
+    }
+    
+    /**
+     * Normalised words of a value, in order.
+     */
+    public List<String> words(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+    
+    /**
+     * Whether the normalised text of {@code value} contains {@code queryWord}.
+     */
+    public boolean containsWord(String value, String queryWord) {
+        return value != null && String.join(" ", words(value)).contains(queryWord);
+    }
+    
+    private List<String> ngrams(String word) {
+        if (word.length() < NGRAM_LENGTH) {
+            return List.of();
+        }
+        List<String> grams = new ArrayList<>(word.length() - NGRAM_LENGTH + 1);
+        for (int i = 0; i + NGRAM_LENGTH <= word.length(); i++) {
+            grams.add(word.substring(i, i + NGRAM_LENGTH));
+        }
+        return grams;
+    }
+    
+    private String token(String scope, String kind, String value) {
+        byte[] digest = digest(scope, kind, value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, TOKEN_BYTES));
+    }
+    
+    private byte[] digest(String scope, String kind, String value) {
+        Mac instance = mac.get();
+        instance.update(scope.getBytes(StandardCharsets.UTF_8));
+        instance.update((byte) 0);
+        instance.update(kind.getBytes(StandardCharsets.UTF_8));
+        instance.update((byte) 0);
+        return instance.doFinal(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static SecretKeySpec resolveIndexKey(String blindIndexKey, String masterKey) {
+        if (!isBlank(blindIndexKey)) {
+            return new SecretKeySpec(Base64.getDecoder().decode(blindIndexKey.trim()), HMAC);
+        }
+        if (!isBlank(masterKey)) {
+            // Derive a separate key so the master key itself is never used for HMAC
+            try {
+                Mac derive = Mac.getInstance(HMAC);
+                derive.init(new SecretKeySpec(Base64.getDecoder().decode(masterKey.trim()), HMAC));
+                return new SecretKeySpec(derive.doFinal("blind-index-v1".getBytes(StandardCharsets.UTF_8)), HMAC);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Blind index key derivation failed", e);
+            }
+        }
+        
+        logger.warn("Neither app.encryption.blind-index-key nor app.encryption.master-key is set; "
+                + "using an ephemeral blind index key. Search tokens will not match after a restart.");
+        byte[] raw = new byte[32];
+        new SecureRandom().nextBytes(raw);
+        return new SecretKeySpec(raw, HMAC);
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,49 @@
+package com.geriatriccare.service.security;
+
+import java.util.regex.Pattern;
+
+/**
+ * A database column holding {@link EncryptionService} ciphertext, walked by
+ * {@link ReEncryptionService} after a key rotation. Declare one bean per column;
+ * the table's id column is expected to be a UUID, as on all entities here.
+ */
+public final class EncryptedColumn {
+    
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    
+    private final String table;
+    private final String idColumn;
+    private final String column;
+    
+    public EncryptedColumn(String table, String idColumn, String column) {
+        this.table = requireIdentifier(table);
+        this.idColumn = requireIdentifier(idColumn);
+        this.column = requireIdentifier(column);
+    }
+    
+    public EncryptedColumn(String table, String column) {
+        this(table, "id", column);
+    }
+    
+    public String getTable() { return table; }
+    public String getIdColumn() { return idColumn; }
+    public String getColumn() { return column; }
+    
+    /** Checkpoint key, "table.column" */
+    public String getKey() {
+        return table + "." + column;
+    }
+    
+    private static String requireIdentifier(String name) {
+        // Names are concatenated into SQL, so only plain identifiers are allowed
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid SQL identifier: " + name);
+        }
+        return name;
+    }
+    
+    @Override
+    public String toString() {
+        return getKey();
+    }
+}
@@ -0,0 +1,316 @@
+package com.geriatriccare.service.security;
+
+import com.geriatriccare.dto.security.EncryptionAlgorithm;
+import com.geriatriccare.dto.security.EncryptionKeyConfig;
+import com.geriatriccare.entity.EncryptionKey;
+import com.geriatriccare.repository.EncryptionKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Persistent store of data encryption keys.
+ *
+ * Keys live in the encryption_keys table, each wrapped with AES-GCM under the
+ * master key from {@code app.encryption.master-key} (Base64, 256 bit), so data
+ * stays decryptable across restarts and all instances share the same keys.
+ * Without a master key the application does not start, unless
+ * {@code app.encryption.allow-ephemeral-master-key} opts a dev or test run into
+ * a throwaway one. A stored key that does not unwrap under the master key is
+ * an error, never silently replaced: data encrypted with it would be lost.
+ * Keys are loaded lazily on first use (the repository is resolved through an
+ * ObjectProvider because JPA attribute converters depend on this store) and
+ * reloaded when a ciphertext names a key version this instance has not seen.
+ * The first use is typically inside a Hibernate flush, so all key reads and
+ * writes run in their own transaction, never in the caller's session.
+ */
+@Component
+public class EncryptionKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionKeyStore.class);
+    private static final String AES = "AES";
+    private static final String WRAP_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int WRAP_IV_LENGTH = 12;
+    private static final int WRAP_TAG_LENGTH = 128;
+
+    private final ObjectProvider<EncryptionKeyRepository> repositoryProvider;
+    private final ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+    private final SecretKey masterKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile Snapshot snapshot;
+
+    public EncryptionKeyStore(ObjectProvider<EncryptionKeyRepository> repositoryProvider,
+                              ObjectProvider<PlatformTransactionManager> transactionManagerProvider,
+                              @Value("${app.encryption.master-key:}") String masterKey,
+                              @Value("${app.encryption.allow-ephemeral-master-key:false}") boolean allowEphemeral) {
+        this.repositoryProvider = repositoryProvider;
+        this.transactionManagerProvider = transactionManagerProvider;
+        this.masterKey = resolveMasterKey(masterKey, allowEphemeral);
+    }
+
+    /**
+     * Key for the given version, reloading from the database once if it is unknown.
+     */
+    public SecretKey getKey(int version) {
+        SecretKey key = snapshot().keys.get(version);
+        if (key == null) {
+            key = reload().keys.get(version);
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Invalid key version: " + version);
+        }
+        return key;
+    }
+
+    public int getCurrentVersion() {
+        return snapshot().currentVersion;
+    }
+
+    public int getKeyCount() {
+        return snapshot().keys.size();
+    }
+
+    public Collection<EncryptionKeyConfig> getKeyConfigs() {
+        return snapshot().configs.values();
+    }
+
+    /**
+     * Pick up keys created by other instances.
+     */
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Create and persist a new key version and make it current.
+     *
+     * @return The new key version
+     */
+    public synchronized int rotate(EncryptionAlgorithm algorithm, String reason, boolean archiveOldKeys)
+            throws GeneralSecurityException {
+        Snapshot current = reload();
+        EncryptionKeyRepository repository = repositoryProvider.getObject();
+
+        int newVersion = current.maxVersion + 1;
+        EncryptionKey newKey = newKeyEntity(newVersion, algorithm, reason);
+
+        inNewTransaction(() -> {
+            repository.save(newKey);
+            if (archiveOldKeys) {
+                repository.findById(current.currentVersion).ifPresent(old -> {
+                    old.setActive(false);
+                    old.setRotatedAt(LocalDateTime.now());
+                    repository.save(old);
+                });
+            }
+            return null;
+        });
+
+        reload();
+        return newVersion;
+    }
+
+    // ==================== Loading ====================
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot loaded = load();
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private Snapshot load() {
+        EncryptionKeyRepository repository = repositoryProvider.getObject();
+        List<EncryptionKey> stored = inNewTransaction(repository::findAllByOrderByKeyVersionAsc);
+
+        if (stored.isEmpty()) {
+            logger.info("No encryption keys found, creating initial key");
+            saveKey(repository, newKey(1, "Initial encryption key"));
+            return load();
+        }
+
+        Map<Integer, SecretKey> keys = new HashMap<>();
+        Map<Integer, EncryptionKeyConfig> configs = new TreeMap<>();
+        int currentVersion = 0;
+        int maxVersion = 0;
+
+        for (EncryptionKey entity : stored) {
+            maxVersion = Math.max(maxVersion, entity.getKeyVersion());
+            try {
+                keys.put(entity.getKeyVersion(), unwrap(entity));
+            } catch (GeneralSecurityException e) {
+                logger.error("Cannot unwrap encryption key v{} - wrong master key?", entity.getKeyVersion());
+                throw new IllegalStateException("Encryption key v" + entity.getKeyVersion()
+                        + " cannot be unwrapped with the configured master key", e);
+            }
+            configs.put(entity.getKeyVersion(), toConfig(entity));
+            if (Boolean.TRUE.equals(entity.getActive())) {
+                currentVersion = Math.max(currentVersion, entity.getKeyVersion());
+            }
+        }
+
+        if (currentVersion == 0) {
+            // Every key has been archived, all of them still readable: start a new version
+            saveKey(repository, newKey(maxVersion + 1, "New key: no active key"));
+            return load();
+        }
+
+        logger.info("Loaded {} encryption key(s). Current version: {}", keys.size(), currentVersion);
+        return new Snapshot(keys, configs, currentVersion, maxVersion);
+    }
+
+    private EncryptionKey newKey(int version, String description) {
+        try {
+            return newKeyEntity(version, EncryptionAlgorithm.AES_256_GCM, description);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Encryption key generation failed", e);
+        }
+    }
+
+    private void saveKey(EncryptionKeyRepository repository, EncryptionKey key) {
+        try {
+            inNewTransaction(() -> repository.save(key));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created this version first; the reload picks up theirs
+            logger.info("Encryption key v{} created concurrently, reloading", key.getKeyVersion());
+        }
+    }
+
+    private <T> T inNewTransaction(Supplier<T> work) {
+        PlatformTransactionManager transactionManager = transactionManagerProvider.getIfAvailable();
+        if (transactionManager == null) {
+            return work.get();
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template.execute(status -> work.get());
+    }
+
+    private EncryptionKey newKeyEntity(int version, EncryptionAlgorithm algorithm, String description)
+            throws GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance(AES);
+        keyGenerator.init(algorithm.getKeySize(), secureRandom);
+        SecretKey dataKey = keyGenerator.generateKey();
+
+        EncryptionKey entity = new EncryptionKey();
+        entity.markNew();
+        entity.setKeyVersion(version);
+        entity.setAlgorithm(algorithm);
+        entity.setWrappedKey(wrap(version, dataKey));
+        entity.setActive(true);
+        entity.setDescription(description);
+        entity.setCreatedAt(LocalDateTime.now());
+        return entity;
+    }
+
+    // ==================== Key Wrapping ====================
+
+    private String wrap(int version, SecretKey dataKey) throws GeneralSecurityException {
+        byte[] iv = new byte[WRAP_IV_LENGTH];
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(WRAP_TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(WRAP_TAG_LENGTH, iv));
+        cipher.updateAAD(wrapAad(version));
+        byte[] wrapped = cipher.doFinal(dataKey.getEncoded());
+
+        byte[] combined = new byte[iv.length + wrapped.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(wrapped, 0, combined, iv.length, wrapped.length);
+        return Base64.getEncoder().encodeToString(combined);
+    }
+
+    private SecretKey unwrap(EncryptionKey entity) throws GeneralSecurityException {
+        byte[] combined = Base64.getDecoder().decode(entity.getWrappedKey());
+
+        Cipher cipher = Cipher.getInstance(WRAP_TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(WRAP_TAG_LENGTH, combined, 0, WRAP_IV_LENGTH));
+        cipher.updateAAD(wrapAad(entity.getKeyVersion()));
+        byte[] raw = cipher.doFinal(combined, WRAP_IV_LENGTH, combined.length - WRAP_IV_LENGTH);
+        return new SecretKeySpec(raw, AES);
+    }
+
+    private byte[] wrapAad(int version) {
+        // Binds the wrapped key to its version so rows cannot be swapped
+        return ("key-" + version).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private SecretKey resolveMasterKey(String configured, boolean allowEphemeral) {
+        if (configured != null && !configured.isBlank()) {
+            byte[] raw = Base64.getDecoder().decode(configured.trim());
+            if (raw.length != 16 && raw.length != 32) {
+                throw new IllegalStateException("app.encryption.master-key must be a Base64 128 or 256 bit key");
+            }
+            return new SecretKeySpec(raw, AES);
+        }
+
+        if (!allowEphemeral) {
+            throw new IllegalStateException("app.encryption.master-key (ENCRYPTION_MASTER_KEY) is not set; "
+                    + "set app.encryption.allow-ephemeral-master-key only for dev or test runs");
+        }
+        logger.warn("app.encryption.master-key is not set; using an ephemeral master key. "
+                + "Data encrypted in this run will not be readable after a restart.");
+        byte[] raw = new byte[32];
+        secureRandom.nextBytes(raw);
+        return new SecretKeySpec(raw, AES);
+    }
+
+    private EncryptionKeyConfig toConfig(EncryptionKey entity) {
+        EncryptionKeyConfig config = new EncryptionKeyConfig();
+        config.setKeyId("key-" + entity.getKeyVersion());
+        config.setKeyVersion(entity.getKeyVersion());
+        config.setAlgorithm(entity.getAlgorithm());
+        config.setCreatedAt(entity.getCreatedAt());
+        config.setRotatedAt(entity.getRotatedAt());
+        config.setIsActive(entity.getActive());
+        config.setDescription(entity.getDescription());
+        return config;
+    }
+
+    private static final class Snapshot {
+        private final Map<Integer, SecretKey> keys;
+        private final Map<Integer, EncryptionKeyConfig> configs;
+        private final int currentVersion;
+        private final int maxVersion;
+
+        Snapshot(Map<Integer, SecretKey> keys, Map<Integer, EncryptionKeyConfig> configs,
+                 int currentVersion, int maxVersion) {
+            this.keys = Map.copyOf(keys);
+            this.configs = Collections.unmodifiableMap(configs);
+            this.currentVersion = currentVersion;
+            this.maxVersion = maxVersion;
+        }
+    }
+}
@@ -3,38 +3,72 @@ package com.geriatriccare.service.security;
 import com.geriatriccare.dto.security.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * AES-GCM field encryption.
+ *
+ * Ciphertext is a self-describing envelope, Base64 encoded:
+ * {@code [0x01 format][4 byte key version][12 byte IV][ciphertext + 16 byte tag]}.
+ * The 5 byte header is authenticated as AAD, so decryption always uses the key
+ * the value was written with, whatever the current version is. Values without
+ * an envelope (written before it existed) are decrypted as {@code IV || ciphertext}.
+ */
 @Service
 public class EncryptionService {
     
     private static final Logger logger = LoggerFactory.getLogger(EncryptionService.class);
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
-    private static final String AES = "AES";
     
-    private final Map<Integer, SecretKey> keyStore = new ConcurrentHashMap<>();
-    private final Map<Integer, EncryptionKeyConfig> keyConfigs = new ConcurrentHashMap<>();
-    private final SecureRandom secureRandom = new SecureRandom();
+    static final byte ENVELOPE_FORMAT = 0x01;
+    static final int ENVELOPE_HEADER_LENGTH = 5;
+    private static final int MIN_ENVELOPE_LENGTH = ENVELOPE_HEADER_LENGTH + GCM_IV_LENGTH + GCM_TAG_LENGTH / 8;
+    
+    /** Batches below this size are not worth splitting across threads */
+    static final int PARALLEL_BATCH_THRESHOLD = 64;
+    
+    /**
+     * One cipher per thread: Cipher is not thread-safe, and Cipher.getInstance does a
+     * provider lookup on every call. Each use re-inits it with a fresh IV.
+     */
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(EncryptionAlgorithm.AES_256_GCM.getTransformation());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM cipher not available", e);
+        }
+    });
     
-    private int currentKeyVersion = 1;
+    private final EncryptionKeyStore keyStore;
+    private final Executor batchExecutor;
+    private final int batchParallelism;
+    private final SecureRandom secureRandom = new SecureRandom();
     
-    public EncryptionService() {
-        initializeKeys();
+    public EncryptionService(EncryptionKeyStore keyStore,
+                             @Qualifier("encryptionBatchExecutor") Executor batchExecutor,
+                             @Value("${app.encryption.batch.pool-size:4}") int batchParallelism) {
+        this.keyStore = keyStore;
+        this.batchExecutor = batchExecutor;
+        this.batchParallelism = batchParallelism;
     }
     
     public String encrypt(String plaintext) throws Exception {
-        return encrypt(plaintext, currentKeyVersion);
+        return encrypt(plaintext, keyStore.getCurrentVersion());
     }
     
     public String encrypt(String plaintext, int keyVersion) throws Exception {
@@ -42,69 +76,152 @@ public class EncryptionService {
             return plaintext;
         }
         
-        logger.debug("Encrypting data with key version: {}", keyVersion);
-        
-        SecretKey key = keyStore.get(keyVersion);
-        if (key == null) {
-            throw new IllegalArgumentException("Invalid key version: " + keyVersion);
-        }
-        
-        byte[] iv = generateIV();
-        
-        Cipher cipher = Cipher.getInstance(EncryptionAlgorithm.AES_256_GCM.getTransformation());
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
-        
-        byte[] encryptedBytes = cipher.doFinal(plaintext.getBytes());
-        
-        byte[] combined = new byte[iv.length + encryptedBytes.length];
-        System.arraycopy(iv, 0, combined, 0, iv.length);
-        System.arraycopy(encryptedBytes, 0, combined, iv.length, encryptedBytes.length);
-        
-        return Base64.getEncoder().encodeToString(combined);
+        byte[] envelope = encryptBytes(plaintext.getBytes(StandardCharsets.UTF_8), keyVersion);
+        return Base64.getEncoder().encodeToString(envelope);
     }
     
+    /**
+     * Decrypt with the key version recorded in the envelope.
+     */
     public String decrypt(String encryptedData) throws Exception {
-        return decrypt(encryptedData, currentKeyVersion);
+        return decrypt(encryptedData, keyStore.getCurrentVersion());
     }
     
+    /**
+     * Decrypt a value. The envelope's key version takes precedence; {@code keyVersion}
+     * is only used for legacy values that carry no envelope.
+     */
     public String decrypt(String encryptedData, int keyVersion) throws Exception {
         if (encryptedData == null || encryptedData.isEmpty()) {
             return encryptedData;
         }
         
-        logger.debug("Decrypting data with key version: {}", keyVersion);
+        byte[] decryptedBytes = decryptBytes(Base64.getDecoder().decode(encryptedData), keyVersion);
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
+    
+    // ==================== Byte API ====================
+    
+    /**
+     * Encrypt raw bytes with the current key into an envelope, without the Base64/String round trip.
+     */
+    public byte[] encryptBytes(byte[] plaintext) throws GeneralSecurityException {
+        return encryptBytes(plaintext, keyStore.getCurrentVersion());
+    }
+    
+    public byte[] encryptBytes(byte[] plaintext, int keyVersion) throws GeneralSecurityException {
+        logger.debug("Encrypting data with key version: {}", keyVersion);
         
-        SecretKey key = keyStore.get(keyVersion);
-        if (key == null) {
-            throw new IllegalArgumentException("Invalid key version: " + keyVersion);
+        SecretKey key = keyStore.getKey(keyVersion);
+        
+        // Header, IV and ciphertext are written straight into the one output array
+        byte[] envelope = new byte[MIN_ENVELOPE_LENGTH + plaintext.length];
+        ByteBuffer.wrap(envelope).put(ENVELOPE_FORMAT).putInt(keyVersion);
+        byte[] iv = generateIV();
+        System.arraycopy(iv, 0, envelope, ENVELOPE_HEADER_LENGTH, GCM_IV_LENGTH);
+        
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        cipher.updateAAD(envelope, 0, ENVELOPE_HEADER_LENGTH);
+        cipher.doFinal(plaintext, 0, plaintext.length, envelope, ENVELOPE_HEADER_LENGTH + GCM_IV_LENGTH);
+        
+        return envelope;
+    }
+    
+    /**
+     * Decrypt an envelope (or a legacy {@code IV || ciphertext} value under the current key).
+     */
+    public byte[] decryptBytes(byte[] data) throws GeneralSecurityException {
+        return decryptBytes(data, keyStore.getCurrentVersion());
+    }
+    
+    public byte[] decryptBytes(byte[] data, int legacyKeyVersion) throws GeneralSecurityException {
+        if (isEnvelope(data)) {
+            int envelopeVersion = ByteBuffer.wrap(data, 1, 4).getInt();
+            try {
+                return decryptEnvelope(data, envelopeVersion);
+            } catch (AEADBadTagException | IllegalArgumentException e) {
+                // A legacy IV can start with the format byte by chance; try it as legacy below
+                logger.debug("Envelope decryption failed, trying legacy format: {}", e.getMessage());
+            }
         }
         
-        byte[] combined = Base64.getDecoder().decode(encryptedData);
+        logger.debug("Decrypting legacy data with key version: {}", legacyKeyVersion);
+        return decryptLegacy(data, legacyKeyVersion);
+    }
+    
+    /**
+     * Key version of a ciphertext from its envelope header, without decrypting it.
+     *
+     * @return The key version, or -1 for legacy values without an envelope
+     */
+    public int keyVersionOf(String encryptedData) {
+        if (encryptedData == null || encryptedData.length() < 8) {
+            return -1;
+        }
+        try {
+            // 8 Base64 characters decode to the first 6 bytes, enough for the header
+            byte[] head = Base64.getDecoder().decode(encryptedData.substring(0, 8));
+            if (head[0] != ENVELOPE_FORMAT) {
+                return -1;
+            }
+            return ByteBuffer.wrap(head, 1, 4).getInt();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Whether a stored value has the shape of a ciphertext (Base64, long enough
+     * for an IV and tag) rather than plaintext written before encryption.
+     */
+    public boolean isCiphertext(String storedValue) {
+        if (storedValue == null) {
+            return false;
+        }
+        try {
+            return Base64.getDecoder().decode(storedValue).length >= GCM_IV_LENGTH + GCM_TAG_LENGTH / 8;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private byte[] decryptEnvelope(byte[] combined, int keyVersion) throws GeneralSecurityException {
+        logger.debug("Decrypting data with key version: {}", keyVersion);
         
-        byte[] iv = new byte[GCM_IV_LENGTH];
-        byte[] encryptedBytes = new byte[combined.length - GCM_IV_LENGTH];
+        SecretKey key = keyStore.getKey(keyVersion);
         
-        System.arraycopy(combined, 0, iv, 0, GCM_IV_LENGTH);
-        System.arraycopy(combined, GCM_IV_LENGTH, encryptedBytes, 0, encryptedBytes.length);
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key,
+                new GCMParameterSpec(GCM_TAG_LENGTH, combined, ENVELOPE_HEADER_LENGTH, GCM_IV_LENGTH));
+        cipher.updateAAD(combined, 0, ENVELOPE_HEADER_LENGTH);
         
-        Cipher cipher = Cipher.getInstance(EncryptionAlgorithm.AES_256_GCM.getTransformation());
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-        cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+        int offset = ENVELOPE_HEADER_LENGTH + GCM_IV_LENGTH;
+        return cipher.doFinal(combined, offset, combined.length - offset);
+    }
+    
+    private byte[] decryptLegacy(byte[] combined, int keyVersion) throws GeneralSecurityException {
+        SecretKey key = keyStore.getKey(keyVersion);
         
-        byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, combined, 0, GCM_IV_LENGTH));
         
-        return new String(decryptedBytes);
+        return cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+    }
+    
+    private boolean isEnvelope(byte[] combined) {
+        return combined.length >= MIN_ENVELOPE_LENGTH && combined[0] == ENVELOPE_FORMAT;
     }
     
     public EncryptionResponse encryptData(EncryptionRequest request) {
         EncryptionResponse response = new EncryptionResponse();
         
         try {
-            String encrypted = encrypt(request.getData());
+            int keyVersion = keyStore.getCurrentVersion();
+            String encrypted = encrypt(request.getData(), keyVersion);
             
             response.setEncryptedData(encrypted);
-            response.setKeyVersion(currentKeyVersion);
+            response.setKeyVersion(keyVersion);
             response.setAlgorithm(EncryptionAlgorithm.AES_256_GCM);
             response.setSuccess(true);
             response.setMessage("Data encrypted successfully");
@@ -122,7 +239,7 @@ public class EncryptionService {
     
     public String decryptData(String encryptedData, Integer keyVersion) {
         try {
-            int version = keyVersion != null ? keyVersion : currentKeyVersion;
+            int version = keyVersion != null ? keyVersion : keyStore.getCurrentVersion();
             return decrypt(encryptedData, version);
         } catch (Exception e) {
             logger.error("Decryption failed: {}", e.getMessage());
@@ -130,36 +247,19 @@ public class EncryptionService {
         }
     }
     
+    /**
+     * Create a new persistent key version. Existing values stay readable through
+     * their envelope header and are moved to the new key by {@link ReEncryptionService}.
+     */
     public Map<String, Object> rotateKeys(KeyRotationRequest request) {
         logger.info("Starting key rotation. Reason: {}", request.getReason());
         
         Map<String, Object> result = new HashMap<>();
         
         try {
-            int oldVersion = currentKeyVersion;
-            int newVersion = currentKeyVersion + 1;
-            
-            SecretKey newKey = generateKey(request.getNewAlgorithm());
-            
-            keyStore.put(newVersion, newKey);
-            
-            EncryptionKeyConfig config = new EncryptionKeyConfig();
-            config.setKeyId("key-" + newVersion);
-            config.setKeyVersion(newVersion);
-            config.setAlgorithm(request.getNewAlgorithm());
-            config.setDescription(request.getReason());
-            
-            keyConfigs.put(newVersion, config);
-            
-            if (request.getArchiveOldKeys()) {
-                EncryptionKeyConfig oldConfig = keyConfigs.get(oldVersion);
-                if (oldConfig != null) {
-                    oldConfig.setIsActive(false);
-                    oldConfig.setRotatedAt(LocalDateTime.now());
-                }
-            }
-            
-            currentKeyVersion = newVersion;
+            int oldVersion = keyStore.getCurrentVersion();
+            int newVersion = keyStore.rotate(request.getNewAlgorithm(), request.getReason(),
+                    Boolean.TRUE.equals(request.getArchiveOldKeys()));
             
             result.put("success", true);
             result.put("oldKeyVersion", oldVersion);
@@ -180,19 +280,19 @@ public class EncryptionService {
     
     public Map<String, Object> getKeyInfo() {
         Map<String, Object> info = new HashMap<>();
+        Collection<EncryptionKeyConfig> keyConfigs = keyStore.getKeyConfigs();
         
-        info.put("currentKeyVersion", currentKeyVersion);
-        info.put("totalKeys", keyStore.size());
-        info.put("activeKeys", keyConfigs.values().stream()
-                .filter(EncryptionKeyConfig::getIsActive)
+        info.put("currentKeyVersion", keyStore.getCurrentVersion());
+        info.put("totalKeys", keyStore.getKeyCount());
+        info.put("activeKeys", keyConfigs.stream()
+                .filter(config -> Boolean.TRUE.equals(config.getIsActive()))
                 .count());
         
         List<Map<String, Object>> keys = new ArrayList<>();
-        for (Map.Entry<Integer, EncryptionKeyConfig> entry : keyConfigs.entrySet()) {
+        for (EncryptionKeyConfig config : keyConfigs) {
             Map<String, Object> keyInfo = new HashMap<>();
-            EncryptionKeyConfig config = entry.getValue();
             
-            keyInfo.put("version", entry.getKey());
+            keyInfo.put("version", config.getKeyVersion());
             keyInfo.put("algorithm", config.getAlgorithm().name());
             keyInfo.put("isActive", config.getIsActive());
             keyInfo.put("createdAt", config.getCreatedAt());
@@ -206,60 +306,55 @@ public class EncryptionService {
         return info;
     }
     
+    /**
+     * Encrypt many values, in parallel chunks on the bounded batch executor once the
+     * batch is large enough to pay for the hand-off. Order is kept; failed values are dropped.
+     */
     public List<String> encryptBatch(List<String> plaintexts) {
-        return plaintexts.stream()
-                .map(plaintext -> {
-                    try {
-                        return encrypt(plaintext);
-                    } catch (Exception e) {
-                        logger.error("Batch encryption error: {}", e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .toList();
+        return transformBatch(plaintexts, this::encrypt, "encryption");
     }
     
     public List<String> decryptBatch(List<String> encryptedData) {
-        return encryptedData.stream()
-                .map(encrypted -> {
-                    try {
-                        return decrypt(encrypted);
-                    } catch (Exception e) {
-                        logger.error("Batch decryption error: {}", e.getMessage());
-                        return null;
-                    }
-                })
+        return transformBatch(encryptedData, this::decrypt, "decryption");
+    }
+    
+    private List<String> transformBatch(List<String> values, FieldTransform transform, String operation) {
+        String[] results = new String[values.size()];
+        int chunks = values.size() < PARALLEL_BATCH_THRESHOLD ? 1 : batchParallelism;
+        
+        if (chunks <= 1) {
+            transformRange(values, results, 0, values.size(), transform, operation);
+        } else {
+            int chunkSize = (values.size() + chunks - 1) / chunks;
+            List<CompletableFuture<Void>> futures = new ArrayList<>(chunks);
+            for (int from = 0; from < values.size(); from += chunkSize) {
+                int start = from;
+                int end = Math.min(from + chunkSize, values.size());
+                futures.add(CompletableFuture.runAsync(
+                        () -> transformRange(values, results, start, end, transform, operation), batchExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        
+        return Arrays.stream(results)
                 .filter(Objects::nonNull)
                 .toList();
     }
     
-    private void initializeKeys() {
-        try {
-            logger.info("Initializing encryption keys");
-            
-            SecretKey key = generateKey(EncryptionAlgorithm.AES_256_GCM);
-            keyStore.put(currentKeyVersion, key);
-            
-            EncryptionKeyConfig config = new EncryptionKeyConfig();
-            config.setKeyId("key-" + currentKeyVersion);
-            config.setKeyVersion(currentKeyVersion);
-            config.setDescription("Initial encryption key");
-            
-            keyConfigs.put(currentKeyVersion, config);
-            
-            logger.info("Encryption keys initialized. Current version: {}", currentKeyVersion);
-            
-        } catch (Exception e) {
-            logger.error("Failed to initialize encryption keys: {}", e.getMessage());
-            throw new RuntimeException("Encryption initialization failed", e);
+    private void transformRange(List<String> values, String[] results, int from, int to,
+                                FieldTransform transform, String operation) {
+        for (int i = from; i < to; i++) {
+            try {
+                results[i] = transform.apply(values.get(i));
+            } catch (Exception e) {
+                logger.error("Batch {} error: {}", operation, e.getMessage());
+            }
         }
     }
     
-    private SecretKey generateKey(EncryptionAlgorithm algorithm) throws Exception {
-        KeyGenerator keyGenerator = KeyGenerator.getInstance(AES);
-        keyGenerator.init(algorithm.getKeySize(), secureRandom);
-        return keyGenerator.generateKey();
+    @FunctionalInterface
+    private interface FieldTransform {
+        String apply(String value) throws Exception;
     }
     
     private byte[] generateIV() {
@@ -269,6 +364,6 @@ public class EncryptionService {
     }
     
     public int getCurrentKeyVersion() {
-        return currentKeyVersion;
+        return keyStore.getCurrentVersion();
     }
 }
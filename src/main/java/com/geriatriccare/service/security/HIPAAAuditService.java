@@ -79,6 +79,23 @@ public class HIPAAAuditService {
         return logEvent(event);
     }
     
+    /**
+     * PHI access recording which encrypted fields were actually decrypted (metadata "phiFields").
+     */
+    public AuditEvent logPHIAccess(UUID patientId, String patientName, String action, String resourceType,
+                                   Collection<String> phiFields) {
+        AuditEvent event = new AuditEvent();
+        event.setEventType(AuditEventType.PHI_VIEW);
+        event.setPatientId(patientId);
+        event.setPatientName(patientName);
+        event.setAction(action);
+        event.setResourceType(resourceType);
+        event.setSeverity(AuditEventSeverity.HIGH);
+        event.getMetadata().put("phiFields", String.join(",", new TreeSet<>(phiFields)));
+        
+        return logEvent(event);
+    }
+    
     public AuditEvent logSecurityEvent(AuditEventType eventType, String description, String ipAddress) {
         AuditEvent event = new AuditEvent();
         event.setEventType(eventType);
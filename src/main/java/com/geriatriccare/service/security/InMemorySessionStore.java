@@ -0,0 +1,239 @@
+package com.geriatriccare.service.security;
+
+import com.geriatriccare.dto.security.SessionStatus;
+import com.geriatriccare.dto.security.UserSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link SessionStore} for a single instance; sessions are lost on restart.
+ *
+ * Besides the sessions by id and the session ids by user, it keeps two
+ * sorted indexes: ACTIVE sessions by expiry and ended sessions by last
+ * activity. Cleanup takes the head of an index up to the cutoff, so it costs
+ * the number of sessions it touches, not the number stored. Each save,
+ * renewal and status change replaces the stored copy and its index entry
+ * within one atomic map update.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.sessions.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySessionStore implements SessionStore {
+
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final Map<UUID, UserSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> userSessions = new ConcurrentHashMap<>();
+    private final NavigableSet<IndexKey> activeByExpiry = new ConcurrentSkipListSet<>();
+    private final NavigableSet<IndexKey> endedByActivity = new ConcurrentSkipListSet<>();
+
+    @Override
+    public void save(UserSession session) {
+        UserSession stored = copy(session);
+        sessions.compute(stored.getSessionId(), (id, previous) -> {
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(stored);
+            return stored;
+        });
+        // Added inside compute so a purge emptying the same user's set cannot drop it
+        userSessions.compute(stored.getUserId(), (userId, ids) -> {
+            Set<UUID> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(stored.getSessionId());
+            return result;
+        });
+    }
+
+    @Override
+    public Optional<UserSession> findById(UUID sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId)).map(InMemorySessionStore::copy);
+    }
+
+    @Override
+    public boolean renew(UUID sessionId, LocalDateTime lastActivityAt, LocalDateTime expiresAt) {
+        return updateActive(sessionId, session -> true, session -> {
+            session.setLastActivityAt(lastActivityAt);
+            session.setExpiresAt(expiresAt);
+        });
+    }
+
+    @Override
+    public boolean revoke(UUID sessionId) {
+        return updateActive(sessionId, session -> true, session -> session.setStatus(SessionStatus.REVOKED));
+    }
+
+    @Override
+    public boolean expire(UUID sessionId, LocalDateTime now) {
+        return updateActive(sessionId, session -> session.getExpiresAt().isBefore(now),
+                session -> session.setStatus(SessionStatus.EXPIRED));
+    }
+
+    @Override
+    public List<UserSession> findByUserId(String userId) {
+        Set<UUID> ids = userSessions.getOrDefault(userId, Set.of());
+        List<UserSession> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            UserSession session = sessions.get(id);
+            if (session != null) {
+                result.add(copy(session));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<UserSession> findActive(LocalDateTime now) {
+        List<UserSession> result = new ArrayList<>();
+        for (IndexKey key : liveKeys(now)) {
+            UserSession session = sessions.get(key.id);
+            if (session != null) {
+                result.add(copy(session));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long countActive(LocalDateTime now) {
+        return liveKeys(now).size();
+    }
+
+    @Override
+    public long countActiveUsers(LocalDateTime now) {
+        Set<String> users = new HashSet<>();
+        for (IndexKey key : liveKeys(now)) {
+            UserSession session = sessions.get(key.id);
+            if (session != null) {
+                users.add(session.getUserId());
+            }
+        }
+        return users.size();
+    }
+
+    @Override
+    public List<UserSession> findExpired(LocalDateTime now, int limit) {
+        List<UserSession> result = new ArrayList<>();
+        for (IndexKey key : activeByExpiry.headSet(new IndexKey(now, MIN_ID), false)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            UserSession session = sessions.get(key.id);
+            if (session != null) {
+                result.add(copy(session));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int deleteEndedBefore(LocalDateTime cutoff) {
+        int deleted = 0;
+        IndexKey bound = new IndexKey(cutoff, MIN_ID);
+        for (IndexKey key : endedByActivity.headSet(bound, false)) {
+            UserSession[] removed = new UserSession[1];
+            sessions.computeIfPresent(key.id, (id, session) -> {
+                // Skip a session saved again since the index was read
+                if (session.getStatus() == SessionStatus.ACTIVE || !session.getLastActivityAt().isBefore(cutoff)) {
+                    return session;
+                }
+                unindex(session);
+                removed[0] = session;
+                return null;
+            });
+            if (removed[0] != null) {
+                userSessions.computeIfPresent(removed[0].getUserId(), (userId, ids) -> {
+                    ids.remove(key.id);
+                    return ids.isEmpty() ? null : ids;
+                });
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private boolean updateActive(UUID sessionId, Predicate<UserSession> condition, Consumer<UserSession> change) {
+        boolean[] updated = new boolean[1];
+        sessions.computeIfPresent(sessionId, (id, session) -> {
+            if (session.getStatus() != SessionStatus.ACTIVE || !condition.test(session)) {
+                return session;
+            }
+            UserSession next = copy(session);
+            change.accept(next);
+            unindex(session);
+            index(next);
+            updated[0] = true;
+            return next;
+        });
+        return updated[0];
+    }
+
+    private NavigableSet<IndexKey> liveKeys(LocalDateTime now) {
+        return activeByExpiry.tailSet(new IndexKey(now, MIN_ID), true);
+    }
+
+    private void index(UserSession session) {
+        if (session.getStatus() == SessionStatus.ACTIVE) {
+            activeByExpiry.add(new IndexKey(session.getExpiresAt(), session.getSessionId()));
+        } else {
+            endedByActivity.add(new IndexKey(session.getLastActivityAt(), session.getSessionId()));
+        }
+    }
+
+    private void unindex(UserSession session) {
+        if (session.getStatus() == SessionStatus.ACTIVE) {
+            activeByExpiry.remove(new IndexKey(session.getExpiresAt(), session.getSessionId()));
+        } else {
+            endedByActivity.remove(new IndexKey(session.getLastActivityAt(), session.getSessionId()));
+        }
+    }
+
+    private static UserSession copy(UserSession source) {
+        UserSession copy = new UserSession();
+        copy.setSessionId(source.getSessionId());
+        copy.setUserId(source.getUserId());
+        copy.setUsername(source.getUsername());
+        copy.setStatus(source.getStatus());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setLastActivityAt(source.getLastActivityAt());
+        copy.setExpiresAt(source.getExpiresAt());
+        copy.setIpAddress(source.getIpAddress());
+        copy.setUserAgent(source.getUserAgent());
+        copy.setDeviceType(source.getDeviceType());
+        copy.setLocation(source.getLocation());
+        copy.setRememberMe(source.getRememberMe());
+        return copy;
+    }
+
+    private static final class IndexKey implements Comparable<IndexKey> {
+        private final LocalDateTime time;
+        private final UUID id;
+
+        IndexKey(LocalDateTime time, UUID id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IndexKey other && time.equals(other.time) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, id);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.geriatriccare.service.security;
+
+import com.geriatriccare.dto.security.SessionStatus;
+import com.geriatriccare.dto.security.UserSession;
+import com.geriatriccare.entity.UserSessionRecord;
+import com.geriatriccare.repository.UserSessionRecordRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SessionStore} on the user_sessions table, shared by every instance
+ * and kept across restarts. The (status, expires_at) and
+ * (status, last_activity_at) indexes let cleanup read only the sessions it
+ * expires or purges. Renewals and status changes are single conditional
+ * UPDATEs on the row.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.sessions.store", havingValue = "jpa")
+public class JpaSessionStore implements SessionStore {
+
+    private static final int MAX_USER_AGENT_LENGTH = 500;
+
+    private final UserSessionRecordRepository repository;
+
+    public JpaSessionStore(UserSessionRecordRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional
+    public void save(UserSession session) {
+        repository.save(toRecord(session));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserSession> findById(UUID sessionId) {
+        return repository.findById(sessionId).map(JpaSessionStore::toSession);
+    }
+
+    @Override
+    @Transactional
+    public boolean renew(UUID sessionId, LocalDateTime lastActivityAt, LocalDateTime expiresAt) {
+        return repository.renewIfActive(sessionId, SessionStatus.ACTIVE, lastActivityAt, expiresAt) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(UUID sessionId) {
+        return repository.endIfActive(sessionId, SessionStatus.ACTIVE, SessionStatus.REVOKED) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean expire(UUID sessionId, LocalDateTime now) {
+        return repository.endIfExpired(sessionId, SessionStatus.ACTIVE, SessionStatus.EXPIRED, now) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSession> findByUserId(String userId) {
+        return toSessions(repository.findByUserId(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSession> findActive(LocalDateTime now) {
+        return toSessions(repository.findByStatusAndExpiresAtGreaterThanEqual(SessionStatus.ACTIVE, now));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countActive(LocalDateTime now) {
+        return repository.countByStatusAndExpiresAtGreaterThanEqual(SessionStatus.ACTIVE, now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countActiveUsers(LocalDateTime now) {
+        return repository.countUsersByStatusAndExpiresAtGreaterThanEqual(SessionStatus.ACTIVE, now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSession> findExpired(LocalDateTime now, int limit) {
+        return toSessions(repository.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+                SessionStatus.ACTIVE, now, PageRequest.of(0, limit)));
+    }
+
+    @Override
+    @Transactional
+    public int deleteEndedBefore(LocalDateTime cutoff) {
+        return repository.deleteEndedBefore(SessionStatus.ACTIVE, cutoff);
+    }
+
+    private static List<UserSession> toSessions(List<UserSessionRecord> records) {
+        return records.stream().map(JpaSessionStore::toSession).collect(Collectors.toList());
+    }
+
+    private static UserSessionRecord toRecord(UserSession session) {
+        UserSessionRecord record = new UserSessionRecord();
+        record.setSessionId(session.getSessionId());
+        record.setUserId(session.getUserId());
+        record.setUsername(session.getUsername());
+        record.setStatus(session.getStatus());
+        record.setCreatedAt(session.getCreatedAt());
+        record.setLastActivityAt(session.getLastActivityAt());
+        record.setExpiresAt(session.getExpiresAt());
+        record.setIpAddress(session.getIpAddress());
+        record.setUserAgent(truncate(session.getUserAgent(), MAX_USER_AGENT_LENGTH));
+        record.setDeviceType(session.getDeviceType());
+        record.setLocation(session.getLocation());
+        record.setRememberMe(Boolean.TRUE.equals(session.getRememberMe()));
+        return record;
+    }
+
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+
+    private static UserSession toSession(UserSessionRecord record) {
+        UserSession session = new UserSession();
+        session.setSessionId(record.getSessionId());
+        session.setUserId(record.getUserId());
+        session.setUsername(record.getUsername());
+        session.setStatus(record.getStatus());
+        session.setCreatedAt(record.getCreatedAt());
+        session.setLastActivityAt(record.getLastActivityAt());
+        session.setExpiresAt(record.getExpiresAt());
+        session.setIpAddress(record.getIpAddress());
+        session.setUserAgent(record.getUserAgent());
+        session.setDeviceType(record.getDeviceType());
+        session.setLocation(record.getLocation());
+        session.setRememberMe(record.isRememberMe());
+        return session;
+    }
+}
@@ -1,17 +1,42 @@
 package com.geriatriccare.service.security;
 
 import com.geriatriccare.dto.security.*;
+import com.geriatriccare.entity.UserMfaConfig;
+import com.geriatriccare.repository.UserMfaConfigRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
+/**
+ * MFA enrollment and verification.
+ *
+ * Enrollments are persisted in user_mfa_configs. SMS and email codes live
+ * in a bounded cache that drops each one {@value #CODE_VALIDITY_MINUTES}
+ * minutes after it was sent, with no scan of other users' codes; TOTP codes
+ * are checked by {@link TotpVerifier}, and backup codes against their stored
+ * HMAC hashes (keyed by {@link BlindIndexService}, so a copy of the table
+ * cannot be brute-forced); a code is consumed with a conditional update, so
+ * concurrent verifications cannot both use it. Failed TOTP and backup code
+ * attempts are counted in the same kind of cache, so every method allows
+ * {@value #MAX_ATTEMPTS} attempts per {@value #CODE_VALIDITY_MINUTES} minutes.
+ */
 @Service
 public class MFAService {
     
@@ -19,12 +44,36 @@ public class MFAService {
     private static final int CODE_LENGTH = 6;
     private static final int CODE_VALIDITY_MINUTES = 5;
     private static final int MAX_ATTEMPTS = 3;
+    private static final int BACKUP_CODE_COUNT = 10;
     
-    // In-memory storage (use database in production)
-    private final Map<String, MFASession> sessions = new ConcurrentHashMap<>();
-    private final Map<String, UserMFAConfig> userConfigs = new ConcurrentHashMap<>();
+    private final UserMfaConfigRepository configRepository;
+    private final TotpVerifier totpVerifier;
+    private final BlindIndexService blindIndex;
     private final SecureRandom random = new SecureRandom();
     
+    // User -> pending SMS/email code
+    private final Cache<String, MFASession> sessions;
+    
+    // User -> TOTP/backup code attempts since the last success
+    private final Cache<String, AtomicInteger> failedAttempts;
+    
+    public MFAService(UserMfaConfigRepository configRepository, TotpVerifier totpVerifier,
+                      BlindIndexService blindIndex,
+                      @Value("${app.security.mfa.max-pending-challenges:10000}") long maxPendingChallenges) {
+        this.configRepository = configRepository;
+        this.totpVerifier = totpVerifier;
+        this.blindIndex = blindIndex;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxPendingChallenges)
+                .expireAfterWrite(Duration.ofMinutes(CODE_VALIDITY_MINUTES))
+                .build();
+        this.failedAttempts = Caffeine.newBuilder()
+                .maximumSize(maxPendingChallenges)
+                .expireAfterWrite(Duration.ofMinutes(CODE_VALIDITY_MINUTES))
+                .build();
+    }
+    
+    @Transactional
     public MFASetupResponse setupMFA(MFASetupRequest request) {
         String userId = getCurrentUserId();
         log.info("Setting up MFA for user: {} with method: {}", userId, request.getMethod());
@@ -34,7 +83,7 @@ public class MFAService {
         
         switch (request.getMethod()) {
             case TOTP:
-                String secret = generateSecret();
+                String secret = totpVerifier.generateSecret();
                 response.setSecretKey(secret);
                 response.setQrCodeUrl(generateQRCodeUrl(userId, secret));
                 response.setMessage("Scan QR code with authenticator app");
@@ -55,24 +104,28 @@ public class MFAService {
                 break;
                 
             case BACKUP_CODES:
-                List<String> backupCodes = generateBackupCodes(10);
+                List<String> backupCodes = generateBackupCodes(BACKUP_CODE_COUNT);
                 response.setBackupCodes(backupCodes);
                 response.setMessage("Save these backup codes securely");
                 break;
         }
         
-        // Store config
-        UserMFAConfig config = new UserMFAConfig();
+        // Store config, replacing any earlier enrollment
+        UserMfaConfig config = configRepository.findByUserId(userId).orElseGet(UserMfaConfig::new);
         config.setUserId(userId);
         config.setMethod(request.getMethod());
         config.setStatus(MFAStatus.PENDING_SETUP);
         config.setSetupDate(LocalDateTime.now());
+        config.setLastVerified(null);
         config.setPhoneNumber(request.getPhoneNumber());
         config.setEmail(request.getEmail());
         config.setSecretKey(response.getSecretKey());
-        config.setBackupCodes(response.getBackupCodes());
+        config.setBackupCodeHashes(response.getBackupCodes() != null
+                ? response.getBackupCodes().stream().map(code -> hash(userId, code)).collect(Collectors.joining(","))
+                : null);
         
-        userConfigs.put(userId, config);
+        configRepository.save(config);
+        sessions.invalidate(userId);
         
         log.info("MFA setup initiated for user: {}", userId);
         return response;
@@ -80,12 +133,21 @@ public class MFAService {
     
     public MFAVerificationResponse sendVerificationCode() {
         String userId = getCurrentUserId();
-        UserMFAConfig config = userConfigs.get(userId);
+        UserMfaConfig config = configRepository.findByUserId(userId).orElse(null);
         
         if (config == null) {
             return new MFAVerificationResponse(false, "MFA not configured");
         }
         
+        switch (config.getMethod()) {
+            case TOTP:
+                return new MFAVerificationResponse(true, "Enter the code shown in your authenticator app");
+            case BACKUP_CODES:
+                return new MFAVerificationResponse(true, "Enter one of your backup codes");
+            default:
+                break;
+        }
+        
         String code = generateCode();
         
         MFASession session = new MFASession();
@@ -93,9 +155,8 @@ public class MFAService {
         session.setCode(code);
         session.setMethod(config.getMethod());
         session.setCreatedAt(LocalDateTime.now());
-        session.setExpiresAt(LocalDateTime.now().plusMinutes(CODE_VALIDITY_MINUTES));
-        session.setAttempts(0);
         
+        // Replaces any earlier code, and restarts the validity period
         sessions.put(userId, session);
         
         // Simulate sending code (in production: integrate with SMS/Email service)
@@ -106,89 +167,144 @@ public class MFAService {
             "Verification code sent via " + config.getMethod().getDisplayName());
     }
     
+    @Transactional
     public MFAVerificationResponse verifyCode(MFAVerificationRequest request) {
         String userId = getCurrentUserId();
-        MFASession session = sessions.get(userId);
+        UserMfaConfig config = configRepository.findByUserId(userId).orElse(null);
         
-        if (session == null) {
-            return new MFAVerificationResponse(false, "No active MFA session");
-        }
-        
-        if (LocalDateTime.now().isAfter(session.getExpiresAt())) {
-            sessions.remove(userId);
-            return new MFAVerificationResponse(false, "Code expired");
-        }
-        
-        session.setAttempts(session.getAttempts() + 1);
-        
-        if (session.getAttempts() > MAX_ATTEMPTS) {
-            sessions.remove(userId);
-            return new MFAVerificationResponse(false, "Maximum attempts exceeded");
+        if (config == null) {
+            return new MFAVerificationResponse(false, "MFA not configured");
         }
         
-        if (session.getCode().equals(request.getCode())) {
-            sessions.remove(userId);
-            
-            // Update config to enabled
-            UserMFAConfig config = userConfigs.get(userId);
-            if (config != null) {
-                config.setStatus(MFAStatus.ENABLED);
-                config.setLastVerified(LocalDateTime.now());
-            }
-            
-            log.info("MFA verification successful for user: {}", userId);
-            
-            MFAVerificationResponse response = new MFAVerificationResponse(true, "Verification successful");
-            // In production: generate new JWT token here
-            response.setToken("jwt-token-placeholder");
-            return response;
+        switch (config.getMethod()) {
+            case TOTP:
+                return verifyWithoutChallenge(config,
+                        () -> totpVerifier.verify(userId, config.getSecretKey(), request.getCode()));
+            case BACKUP_CODES:
+                return verifyWithoutChallenge(config, () -> consumeBackupCode(config, request.getCode()));
+            default:
+                return verifyChallenge(config, request.getCode());
         }
-        
-        MFAVerificationResponse response = new MFAVerificationResponse(false, "Invalid code");
-        response.setRemainingAttempts(MAX_ATTEMPTS - session.getAttempts());
-        return response;
     }
     
+    @Transactional
     public void enableMFA(String userId) {
         log.info("Enabling MFA for user: {}", userId);
-        UserMFAConfig config = userConfigs.get(userId);
-        if (config != null) {
+        configRepository.findByUserId(userId).ifPresent(config -> {
             config.setStatus(MFAStatus.ENABLED);
-        }
+            configRepository.save(config);
+        });
     }
     
+    @Transactional
     public void disableMFA(String userId) {
         log.info("Disabling MFA for user: {}", userId);
-        UserMFAConfig config = userConfigs.get(userId);
-        if (config != null) {
+        configRepository.findByUserId(userId).ifPresent(config -> {
             config.setStatus(MFAStatus.DISABLED);
-        }
+            configRepository.save(config);
+        });
+        sessions.invalidate(userId);
     }
     
     public MFAStatus getMFAStatus(String userId) {
-        UserMFAConfig config = userConfigs.get(userId);
-        return config != null ? config.getStatus() : MFAStatus.DISABLED;
+        return configRepository.findByUserId(userId)
+                .map(UserMfaConfig::getStatus)
+                .orElse(MFAStatus.DISABLED);
     }
     
     public Boolean isMFAEnabled(String userId) {
         return getMFAStatus(userId) == MFAStatus.ENABLED;
     }
     
-    // Helper methods
-    private String generateCode() {
-        return String.format("%06d", random.nextInt(1000000));
+    private MFAVerificationResponse verifyChallenge(UserMfaConfig config, String code) {
+        String userId = config.getUserId();
+        MFASession session = sessions.getIfPresent(userId);
+        
+        if (session == null) {
+            // Never sent, already used, or expired and evicted
+            return new MFAVerificationResponse(false, "No active MFA session");
+        }
+        
+        int attempts = session.attempts.incrementAndGet();
+        
+        if (attempts > MAX_ATTEMPTS) {
+            sessions.asMap().remove(userId, session);
+            return new MFAVerificationResponse(false, "Maximum attempts exceeded");
+        }
+        
+        boolean matches = code != null && MessageDigest.isEqual(
+                session.getCode().getBytes(StandardCharsets.US_ASCII), code.getBytes(StandardCharsets.US_ASCII));
+        
+        // Removing the session makes a code single use, even when verified twice at once
+        if (matches && sessions.asMap().remove(userId, session)) {
+            return verified(config);
+        }
+        
+        MFAVerificationResponse response = new MFAVerificationResponse(false, "Invalid code");
+        response.setRemainingAttempts(Math.max(0, MAX_ATTEMPTS - attempts));
+        return response;
+    }
+    
+    private MFAVerificationResponse verifyWithoutChallenge(UserMfaConfig config, BooleanSupplier check) {
+        String userId = config.getUserId();
+        // Claimed before checking, so concurrent guesses cannot all pass the limit
+        int attempts = failedAttempts.get(userId, id -> new AtomicInteger()).incrementAndGet();
+        
+        if (attempts > MAX_ATTEMPTS) {
+            return new MFAVerificationResponse(false, "Maximum attempts exceeded");
+        }
+        
+        if (check.getAsBoolean()) {
+            failedAttempts.invalidate(userId);
+            return verified(config);
+        }
+        
+        MFAVerificationResponse response = new MFAVerificationResponse(false, "Invalid code");
+        response.setRemainingAttempts(Math.max(0, MAX_ATTEMPTS - attempts));
+        return response;
+    }
+    
+    private boolean consumeBackupCode(UserMfaConfig config, String code) {
+        String stored = config.getBackupCodeHashes();
+        if (code == null || stored == null) {
+            return false;
+        }
+        List<String> hashes = new ArrayList<>(Arrays.asList(stored.split(",")));
+        if (!hashes.remove(hash(config.getUserId(), code))) {
+            return false;
+        }
+        String remaining = String.join(",", hashes);
+        if (configRepository.replaceBackupCodeHashes(config.getId(), stored, remaining) == 0) {
+            log.warn("Backup code for user {} was consumed concurrently", config.getUserId());
+            return false;
+        }
+        config.setBackupCodeHashes(remaining);
+        return true;
     }
     
-    private String generateSecret() {
-        byte[] bytes = new byte[20];
-        random.nextBytes(bytes);
-        return Base64.getEncoder().encodeToString(bytes);
+    private MFAVerificationResponse verified(UserMfaConfig config) {
+        // Update config to enabled
+        config.setStatus(MFAStatus.ENABLED);
+        config.setLastVerified(LocalDateTime.now());
+        configRepository.save(config);
+        
+        log.info("MFA verification successful for user: {}", config.getUserId());
+        
+        MFAVerificationResponse response = new MFAVerificationResponse(true, "Verification successful");
+        // In production: generate new JWT token here
+        response.setToken("jwt-token-placeholder");
+        return response;
+    }
+    
+    // Helper methods
+    private String generateCode() {
+        return String.format("%0" + CODE_LENGTH + "d", random.nextInt(1000000));
     }
     
     private String generateQRCodeUrl(String userId, String secret) {
         String issuer = "GeriatricCare";
         return String.format("otpauth://totp/%s:%s?secret=%s&issuer=%s", 
-                           issuer, userId, secret, issuer);
+                           issuer, URLEncoder.encode(userId, StandardCharsets.UTF_8), secret, issuer);
     }
     
     private List<String> generateBackupCodes(int count) {
@@ -199,6 +315,10 @@ public class MFAService {
         return codes;
     }
     
+    private String hash(String userId, String code) {
+        return blindIndex.keyedHash("mfa-backup-code:" + userId, code);
+    }
+    
     private String maskPhone(String phone) {
         if (phone == null || phone.length() < 4) return phone;
         return "***-***-" + phone.substring(phone.length() - 4);
@@ -218,14 +338,13 @@ public class MFAService {
         return "unknown";
     }
     
-    // Inner classes for storage
+    // Pending SMS/email code; expiry is the cache's
     private static class MFASession {
         private String userId;
         private String code;
         private MFAMethod method;
         private LocalDateTime createdAt;
-        private LocalDateTime expiresAt;
-        private Integer attempts;
+        private final AtomicInteger attempts = new AtomicInteger();
         
         // Getters and Setters
         public String getUserId() { return userId; }
@@ -236,41 +355,5 @@ public class MFAService {
         public void setMethod(MFAMethod method) { this.method = method; }
         public LocalDateTime getCreatedAt() { return createdAt; }
         public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-        public LocalDateTime getExpiresAt() { return expiresAt; }
-        public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
-        public Integer getAttempts() { return attempts; }
-        public void setAttempts(Integer attempts) { this.attempts = attempts; }
-    }
-    
-    private static class UserMFAConfig {
-        private String userId;
-        private MFAMethod method;
-        private MFAStatus status;
-        private String phoneNumber;
-        private String email;
-        private String secretKey;
-        private List<String> backupCodes;
-        private LocalDateTime setupDate;
-        private LocalDateTime lastVerified;
-        
-        // Getters and Setters
-        public String getUserId() { return userId; }
-        public void setUserId(String userId) { this.userId = userId; }
-        public MFAMethod getMethod() { return method; }
-        public void setMethod(MFAMethod method) { this.method = method; }
-        public MFAStatus getStatus() { return status; }
-        public void setStatus(MFAStatus status) { this.status = status; }
-        public String getPhoneNumber() { return phoneNumber; }
-        public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
-        public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
-        public String getSecretKey() { return secretKey; }
-        public void setSecretKey(String secretKey) { this.secretKey = secretKey; }
-        public List<String> getBackupCodes() { return backupCodes; }
-        public void setBackupCodes(List<String> backupCodes) { this.backupCodes = backupCodes; }
-        public LocalDateTime getSetupDate() { return setupDate; }
-        public void setSetupDate(LocalDateTime setupDate) { this.setupDate = setupDate; }
-        public LocalDateTime getLastVerified() { return lastVerified; }
-        public void setLastVerified(LocalDateTime lastVerified) { this.lastVerified = lastVerified; }
     }
 }
@@ -0,0 +1,118 @@
+package com.geriatriccare.service.security;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The application's {@link PasswordEncoder}: Argon2id for new hashes, with
+ * every hash computed on the bounded password hash executor.
+ *
+ * Stored hashes carry an {@code {id}} prefix. Hashes without one are the
+ * bcrypt hashes written before Argon2id and still verify; login rehashes
+ * them (see {@code CustomUserDetailsService.updatePassword}), as it does
+ * Argon2id hashes made with weaker parameters than the configured ones.
+ *
+ * The request thread waits for its hash, but the number of hashes running at
+ * once is the pool size, so a login storm queues instead of taking every core
+ * from clinical requests.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final String ARGON2 = "argon2";
+    private static final String BCRYPT = "bcrypt";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final PasswordEncoder delegate;
+    private final Executor hashExecutor;
+
+    /**
+     * @param memoryKib Argon2id memory cost; the defaults are the OWASP
+     *                  minimum of 19 MiB, 2 iterations, 1 lane
+     */
+    public PasswordHashingService(@Qualifier("passwordHashExecutor") Executor hashExecutor,
+                                  @Value("${app.security.password.argon2.memory-kib:19456}") int memoryKib,
+                                  @Value("${app.security.password.argon2.iterations:2}") int iterations,
+                                  @Value("${app.security.password.argon2.parallelism:1}") int parallelism) {
+        this.hashExecutor = hashExecutor;
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ARGON2, Map.of(
+                ARGON2, new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, parallelism, memoryKib, iterations),
+                BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        this.delegate = encoder;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return onHashExecutor(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return onHashExecutor(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True if the hash is legacy bcrypt or Argon2id with other parameters.
+     * Reads the hash prefix only; no hashing.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * True if {@code rawPassword} matches any of {@code encodedPasswords}.
+     * The hashes are checked in parallel on the hash executor, and checks not
+     * yet started are skipped once one matches.
+     */
+    public boolean matchesAny(CharSequence rawPassword, Collection<String> encodedPasswords) {
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>(encodedPasswords.size());
+        try {
+            for (String encoded : encodedPasswords) {
+                checks.add(CompletableFuture.supplyAsync(() -> delegate.matches(rawPassword, encoded), hashExecutor));
+            }
+            for (CompletableFuture<Boolean> check : checks) {
+                if (check.join()) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        } finally {
+            // A cancelled check that has not started never runs
+            checks.forEach(check -> check.cancel(false));
+        }
+    }
+
+    private <T> T onHashExecutor(Supplier<T> hash) {
+        try {
+            return CompletableFuture.supplyAsync(hash, hashExecutor).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+}
@@ -8,7 +8,6 @@ import com.geriatriccare.exception.InvalidPasswordException;
 import com.geriatriccare.repository.PasswordHistoryRepository;
 import com.geriatriccare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class PasswordPolicyService {
@@ -41,7 +41,7 @@ public class PasswordPolicyService {
 
     @Autowired private PasswordHistoryRepository passwordHistoryRepository;
     @Autowired private UserRepository userRepository;
-    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private PasswordHashingService passwordEncoder;
 
     // New simplified method for basic validation
     public void validatePassword(String password, String username) {
@@ -85,13 +85,11 @@ public class PasswordPolicyService {
 
     public boolean isPasswordInHistory(UUID userId, String newPassword) {
         List<PasswordHistory> history = passwordHistoryRepository.findByUserIdOrderByChangedAtDesc(userId);
-        int checkCount = Math.min(PASSWORD_HISTORY_SIZE, history.size());
-        for (int i = 0; i < checkCount; i++) {
-            if (passwordEncoder.matches(newPassword, history.get(i).getPasswordHash())) {
-                return true;
-            }
-        }
-        return false;
+        List<String> hashes = history.subList(0, Math.min(PASSWORD_HISTORY_SIZE, history.size())).stream()
+            .map(PasswordHistory::getPasswordHash)
+            .collect(Collectors.toList());
+        // One hash verification each; run side by side instead of one after another
+        return passwordEncoder.matchesAny(newPassword, hashes);
     }
 
     @Transactional
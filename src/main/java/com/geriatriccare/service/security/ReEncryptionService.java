@@ -0,0 +1,227 @@
+package com.geriatriccare.service.security;
+
+import com.geriatriccare.entity.ReEncryptionCheckpoint;
+import com.geriatriccare.repository.ReEncryptionCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Background re-encryption of encrypted columns after a key rotation.
+ *
+ * Each run walks every registered {@link EncryptedColumn} in keyset-paginated
+ * batches ({@code id > lastId ORDER BY id}), rewriting only values whose
+ * envelope names an older key. Plaintext left from before a column was
+ * encrypted is encrypted on the same walk, which doubles as the backfill for
+ * legacy rows. Updates are compare-and-set on the old
+ * ciphertext, so a concurrent application write is never overwritten. Progress
+ * is checkpointed after every batch, batches are separated by a pause and each
+ * run is capped, which keeps the extra database load flat and lets the job
+ * resume where it stopped after a restart.
+ */
+@Service
+public class ReEncryptionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReEncryptionService.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EncryptionService encryptionService;
+    private final EncryptionKeyStore keyStore;
+    private final ReEncryptionCheckpointRepository checkpointRepository;
+    private final ObjectProvider<EncryptedColumn> columns;
+    
+    @Value("${app.encryption.reencrypt.batch-size:200}")
+    private int batchSize = 200;
+    
+    @Value("${app.encryption.reencrypt.batch-pause-ms:250}")
+    private long batchPauseMs = 250;
+    
+    @Value("${app.encryption.reencrypt.max-batches-per-run:50}")
+    private int maxBatchesPerRun = 50;
+    
+    public ReEncryptionService(JdbcTemplate jdbcTemplate,
+                               EncryptionService encryptionService,
+                               EncryptionKeyStore keyStore,
+                               ReEncryptionCheckpointRepository checkpointRepository,
+                               ObjectProvider<EncryptedColumn> columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.encryptionService = encryptionService;
+        this.keyStore = keyStore;
+        this.checkpointRepository = checkpointRepository;
+        this.columns = columns;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.encryption.reencrypt.interval-ms:60000}",
+               initialDelayString = "${app.encryption.reencrypt.interval-ms:60000}")
+    public void reEncryptPending() {
+        List<EncryptedColumn> registered = columns.orderedStream().toList();
+        if (registered.isEmpty()) {
+            return;
+        }
+        
+        // Pick up rotations done on other instances
+        keyStore.refresh();
+        int targetVersion = keyStore.getCurrentVersion();
+        
+        int batchBudget = maxBatchesPerRun;
+        for (EncryptedColumn column : registered) {
+            if (batchBudget <= 0) {
+                break;
+            }
+            batchBudget -= reEncryptColumn(column, targetVersion, batchBudget);
+        }
+    }
+    
+    /**
+     * Re-encrypt up to {@code maxBatches} batches of one column.
+     *
+     * @return The number of batches processed
+     */
+    int reEncryptColumn(EncryptedColumn column, int targetVersion, int maxBatches) {
+        ReEncryptionCheckpoint checkpoint = checkpointFor(column, targetVersion);
+        if (checkpoint.getCompletedAt() != null) {
+            return 0;
+        }
+        
+        String selectFirst = "SELECT " + column.getIdColumn() + ", " + column.getColumn()
+                + " FROM " + column.getTable()
+                + " WHERE " + column.getColumn() + " IS NOT NULL"
+                + " ORDER BY " + column.getIdColumn() + " LIMIT ?";
+        String selectNext = "SELECT " + column.getIdColumn() + ", " + column.getColumn()
+                + " FROM " + column.getTable()
+                + " WHERE " + column.getColumn() + " IS NOT NULL AND " + column.getIdColumn() + " > ?"
+                + " ORDER BY " + column.getIdColumn() + " LIMIT ?";
+        String update = "UPDATE " + column.getTable() + " SET " + column.getColumn() + " = ?"
+                + " WHERE " + column.getIdColumn() + " = ? AND " + column.getColumn() + " = ?";
+        
+        int batches = 0;
+        while (batches < maxBatches) {
+            List<Map<String, Object>> rows = checkpoint.getLastId() == null
+                    ? jdbcTemplate.queryForList(selectFirst, batchSize)
+                    : jdbcTemplate.queryForList(selectNext, UUID.fromString(checkpoint.getLastId()), batchSize);
+            batches++;
+            
+            int reEncrypted = 0;
+            for (Map<String, Object> row : rows) {
+                Object id = row.get(column.getIdColumn());
+                String ciphertext = (String) row.get(column.getColumn());
+                if (encryptionService.keyVersionOf(ciphertext) != targetVersion
+                        && reEncryptValue(column, update, id, ciphertext, targetVersion)) {
+                    reEncrypted++;
+                }
+            }
+            
+            checkpoint.setRowsScanned(checkpoint.getRowsScanned() + rows.size());
+            checkpoint.setRowsReEncrypted(checkpoint.getRowsReEncrypted() + reEncrypted);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            if (!rows.isEmpty()) {
+                checkpoint.setLastId(rows.get(rows.size() - 1).get(column.getIdColumn()).toString());
+            }
+            if (rows.size() < batchSize) {
+                checkpoint.setCompletedAt(LocalDateTime.now());
+            }
+            checkpoint = checkpointRepository.save(checkpoint);
+            
+            if (checkpoint.getCompletedAt() != null) {
+                logger.info("Re-encryption of {} to key v{} complete: {} of {} row(s) rewritten",
+                        column, targetVersion, checkpoint.getRowsReEncrypted(), checkpoint.getRowsScanned());
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return batches;
+    }
+    
+    private boolean reEncryptValue(EncryptedColumn column, String update, Object id,
+                                   String ciphertext, int targetVersion) {
+        String plaintext;
+        try {
+            plaintext = encryptionService.decrypt(ciphertext);
+        } catch (Exception e) {
+            if (encryptionService.isCiphertext(ciphertext)) {
+                logger.error("Cannot re-encrypt {} row {}: {}", column, id, e.getMessage());
+                return false;
+            }
+            // Legacy plaintext written before the column was encrypted
+            plaintext = ciphertext;
+            logger.info("Encrypting legacy plaintext in {} row {}", column, id);
+        }
+        try {
+            String reEncrypted = encryptionService.encrypt(plaintext, targetVersion);
+            // Compare-and-set: skipped if the application changed the value meanwhile
+            return jdbcTemplate.update(update, reEncrypted, id, ciphertext) == 1;
+        } catch (Exception e) {
+            logger.error("Cannot re-encrypt {} row {}: {}", column, id, e.getMessage());
+            return false;
+        }
+    }
+    
+    private ReEncryptionCheckpoint checkpointFor(EncryptedColumn column, int targetVersion) {
+        ReEncryptionCheckpoint checkpoint = checkpointRepository.findById(column.getKey())
+                .orElseGet(ReEncryptionCheckpoint::new);
+        
+        if (!Integer.valueOf(targetVersion).equals(checkpoint.getTargetKeyVersion())) {
+            // New rotation: start the column over
+            checkpoint.setColumnKey(column.getKey());
+            checkpoint.setTargetKeyVersion(targetVersion);
+            checkpoint.setLastId(null);
+            checkpoint.setRowsScanned(0);
+            checkpoint.setRowsReEncrypted(0);
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setCompletedAt(null);
+        }
+        return checkpoint;
+    }
+    
+    private boolean pause() {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Progress per registered column for the current key version.
+     */
+    public Map<String, Object> getStatus() {
+        int currentVersion = keyStore.getCurrentVersion();
+        Map<String, ReEncryptionCheckpoint> checkpoints = new HashMap<>();
+        checkpointRepository.findAll().forEach(c -> checkpoints.put(c.getColumnKey(), c));
+        
+        List<Map<String, Object>> columnStatus = new ArrayList<>();
+        for (EncryptedColumn column : columns.orderedStream().toList()) {
+            ReEncryptionCheckpoint checkpoint = checkpoints.get(column.getKey());
+            boolean current = checkpoint != null && Integer.valueOf(currentVersion).equals(checkpoint.getTargetKeyVersion());
+            
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("column", column.getKey());
+            status.put("targetKeyVersion", currentVersion);
+            status.put("completed", current && checkpoint.getCompletedAt() != null);
+            status.put("rowsScanned", current ? checkpoint.getRowsScanned() : 0);
+            status.put("rowsReEncrypted", current ? checkpoint.getRowsReEncrypted() : 0);
+            status.put("startedAt", current ? checkpoint.getStartedAt() : null);
+            status.put("updatedAt", current ? checkpoint.getUpdatedAt() : null);
+            columnStatus.add(status);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("currentKeyVersion", currentVersion);
+        result.put("columns", columnStatus);
+        return result;
+    }
+}
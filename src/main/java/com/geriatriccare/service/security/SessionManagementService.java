@@ -11,43 +11,49 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
+/**
+ * Login sessions on a pluggable {@link SessionStore}.
+ *
+ * Creating a session and enforcing the per-user limit run under a lock for
+ * the user, so concurrent logins cannot both pass the limit check on this
+ * instance. Renewal, revocation and expiry are conditional updates in the
+ * store, so a session ended on any instance stays ended. The counters in {@link SessionStatistics} are kept by this
+ * instance; active session and user counts come from the store.
+ */
 @Service
 public class SessionManagementService {
     
     private static final Logger log = LoggerFactory.getLogger(SessionManagementService.class);
     
+    private static final int CLEANUP_BATCH_SIZE = 500;
+    private static final int ENDED_RETENTION_DAYS = 7;
+    private static final int USER_LOCK_STRIPES = 64;
+    
     private final SessionConfiguration config = new SessionConfiguration();
-    private final Map<UUID, UserSession> sessions = new ConcurrentHashMap<>();
-    private final Map<String, List<UUID>> userSessions = new ConcurrentHashMap<>();
+    private final SessionStore store;
+    private final Object[] userLocks = new Object[USER_LOCK_STRIPES];
+    
+    private final LongAdder expiredToday = new LongAdder();
+    private final LongAdder revokedToday = new LongAdder();
+    private final LongAdder endedSessions = new LongAdder();
+    private final LongAdder endedSessionMinutes = new LongAdder();
+    private final AtomicLong peakConcurrent = new AtomicLong();
     
-    private int expiredToday = 0;
-    private int revokedToday = 0;
-    private int peakConcurrent = 0;
+    public SessionManagementService(SessionStore store) {
+        this.store = store;
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new Object();
+        }
+    }
     
     public UserSession createSession(String userId, String username, String ipAddress, 
                                      String userAgent, Boolean rememberMe) {
         log.info("Creating session for user: {}", userId);
         
-        // Check concurrent session limit
-        List<UUID> existingSessions = userSessions.getOrDefault(userId, new ArrayList<>());
-        List<UUID> activeSessions = existingSessions.stream()
-                .filter(sessionId -> {
-                    UserSession session = sessions.get(sessionId);
-                    return session != null && session.getStatus() == SessionStatus.ACTIVE;
-                })
-                .collect(Collectors.toList());
-        
-        // Remove oldest session if at limit
-        if (activeSessions.size() >= config.getMaxConcurrentSessions()) {
-            UUID oldestSessionId = activeSessions.get(0);
-            log.info("Max concurrent sessions reached for user: {}. Revoking oldest session.", userId);
-            revokeSession(oldestSessionId);
-        }
-        
-        // Create new session
         UserSession session = new UserSession();
         session.setUserId(userId);
         session.setUsername(username);
@@ -55,67 +61,56 @@ public class SessionManagementService {
         session.setUserAgent(userAgent);
         session.setDeviceType(detectDeviceType(userAgent));
         session.setRememberMe(rememberMe != null ? rememberMe : false);
-        
-        // Set expiration
-        int timeoutMinutes = session.getRememberMe() ? 
-                (config.getRememberMeDays() * 24 * 60) : config.getTimeoutMinutes();
-        session.setExpiresAt(LocalDateTime.now().plusMinutes(timeoutMinutes));
-        
-        // Store session
-        sessions.put(session.getSessionId(), session);
-        
-        // Update user sessions list
-        existingSessions.add(session.getSessionId());
-        userSessions.put(userId, existingSessions);
-        
-        // Update peak
-        int currentActive = getActiveSessionCount();
-        if (currentActive > peakConcurrent) {
-            peakConcurrent = currentActive;
+        session.setExpiresAt(LocalDateTime.now().plusMinutes(timeoutMinutes(session)));
+        
+        synchronized (lockFor(userId)) {
+            // Revoke the oldest sessions until the new one fits the limit
+            List<UserSession> activeSessions = getActiveSessions(userId);
+            activeSessions.sort(Comparator.comparing(UserSession::getCreatedAt));
+            int excess = activeSessions.size() - config.getMaxConcurrentSessions() + 1;
+            if (excess > 0) {
+                log.info("Max concurrent sessions reached for user: {}. Revoking {} oldest session(s).",
+                         userId, excess);
+                activeSessions.subList(0, excess).forEach(this::revoke);
+            }
+            
+            store.save(session);
         }
         
+        peakConcurrent.accumulateAndGet(store.countActive(LocalDateTime.now()), Math::max);
+        
         log.info("Session created: {} for user: {}", session.getSessionId(), userId);
         return session;
     }
     
     public boolean renewSession(UUID sessionId) {
-        UserSession session = sessions.get(sessionId);
+        UserSession session = store.findById(sessionId).orElse(null);
         
         if (session == null) {
             log.warn("Session not found: {}", sessionId);
             return false;
         }
         
-        if (session.getStatus() != SessionStatus.ACTIVE) {
+        // Update activity and expiration, only if it was not revoked or expired meanwhile
+        LocalDateTime now = LocalDateTime.now();
+        if (!store.renew(sessionId, now, now.plusMinutes(timeoutMinutes(session)))) {
             log.warn("Cannot renew non-active session: {}", sessionId);
             return false;
         }
         
-        // Update activity and expiration
-        session.setLastActivityAt(LocalDateTime.now());
-        
-        int timeoutMinutes = session.getRememberMe() ? 
-                (config.getRememberMeDays() * 24 * 60) : config.getTimeoutMinutes();
-        session.setExpiresAt(LocalDateTime.now().plusMinutes(timeoutMinutes));
-        
-        sessions.put(sessionId, session);
-        
         log.debug("Session renewed: {}", sessionId);
         return true;
     }
     
     public boolean revokeSession(UUID sessionId) {
-        UserSession session = sessions.get(sessionId);
+        UserSession session = store.findById(sessionId).orElse(null);
         
         if (session == null) {
             log.warn("Session not found: {}", sessionId);
             return false;
         }
         
-        session.setStatus(SessionStatus.REVOKED);
-        sessions.put(sessionId, session);
-        
-        revokedToday++;
+        revoke(session);
         
         log.info("Session revoked: {}", sessionId);
         return true;
@@ -124,12 +119,13 @@ public class SessionManagementService {
     public int revokeAllUserSessions(String userId) {
         log.info("Revoking all sessions for user: {}", userId);
         
-        List<UUID> userSessionIds = userSessions.getOrDefault(userId, new ArrayList<>());
         int revokedCount = 0;
-        
-        for (UUID sessionId : userSessionIds) {
-            if (revokeSession(sessionId)) {
-                revokedCount++;
+        synchronized (lockFor(userId)) {
+            for (UserSession session : store.findByUserId(userId)) {
+                if (session.getStatus() == SessionStatus.ACTIVE) {
+                    revoke(session);
+                    revokedCount++;
+                }
             }
         }
         
@@ -138,12 +134,7 @@ public class SessionManagementService {
     }
     
     public List<UserSession> getUserSessions(String userId) {
-        List<UUID> sessionIds = userSessions.getOrDefault(userId, new ArrayList<>());
-        
-        return sessionIds.stream()
-                .map(sessions::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return store.findByUserId(userId);
     }
     
     public List<UserSession> getActiveSessions(String userId) {
@@ -154,31 +145,26 @@ public class SessionManagementService {
     }
     
     public List<UserSession> getAllActiveSessions() {
-        return sessions.values().stream()
-                .filter(session -> session.getStatus() == SessionStatus.ACTIVE)
-                .filter(session -> !isSessionExpired(session))
-                .collect(Collectors.toList());
+        return store.findActive(LocalDateTime.now());
     }
     
     public SessionStatistics getStatistics() {
         SessionStatistics stats = new SessionStatistics();
+        LocalDateTime now = LocalDateTime.now();
         
-        stats.setTotalActiveSessions(getActiveSessionCount());
-        stats.setTotalUsers((int) userSessions.keySet().stream()
-                .filter(userId -> !getActiveSessions(userId).isEmpty())
-                .count());
-        stats.setExpiredSessionsToday(expiredToday);
-        stats.setRevokedSessionsToday(revokedToday);
-        stats.setPeakConcurrentSessions(peakConcurrent);
+        long active = store.countActive(now);
+        peakConcurrent.accumulateAndGet(active, Math::max);
         
-        // Calculate average session duration
-        List<UserSession> allSessions = new ArrayList<>(sessions.values());
-        if (!allSessions.isEmpty()) {
-            double avgMinutes = allSessions.stream()
-                    .mapToLong(s -> ChronoUnit.MINUTES.between(s.getCreatedAt(), s.getLastActivityAt()))
-                    .average()
-                    .orElse(0.0);
-            stats.setAverageSessionDurationMinutes(avgMinutes);
+        stats.setTotalActiveSessions((int) active);
+        stats.setTotalUsers((int) store.countActiveUsers(now));
+        stats.setExpiredSessionsToday(expiredToday.intValue());
+        stats.setRevokedSessionsToday(revokedToday.intValue());
+        stats.setPeakConcurrentSessions((int) peakConcurrent.get());
+        
+        // Average over the sessions that have ended on this instance
+        long ended = endedSessions.sum();
+        if (ended > 0) {
+            stats.setAverageSessionDurationMinutes((double) endedSessionMinutes.sum() / ended);
         }
         
         return stats;
@@ -209,47 +195,59 @@ public class SessionManagementService {
         }
         
         log.info("Running expired session cleanup...");
+        LocalDateTime now = LocalDateTime.now();
         
+        // Only sessions past their expiry are read, oldest first
         int cleanedCount = 0;
-        List<UUID> toRemove = new ArrayList<>();
-        
-        for (Map.Entry<UUID, UserSession> entry : sessions.entrySet()) {
-            UserSession session = entry.getValue();
-            
-            if (isSessionExpired(session) && session.getStatus() == SessionStatus.ACTIVE) {
-                session.setStatus(SessionStatus.EXPIRED);
-                sessions.put(entry.getKey(), session);
-                expiredToday++;
-                cleanedCount++;
-            }
-            
-            // Remove old expired/revoked sessions (older than 7 days)
-            if (session.getStatus() != SessionStatus.ACTIVE) {
-                LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
-                if (session.getLastActivityAt().isBefore(cutoff)) {
-                    toRemove.add(entry.getKey());
+        List<UserSession> expired;
+        do {
+            expired = store.findExpired(now, CLEANUP_BATCH_SIZE);
+            for (UserSession session : expired) {
+                // Skipped if renewed or revoked since it was read
+                if (store.expire(session.getSessionId(), now)) {
+                    recordEnded(session);
+                    expiredToday.increment();
+                    cleanedCount++;
                 }
             }
-        }
+        } while (expired.size() == CLEANUP_BATCH_SIZE);
         
-        // Remove old sessions
-        for (UUID sessionId : toRemove) {
-            sessions.remove(sessionId);
-        }
+        // Remove old expired/revoked sessions
+        int removedCount = store.deleteEndedBefore(now.minusDays(ENDED_RETENTION_DAYS));
         
         log.info("Cleanup complete: {} sessions expired, {} old sessions removed", 
-                 cleanedCount, toRemove.size());
+                 cleanedCount, removedCount);
     }
     
-    private boolean isSessionExpired(UserSession session) {
-        return LocalDateTime.now().isAfter(session.getExpiresAt());
+    @Scheduled(cron = "0 0 0 * * ?") // Daily at midnight
+    public void resetDailyCounters() {
+        expiredToday.reset();
+        revokedToday.reset();
     }
     
-    private int getActiveSessionCount() {
-        return (int) sessions.values().stream()
-                .filter(session -> session.getStatus() == SessionStatus.ACTIVE)
-                .filter(session -> !isSessionExpired(session))
-                .count();
+    private void revoke(UserSession session) {
+        if (store.revoke(session.getSessionId())) {
+            revokedToday.increment();
+            recordEnded(session);
+        }
+    }
+    
+    private void recordEnded(UserSession session) {
+        endedSessions.increment();
+        endedSessionMinutes.add(ChronoUnit.MINUTES.between(session.getCreatedAt(), session.getLastActivityAt()));
+    }
+    
+    private Object lockFor(String userId) {
+        return userLocks[Math.floorMod(Objects.hashCode(userId), userLocks.length)];
+    }
+    
+    private int timeoutMinutes(UserSession session) {
+        return session.getRememberMe() ? 
+                (config.getRememberMeDays() * 24 * 60) : config.getTimeoutMinutes();
+    }
+    
+    private boolean isSessionExpired(UserSession session) {
+        return LocalDateTime.now().isAfter(session.getExpiresAt());
     }
     
     private String detectDeviceType(String userAgent) {
@@ -0,0 +1,74 @@
+package com.geriatriccare.service.security;
+
+import com.geriatriccare.dto.security.UserSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Backend for {@link SessionManagementService}, selected by
+ * {@code app.security.sessions.store}: {@code jpa} keeps sessions in the
+ * database, shared by all instances and kept across restarts; {@code memory}
+ * keeps them in this instance only.
+ *
+ * Sessions go in and come out as copies; change one and {@link #save} it.
+ * Renewing and ending a session are conditional on it still being ACTIVE,
+ * checked and applied in one step, so they need no lock across instances
+ * and a renewal racing a revocation cannot bring the session back.
+ * A session is live while it is ACTIVE and {@code expiresAt} is not in the
+ * past. Both stores keep ACTIVE sessions ordered by expiry and ended ones by
+ * last activity, so cleanup reads only what it expires or purges.
+ */
+public interface SessionStore {
+
+    /** Insert or replace the session with this id */
+    void save(UserSession session);
+
+    Optional<UserSession> findById(UUID sessionId);
+
+    /**
+     * Set the activity and expiry of a session if it is still ACTIVE.
+     *
+     * @return false if it is missing or no longer ACTIVE
+     */
+    boolean renew(UUID sessionId, LocalDateTime lastActivityAt, LocalDateTime expiresAt);
+
+    /**
+     * Mark a session REVOKED if it is still ACTIVE.
+     *
+     * @return false if it is missing or was no longer ACTIVE
+     */
+    boolean revoke(UUID sessionId);
+
+    /**
+     * Mark a session EXPIRED if it is still ACTIVE and its expiry is before {@code now}.
+     *
+     * @return false if it is missing, no longer ACTIVE or was renewed since it was read
+     */
+    boolean expire(UUID sessionId, LocalDateTime now);
+
+    /** Every session of the user, in any status */
+    List<UserSession> findByUserId(String userId);
+
+    /** Live sessions */
+    List<UserSession> findActive(LocalDateTime now);
+
+    long countActive(LocalDateTime now);
+
+    /** Users with at least one live session */
+    long countActiveUsers(LocalDateTime now);
+
+    /**
+     * ACTIVE sessions whose expiry has passed, soonest expired first, at most {@code limit}
+     */
+    List<UserSession> findExpired(LocalDateTime now, int limit);
+
+    /**
+     * Delete sessions that are no longer ACTIVE and were last used before {@code cutoff}.
+     *
+     * @return the number deleted
+     */
+    int deleteEndedBefore(LocalDateTime cutoff);
+}
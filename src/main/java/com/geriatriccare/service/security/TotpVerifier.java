@@ -0,0 +1,166 @@
+package com.geriatriccare.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * RFC 6238 TOTP: HMAC-SHA1, 30 second steps, 6 digits, the defaults every
+ * authenticator app uses. Secrets are Base32, as the otpauth URI expects.
+ *
+ * A code is accepted for the current step and one step either side, to
+ * allow for clock drift. Each candidate is compared in constant time, and
+ * every candidate is computed, so the response time does not reveal which
+ * step matched. The last step accepted for each user is remembered for as
+ * long as the window can still accept it, so a code cannot be replayed.
+ */
+@Component
+public class TotpVerifier {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+    private static final long STEP_SECONDS = 30;
+    private static final int DIGITS = 6;
+    private static final int DRIFT_STEPS = 1;
+    private static final int SECRET_BYTES = 20;
+    private static final char[] BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    // User -> last accepted time step
+    private final Cache<String, Long> lastAcceptedSteps;
+
+    @Autowired
+    public TotpVerifier(@Value("${app.security.mfa.max-tracked-users:10000}") long maxTrackedUsers) {
+        this(Clock.systemUTC(), maxTrackedUsers);
+    }
+
+    public TotpVerifier(Clock clock, long maxTrackedUsers) {
+        this.clock = clock;
+        this.lastAcceptedSteps = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofSeconds(STEP_SECONDS * (2 * DRIFT_STEPS + 1)))
+                .build();
+    }
+
+    /**
+     * A new random secret, Base32 without padding
+     */
+    public String generateSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        random.nextBytes(bytes);
+        return encodeBase32(bytes);
+    }
+
+    /**
+     * True if {@code code} is valid now for {@code secret} and newer than the
+     * last code accepted for {@code userId}.
+     */
+    public boolean verify(String userId, String secret, String code) {
+        if (secret == null || code == null || code.length() != DIGITS) {
+            return false;
+        }
+        byte[] key = decodeBase32(secret);
+        byte[] given = code.getBytes(StandardCharsets.US_ASCII);
+
+        long currentStep = clock.instant().getEpochSecond() / STEP_SECONDS;
+        long matchedStep = -1;
+        for (long step = currentStep - DRIFT_STEPS; step <= currentStep + DRIFT_STEPS; step++) {
+            byte[] expected = generate(key, step).getBytes(StandardCharsets.US_ASCII);
+            if (MessageDigest.isEqual(expected, given)) {
+                matchedStep = step;
+            }
+        }
+        if (matchedStep < 0) {
+            return false;
+        }
+
+        // Accept only a step later than the last accepted one, atomically per user
+        long accepted = matchedStep;
+        boolean[] fresh = new boolean[1];
+        lastAcceptedSteps.asMap().compute(userId, (id, last) -> {
+            fresh[0] = last == null || accepted > last;
+            return fresh[0] ? accepted : last;
+        });
+        return fresh[0];
+    }
+
+    /**
+     * The code for {@code secret} at the given time step
+     */
+    public String generate(String secret, long step) {
+        return generate(decodeBase32(secret), step);
+    }
+
+    private static String generate(byte[] key, long step) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+
+            // Dynamic truncation, RFC 4226 section 5.3
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                    | ((hash[offset + 1] & 0xff) << 16)
+                    | ((hash[offset + 2] & 0xff) << 8)
+                    | (hash[offset + 3] & 0xff);
+            return String.format("%0" + DIGITS + "d", binary % 1_000_000);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("TOTP computation failed", e);
+        }
+    }
+
+    static String encodeBase32(byte[] data) {
+        StringBuilder result = new StringBuilder((data.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : data) {
+            buffer = (buffer << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                result.append(BASE32[(buffer >> (bits - 5)) & 0x1f]);
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            result.append(BASE32[(buffer << (5 - bits)) & 0x1f]);
+        }
+        return result.toString();
+    }
+
+    static byte[] decodeBase32(String encoded) {
+        String normalized = encoded.replace("=", "").replace(" ", "").toUpperCase();
+        ByteBuffer result = ByteBuffer.allocate(normalized.length() * 5 / 8);
+        int buffer = 0;
+        int bits = 0;
+        for (char c : normalized.toCharArray()) {
+            int value;
+            if (c >= 'A' && c <= 'Z') {
+                value = c - 'A';
+            } else if (c >= '2' && c <= '7') {
+                value = c - '2' + 26;
+            } else {
+                throw new IllegalArgumentException("Invalid Base32 secret");
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                result.put((byte) (buffer >> (bits - 8)));
+                bits -= 8;
+            }
+        }
+        return result.array();
+    }
+}
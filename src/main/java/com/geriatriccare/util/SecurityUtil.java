@@ -3,11 +3,9 @@ package com.geriatriccare.util;
 import com.geriatriccare.entity.User;
 import com.geriatriccare.enums.Permission;
 import com.geriatriccare.enums.UserRole;
-import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
 import com.geriatriccare.service.PermissionService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -19,12 +17,15 @@ import java.util.UUID;
  * Usage in controllers:
  * @PreAuthorize("@securityUtil.hasPermission('PATIENT_READ')")
  * @PreAuthorize("@securityUtil.canAccessPatient(#patientId)")
+ * 
+ * The current user comes from the request-scoped {@link CurrentUserContext},
+ * so any number of checks in one request cost no user lookups.
  */
 @Component("securityUtil")
 @RequiredArgsConstructor
 public class SecurityUtil {
 
-    private final UserRepository userRepository;
+    private final CurrentUserContext currentUserContext;
     private final PermissionService permissionService;
 
     /**
@@ -33,17 +34,7 @@ public class SecurityUtil {
      * @return Current user or null
      */
     public User getCurrentUser() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return null;
-            }
-
-            String username = authentication.getName();
-            return userRepository.findByUsername(username).orElse(null);
-        } catch (Exception e) {
-            return null;
-        }
+        return currentUserContext.getUser();
     }
 
     /**
@@ -52,8 +43,7 @@ public class SecurityUtil {
      * @return Current user ID or null
      */
     public UUID getCurrentUserId() {
-        User user = getCurrentUser();
-        return user != null ? user.getId() : null;
+        return currentUserContext.getUserId();
     }
 
     /**
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 @Converter
 @Component
@@ -43,8 +44,13 @@ public class DateEncryptionConverter implements AttributeConverter<LocalDate, St
             String decrypted = encryptionService.decrypt(dbData);
             return LocalDate.parse(decrypted);
         } catch (Exception e) {
-            logger.error("Date decryption failed: {}", e.getMessage());
-            return null;
+            // Rows written before the column was encrypted hold a plain ISO date
+            try {
+                return LocalDate.parse(dbData);
+            } catch (DateTimeParseException notPlain) {
+                logger.error("Date decryption failed: {}", e.getMessage());
+                return null;
+            }
         }
     }
 }
@@ -0,0 +1,30 @@
+package com.geriatriccare.util.encryption;
+
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Converter
+@Component
+@Immutable
+public class LazyDateEncryptionConverter extends LazyEncryptionConverter<LocalDate> {
+    
+    @Override
+    protected String format(LocalDate value) {
+        return value.toString();
+    }
+    
+    @Override
+    protected LocalDate parse(String plaintext) {
+        // Also reads rows written before the column was encrypted, which hold a plain ISO date
+        return LocalDate.parse(plaintext);
+    }
+    
+    @Override
+    protected LocalDate undecryptable() {
+        // No date can mark it; the read is logged as an error
+        return null;
+    }
+}
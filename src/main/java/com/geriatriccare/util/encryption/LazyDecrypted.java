@@ -0,0 +1,86 @@
+package com.geriatriccare.util.encryption;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Encrypted attribute value that keeps the stored ciphertext until it is read.
+ *
+ * Loading an entity only wraps the column value; the first {@link #get()}
+ * decrypts it and the plaintext is memoized for the lifetime of the instance.
+ * Values set by the application start out materialized. Instances are treated
+ * as immutable by Hibernate, so an unchanged loaded value is never decrypted
+ * for dirty checking and is written back as the same ciphertext.
+ */
+public final class LazyDecrypted<T> {
+    
+    private final String ciphertext;
+    private final Function<String, T> decryptor;
+    private volatile T value;
+    private volatile boolean materialized;
+    
+    private LazyDecrypted(String ciphertext, Function<String, T> decryptor, T value, boolean materialized) {
+        this.ciphertext = ciphertext;
+        this.decryptor = decryptor;
+        this.value = value;
+        this.materialized = materialized;
+    }
+    
+    /**
+     * A plaintext value set by the application.
+     */
+    public static <T> LazyDecrypted<T> of(T value) {
+        return value != null ? new LazyDecrypted<>(null, null, value, true) : null;
+    }
+    
+    /**
+     * A value loaded from the database, decrypted on first access.
+     */
+    static <T> LazyDecrypted<T> ofCiphertext(String ciphertext, Function<String, T> decryptor) {
+        return new LazyDecrypted<>(ciphertext, decryptor, null, false);
+    }
+    
+    public T get() {
+        if (!materialized) {
+            synchronized (this) {
+                if (!materialized) {
+                    value = decryptor.apply(ciphertext);
+                    materialized = true;
+                }
+            }
+        }
+        return value;
+    }
+    
+    /** True when this value was loaded from the database rather than set in memory */
+    public boolean isStored() {
+        return ciphertext != null;
+    }
+    
+    public boolean isMaterialized() {
+        return materialized;
+    }
+    
+    String getCiphertext() {
+        return ciphertext;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyDecrypted<?> other)) return false;
+        if (ciphertext != null && ciphertext.equals(other.ciphertext)) return true;
+        return Objects.equals(get(), other.get());
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+    
+    @Override
+    public String toString() {
+        // Never expose PHI through logging
+        return "[encrypted]";
+    }
+}
@@ -0,0 +1,18 @@
+package com.geriatriccare.util.encryption;
+
+import jakarta.validation.valueextraction.ExtractedValue;
+import jakarta.validation.valueextraction.UnwrapByDefault;
+import jakarta.validation.valueextraction.ValueExtractor;
+
+/**
+ * Lets Bean Validation constraints on {@link LazyDecrypted} fields (e.g. {@code @NotBlank})
+ * apply to the wrapped value. Registered in META-INF/services.
+ */
+@UnwrapByDefault
+public class LazyDecryptedValueExtractor implements ValueExtractor<LazyDecrypted<@ExtractedValue ?>> {
+    
+    @Override
+    public void extractValues(LazyDecrypted<?> originalValue, ValueReceiver receiver) {
+        receiver.value(null, originalValue.get());
+    }
+}
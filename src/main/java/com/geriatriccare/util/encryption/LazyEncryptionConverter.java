@@ -0,0 +1,94 @@
+package com.geriatriccare.util.encryption;
+
+import com.geriatriccare.service.security.EncryptionService;
+import jakarta.persistence.AttributeConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Base for converters mapping an encrypted column to a {@link LazyDecrypted} attribute.
+ *
+ * Reads only wrap the ciphertext. Writes reuse the loaded ciphertext when the
+ * value was not replaced and is already under the current key, so saving an
+ * entity does not re-encrypt (or decrypt) fields nobody touched. Plaintext
+ * written before the column was encrypted reads as that plaintext until the
+ * {@code ReEncryptionService} backfill encrypts it, and is encrypted if the
+ * entity is saved first. Ciphertext that does not decrypt (an unknown key)
+ * reads as {@link #undecryptable()} and is written back exactly as it was found.
+ */
+abstract class LazyEncryptionConverter<T> implements AttributeConverter<LazyDecrypted<T>, String> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LazyEncryptionConverter.class);
+    
+    @Autowired
+    private EncryptionService encryptionService;
+    
+    protected abstract String format(T value);
+    
+    /**
+     * Value read for a column whose decryption failed.
+     */
+    protected abstract T undecryptable();
+    
+    protected abstract T parse(String plaintext);
+    
+    @Override
+    public String convertToDatabaseColumn(LazyDecrypted<T> attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        
+        String stored = attribute.getCiphertext();
+        if (stored != null) {
+            if (encryptionService.keyVersionOf(stored) == encryptionService.getCurrentKeyVersion()) {
+                return stored;
+            }
+            // Unchanged but under an older key, or legacy plaintext: move it to the current
+            // key, or leave ciphertext that does not decrypt as found
+            try {
+                return encryptionService.encrypt(encryptionService.isCiphertext(stored)
+                        ? encryptionService.decrypt(stored) : stored);
+            } catch (Exception e) {
+                return stored;
+            }
+        }
+        
+        T value = attribute.get();
+        if (value == null) {
+            return null;
+        }
+        try {
+            return encryptionService.encrypt(format(value));
+        } catch (Exception e) {
+            logger.error("Encryption failed during database write: {}", e.getMessage());
+            throw new RuntimeException("Encryption failed", e);
+        }
+    }
+    
+    @Override
+    public LazyDecrypted<T> convertToEntityAttribute(String dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        return LazyDecrypted.ofCiphertext(dbData, this::decrypt);
+    }
+    
+    private T decrypt(String dbData) {
+        try {
+            return parse(encryptionService.decrypt(dbData));
+        } catch (Exception e) {
+            if (!encryptionService.isCiphertext(dbData)) {
+                // Legacy plaintext; served as stored until the re-encryption backfill encrypts it
+                try {
+                    return parse(dbData);
+                } catch (RuntimeException notPlain) {
+                    logger.error("Unreadable plaintext in an encrypted column: {}", notPlain.getMessage());
+                    return undecryptable();
+                }
+            }
+            logger.error("Decryption failed during database read: {}", e.getMessage());
+            return undecryptable();
+        }
+    }
+}
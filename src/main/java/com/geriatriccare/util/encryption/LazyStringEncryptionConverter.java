@@ -0,0 +1,29 @@
+package com.geriatriccare.util.encryption;
+
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+import org.springframework.stereotype.Component;
+
+@Converter
+@Component
+@Immutable
+public class LazyStringEncryptionConverter extends LazyEncryptionConverter<String> {
+    
+    /** Read in place of a value that cannot be decrypted */
+    public static final String UNDECRYPTABLE = "[undecryptable]";
+    
+    @Override
+    protected String format(String value) {
+        return value;
+    }
+    
+    @Override
+    protected String parse(String plaintext) {
+        return plaintext;
+    }
+    
+    @Override
+    protected String undecryptable() {
+        return UNDECRYPTABLE;
+    }
+}
@@ -40,8 +40,9 @@ public class StringEncryptionConverter implements AttributeConverter<String, Str
         try {
             return encryptionService.decrypt(dbData);
         } catch (Exception e) {
+            // Failing the read: a null or raw value would be written back over the stored one
             logger.error("Decryption failed during database read: {}", e.getMessage());
-            return dbData;
+            throw new IllegalStateException("Stored value cannot be decrypted", e);
         }
     }
 }
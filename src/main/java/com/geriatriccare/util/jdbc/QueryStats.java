@@ -0,0 +1,134 @@
+package com.geriatriccare.util.jdbc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC work done by the current thread, as recorded by {@link InstrumentedDataSource}.
+ *
+ * The counters only grow; callers measure a request or a method call as the
+ * difference between two {@link Snapshot}s, so nested measurements need no
+ * coordination. While call sites are being recorded, each statement is also
+ * attributed to the first application frame that issued it.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String APPLICATION_PACKAGE = "com.geriatriccare.";
+    // The data source's JDBC proxy handlers are nested classes
+    private static final String INSTRUMENTED_DATA_SOURCE = InstrumentedDataSource.class.getName() + "$";
+
+    private long statements;
+    private long rows;
+    private long nanos;
+    private long userLookups;
+    private Map<String, CallSite> callSites;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(statements, rows, nanos, userLookups);
+    }
+
+    /**
+     * Start attributing statements to call sites, discarding any earlier ones
+     */
+    public void startCallSites() {
+        callSites = new HashMap<>();
+    }
+
+    /**
+     * Stop attributing statements, returning the call sites by statement count, highest first
+     */
+    public List<CallSite> stopCallSites() {
+        List<CallSite> sites = callSites != null ? new ArrayList<>(callSites.values()) : new ArrayList<>();
+        callSites = null;
+        sites.sort(Comparator.comparingLong(CallSite::getStatements).reversed());
+        return sites;
+    }
+
+    void recordStatement(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (sql != null && sql.toLowerCase().contains(" from users ")) {
+            userLookups++;
+        }
+        if (callSites != null) {
+            String site = callSite();
+            callSites.computeIfAbsent(site, key -> new CallSite(key, sql)).statements++;
+        }
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(f -> !f.getClassName().startsWith(INSTRUMENTED_DATA_SOURCE))
+                .filter(f -> !f.getClassName().equals(QueryStats.class.getName()))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("(framework)");
+    }
+
+    /**
+     * Cumulative counters at one point in time
+     */
+    public static final class Snapshot {
+        private final long statements;
+        private final long rows;
+        private final long nanos;
+        private final long userLookups;
+
+        Snapshot(long statements, long rows, long nanos, long userLookups) {
+            this.statements = statements;
+            this.rows = rows;
+            this.nanos = nanos;
+            this.userLookups = userLookups;
+        }
+
+        /** The work done between {@code earlier} and this snapshot */
+        public Snapshot since(Snapshot earlier) {
+            return new Snapshot(statements - earlier.statements, rows - earlier.rows,
+                    nanos - earlier.nanos, userLookups - earlier.userLookups);
+        }
+
+        public long getStatements() { return statements; }
+        public long getRows() { return rows; }
+        public long getNanos() { return nanos; }
+        public long getUserLookups() { return userLookups; }
+    }
+
+    /**
+     * Statements issued from one line of application code
+     */
+    public static final class CallSite {
+        private final String location;
+        private final String firstSql;
+        private long statements;
+
+        CallSite(String location, String firstSql) {
+            this.location = location;
+            this.firstSql = firstSql;
+        }
+
+        public String getLocation() { return location; }
+        public String getFirstSql() { return firstSql; }
+        public long getStatements() { return statements; }
+    }
+}
@@ -0,0 +1,336 @@
+package com.geriatriccare.util.search;
+
+import java.util.*;
+
+/**
+ * Immutable, memory-compact prefix index returning the top-k weighted completions.
+ *
+ * This is a trie flattened into sorted arrays: the keys are sorted, so every
+ * trie subtree (all keys starting with a prefix) is one contiguous range,
+ * found with two binary searches. Keys are not stored as strings but as
+ * {@code [start, end)} slices of a shared character pool holding each source
+ * text once, so the word-start keys of a name ("diabetes mellitus" inside
+ * "type 2 diabetes mellitus") cost two ints each. A segment tree over the
+ * weights yields the heaviest key of any range in O(log n); the top k are
+ * extracted best-first by splitting ranges around each pick.
+ */
+public final class CompletionIndex {
+
+    private final char[] pool;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] weights;
+    private final int[] entries;
+    private final int[] maxTree;
+    private final int leaves;
+
+    private CompletionIndex(char[] pool, int[] starts, int[] ends, int[] weights, int[] entries) {
+        this.pool = pool;
+        this.starts = starts;
+        this.ends = ends;
+        this.weights = weights;
+        this.entries = entries;
+
+        // Bottom-up segment tree with one leaf per key (argmax is commutative, so n need not be a power of two)
+        this.leaves = starts.length;
+        this.maxTree = new int[2 * leaves];
+        for (int i = 0; i < leaves; i++) {
+            maxTree[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            maxTree[node] = heavier(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int keyCount() {
+        return starts.length;
+    }
+
+    /**
+     * Approximate heap footprint of the index arrays in bytes.
+     */
+    public long memoryBytes() {
+        return 2L * pool.length + 4L * (starts.length + ends.length + weights.length + entries.length + maxTree.length);
+    }
+
+    // ==================== Lookup ====================
+
+    /**
+     * The heaviest completions of {@code prefix}, at most one per entry.
+     *
+     * @param prefix Raw user input; normalized like the keys
+     * @param limit  Maximum number of distinct entries
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0 || starts.length == 0) {
+            return List.of();
+        }
+
+        int lo = lowerBound(normalized, false);
+        int hi = lowerBound(normalized, true);
+        if (lo >= hi) {
+            return List.of();
+        }
+
+        List<Completion> completions = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> Integer.compare(weights[b[2]], weights[a[2]]));
+        ranges.add(new int[] {lo, hi, argMax(lo, hi)});
+
+        while (!ranges.isEmpty() && completions.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            if (seen.add(entries[best])) {
+                completions.add(new Completion(entries[best], new String(pool, starts[best], ends[best] - starts[best]),
+                        weights[best]));
+            }
+            if (range[0] < best) {
+                ranges.add(new int[] {range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[] {best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * First key that is not below {@code prefix} (or, with {@code pastPrefix},
+     * the first key after all keys starting with it).
+     */
+    private int lowerBound(String prefix, boolean pastPrefix) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareToPrefix(mid, prefix);
+            if (cmp < 0 || (pastPrefix && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Negative if key {@code i} sorts before every key starting with
+     * {@code prefix}, zero if it starts with it, positive if after.
+     */
+    private int compareToPrefix(int i, String prefix) {
+        int start = starts[i];
+        int length = ends[i] - start;
+        int n = Math.min(length, prefix.length());
+        for (int k = 0; k < n; k++) {
+            int diff = pool[start + k] - prefix.charAt(k);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = heavier(best, maxTree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = heavier(best, maxTree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        // Equal weights: keep the lexicographically smaller key
+        if (weights[a] != weights[b]) {
+            return weights[b] > weights[a] ? b : a;
+        }
+        return Math.min(a, b);
+    }
+
+    // ==================== Normalization ====================
+
+    /**
+     * Lower-case letters and digits, every other run of characters collapsed to one space.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // ==================== Building ====================
+
+    public static final class Builder {
+
+        private final StringBuilder pool = new StringBuilder();
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int[] weights = new int[64];
+        private int[] entries = new int[64];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Add {@code text} as one completion key.
+         */
+        public Builder add(String text, int weight, int entry) {
+            String normalized = normalize(text);
+            if (!normalized.isEmpty()) {
+                int start = pool.length();
+                pool.append(normalized);
+                key(start, pool.length(), weight, entry);
+            }
+            return this;
+        }
+
+        /**
+         * Add {@code text} as a key, plus a key at every later word start with
+         * {@code wordWeight}, all sharing one copy of the text.
+         */
+        public Builder addWithWordStarts(String text, int weight, int wordWeight, int entry) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            int start = pool.length();
+            pool.append(normalized);
+            int end = pool.length();
+            key(start, end, weight, entry);
+            for (int i = 1; i < normalized.length(); i++) {
+                if (normalized.charAt(i - 1) == ' ') {
+                    key(start + i, end, wordWeight, entry);
+                }
+            }
+            return this;
+        }
+
+        private void key(int start, int end, int weight, int entry) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                entries = Arrays.copyOf(entries, capacity);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            weights[size] = weight;
+            entries[size] = entry;
+            size++;
+        }
+
+        public CompletionIndex build() {
+            char[] chars = new char[pool.length()];
+            pool.getChars(0, chars.length, chars, 0);
+
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            sort(chars, order, 0, size, 0);
+
+            int[] sortedStarts = new int[size];
+            int[] sortedEnds = new int[size];
+            int[] sortedWeights = new int[size];
+            int[] sortedEntries = new int[size];
+            for (int i = 0; i < size; i++) {
+                int k = order[i];
+                sortedStarts[i] = starts[k];
+                sortedEnds[i] = ends[k];
+                sortedWeights[i] = weights[k];
+                sortedEntries[i] = entries[k];
+            }
+            return new CompletionIndex(chars, sortedStarts, sortedEnds, sortedWeights, sortedEntries);
+        }
+
+        /**
+         * Multikey quicksort of key indices {@code [from, to)} whose first
+         * {@code depth} characters are equal; partitions on the character at
+         * {@code depth}, so shared prefixes are compared only once.
+         */
+        private void sort(char[] chars, int[] order, int from, int to, int depth) {
+            while (to - from > 1) {
+                int pivot = charAt(chars, order[from + (to - from) / 2], depth);
+                int lt = from;
+                int gt = to - 1;
+                int i = from;
+                while (i <= gt) {
+                    int c = charAt(chars, order[i], depth);
+                    if (c < pivot) {
+                        swap(order, lt++, i++);
+                    } else if (c > pivot) {
+                        swap(order, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(chars, order, from, lt, depth);
+                sort(chars, order, gt + 1, to, depth);
+                if (pivot < 0) {
+                    return;
+                }
+                // Equal partition: continue on the next character without recursing
+                from = lt;
+                to = gt + 1;
+                depth++;
+            }
+        }
+
+        private int charAt(char[] chars, int key, int depth) {
+            int position = starts[key] + depth;
+            return position < ends[key] ? chars[position] : -1;
+        }
+
+        private static void swap(int[] order, int a, int b) {
+            int tmp = order[a];
+            order[a] = order[b];
+            order[b] = tmp;
+        }
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class Completion {
+        private final int entry;
+        private final String key;
+        private final int weight;
+
+        Completion(int entry, String key, int weight) {
+            this.entry = entry;
+            this.key = key;
+            this.weight = weight;
+        }
+
+        public int getEntry() { return entry; }
+        public String getKey() { return key; }
+        public int getWeight() { return weight; }
+    }
+}
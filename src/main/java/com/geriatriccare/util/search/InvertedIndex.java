@@ -0,0 +1,344 @@
+package com.geriatriccare.util.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with exact, prefix and fuzzy term matching.
+ *
+ * Each document is a set of terms with a weight (the caller decides how much
+ * a code, name or synonym counts). Every query term must match a document
+ * term either exactly, as a prefix, or within a small edit distance; a
+ * document's score is the sum over query terms of weight times match quality.
+ * Terms are kept in a sorted map, so prefix expansion is a range scan and
+ * fuzzy candidates are limited to terms sharing the first character.
+ *
+ * Reads take a shared lock and run concurrently; updates are rare (catalog
+ * writes) and take the exclusive lock.
+ */
+public final class InvertedIndex<K> {
+
+    static final float EXACT = 1.0f;
+    static final float PREFIX = 0.6f;
+    static final float FUZZY = 0.4f;
+
+    /** Fuzzy matching needs a few characters, otherwise almost everything is one edit away */
+    static final int FUZZY_MIN_LENGTH = 4;
+    static final int TWO_EDITS_MIN_LENGTH = 8;
+
+    /** Cap on the terms a very short prefix expands to */
+    static final int MAX_PREFIX_EXPANSION = 512;
+
+    private final NavigableMap<String, Map<K, Float>> postings = new TreeMap<>();
+    private final Map<K, Map<String, Float>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a document.
+     *
+     * @param terms Normalized terms (see {@link #tokenize}) and their weights
+     */
+    public void put(K key, Map<String, Float> terms) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (terms.isEmpty()) {
+                return;
+            }
+            Map<String, Float> copy = new HashMap<>(terms);
+            documents.put(key, copy);
+            for (Map.Entry<String, Float> term : copy.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(key, term.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(K key) {
+        Map<String, Float> terms = documents.remove(key);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<K, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(key);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Search ====================
+
+    /**
+     * Documents matching every term of {@code query}, best first.
+     *
+     * @param offset Number of ranked hits to skip
+     * @param limit  Maximum number of hits to return
+     */
+    public Result<K> search(String query, int offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return new Result<>(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<K, Float>> perTerm = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<K, Float> scores = match(term);
+                if (scores.isEmpty()) {
+                    return new Result<>(List.of(), 0);
+                }
+                perTerm.add(scores);
+            }
+
+            // Intersect starting from the most selective term
+            perTerm.sort(Comparator.comparingInt(Map::size));
+            Map<K, Float> total = new HashMap<>(perTerm.get(0));
+            for (int i = 1; i < perTerm.size() && !total.isEmpty(); i++) {
+                Map<K, Float> next = perTerm.get(i);
+                Iterator<Map.Entry<K, Float>> it = total.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<K, Float> entry = it.next();
+                    Float score = next.get(entry.getKey());
+                    if (score == null) {
+                        it.remove();
+                    } else {
+                        entry.setValue(entry.getValue() + score);
+                    }
+                }
+            }
+
+            return new Result<>(topHits(total, offset, limit), total.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best score per document for one query term.
+     */
+    private Map<K, Float> match(String term) {
+        Map<K, Float> scores = new HashMap<>();
+
+        Map<K, Float> exact = postings.get(term);
+        if (exact != null) {
+            accumulate(scores, exact, EXACT);
+        }
+
+        int expanded = 0;
+        for (Map.Entry<String, Map<K, Float>> entry
+                : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            if (++expanded > MAX_PREFIX_EXPANSION) {
+                break;
+            }
+            // Closer completions rank higher: "metf" is a better prefix of "metformin" than "m"
+            float quality = PREFIX * (0.5f + 0.5f * term.length() / entry.getKey().length());
+            accumulate(scores, entry.getValue(), quality);
+        }
+
+        if (term.length() >= FUZZY_MIN_LENGTH) {
+            int maxEdits = term.length() >= TWO_EDITS_MIN_LENGTH ? 2 : 1;
+            String first = term.substring(0, 1);
+            for (Map.Entry<String, Map<K, Float>> entry
+                    : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String candidate = entry.getKey();
+                if (Math.abs(candidate.length() - term.length()) > maxEdits || candidate.equals(term)) {
+                    continue;
+                }
+                int edits = editDistance(term, candidate, maxEdits);
+                if (edits <= maxEdits) {
+                    accumulate(scores, entry.getValue(), FUZZY / edits);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(Map<K, Float> scores, Map<K, Float> docs, float quality) {
+        for (Map.Entry<K, Float> doc : docs.entrySet()) {
+            float score = doc.getValue() * quality;
+            scores.merge(doc.getKey(), score, Math::max);
+        }
+    }
+
+    private List<Hit<K>> topHits(Map<K, Float> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+
+        // Ties go to shorter documents, i.e. the more specific entry
+        Comparator<Hit<K>> ranking = Comparator.<Hit<K>>comparingDouble(Hit::getScore).reversed()
+                .thenComparingInt(hit -> documents.get(hit.getKey()).size());
+
+        PriorityQueue<Hit<K>> worstFirst = new PriorityQueue<>(wanted + 1, ranking.reversed());
+        for (Map.Entry<K, Float> entry : scores.entrySet()) {
+            worstFirst.add(new Hit<>(entry.getKey(), entry.getValue()));
+            if (worstFirst.size() > wanted) {
+                worstFirst.poll();
+            }
+        }
+
+        List<Hit<K>> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(ranking);
+        return ranked.subList(Math.min(offset, ranked.size()), ranked.size());
+    }
+
+    // ==================== Terms ====================
+
+    /**
+     * Lower-case alphanumeric runs of {@code text}.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Add the terms of {@code text} with the given weight, keeping the higher
+     * weight for terms that are already present.
+     */
+    public static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    /**
+     * Add a code both as its parts and as one compact term, so "E11.9",
+     * "e119" and "E11" all find it.
+     */
+    public static void addCode(Map<String, Float> terms, String code, float weight) {
+        List<String> parts = tokenize(code);
+        if (parts.isEmpty()) {
+            return;
+        }
+        terms.merge(String.join("", parts), weight, Math::max);
+        for (String part : parts) {
+            terms.merge(part, weight * PREFIX, Math::max);
+        }
+    }
+
+    /**
+     * Levenshtein distance, or {@code maxEdits + 1} as soon as it is known to exceed {@code maxEdits}.
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // ==================== Result Types ====================
+
+    public static final class Result<K> {
+        private final List<Hit<K>> hits;
+        private final int total;
+
+        Result(List<Hit<K>> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<Hit<K>> getHits() { return hits; }
+        public int getTotal() { return total; }
+
+        public List<K> getKeys() {
+            List<K> keys = new ArrayList<>(hits.size());
+            for (Hit<K> hit : hits) {
+                keys.add(hit.getKey());
+            }
+            return keys;
+        }
+    }
+
+    public static final class Hit<K> {
+        private final K key;
+        private final float score;
+
+        Hit(K key, float score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public K getKey() { return key; }
+        public float getScore() { return score; }
+    }
+}
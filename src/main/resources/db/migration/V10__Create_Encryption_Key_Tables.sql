@@ -0,0 +1,22 @@
+-- Persistent data encryption keys (wrapped under the master key) and re-encryption progress
+
+CREATE TABLE encryption_keys (
+    key_version INT PRIMARY KEY,
+    algorithm VARCHAR(20) NOT NULL,
+    wrapped_key VARCHAR(255) NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    description VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    rotated_at TIMESTAMP
+);
+
+CREATE TABLE reencryption_checkpoints (
+    column_key VARCHAR(150) PRIMARY KEY,
+    target_key_version INT NOT NULL,
+    last_id VARCHAR(64),
+    rows_scanned BIGINT NOT NULL DEFAULT 0,
+    rows_reencrypted BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
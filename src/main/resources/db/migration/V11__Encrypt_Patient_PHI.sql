@@ -0,0 +1,24 @@
+-- Encrypted patient PHI columns, plaintext birth year for age queries and blind index tokens
+
+ALTER TABLE patients ADD COLUMN birth_year INT;
+UPDATE patients SET birth_year = YEAR(date_of_birth);
+
+ALTER TABLE patients ALTER COLUMN first_name VARCHAR(512);
+ALTER TABLE patients ALTER COLUMN last_name VARCHAR(512);
+ALTER TABLE patients ALTER COLUMN date_of_birth VARCHAR(128);
+
+CREATE INDEX idx_patients_birth_year ON patients(birth_year);
+
+CREATE TABLE patient_search_tokens (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    field VARCHAR(32) NOT NULL,
+    token VARCHAR(32) NOT NULL
+);
+
+CREATE INDEX idx_patient_token_lookup ON patient_search_tokens(token, field);
+CREATE INDEX idx_patient_token_patient ON patient_search_tokens(patient_id);
+
+-- Existing plaintext values stay readable until ReEncryptionService encrypts them
+-- in the background (or the row is saved first); tokens for existing patients are
+-- built from those values at startup (PatientSearchIndexService).
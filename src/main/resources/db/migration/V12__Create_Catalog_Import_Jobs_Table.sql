@@ -0,0 +1,24 @@
+-- Bulk catalog imports with their resume checkpoint and progress counters
+
+CREATE TABLE catalog_import_jobs (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    catalog_type VARCHAR(20) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    source_name VARCHAR(255),
+    source_path VARCHAR(500),
+    status VARCHAR(20) NOT NULL,
+    records_read BIGINT NOT NULL DEFAULT 0,
+    records_inserted BIGINT NOT NULL DEFAULT 0,
+    records_updated BIGINT NOT NULL DEFAULT 0,
+    records_rejected BIGINT NOT NULL DEFAULT 0,
+    rejections TEXT,
+    error_message VARCHAR(1000),
+    created_by VARCHAR(100),
+    created_by_id UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX idx_catalog_import_status ON catalog_import_jobs(status);
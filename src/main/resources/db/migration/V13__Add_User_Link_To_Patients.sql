@@ -0,0 +1,5 @@
+-- Link a patient record to the patient's own login for row-level access checks
+
+ALTER TABLE patients ADD COLUMN user_id UUID;
+
+CREATE UNIQUE INDEX idx_patients_user_id ON patients(user_id);
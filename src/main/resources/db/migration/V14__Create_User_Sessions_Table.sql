@@ -0,0 +1,21 @@
+-- Login sessions, shared by all instances and kept across restarts
+
+CREATE TABLE user_sessions (
+    session_id UUID PRIMARY KEY,
+    user_id VARCHAR(100) NOT NULL,
+    username VARCHAR(100),
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_activity_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    device_type VARCHAR(20),
+    location VARCHAR(255),
+    remember_me BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+-- Cleanup reads only the expired head of the expiry index, and the purge only the oldest ended sessions
+CREATE INDEX idx_user_sessions_expiry ON user_sessions(status, expires_at);
+CREATE INDEX idx_user_sessions_activity ON user_sessions(status, last_activity_at);
+CREATE INDEX idx_user_sessions_user ON user_sessions(user_id);
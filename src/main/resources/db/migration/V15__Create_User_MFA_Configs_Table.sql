@@ -0,0 +1,16 @@
+-- MFA enrollments; secret_key is EncryptionService ciphertext, backup codes are stored hashed
+
+CREATE TABLE user_mfa_configs (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    user_id VARCHAR(100) NOT NULL,
+    method VARCHAR(20) NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    phone_number VARCHAR(30),
+    email VARCHAR(255),
+    secret_key VARCHAR(512),
+    backup_code_hashes TEXT,
+    setup_date TIMESTAMP NOT NULL,
+    last_verified TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_user_mfa_configs_user ON user_mfa_configs(user_id);
@@ -0,0 +1,15 @@
+-- Completed care task occurrences; open occurrences are expanded from the task frequency, not stored
+
+CREATE TABLE care_task_occurrences (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    care_task_id UUID NOT NULL,
+    due_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP NOT NULL,
+    completed_by UUID,
+    completion_notes TEXT,
+    observations TEXT,
+    CONSTRAINT uk_care_task_occurrences_task_due UNIQUE (care_task_id, due_at),
+    CONSTRAINT fk_care_task_occurrences_task FOREIGN KEY (care_task_id) REFERENCES care_tasks(id)
+);
+
+CREATE INDEX idx_care_task_occurrences_due ON care_task_occurrences(due_at);
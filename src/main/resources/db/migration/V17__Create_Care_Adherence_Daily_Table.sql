@@ -0,0 +1,17 @@
+-- Per-patient, per-category, per-day adherence counters, kept current from care task completions
+-- and the daily close of missed occurrences
+
+CREATE TABLE care_adherence_daily (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    due_date DATE NOT NULL,
+    scheduled_count INT NOT NULL DEFAULT 0,
+    completed_count INT NOT NULL DEFAULT 0,
+    late_count INT NOT NULL DEFAULT 0,
+    missed_count INT NOT NULL DEFAULT 0,
+    closed BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_care_adherence_daily_patient_category_date UNIQUE (patient_id, category, due_date)
+);
+
+CREATE INDEX idx_care_adherence_daily_date ON care_adherence_daily(due_date);
@@ -0,0 +1,3 @@
+-- Bumped on every counter change; the sum over a patient's rows is the data watermark for cached reports
+
+ALTER TABLE care_adherence_daily ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
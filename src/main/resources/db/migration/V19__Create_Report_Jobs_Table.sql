@@ -0,0 +1,25 @@
+-- Asynchronous report generation requests and the report each one produced
+
+CREATE TABLE report_jobs (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    kind VARCHAR(30) NOT NULL,
+    patient_id UUID NOT NULL,
+    medication_id UUID,
+    report_type VARCHAR(30) NOT NULL,
+    time_period VARCHAR(20) NOT NULL,
+    start_date TIMESTAMP,
+    end_date TIMESTAMP,
+    format VARCHAR(10) NOT NULL,
+    include_details BOOLEAN NOT NULL DEFAULT FALSE,
+    status VARCHAR(20) NOT NULL,
+    cache_key VARCHAR(300),
+    report_id UUID,
+    reused BOOLEAN NOT NULL DEFAULT FALSE,
+    error_message VARCHAR(1000),
+    created_by UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_report_jobs_completed ON report_jobs(completed_at);
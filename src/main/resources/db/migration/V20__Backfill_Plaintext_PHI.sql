@@ -0,0 +1,4 @@
+-- Restart the re-encryption walk of every column. Its walk now also encrypts
+-- plaintext left from before V11, which earlier walks skipped.
+
+DELETE FROM reencryption_checkpoints;
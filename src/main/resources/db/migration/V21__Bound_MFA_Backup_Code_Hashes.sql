@@ -0,0 +1,4 @@
+-- Backup code hashes are compared in a conditional update when a code is consumed; a bounded
+-- VARCHAR is comparable everywhere (ten keyed hashes need about 440 characters, legacy ones 650)
+
+ALTER TABLE user_mfa_configs ALTER COLUMN backup_code_hashes SET DATA TYPE VARCHAR(1024);
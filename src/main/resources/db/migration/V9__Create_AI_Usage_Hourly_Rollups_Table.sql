@@ -0,0 +1,16 @@
+-- Hourly pre-aggregated AI usage, written by the rollup job from ai_audit_logs
+
+CREATE TABLE ai_usage_hourly_rollups (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    request_type VARCHAR(50) NOT NULL,
+    request_count BIGINT NOT NULL DEFAULT 0,
+    success_count BIGINT NOT NULL DEFAULT 0,
+    total_tokens BIGINT NOT NULL DEFAULT 0,
+    response_time_sum_ms BIGINT NOT NULL DEFAULT 0,
+    response_time_count BIGINT NOT NULL DEFAULT 0,
+    max_response_time_ms BIGINT,
+    CONSTRAINT uk_ai_rollup_bucket_type UNIQUE (bucket_start, request_type)
+);
+
+CREATE INDEX idx_ai_rollup_bucket ON ai_usage_hourly_rollups(bucket_start);
@@ -0,0 +1,176 @@
+package com.geriatriccare.benchmark;
+
+import com.geriatriccare.entity.EncryptionKey;
+import com.geriatriccare.repository.EncryptionKeyRepository;
+import com.geriatriccare.service.security.EncryptionKeyStore;
+import com.geriatriccare.service.security.EncryptionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Field encryption latency and batch throughput of {@link EncryptionService}
+ * against the previous implementation (Cipher.getInstance per call, separate
+ * IV/ciphertext arrays, sequential batches), kept here as the baseline.
+ *
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *        "-Dexec.args=-cp %classpath com.geriatriccare.benchmark.EncryptionBenchmark"}
+ * (exec:java does not work: JMH forks a JVM that needs the real classpath)
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EncryptionBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int BATCH_THREADS = 4;
+
+    private EncryptionService service;
+    private ExecutorService batchPool;
+    private SecretKey baselineKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private String field;
+    private String fieldCiphertext;
+    private String baselineCiphertext;
+    private List<String> batch;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setUp() throws Exception {
+        List<EncryptionKey> stored = new ArrayList<>();
+        EncryptionKeyRepository repository = mock(EncryptionKeyRepository.class);
+        when(repository.findAllByOrderByKeyVersionAsc()).thenAnswer(invocation -> List.copyOf(stored));
+        when(repository.save(any(EncryptionKey.class))).thenAnswer(invocation -> {
+            stored.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        ObjectProvider<EncryptionKeyRepository> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(repository);
+
+        EncryptionKeyStore keyStore = new EncryptionKeyStore(provider, mock(ObjectProvider.class),
+                Base64.getEncoder().encodeToString(new byte[32]), false);
+        batchPool = Executors.newFixedThreadPool(BATCH_THREADS);
+        service = new EncryptionService(keyStore, batchPool, BATCH_THREADS);
+        baselineKey = keyStore.getKey(keyStore.getCurrentVersion());
+
+        field = "Chronic obstructive pulmonary disease, stage 2";
+        fieldCiphertext = service.encrypt(field);
+        baselineCiphertext = baselineEncrypt(field);
+        batch = IntStream.range(0, BATCH_SIZE).mapToObj(i -> field + " #" + i).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchPool.shutdownNow();
+    }
+
+    // ==================== Per Field ====================
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String encryptField_baseline() throws Exception {
+        return baselineEncrypt(field);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String encryptField_cachedCipher() throws Exception {
+        return service.encrypt(field);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String decryptField_baseline() throws Exception {
+        return baselineDecrypt(baselineCiphertext);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String decryptField_cachedCipher() throws Exception {
+        return service.decrypt(fieldCiphertext);
+    }
+
+    // ==================== Batch ====================
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<String> encryptBatch_baseline() {
+        return batch.stream()
+                .map(plaintext -> {
+                    try {
+                        return baselineEncrypt(plaintext);
+                    } catch (Exception e) {
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<String> encryptBatch_parallel() {
+        return service.encryptBatch(batch);
+    }
+
+    // ==================== Previous Implementation ====================
+
+    private String baselineEncrypt(String plaintext) throws Exception {
+        byte[] iv = new byte[12];
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, baselineKey, new GCMParameterSpec(128, iv));
+        byte[] encryptedBytes = cipher.doFinal(plaintext.getBytes());
+
+        byte[] combined = new byte[iv.length + encryptedBytes.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(encryptedBytes, 0, combined, iv.length, encryptedBytes.length);
+        return Base64.getEncoder().encodeToString(combined);
+    }
+
+    private String baselineDecrypt(String encryptedData) throws Exception {
+        byte[] combined = Base64.getDecoder().decode(encryptedData);
+        byte[] iv = new byte[12];
+        byte[] encryptedBytes = new byte[combined.length - 12];
+        System.arraycopy(combined, 0, iv, 0, 12);
+        System.arraycopy(combined, 12, encryptedBytes, 0, encryptedBytes.length);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, baselineKey, new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(encryptedBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EncryptionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,163 @@
+package com.geriatriccare.benchmark;
+
+import com.geriatriccare.config.RolePermissionsConfig;
+import com.geriatriccare.entity.User;
+import com.geriatriccare.enums.Permission;
+import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
+import com.geriatriccare.service.PatientAccessIndexService;
+import com.geriatriccare.service.PermissionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Permission checks of {@link PermissionService} on role bitsets against the
+ * previous implementation ({@code HashMap<UserRole, HashSet<Permission>>},
+ * varargs checks one permission at a time, current user loaded on every
+ * call), kept here as the baseline.
+ *
+ * The per-request benchmarks run ten current-user checks as one request
+ * would. Their user repository is an in-memory stub, so a real database
+ * round trip per baseline lookup widens the gap further.
+ *
+ * Run with:
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *        "-Dexec.args=-cp %classpath com.geriatriccare.benchmark.PermissionBenchmark"}
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionBenchmark {
+
+    private static final int CHECKS_PER_REQUEST = 10;
+
+    private static final Permission[] CHECKED = {
+        Permission.PATIENT_READ, Permission.MEDICATION_ADMINISTER, Permission.OBSERVATION_WRITE,
+        Permission.CARE_PLAN_APPROVE, Permission.AUDIT_READ
+    };
+
+    private PermissionService service;
+    private Map<UserRole, Set<Permission>> baselineMatrix;
+    private UserRepository userRepository;
+    private User caregiver;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RolePermissionsConfig config = new RolePermissionsConfig();
+        baselineMatrix = new HashMap<>();
+        for (UserRole role : UserRole.values()) {
+            baselineMatrix.put(role, new HashSet<>(config.getPermissionsForRole(role)));
+        }
+
+        caregiver = new User();
+        caregiver.setUsername("carol");
+        caregiver.setRole(UserRole.CAREGIVER);
+
+        Map<String, User> users = new HashMap<>(Map.of("carol", caregiver));
+        userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findByUsername(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(users.get(invocation.<String>getArgument(0))));
+        service = new PermissionService(config, new CurrentUserContext(userRepository),
+                mock(PatientAccessIndexService.class));
+
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("carol", null, List.of())));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Permission nextPermission() {
+        next = (next + 1) % CHECKED.length;
+        return CHECKED[next];
+    }
+
+    // ==================== Role Lookups ====================
+
+    @Benchmark
+    public boolean hasPermission_baseline() {
+        Set<Permission> permissions = baselineMatrix.get(caregiver.getRole());
+        return permissions != null && permissions.contains(nextPermission());
+    }
+
+    @Benchmark
+    public boolean hasPermission_bitset() {
+        return service.hasPermission(caregiver, nextPermission());
+    }
+
+    @Benchmark
+    public boolean hasAllPermissions_baseline() {
+        for (Permission permission : CHECKED) {
+            Set<Permission> permissions = baselineMatrix.get(caregiver.getRole());
+            if (permissions == null || !permissions.contains(permission)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean hasAllPermissions_bitset() {
+        return service.hasAllPermissions(caregiver, CHECKED);
+    }
+
+    // ==================== Current User, One Request ====================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int request_baseline() {
+        int granted = 0;
+        for (int i = 0; i < CHECKS_PER_REQUEST; i++) {
+            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            User user = userRepository.findByUsername(username).orElse(null);
+            Set<Permission> permissions = user != null ? baselineMatrix.get(user.getRole()) : null;
+            if (permissions != null && permissions.contains(nextPermission())) {
+                granted++;
+            }
+        }
+        return granted;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int request_resolvedOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            int granted = 0;
+            for (int i = 0; i < CHECKS_PER_REQUEST; i++) {
+                if (service.hasPermission(nextPermission())) {
+                    granted++;
+                }
+            }
+            return granted;
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PermissionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
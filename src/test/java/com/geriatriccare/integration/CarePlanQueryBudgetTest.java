@@ -0,0 +1,104 @@
+package com.geriatriccare.integration;
+
+import com.geriatriccare.entity.CarePlan;
+import com.geriatriccare.entity.CarePlanStatus;
+import com.geriatriccare.entity.Patient;
+import com.geriatriccare.entity.User;
+import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.repository.CarePlanRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Fails when a care plan list request runs more statements than its budget,
+ * which is what lazy loading the patient, creator or caregiver of each plan
+ * would do. Not transactional, so nothing is served from a test's session.
+ * Query accounting is switched on here only, not for the whole test profile.
+ */
+@DisplayName("Care Plan Query Budget Tests")
+@TestPropertySource(properties = "app.debug.query-count=true")
+class CarePlanQueryBudgetTest extends BaseIntegrationTest {
+
+    // One select for the page, one for its count
+    private static final long LIST_QUERY_BUDGET = 2;
+    private static final int PLANS = 12;
+
+    @Autowired
+    private CarePlanRepository carePlanRepository;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<CarePlan> plans = new ArrayList<>();
+    private Patient patient;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User creator = testDataFactory.createAdminUser();
+        patient = testDataFactory.createTestPatient();
+        for (int i = 0; i < PLANS; i++) {
+            // Distinct patients and caregivers, so each plan would lazy load its own
+            CarePlan plan = new CarePlan();
+            plan.setPatient(i == 0 ? patient : testDataFactory.createTestPatient());
+            plan.setCreatedBy(i % 2 == 0 ? creator : testDataFactory.createAdminUser());
+            plan.setAssignedCaregiver(testDataFactory.createTestUser(UserRole.CAREGIVER));
+            plan.setTitle("Budget plan " + i);
+            plan.setStartDate(LocalDate.now());
+            plan.setStatus(CarePlanStatus.ACTIVE);
+            plans.add(carePlanRepository.save(plan));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        carePlanRepository.deleteAll(plans);
+    }
+
+    @ParameterizedTest(name = "filter [{0}]")
+    @ValueSource(strings = {"", "status=ACTIVE", "patientId", "patientId&status=ACTIVE"})
+    @DisplayName("Should list a page of care plans within the query budget")
+    @WithMockUser(username = "budget-admin", roles = {"ADMIN"})
+    void listCarePlans_WithinQueryBudget(String filter) throws Exception {
+        // Arrange
+        String query = filter.replace("patientId", "patientId=" + patient.getId());
+
+        // Act
+        mockMvc.perform(get("/api/care-plans?size=5&" + query))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].patientName").exists())
+            .andExpect(jsonPath("$.content[0].createdBy.firstName").exists())
+            .andExpect(jsonPath("$.content[0].assignedCaregiver.email").exists())
+            .andExpect(header().exists("X-Query-Count"));
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount())
+            .as("SQL statements for GET /api/care-plans?%s", query)
+            .isLessThanOrEqualTo(LIST_QUERY_BUDGET);
+    }
+}
@@ -3,10 +3,14 @@ package com.geriatriccare.integration.api;
 import com.geriatriccare.base.BaseIntegrationTest;
 import com.geriatriccare.dto.PatientRequest;
 import com.geriatriccare.dto.PatientResponse;
+import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.service.PatientSearchIndexService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -23,14 +27,21 @@ import static org.assertj.core.api.Assertions.assertThat;
  *
  * Role access (from @PreAuthorize on PatientController):
  *   POST   → ADMIN, PHYSICIAN, CAREGIVER
- *   GET    → ADMIN, PHYSICIAN, CAREGIVER, FAMILY
+ *   GET    → ADMIN, PHYSICIAN, CAREGIVER, FAMILY; PATIENT for its linked record
  *   PUT    → ADMIN, PHYSICIAN, CAREGIVER
  *   DELETE → ADMIN only
  *   GET all (paginated) → ADMIN, PHYSICIAN only
+ *   PUT {id}/user (link PATIENT login) → ADMIN only
  */
 @DisplayName("Patient API Integration Tests")
 class PatientApiTest extends BaseIntegrationTest {
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientSearchIndexService patientSearchIndexService;
+
     // ─── Create ───────────────────────────────────────────────────────────────
 
     @Test
@@ -129,6 +140,15 @@ class PatientApiTest extends BaseIntegrationTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).contains("content"); // Spring Page JSON
+        assertThat(response.getBody()).contains("\"fullName\":\"Uno García\"");
+        assertThat(response.getBody()).doesNotContain("medicalConditions", "dateOfBirth");
+    }
+
+    @Test
+    @DisplayName("GET /api/patients?sortBy=lastName → 400, encrypted fields cannot be sorted")
+    void listPatients_sortByEncryptedField_returns400() {
+        assertThat(getWithAuth("/api/patients?sortBy=lastName", adminToken, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
@@ -138,6 +158,38 @@ class PatientApiTest extends BaseIntegrationTest {
             .getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
 
+    @Test
+    @DisplayName("PUT /api/patients/{id}/user → PATIENT login reads only its linked record")
+    void linkPatientUser_patientReadsOwnRecordOnly() {
+        String patientToken = registerAndLogin("patient@test.com", "TestPass123!", "Ana", "García", UserRole.PATIENT);
+        UUID patientUserId = userRepository.findByEmail("patient@test.com").orElseThrow().getId();
+        UUID own = createPatient("Ana");
+        UUID other = createPatient("Otra");
+
+        assertThat(getWithAuth("/api/patients/" + own, patientToken, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        assertThat(putWithAuth("/api/patients/" + own + "/user?userId=" + patientUserId, null,
+            adminToken, Void.class).getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(getWithAuth("/api/patients/" + own, patientToken, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(getWithAuth("/api/patients/" + other, patientToken, String.class)
+            .getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("PUT /api/patients/{id}/user → 403 for non-ADMIN, 400 for a non-PATIENT user")
+    void linkPatientUser_rejectsNonAdminAndWrongRole() {
+        UUID id = createPatient("Linked");
+        UUID caregiverId = userRepository.findByEmail("caregiver@test.com").orElseThrow().getId();
+
+        assertThat(putWithAuth("/api/patients/" + id + "/user?userId=" + caregiverId, null,
+            physicianToken, String.class).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(putWithAuth("/api/patients/" + id + "/user?userId=" + caregiverId, null,
+            adminToken, String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     // ─── Update ───────────────────────────────────────────────────────────────
 
     @Test
@@ -185,12 +237,39 @@ class PatientApiTest extends BaseIntegrationTest {
     @Test
     @DisplayName("GET /api/patients/search/name?name=García → 200 returns matches")
     void searchByName_returnsMatchingPatients() {
-        createPatient("María");
+        UUID id = createPatient("María");
         ResponseEntity<String> response = getWithAuth(
             "/api/patients/search/name?name=García", adminToken, String.class);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).contains("García");
+        assertThat(response.getBody()).contains(id.toString(), "\"fullName\":\"María García\"");
+        assertThat(response.getBody()).doesNotContain("medicalConditions", "dateOfBirth");
+    }
+
+    @Test
+    @DisplayName("Legacy plaintext rows read, index and update with their real values")
+    void legacyPlaintextPatient_readableSearchableAndUpdatable() {
+        UUID id = createPatient("Placeholder");
+        jdbcTemplate.update("UPDATE patients SET first_name = 'Eulalia', last_name = 'Ortega', " +
+            "date_of_birth = '1938-11-04' WHERE id = ?", id);
+        jdbcTemplate.update("DELETE FROM patient_search_tokens WHERE patient_id = ?", id);
+        patientSearchIndexService.indexUnindexedPatients();
+
+        ResponseEntity<PatientResponse> read = getWithAuth("/api/patients/" + id, adminToken, PatientResponse.class);
+        assertThat(read.getBody().getFullName()).isEqualTo("Eulalia Ortega");
+        assertThat(read.getBody().getDateOfBirth()).isEqualTo(LocalDate.of(1938, 11, 4));
+        assertThat(getWithAuth("/api/patients/search/name?name=Ortega", adminToken, String.class).getBody())
+            .contains(id.toString());
+
+        PatientRequest update = buildRequest("Eulalia");
+        update.setLastName("Ortega");
+        update.setDateOfBirth(read.getBody().getDateOfBirth());
+        assertThat(putWithAuth("/api/patients/" + id, update, adminToken, PatientResponse.class)
+            .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_name FROM patients WHERE id = ?", String.class, id))
+            .isNotEqualTo("Ortega");
+        assertThat(getWithAuth("/api/patients/" + id, adminToken, PatientResponse.class).getBody().getFullName())
+            .isEqualTo("Eulalia Ortega");
     }
 
     @Test
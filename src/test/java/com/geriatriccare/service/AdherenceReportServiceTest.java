@@ -11,7 +11,6 @@ import com.geriatriccare.enums.TimePeriod;
 import com.geriatriccare.exception.ResourceNotFoundException;
 import com.geriatriccare.repository.AdherenceReportRepository;
 import com.geriatriccare.repository.CarePlanRepository;
-import com.geriatriccare.repository.CareTaskRepository;
 import com.geriatriccare.repository.PatientRepository;
 import com.geriatriccare.util.SecurityUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,7 +42,7 @@ class AdherenceReportServiceTest {
     @Mock
     private AdherenceReportRepository reportRepository;
     @Mock
-    private CareTaskRepository careTaskRepository;
+    private AdherenceRollupService adherenceRollup;
     @Mock
     private CarePlanRepository carePlanRepository;
     @Mock
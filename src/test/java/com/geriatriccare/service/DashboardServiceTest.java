@@ -33,13 +33,11 @@ class DashboardServiceTest {
     @Mock
     private AlertRuleRepository alertRuleRepository;
     @Mock
-    private AdherenceReportRepository adherenceReportRepository;
-    @Mock
-    private MedicationAdherenceReportRepository medicationReportRepository;
-    @Mock
     private CarePlanRepository carePlanRepository;
     @Mock
     private MedicationRepository medicationRepository;
+    @Mock
+    private AdherenceRollupService adherenceRollup;
 
     @InjectMocks
     private DashboardService dashboardService;
@@ -53,17 +51,12 @@ class DashboardServiceTest {
             .build();
 
         when(patientRepository.count()).thenReturn(100L);
-        when(patientRepository.findByIsActiveTrue(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<Patient>emptyList()));
-        when(patientRepository.findAll()).thenReturn(Collections.emptyList());
+        when(patientRepository.countByIsActiveTrue()).thenReturn(0L);
+        when(patientRepository.averageAge()).thenReturn(null);
         when(vitalSignRepository.findAll(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<VitalSign>emptyList()));
         when(alertRepository.findAll(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<Alert>emptyList()));
-        when(adherenceReportRepository.findAll(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<AdherenceReport>emptyList()));
-        when(medicationReportRepository.findAll(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<MedicationAdherenceReport>emptyList()));
         when(carePlanRepository.count()).thenReturn(50L);
         when(carePlanRepository.findByIsActiveTrue(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<CarePlan>emptyList()));
@@ -89,17 +82,12 @@ class DashboardServiceTest {
         DashboardRequest request = new DashboardRequest();
         
         when(patientRepository.count()).thenReturn(50L);
-        when(patientRepository.findByIsActiveTrue(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<Patient>emptyList()));
-        when(patientRepository.findAll()).thenReturn(Collections.emptyList());
+        when(patientRepository.countByIsActiveTrue()).thenReturn(0L);
+        when(patientRepository.averageAge()).thenReturn(null);
         when(vitalSignRepository.findAll(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<VitalSign>emptyList()));
         when(alertRepository.findAll(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<Alert>emptyList()));
-        when(adherenceReportRepository.findAll(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<AdherenceReport>emptyList()));
-        when(medicationReportRepository.findAll(any(Pageable.class)))
-            .thenReturn(new PageImpl<>(Collections.<MedicationAdherenceReport>emptyList()));
         when(carePlanRepository.count()).thenReturn(25L);
         when(carePlanRepository.findByIsActiveTrue(any(Pageable.class)))
             .thenReturn(new PageImpl<>(Collections.<CarePlan>emptyList()));
@@ -19,7 +19,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
-import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,6 +37,8 @@ class MedicationAdherenceServiceTest {
     @Mock
     private PatientRepository patientRepository;
     @Mock
+    private AdherenceRollupService adherenceRollup;
+    @Mock
     private SecurityUtil securityUtil;
 
     @InjectMocks
@@ -80,7 +81,6 @@ class MedicationAdherenceServiceTest {
             .build();
 
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(medicationRepository.findByIsActiveTrue()).thenReturn(Collections.emptyList());
         when(securityUtil.getCurrentUserId()).thenReturn(userId);
         when(reportRepository.save(any(MedicationAdherenceReport.class))).thenReturn(report);
 
@@ -114,7 +114,6 @@ class MedicationAdherenceServiceTest {
     @DisplayName("Should get adherence statistics")
     void getAdherenceStatistics_Success() {
         // Given
-        when(medicationRepository.findByIsActiveTrue()).thenReturn(Collections.emptyList());
 
         // When
         MedicationAdherenceStatistics stats = adherenceService.getAdherenceStatistics(patientId, 30);
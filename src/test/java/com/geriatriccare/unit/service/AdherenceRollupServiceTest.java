@@ -0,0 +1,171 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.entity.CareAdherenceDaily;
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.entity.CareTaskFrequency;
+import com.geriatriccare.entity.CareTaskPriority;
+import com.geriatriccare.repository.CareAdherenceDailyRepository;
+import com.geriatriccare.repository.CareTaskOccurrenceRepository;
+import com.geriatriccare.repository.CareTaskRepository;
+import com.geriatriccare.service.AdherenceRollupService;
+import com.geriatriccare.service.AdherenceRollupService.DailyAdherence;
+import com.geriatriccare.service.CareTaskScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Adherence Rollup Tests")
+class AdherenceRollupServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 10, 0);
+
+    @Mock
+    private CareAdherenceDailyRepository rollupRepository;
+
+    @Mock
+    private CareTaskRepository careTaskRepository;
+
+    @Mock
+    private CareTaskOccurrenceRepository occurrenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AdherenceRollupService rollup;
+
+    private final UUID patientId = UUID.randomUUID();
+    private final UUID taskId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        CareTaskScheduleService schedule = new CareTaskScheduleService(careTaskRepository, occurrenceRepository,
+                clock, Duration.ofHours(48), Duration.ofDays(7), Duration.ofMinutes(30), Duration.ofMinutes(60));
+        rollup = new AdherenceRollupService(rollupRepository, careTaskRepository, schedule, transactionManager, clock);
+
+        // Twice daily at 08:00 and 20:00 since March 8th, both of the 8th and the morning of the 9th completed
+        List<Object[]> tasks = new ArrayList<>();
+        tasks.add(new Object[]{taskId, UUID.randomUUID(), patientId, null, CareTaskFrequency.TWICE_DAILY,
+                LocalTime.of(8, 0), LocalDate.of(2026, 3, 8), null, CareTaskPriority.HIGH, "Metformin",
+                CareTaskCategory.MEDICATION});
+        List<Object[]> completed = new ArrayList<>();
+        completed.add(new Object[]{taskId, LocalDateTime.of(2026, 3, 8, 8, 0)});
+        completed.add(new Object[]{taskId, LocalDateTime.of(2026, 3, 8, 20, 0)});
+        completed.add(new Object[]{taskId, LocalDateTime.of(2026, 3, 9, 8, 0)});
+
+        lenient().when(careTaskRepository.findScheduleRows()).thenReturn(tasks);
+        lenient().when(occurrenceRepository.findCompletedBetween(any(), any())).thenReturn(completed);
+        lenient().when(occurrenceRepository.findLastCompletions()).thenReturn(List.of());
+    }
+
+    @Nested
+    @DisplayName("Completions")
+    class CompletionTests {
+
+        @Test
+        @DisplayName("Should create the day's row on the first completion and count a late one")
+        void recordCompletion_FirstOfDay_CreatesRowThenCounts() {
+            // Arrange
+            LocalDateTime dueAt = LocalDateTime.of(2026, 3, 10, 8, 0);
+            when(rollupRepository.addCompletion(patientId, CareTaskCategory.MEDICATION, dueAt.toLocalDate(), 1))
+                    .thenReturn(0, 1);
+
+            // Act
+            rollup.recordCompletion(patientId, CareTaskCategory.MEDICATION, dueAt, dueAt.plusMinutes(45));
+
+            // Assert
+            ArgumentCaptor<CareAdherenceDaily> row = ArgumentCaptor.forClass(CareAdherenceDaily.class);
+            verify(rollupRepository).saveAndFlush(row.capture());
+            assertThat(row.getValue().getDueDate()).isEqualTo(LocalDate.of(2026, 3, 10));
+            assertThat(row.getValue().getScheduledCount()).isZero();
+            verify(rollupRepository, times(2))
+                    .addCompletion(patientId, CareTaskCategory.MEDICATION, dueAt.toLocalDate(), 1);
+        }
+
+        @Test
+        @DisplayName("Should count a completion within the grace period as on time")
+        void recordCompletion_WithinGrace_NotLate() {
+            // Arrange
+            LocalDateTime dueAt = LocalDateTime.of(2026, 3, 10, 8, 0);
+            when(rollupRepository.addCompletion(patientId, CareTaskCategory.MEDICATION, dueAt.toLocalDate(), 0))
+                    .thenReturn(1);
+
+            // Act
+            rollup.recordCompletion(patientId, CareTaskCategory.MEDICATION, dueAt, dueAt.plusMinutes(20));
+
+            // Assert
+            verify(rollupRepository, never()).saveAndFlush(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Closing days")
+    class CloseTests {
+
+        @Test
+        @DisplayName("Should count the open occurrences of each finished day as missed, once")
+        void closeDays_CountsMissedOnce() {
+            // Arrange
+            LocalDate march9 = LocalDate.of(2026, 3, 9);
+            when(rollupRepository.addMissed(patientId, CareTaskCategory.MEDICATION, march9, 1)).thenReturn(0, 1);
+
+            // Act
+            rollup.closeDays();
+            rollup.closeDays();
+
+            // Assert
+            verify(rollupRepository, times(2)).addMissed(patientId, CareTaskCategory.MEDICATION, march9, 1);
+            verify(rollupRepository).saveAndFlush(any(CareAdherenceDaily.class));
+            // Nothing open on the other days of the window, and today is not over
+            verify(rollupRepository, never()).addMissed(any(), any(), eq(LocalDate.of(2026, 3, 8)), anyInt());
+            verify(rollupRepository, never()).addMissed(any(), any(), eq(NOW.toLocalDate()), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Derived measures")
+    class MeasureTests {
+
+        @Test
+        @DisplayName("Should derive trend, daily average and missed run from the daily counters")
+        void getDaily_Measures() {
+            // Arrange
+            LocalDate from = LocalDate.of(2026, 3, 1);
+            LocalDate to = LocalDate.of(2026, 3, 4);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{LocalDate.of(2026, 3, 1), 4L, 4L, 0L, 0L});
+            rows.add(new Object[]{LocalDate.of(2026, 3, 2), 4L, 3L, 1L, 1L});
+            rows.add(new Object[]{LocalDate.of(2026, 3, 3), 4L, 0L, 0L, 4L});
+            rows.add(new Object[]{LocalDate.of(2026, 3, 4), 2L, 0L, 0L, 2L});
+            when(rollupRepository.sumByDay(patientId, from, to)).thenReturn(rows);
+
+            // Act
+            List<DailyAdherence> daily = rollup.getDaily(patientId, from, to);
+
+            // Assert
+            assertThat(AdherenceRollupService.trend(daily)).isEqualTo("DECLINING");
+            assertThat(AdherenceRollupService.averageDailyAdherence(daily)).isEqualTo(43.75);
+            assertThat(AdherenceRollupService.consecutiveMissedDays(daily)).isEqualTo(2);
+            assertThat(AdherenceRollupService.sum(daily.stream().map(DailyAdherence::getTotals).toList())
+                    .getAdherencePercentage()).isCloseTo(50.0, within(0.001));
+            assertThat(AdherenceRollupService.trend(List.of())).isEqualTo("NO_DATA");
+        }
+    }
+}
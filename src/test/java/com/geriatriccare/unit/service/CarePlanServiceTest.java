@@ -11,6 +11,8 @@ import com.geriatriccare.repository.CarePlanRepository;
 import com.geriatriccare.repository.PatientRepository;
 import com.geriatriccare.repository.UserRepository;
 import com.geriatriccare.service.CarePlanService;
+import com.geriatriccare.service.CareTaskScheduleService;
+import com.geriatriccare.service.security.HIPAAAuditService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -51,6 +53,12 @@ class CarePlanServiceTest {
     @Mock
     private Authentication authentication;
     
+    @Mock
+    private CareTaskScheduleService careTaskSchedule;
+    
+    @Mock
+    private HIPAAAuditService hipaaAuditService;
+    
     @InjectMocks
     private CarePlanService carePlanService;
     
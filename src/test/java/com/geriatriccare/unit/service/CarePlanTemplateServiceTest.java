@@ -6,6 +6,7 @@ import com.geriatriccare.entity.*;
 import com.geriatriccare.enums.UserRole;
 import com.geriatriccare.repository.*;
 import com.geriatriccare.service.CarePlanTemplateService;
+import com.geriatriccare.service.security.HIPAAAuditService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ class CarePlanTemplateServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private HIPAAAuditService hipaaAuditService;
+    
     @Mock
     private SecurityContext securityContext;
     
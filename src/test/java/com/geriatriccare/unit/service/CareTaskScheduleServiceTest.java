@@ -0,0 +1,196 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.entity.CareTaskFrequency;
+import com.geriatriccare.entity.CareTaskPriority;
+import com.geriatriccare.repository.CareTaskOccurrenceRepository;
+import com.geriatriccare.repository.CareTaskRepository;
+import com.geriatriccare.service.CareTaskScheduleService;
+import com.geriatriccare.service.CareTaskScheduleService.Occurrence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Care Task Schedule Tests")
+class CareTaskScheduleServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 10, 0);
+
+    @Mock
+    private CareTaskRepository careTaskRepository;
+
+    @Mock
+    private CareTaskOccurrenceRepository occurrenceRepository;
+
+    private CareTaskScheduleService schedule;
+
+    private final UUID taskId = UUID.randomUUID();
+    private final UUID carePlanId = UUID.randomUUID();
+    private final UUID caregiverId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        schedule = new CareTaskScheduleService(careTaskRepository, occurrenceRepository, clock,
+                Duration.ofHours(48), Duration.ofDays(7), Duration.ofMinutes(30), Duration.ofMinutes(60));
+
+        // Daily at 08:00 since March 8th, the first occurrence already completed
+        List<Object[]> tasks = new ArrayList<>();
+        tasks.add(new Object[]{taskId, carePlanId, UUID.randomUUID(), caregiverId, CareTaskFrequency.DAILY,
+                LocalTime.of(8, 0), LocalDate.of(2026, 3, 8), null, CareTaskPriority.MEDIUM, "Morning walk",
+                CareTaskCategory.MOBILITY});
+        List<Object[]> completed = new ArrayList<>();
+        completed.add(new Object[]{taskId, LocalDateTime.of(2026, 3, 8, 8, 0)});
+        List<Object[]> lastCompletions = new ArrayList<>();
+        lastCompletions.add(new Object[]{taskId, LocalDateTime.of(2026, 3, 8, 8, 5)});
+
+        lenient().when(careTaskRepository.findScheduleRows()).thenReturn(tasks);
+        lenient().when(occurrenceRepository.findCompletedBetween(any(), any())).thenReturn(completed);
+        lenient().when(occurrenceRepository.findLastCompletions()).thenReturn(lastCompletions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("Expansion")
+    class ExpansionTests {
+
+        @Test
+        @DisplayName("Should spread several-times-daily occurrences over twelve hours")
+        void expand_SeveralTimesDaily_Spread() {
+            // Act
+            List<LocalDateTime> fourTimes = CareTaskScheduleService.expand(CareTaskFrequency.FOUR_TIMES_DAILY,
+                    LocalTime.of(8, 0), LocalDate.of(2026, 3, 1), null,
+                    LocalDateTime.of(2026, 3, 10, 0, 0), LocalDateTime.of(2026, 3, 11, 0, 0));
+            List<LocalDateTime> twiceFromEvening = CareTaskScheduleService.expand(CareTaskFrequency.TWICE_DAILY,
+                    LocalTime.of(20, 0), LocalDate.of(2026, 3, 1), null,
+                    LocalDateTime.of(2026, 3, 10, 0, 0), LocalDateTime.of(2026, 3, 11, 0, 0));
+
+            // Assert
+            assertThat(fourTimes).extracting(LocalDateTime::getHour).containsExactly(8, 12, 16, 20);
+            assertThat(twiceFromEvening).containsExactly(
+                    LocalDateTime.of(2026, 3, 10, 8, 0), LocalDateTime.of(2026, 3, 10, 20, 0));
+        }
+
+        @Test
+        @DisplayName("Should repeat from the plan start and stop at the plan end")
+        void expand_Periodic_FromStartDate() {
+            // Arrange
+            LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+            LocalDateTime to = LocalDateTime.of(2026, 5, 1, 0, 0);
+
+            // Act & Assert
+            assertThat(CareTaskScheduleService.expand(CareTaskFrequency.MONTHLY, null,
+                    LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31), from, to))
+                    .containsExactly(LocalDateTime.of(2026, 1, 31, 9, 0), LocalDateTime.of(2026, 2, 28, 9, 0),
+                            LocalDateTime.of(2026, 3, 31, 9, 0));
+            assertThat(CareTaskScheduleService.expand(CareTaskFrequency.BIWEEKLY, LocalTime.NOON,
+                    LocalDate.of(2025, 12, 1), null, LocalDateTime.of(2026, 1, 10, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0)))
+                    .containsExactly(LocalDateTime.of(2026, 1, 12, 12, 0), LocalDateTime.of(2026, 1, 26, 12, 0));
+            assertThat(CareTaskScheduleService.expand(CareTaskFrequency.ONCE, null,
+                    LocalDate.of(2026, 2, 2), null, from, to)).containsExactly(LocalDateTime.of(2026, 2, 2, 9, 0));
+            assertThat(CareTaskScheduleService.expand(CareTaskFrequency.AS_NEEDED, null,
+                    LocalDate.of(2026, 2, 2), null, from, to)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Due and overdue")
+    class DueTests {
+
+        @Test
+        @DisplayName("Should answer due and overdue occurrences from one build")
+        void getOverdue_SkipsCompletedOccurrences() {
+            // Act
+            List<Occurrence> overdue = schedule.getOverdue();
+            List<Occurrence> due = schedule.getDueForCaregiver(caregiverId);
+            CareTaskScheduleService.TaskStatus status = schedule.getStatus(taskId);
+
+            // Assert
+            assertThat(overdue).extracting(Occurrence::getDueAt).containsExactly(
+                    LocalDateTime.of(2026, 3, 9, 8, 0), LocalDateTime.of(2026, 3, 10, 8, 0));
+            assertThat(due).isEqualTo(overdue);
+            assertThat(schedule.getDueForCaregiver(UUID.randomUUID())).isEmpty();
+            assertThat(status.getNextDueAt()).isEqualTo(LocalDateTime.of(2026, 3, 9, 8, 0));
+            assertThat(status.getLastCompletedAt()).isEqualTo(LocalDateTime.of(2026, 3, 8, 8, 5));
+            assertThat(status.isOverdue()).isTrue();
+            assertThat(status.isCompleted()).isFalse();
+            verify(careTaskRepository, times(1)).findScheduleRows();
+        }
+
+        @Test
+        @DisplayName("Should match a completion to the nearest open occurrence that day")
+        void findOpenOccurrence_NearestSameDay() {
+            // Act & Assert
+            assertThat(schedule.findOpenOccurrence(taskId, NOW))
+                    .contains(LocalDateTime.of(2026, 3, 10, 8, 0));
+            assertThat(schedule.findOpenOccurrence(taskId, LocalDateTime.of(2026, 3, 9, 7, 0)))
+                    .contains(LocalDateTime.of(2026, 3, 9, 8, 0));
+            assertThat(schedule.findOpenOccurrence(UUID.randomUUID(), NOW)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should close a completed occurrence only after commit")
+        void occurrenceCompleted_AppliedAfterCommit() {
+            // Arrange
+            schedule.getOverdue();
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            schedule.occurrenceCompleted(taskId, LocalDateTime.of(2026, 3, 10, 8, 0), NOW);
+
+            // Assert
+            assertThat(schedule.getOverdue()).hasSize(2);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(schedule.getOverdue()).extracting(Occurrence::getDueAt)
+                    .containsExactly(LocalDateTime.of(2026, 3, 9, 8, 0));
+            assertThat(schedule.getStatus(taskId).getLastCompletedAt()).isEqualTo(NOW);
+        }
+
+        @Test
+        @DisplayName("Should drop the occurrences of a task whose plan stopped")
+        void carePlanChanged_PlanSuspended_OccurrencesRemoved() {
+            // Arrange
+            schedule.getOverdue();
+            when(careTaskRepository.findIdsByCarePlanId(carePlanId)).thenReturn(List.of(taskId));
+            when(careTaskRepository.findScheduleRows(anyCollection())).thenReturn(List.of());
+
+            // Act
+            schedule.carePlanChanged(carePlanId);
+
+            // Assert
+            assertThat(schedule.getOverdue()).isEmpty();
+            assertThat(schedule.getDueForCaregiver(caregiverId)).isEmpty();
+            assertThat(schedule.getStatus(taskId).getNextDueAt()).isNull();
+        }
+    }
+}
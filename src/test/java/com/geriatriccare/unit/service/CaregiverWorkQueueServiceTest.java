@@ -0,0 +1,173 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.dto.WorkQueueItem;
+import com.geriatriccare.entity.CareTaskCategory;
+import com.geriatriccare.entity.CareTaskFrequency;
+import com.geriatriccare.entity.CareTaskPriority;
+import com.geriatriccare.repository.CareTaskOccurrenceRepository;
+import com.geriatriccare.repository.CareTaskRepository;
+import com.geriatriccare.service.CareTaskScheduleService;
+import com.geriatriccare.service.CaregiverWorkQueueService;
+import com.geriatriccare.service.PatientAccessIndexService;
+import com.geriatriccare.service.PatientAccessIndexService.Relation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Caregiver Work Queue Tests")
+class CaregiverWorkQueueServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 10, 0);
+
+    @Mock
+    private CareTaskRepository careTaskRepository;
+
+    @Mock
+    private CareTaskOccurrenceRepository occurrenceRepository;
+
+    @Mock
+    private PatientAccessIndexService patientAccessIndex;
+
+    private MutableClock clock;
+    private CareTaskScheduleService schedule;
+    private CaregiverWorkQueueService workQueue;
+
+    private final UUID caregiverId = UUID.randomUUID();
+    private final UUID assignedPatient = UUID.randomUUID();
+    private final UUID walkTask = UUID.randomUUID();
+    private final UUID insulinTask = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        schedule = new CareTaskScheduleService(careTaskRepository, occurrenceRepository, clock,
+                Duration.ofHours(48), Duration.ofDays(7), Duration.ofMinutes(30), Duration.ofMinutes(60));
+        workQueue = new CaregiverWorkQueueService(schedule, patientAccessIndex, clock, 60_000);
+
+        List<Object[]> tasks = new ArrayList<>();
+        // On a plan assigned to the caregiver
+        tasks.add(new Object[]{walkTask, UUID.randomUUID(), UUID.randomUUID(), caregiverId, CareTaskFrequency.DAILY,
+                LocalTime.of(8, 0), LocalDate.of(2026, 3, 9), null, CareTaskPriority.LOW, "Morning walk",
+                CareTaskCategory.MOBILITY});
+        // For a patient the caregiver is assigned to
+        tasks.add(new Object[]{insulinTask, UUID.randomUUID(), assignedPatient, null, CareTaskFrequency.DAILY,
+                LocalTime.of(10, 30), LocalDate.of(2026, 3, 10), null, CareTaskPriority.URGENT, "Insulin",
+                CareTaskCategory.MEDICATION});
+        // Neither
+        tasks.add(new Object[]{UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                CareTaskFrequency.DAILY, LocalTime.of(9, 0), LocalDate.of(2026, 3, 9), null,
+                CareTaskPriority.HIGH, "Someone else's", CareTaskCategory.MOBILITY});
+
+        lenient().when(careTaskRepository.findScheduleRows()).thenReturn(tasks);
+        lenient().when(occurrenceRepository.findCompletedBetween(any(), any())).thenReturn(List.of());
+        lenient().when(occurrenceRepository.findLastCompletions()).thenReturn(List.of());
+        lenient().when(patientAccessIndex.getPatientIds(Relation.CAREGIVER, caregiverId))
+                .thenReturn(Set.of(assignedPatient));
+    }
+
+    @Nested
+    @DisplayName("Queue contents")
+    class QueueTests {
+
+        @Test
+        @DisplayName("Should order assigned plans' and patients' due tasks by priority, then due time")
+        void getQueue_PriorityThenDueTime() {
+            // Act
+            List<WorkQueueItem> queue = workQueue.getQueue(caregiverId);
+
+            // Assert
+            assertThat(queue).extracting(WorkQueueItem::getTaskName)
+                    .containsExactly("Insulin", "Morning walk", "Morning walk");
+            assertThat(queue).extracting(WorkQueueItem::getDueAt).containsExactly(
+                    LocalDateTime.of(2026, 3, 10, 10, 30),
+                    LocalDateTime.of(2026, 3, 9, 8, 0),
+                    LocalDateTime.of(2026, 3, 10, 8, 0));
+            assertThat(queue).extracting(WorkQueueItem::getOverdue).containsExactly(false, true, true);
+            assertThat(workQueue.getQueue(UUID.randomUUID())).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should apply completions and the passing of time at the next flush")
+        void flush_AppliesCompletionsAndDueTimes() {
+            // Arrange
+            workQueue.subscribe(caregiverId);
+            schedule.occurrenceCompleted(walkTask, LocalDateTime.of(2026, 3, 10, 8, 0), NOW);
+            assertThat(workQueue.getQueue(caregiverId)).hasSize(3);
+
+            // Act
+            clock.set(LocalDateTime.of(2026, 3, 11, 7, 30));
+            workQueue.flush();
+
+            // Assert
+            List<WorkQueueItem> queue = workQueue.getQueue(caregiverId);
+            assertThat(queue).extracting(WorkQueueItem::getDueAt).containsExactly(
+                    LocalDateTime.of(2026, 3, 10, 10, 30),
+                    LocalDateTime.of(2026, 3, 9, 8, 0),
+                    LocalDateTime.of(2026, 3, 11, 8, 0));
+            assertThat(queue).extracting(WorkQueueItem::getOverdue).containsExactly(true, true, false);
+        }
+
+        @Test
+        @DisplayName("Should rebuild the queue and re-read assignments when the schedule rolls")
+        void flush_AfterRoll_RebuildsQueue() {
+            // Arrange
+            workQueue.subscribe(caregiverId);
+            when(patientAccessIndex.getPatientIds(Relation.CAREGIVER, caregiverId)).thenReturn(Set.of());
+
+            // Act
+            schedule.roll();
+            workQueue.flush();
+
+            // Assert
+            assertThat(workQueue.getQueue(caregiverId)).extracting(WorkQueueItem::getTaskName)
+                    .containsExactly("Morning walk", "Morning walk");
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime now) {
+            set(now);
+        }
+
+        void set(LocalDateTime now) {
+            instant = now.atZone(ZoneId.systemDefault()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.dto.CatalogSuggestion;
+import com.geriatriccare.entity.Diagnosis;
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.repository.DiagnosisRepository;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.ProcedureRepository;
+import com.geriatriccare.service.CatalogAutocompleteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Catalog Autocomplete Tests")
+class CatalogAutocompleteServiceTest {
+
+    @Mock
+    private DiagnosisRepository diagnosisRepository;
+
+    @Mock
+    private ProcedureRepository procedureRepository;
+
+    @Mock
+    private DrugCatalogRepository drugCatalogRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> rebuilds = new ArrayList<>();
+    private CatalogAutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        autocompleteService = new CatalogAutocompleteService(
+                diagnosisRepository, procedureRepository, drugCatalogRepository, meterRegistry, rebuilds::add);
+
+        when(diagnosisRepository.findAllActive()).thenReturn(List.of(
+                diagnosis("E11.9", "Type 2 diabetes mellitus without complications", null),
+                diagnosis("E11.65", "Type 2 diabetes mellitus with hyperglycemia", null),
+                diagnosis("I10", "Essential (primary) hypertension", "High blood pressure; HTN")));
+        when(procedureRepository.findAllActive()).thenReturn(List.of());
+        when(drugCatalogRepository.findAllActive()).thenReturn(List.of(
+                drug("Warfarin", "[\"Coumadin\", \"Jantoven\"]"),
+                drug("Metformin", "Glucophage")));
+    }
+
+    @Nested
+    @DisplayName("Completions")
+    class CompletionTests {
+
+        @Test
+        @DisplayName("Should complete codes with and without punctuation")
+        void complete_CodePrefix_ReturnsCodes() {
+            // Act
+            List<CatalogSuggestion> dotted = autocompleteService.complete("E11.", EnumSet.of(CatalogType.DIAGNOSIS), 10);
+            List<CatalogSuggestion> compact = autocompleteService.complete("e119", EnumSet.of(CatalogType.DIAGNOSIS), 10);
+
+            // Assert
+            assertThat(dotted).extracting(CatalogSuggestion::getCode).containsExactly("E11.9", "E11.65");
+            assertThat(compact).extracting(CatalogSuggestion::getCode).containsExactly("E11.9");
+        }
+
+        @Test
+        @DisplayName("Should complete from later words, synonyms and brand names")
+        void complete_WordsSynonymsAndBrands() {
+            // Act & Assert
+            assertThat(autocompleteService.complete("diab", EnumSet.of(CatalogType.DIAGNOSIS), 10)).hasSize(2);
+            assertThat(autocompleteService.complete("high blo", EnumSet.of(CatalogType.DIAGNOSIS), 10))
+                    .extracting(CatalogSuggestion::getCode).containsExactly("I10");
+            assertThat(autocompleteService.complete("jant", EnumSet.of(CatalogType.DRUG), 10))
+                    .extracting(CatalogSuggestion::getName).containsExactly("Warfarin");
+        }
+
+        @Test
+        @DisplayName("Should return each entry once, best match first, up to the limit")
+        void complete_DistinctEntriesByWeight() {
+            // Act
+            List<CatalogSuggestion> suggestions =
+                    autocompleteService.complete("e", EnumSet.allOf(CatalogType.class), 2);
+
+            // Assert
+            assertThat(suggestions).hasSize(2);
+            assertThat(suggestions).extracting(CatalogSuggestion::getCode).containsExactly("E11.9", "E11.65");
+            assertThat(suggestions.get(0).getWeight()).isGreaterThanOrEqualTo(suggestions.get(1).getWeight());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifecycle")
+    class LifecycleTests {
+
+        @Test
+        @DisplayName("Should build once, rebuild after invalidation and report its size")
+        void complete_ReusesIndexUntilInvalidated() {
+            // Act
+            autocompleteService.complete("war", EnumSet.of(CatalogType.DRUG), 5);
+            autocompleteService.complete("met", EnumSet.of(CatalogType.DRUG), 5);
+            autocompleteService.invalidate();
+            rebuilds.forEach(Runnable::run);
+            autocompleteService.complete("war", EnumSet.of(CatalogType.DRUG), 5);
+
+            // Assert
+            verify(drugCatalogRepository, times(2)).findAllActive();
+            assertThat(meterRegistry.get("catalog.autocomplete.memory").tag("type", "DRUG").gauge().value())
+                    .isPositive();
+            assertThat(meterRegistry.get("catalog.autocomplete.request").timer().count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should keep serving the old index until the background rebuild swaps in")
+        void invalidate_ServesOldIndexUntilRebuilt() {
+            // Arrange
+            autocompleteService.complete("war", EnumSet.of(CatalogType.DRUG), 5);
+            when(drugCatalogRepository.findAllActive()).thenReturn(List.of(drug("Apixaban", "Eliquis")));
+
+            // Act
+            autocompleteService.invalidate();
+            autocompleteService.invalidate();
+            List<CatalogSuggestion> beforeRebuild = autocompleteService.complete("war", EnumSet.of(CatalogType.DRUG), 5);
+            rebuilds.forEach(Runnable::run);
+            List<CatalogSuggestion> afterRebuild = autocompleteService.complete("eli", EnumSet.of(CatalogType.DRUG), 5);
+
+            // Assert
+            assertThat(rebuilds).hasSize(1);
+            assertThat(beforeRebuild).extracting(CatalogSuggestion::getName).containsExactly("Warfarin");
+            assertThat(afterRebuild).extracting(CatalogSuggestion::getName).containsExactly("Apixaban");
+            verify(drugCatalogRepository, times(2)).findAllActive();
+        }
+    }
+
+    private static Diagnosis diagnosis(String code, String name, String synonyms) {
+        Diagnosis diagnosis = new Diagnosis();
+        diagnosis.setId(UUID.randomUUID());
+        diagnosis.setCode(code);
+        diagnosis.setName(name);
+        diagnosis.setSynonyms(synonyms);
+        diagnosis.setIsActive(true);
+        return diagnosis;
+    }
+
+    private static DrugCatalog drug(String genericName, String brandNames) {
+        DrugCatalog drug = new DrugCatalog();
+        drug.setId(UUID.randomUUID());
+        drug.setGenericName(genericName);
+        drug.setBrandNames(brandNames);
+        drug.setIsActive(true);
+        return drug;
+    }
+}
@@ -0,0 +1,141 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.config.CacheConfig;
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.service.CatalogCacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Catalog Cache Tests")
+class CatalogCacheServiceTest {
+
+    private CatalogCacheService catalogCache;
+    private AtomicInteger loads;
+    private DrugCatalog warfarin;
+    private Function<UUID, Optional<DrugCatalog>> loader;
+
+    @BeforeEach
+    void setUp() {
+        catalogCache = new CatalogCacheService(new CacheConfig().cacheManager(100, 60, 1 << 20, 60));
+        loads = new AtomicInteger();
+
+        warfarin = new DrugCatalog();
+        warfarin.setId(UUID.randomUUID());
+        warfarin.setGenericName("Warfarin");
+        loader = id -> {
+            loads.incrementAndGet();
+            return id.equals(warfarin.getId()) ? Optional.of(warfarin) : Optional.empty();
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("Read-through")
+    class ReadThroughTests {
+
+        @Test
+        @DisplayName("Should load an entry once and serve it from the cache")
+        void get_RepeatedLookup_LoadsOnce() {
+            // Act
+            Optional<DrugCatalog> first = catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+            Optional<DrugCatalog> second = catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+
+            // Assert
+            assertThat(first).contains(warfarin);
+            assertThat(second).contains(warfarin);
+            assertThat(loads).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("Should not cache missing entries")
+        void get_Missing_NotCached() {
+            // Arrange
+            UUID unknown = UUID.randomUUID();
+
+            // Act
+            catalogCache.get(CatalogType.DRUG, unknown, loader);
+            Optional<DrugCatalog> result = catalogCache.get(CatalogType.DRUG, unknown, loader);
+
+            // Assert
+            assertThat(result).isEmpty();
+            assertThat(loads).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Versioned invalidation")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Should reload only the catalog that was written")
+        void evict_OneCatalog_OthersStayCached() {
+            // Arrange
+            catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+            UUID diagnosisId = UUID.randomUUID();
+            catalogCache.get(CatalogType.DIAGNOSIS, diagnosisId, id -> Optional.of("E11.9"));
+
+            // Act
+            catalogCache.evict(CatalogType.DRUG);
+            catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+            Optional<String> diagnosis = catalogCache.get(CatalogType.DIAGNOSIS, diagnosisId,
+                    id -> Optional.of("reloaded"));
+
+            // Assert
+            assertThat(loads).hasValue(2);
+            assertThat(diagnosis).contains("E11.9");
+        }
+
+        @Test
+        @DisplayName("Should drop entries cached between the write and its commit")
+        void evict_InTransaction_RetiresAgainAfterCommit() {
+            // Arrange
+            TransactionSynchronizationManager.initSynchronization();
+            catalogCache.evict(CatalogType.DRUG);
+            catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            catalogCache.get(CatalogType.DRUG, warfarin.getId(), loader);
+
+            // Assert
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should recount statistics after any catalog write")
+        void getStatistics_AfterWrite_Recounted() {
+            // Arrange
+            AtomicInteger counts = new AtomicInteger();
+
+            // Act
+            catalogCache.getStatistics(() -> Map.of("activeDrugs", (long) counts.incrementAndGet()));
+            catalogCache.getStatistics(() -> Map.of("activeDrugs", (long) counts.incrementAndGet()));
+            catalogCache.evictStatistics();
+            Map<String, Long> stats =
+                    catalogCache.getStatistics(() -> Map.of("activeDrugs", (long) counts.incrementAndGet()));
+
+            // Assert
+            assertThat(stats).containsEntry("activeDrugs", 2L);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.dto.security.DataSensitivity;
+import com.geriatriccare.entity.CatalogImportJob;
+import com.geriatriccare.enums.AuditEventType;
+import com.geriatriccare.enums.AuditSeverity;
+import com.geriatriccare.enums.CatalogType;
+import com.geriatriccare.repository.CatalogImportJobRepository;
+import com.geriatriccare.service.CatalogAutocompleteService;
+import com.geriatriccare.service.CatalogCacheService;
+import com.geriatriccare.service.CatalogSearchService;
+import com.geriatriccare.service.DrugInteractionGraphService;
+import com.geriatriccare.service.catalog.CatalogImportFormat;
+import com.geriatriccare.service.catalog.CatalogImportService;
+import com.geriatriccare.service.catalog.CatalogUpsertWriter;
+import com.geriatriccare.service.security.AuditEnhancementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Catalog Import Tests")
+class CatalogImportServiceTest {
+
+    @Mock
+    private CatalogImportJobRepository jobRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditEnhancementService auditService;
+
+    @Mock
+    private CatalogSearchService catalogSearch;
+
+    @Mock
+    private CatalogAutocompleteService autocomplete;
+
+    @Mock
+    private CatalogCacheService catalogCache;
+
+    @Mock
+    private DrugInteractionGraphService interactionGraph;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private CatalogImportService importService;
+    private final Map<UUID, CatalogImportJob> jobs = new HashMap<>();
+    private final UUID adminId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Runs imports on the calling thread
+        importService = new CatalogImportService(jobRepository, new CatalogUpsertWriter(jdbcTemplate),
+                auditService, catalogSearch, autocomplete, catalogCache, interactionGraph, transactionManager,
+                Runnable::run);
+        ReflectionTestUtils.setField(importService, "directory", spoolDirectory.toString());
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+
+        lenient().when(jobRepository.save(any(CatalogImportJob.class))).thenAnswer(invocation -> {
+            CatalogImportJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0))));
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of());
+    }
+
+    @Nested
+    @DisplayName("Importing")
+    class ImportTests {
+
+        @Test
+        @DisplayName("Should upsert quoted CSV in chunks and reject invalid records")
+        void startImport_Csv_UpsertsValidRecords() throws IOException {
+            // Arrange
+            String csv = "Code,Name,Category,Description\r\n"
+                    + "E11.9,\"Type 2 diabetes mellitus, without complications\",Endocrine,\n"
+                    + "I10,Essential hypertension,Circulatory,\"Line one\nline \"\"two\"\"\"\n"
+                    + "R51,,Symptoms,\n"
+                    + "\n"
+                    + "N18.3,Chronic kidney disease stage 3,Genitourinary,\n"
+                    + "I10,Essential (primary) hypertension,Circulatory,\n";
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                    .thenReturn(List.of())
+                    .thenReturn(List.of())
+                    .thenReturn(List.of("I10"));
+
+            // Act
+            CatalogImportJob job = importService.startImport(CatalogType.DIAGNOSIS, CatalogImportFormat.CSV,
+                    "icd10.csv", stream(csv), "admin", adminId);
+
+            // Assert
+            assertThat(job.getStatus()).isEqualTo(CatalogImportJob.Status.COMPLETED);
+            assertThat(job.getRecordsRead()).isEqualTo(5);
+            assertThat(job.getRecordsInserted()).isEqualTo(3);
+            assertThat(job.getRecordsUpdated()).isEqualTo(1);
+            assertThat(job.getRecordsRejected()).isEqualTo(1);
+            assertThat(job.getRejections()).isEqualTo("record 3: name is required");
+            assertThat(Files.exists(Paths.get(job.getSourcePath()))).isFalse();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO diagnoses"), inserts.capture());
+            Object[] first = inserts.getAllValues().get(0).get(0);
+            assertThat(first).contains("E11.9", "Type 2 diabetes mellitus, without complications", "admin");
+            Object[] second = inserts.getAllValues().get(0).get(1);
+            assertThat(second).contains("Line one\nline \"two\"");
+            verify(jdbcTemplate).batchUpdate(startsWith("UPDATE diagnoses"), anyList());
+
+            verify(auditService, times(3)).logEnhancedAuditEvent(eq(AuditEventType.CONFIG_CHANGED),
+                    eq(AuditSeverity.INFO), eq(DataSensitivity.INTERNAL), isNull(), eq(adminId.toString()),
+                    anyString(), isNull());
+            verify(catalogSearch).rebuild();
+            verify(autocomplete).invalidate();
+            verify(catalogCache).evict(CatalogType.DIAGNOSIS);
+            verifyNoInteractions(interactionGraph);
+        }
+
+        @Test
+        @DisplayName("Should read drug records from XML attributes and elements")
+        void startImport_Xml_ImportsDrugs() throws IOException {
+            // Arrange
+            String xml = "<?xml version=\"1.0\"?>\n<drugs>\n"
+                    + "  <drug generic-name=\"Warfarin\"><category>Anticoagulant</category>"
+                    + "<brand_names>Coumadin, Jantoven</brand_names></drug>\n"
+                    + "  <drug><genericName>Metformin</genericName><fdaStatus>Approved</fdaStatus></drug>\n"
+                    + "</drugs>";
+
+            // Act
+            CatalogImportJob job = importService.startImport(CatalogType.DRUG, CatalogImportFormat.XML,
+                    "drugs.xml", stream(xml), "admin", adminId);
+
+            // Assert
+            assertThat(job.getStatus()).isEqualTo(CatalogImportJob.Status.COMPLETED);
+            assertThat(job.getRecordsInserted()).isEqualTo(2);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO drug_catalog"), inserts.capture());
+            assertThat(inserts.getValue().get(0)).contains("Warfarin", "Anticoagulant", "Coumadin, Jantoven");
+            assertThat(inserts.getValue().get(1)).contains("Metformin", "Approved");
+            verify(interactionGraph).invalidate();
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpoints")
+    class CheckpointTests {
+
+        @Test
+        @DisplayName("Should keep the last committed chunk as checkpoint when a chunk fails")
+        void startImport_ChunkFails_MarksFailedAndKeepsFile() throws IOException {
+            // Arrange
+            when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                    .thenReturn(new int[0])
+                    .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+            // Act
+            CatalogImportJob job = importService.startImport(CatalogType.PROCEDURE, CatalogImportFormat.TSV,
+                    "cpt.tsv", stream(procedures()), "admin", adminId);
+
+            // Assert
+            CatalogImportJob failed = jobs.get(job.getId());
+            assertThat(failed.getStatus()).isEqualTo(CatalogImportJob.Status.FAILED);
+            assertThat(failed.getErrorMessage()).contains("connection lost");
+            assertThat(failed.getRecordsRead()).isEqualTo(2);
+            assertThat(Files.exists(Paths.get(failed.getSourcePath()))).isTrue();
+            verifyNoInteractions(catalogSearch);
+        }
+
+        @Test
+        @DisplayName("Should resume after the checkpoint without re-reading committed records")
+        void resume_FailedJob_ContinuesAfterCheckpoint() throws IOException {
+            // Arrange
+            when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                    .thenReturn(new int[0])
+                    .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                    .thenReturn(new int[0]);
+            CatalogImportJob job = importService.startImport(CatalogType.PROCEDURE, CatalogImportFormat.TSV,
+                    "cpt.tsv", stream(procedures()), "admin", adminId);
+
+            // Act
+            CatalogImportJob resumed = importService.resume(job.getId());
+
+            // Assert
+            assertThat(resumed.getStatus()).isEqualTo(CatalogImportJob.Status.COMPLETED);
+            assertThat(resumed.getRecordsRead()).isEqualTo(3);
+            assertThat(resumed.getRecordsInserted()).isEqualTo(3);
+            verify(auditService).logEnhancedAuditEvent(any(), any(), any(), any(), any(),
+                    contains("records 3-3"), any());
+            assertThatThrownBy(() -> importService.resume(job.getId()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("already completed");
+        }
+    }
+
+    private static String procedures() {
+        return "code\tname\testimated_duration_minutes\n"
+                + "99213\tOffice visit, established patient\t15\n"
+                + "93000\tElectrocardiogram\t10\n"
+                + "97110\tTherapeutic exercise\t30\n";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,196 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.entity.Diagnosis;
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.repository.DiagnosisRepository;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.ProcedureRepository;
+import com.geriatriccare.service.CatalogSearchService;
+import com.geriatriccare.util.search.InvertedIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Catalog Search Tests")
+class CatalogSearchServiceTest {
+
+    @Mock
+    private DiagnosisRepository diagnosisRepository;
+
+    @Mock
+    private ProcedureRepository procedureRepository;
+
+    @Mock
+    private DrugCatalogRepository drugCatalogRepository;
+
+    private CatalogSearchService searchService;
+
+    private Diagnosis diabetes;
+    private Diagnosis hypertension;
+    private DrugCatalog metformin;
+    private DrugCatalog warfarin;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new CatalogSearchService(diagnosisRepository, procedureRepository, drugCatalogRepository);
+
+        diabetes = diagnosis("E11.9", "Type 2 diabetes mellitus without complications", "Endocrine");
+        hypertension = diagnosis("I10", "Essential (primary) hypertension", "Circulatory");
+        hypertension.setSynonyms("High blood pressure, HTN");
+
+        metformin = drug("Metformin", "[\"Glucophage\", \"Fortamet\"]", "Antidiabetic");
+        warfarin = drug("Warfarin", "[\"Coumadin\", \"Jantoven\"]", "Anticoagulant");
+
+        when(diagnosisRepository.findAllActive()).thenReturn(List.of(diabetes, hypertension));
+        when(procedureRepository.findAllActive()).thenReturn(List.of());
+        when(drugCatalogRepository.findAllActive()).thenReturn(List.of(metformin, warfarin));
+
+        searchService.rebuild();
+    }
+
+    @Nested
+    @DisplayName("Matching")
+    class MatchingTests {
+
+        @Test
+        @DisplayName("Should find codes by prefix, with or without punctuation")
+        void search_CodePrefix_FindsDiagnosis() {
+            // Act & Assert
+            assertThat(searchService.searchDiagnoses("E11", 0, 10).getKeys()).containsExactly(diabetes.getId());
+            assertThat(searchService.searchDiagnoses("e119", 0, 10).getKeys()).containsExactly(diabetes.getId());
+            assertThat(searchService.searchDiagnoses("E11.9", 0, 10).getKeys()).containsExactly(diabetes.getId());
+        }
+
+        @Test
+        @DisplayName("Should match synonyms and brand names")
+        void search_SynonymsAndBrands_Found() {
+            // Act & Assert
+            assertThat(searchService.searchDiagnoses("blood pressure", 0, 10).getKeys())
+                    .containsExactly(hypertension.getId());
+            assertThat(searchService.searchDrugs("coumadin", 0, 10).getKeys()).containsExactly(warfarin.getId());
+        }
+
+        @Test
+        @DisplayName("Should tolerate typos")
+        void search_Misspelled_FindsByEditDistance() {
+            // Act & Assert
+            assertThat(searchService.searchDrugs("metfromin", 0, 10).getKeys()).containsExactly(metformin.getId());
+            assertThat(searchService.searchDiagnoses("diabetis", 0, 10).getKeys()).containsExactly(diabetes.getId());
+        }
+
+        @Test
+        @DisplayName("Should require every query word to match")
+        void search_AllWordsRequired() {
+            // Act
+            InvertedIndex.Result<UUID> result = searchService.searchDiagnoses("diabetes hypertension", 0, 10);
+
+            // Assert
+            assertThat(result.getTotal()).isZero();
+            assertThat(result.getHits()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranking")
+    class RankingTests {
+
+        @Test
+        @DisplayName("Should rank a name match above a category match")
+        void search_NameMatch_RankedFirst() {
+            // Arrange
+            DrugCatalog antidiabeticByName = drug("Antidiabetic test compound", null, "Other");
+            searchService.updated(antidiabeticByName);
+
+            // Act
+            InvertedIndex.Result<UUID> result = searchService.searchDrugs("antidiabetic", 0, 10);
+
+            // Assert
+            assertThat(result.getKeys()).containsExactly(antidiabeticByName.getId(), metformin.getId());
+        }
+
+        @Test
+        @DisplayName("Should page ranked hits and report the total")
+        void search_Paged_ReportsTotal() {
+            // Act
+            InvertedIndex.Result<UUID> result = searchService.searchDrugs("anti", 1, 1);
+
+            // Assert
+            assertThat(result.getTotal()).isEqualTo(2);
+            assertThat(result.getHits()).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Synchronization")
+    class SynchronizationTests {
+
+        @Test
+        @DisplayName("Should reindex updated entries and drop deactivated ones")
+        void updated_RenameAndDeactivate_IndexFollows() {
+            // Arrange
+            warfarin.setGenericName("Apixaban");
+            warfarin.setBrandNames("Eliquis");
+            searchService.updated(warfarin);
+            metformin.setIsActive(false);
+            searchService.updated(metformin);
+
+            // Act & Assert
+            assertThat(searchService.searchDrugs("coumadin", 0, 10).getTotal()).isZero();
+            assertThat(searchService.searchDrugs("eliquis", 0, 10).getKeys()).containsExactly(warfarin.getId());
+            assertThat(searchService.searchDrugs("metformin", 0, 10).getTotal()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should serve the old index during a rebuild and keep changes made meanwhile")
+        void rebuild_ConcurrentSearchAndUpdate_NoGap() {
+            // Arrange
+            DrugCatalog apixaban = drug("Apixaban", "Eliquis", "Anticoagulant");
+            List<Integer> totalsDuringRebuild = new ArrayList<>();
+            when(drugCatalogRepository.findAllActive()).thenAnswer(invocation -> {
+                totalsDuringRebuild.add(searchService.searchDrugs("warfarin", 0, 10).getTotal());
+                searchService.updated(apixaban);
+                return List.of(metformin, warfarin);
+            });
+
+            // Act
+            searchService.rebuild();
+
+            // Assert
+            assertThat(totalsDuringRebuild).containsExactly(1);
+            assertThat(searchService.searchDrugs("eliquis", 0, 10).getKeys()).containsExactly(apixaban.getId());
+            assertThat(searchService.searchDrugs("warfarin", 0, 10).getKeys()).containsExactly(warfarin.getId());
+        }
+    }
+
+    private static Diagnosis diagnosis(String code, String name, String category) {
+        Diagnosis diagnosis = new Diagnosis();
+        diagnosis.setId(UUID.randomUUID());
+        diagnosis.setCode(code);
+        diagnosis.setName(name);
+        diagnosis.setCategory(category);
+        diagnosis.setIsActive(true);
+        return diagnosis;
+    }
+
+    private static DrugCatalog drug(String genericName, String brandNames, String category) {
+        DrugCatalog drug = new DrugCatalog();
+        drug.setId(UUID.randomUUID());
+        drug.setGenericName(genericName);
+        drug.setBrandNames(brandNames);
+        drug.setCategory(category);
+        drug.setIsActive(true);
+        return drug;
+    }
+}
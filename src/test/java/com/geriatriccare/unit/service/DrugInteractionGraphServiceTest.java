@@ -0,0 +1,175 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.entity.DrugCatalog;
+import com.geriatriccare.entity.DrugInteraction;
+import com.geriatriccare.entity.InteractionSeverity;
+import com.geriatriccare.repository.DrugCatalogRepository;
+import com.geriatriccare.repository.DrugInteractionRepository;
+import com.geriatriccare.service.DrugInteractionGraphService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Drug Interaction Graph Tests")
+class DrugInteractionGraphServiceTest {
+
+    @Mock
+    private DrugInteractionRepository drugInteractionRepository;
+
+    @Mock
+    private DrugCatalogRepository drugCatalogRepository;
+
+    private DrugInteractionGraphService graphService;
+
+    @BeforeEach
+    void setUp() {
+        graphService = new DrugInteractionGraphService(drugInteractionRepository, drugCatalogRepository);
+
+        DrugCatalog warfarin = new DrugCatalog();
+        warfarin.setGenericName("Warfarin");
+        warfarin.setBrandNames("[\"Coumadin\", \"Jantoven\"]");
+        warfarin.setInteractions("Amiodarone, Fluconazole");
+
+        DrugCatalog aspirin = new DrugCatalog();
+        aspirin.setGenericName("Aspirin");
+        aspirin.setBrandNames("Bayer");
+
+        DrugCatalog metoprolol = new DrugCatalog();
+        metoprolol.setGenericName("Metoprolol");
+        metoprolol.setInteractions("[]");
+
+        DrugCatalog fluorouracil = new DrugCatalog();
+        fluorouracil.setGenericName("5-Fluorouracil");
+        fluorouracil.setInteractions("Warfarin");
+
+        DrugInteraction bleeding = new DrugInteraction();
+        bleeding.setMedication1Name("Warfarin");
+        bleeding.setMedication2Name("Aspirin");
+        bleeding.setSeverity(InteractionSeverity.MODERATE);
+        bleeding.setDescription("Significant bleeding risk");
+        bleeding.setRecommendation("Use with caution");
+
+        when(drugCatalogRepository.findAllActive()).thenReturn(List.of(warfarin, aspirin, metoprolol, fluorouracil));
+        when(drugInteractionRepository.findAll()).thenReturn(List.of(bleeding));
+    }
+
+    @Nested
+    @DisplayName("Interaction Lookup")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should match brand names and dosed names against structured pairs")
+        void check_BrandAndDosedNames_FindsInteraction() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult result =
+                    graphService.check(List.of("Coumadin 5mg daily", "Aspirin (low dose) 81 mg"));
+
+            // Assert
+            assertThat(result.isFullyCovered()).isTrue();
+            assertThat(result.getMatches()).hasSize(1);
+            DrugInteractionGraphService.Match match = result.getMatches().get(0);
+            assertThat(match.getDrug1()).isEqualTo("Coumadin 5mg daily");
+            assertThat(match.getSeverity()).isEqualTo(InteractionSeverity.MODERATE);
+            assertThat(match.getRecommendation()).isEqualTo("Use with caution");
+        }
+
+        @Test
+        @DisplayName("Should include catalog-listed interactions as severe")
+        void check_CatalogInteraction_ReportedSevere() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult result =
+                    graphService.check(List.of("Jantoven", "Amiodarone"));
+
+            // Assert
+            assertThat(result.getMatches()).singleElement()
+                    .extracting(DrugInteractionGraphService.Match::getSeverity)
+                    .isEqualTo(InteractionSeverity.SEVERE);
+        }
+
+        @Test
+        @DisplayName("Should report unknown medications as unresolved")
+        void check_UnknownMedication_NotFullyCovered() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult result =
+                    graphService.check(List.of("Warfarin", "Turmeric extract"));
+
+            // Assert
+            assertThat(result.isFullyCovered()).isFalse();
+            assertThat(result.getUnresolved()).containsExactly("Turmeric extract");
+            assertThat(result.getMatches()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not cover a pair with no edge unless both drugs have interaction lists")
+        void check_PairWithoutReferenceData_NotFullyCovered() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult uncovered =
+                    graphService.check(List.of("Aspirin", "Metoprolol"));
+            DrugInteractionGraphService.GraphCheckResult covered =
+                    graphService.check(List.of("Warfarin", "Metoprolol"));
+
+            // Assert
+            assertThat(uncovered.getUnresolved()).isEmpty();
+            assertThat(uncovered.isFullyCovered()).isFalse();
+            assertThat(uncovered.getUncoveredPairs()).singleElement()
+                    .extracting(DrugInteractionGraphService.DrugPair::getDrug1,
+                            DrugInteractionGraphService.DrugPair::getDrug2)
+                    .containsExactly("Aspirin", "Metoprolol");
+            assertThat(covered.isFullyCovered()).isTrue();
+            assertThat(covered.getMatches()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should drop only trailing formulation words when resolving")
+        void check_FormulationSuffix_ResolvedOtherWordsNot() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult result =
+                    graphService.check(List.of("Metoprolol succinate ER 50mg", "Warfarin sodium", "Aspirin booster"));
+
+            // Assert
+            assertThat(result.getResolved()).containsExactly("Metoprolol succinate ER 50mg", "Warfarin sodium");
+            assertThat(result.getUnresolved()).containsExactly("Aspirin booster");
+        }
+
+        @Test
+        @DisplayName("Should not resolve names without a usable key to each other")
+        void check_EmptyKey_DoesNotCollide() {
+            // Act
+            DrugInteractionGraphService.GraphCheckResult result =
+                    graphService.check(List.of("Warfarin", "500 mg tablet"));
+
+            // Assert
+            assertThat(result.getUnresolved()).containsExactly("500 mg tablet");
+            assertThat(result.getMatches()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Graph Lifecycle")
+    class LifecycleTests {
+
+        @Test
+        @DisplayName("Should build once and rebuild only after invalidation")
+        void check_ReusesGraphUntilInvalidated() {
+            // Act
+            graphService.check(List.of("Warfarin", "Aspirin"));
+            graphService.check(List.of("Warfarin", "Aspirin"));
+            graphService.invalidate();
+            graphService.check(List.of("Warfarin", "Aspirin"));
+
+            // Assert
+            verify(drugCatalogRepository, times(2)).findAllActive();
+            verify(drugInteractionRepository, times(2)).findAll();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.repository.PatientCaregiverRepository;
+import com.geriatriccare.repository.PatientFamilyMemberRepository;
+import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.service.PatientAccessIndexService;
+import com.geriatriccare.service.PatientAccessIndexService.Relation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Patient Access Index Tests")
+class PatientAccessIndexServiceTest {
+
+    @Mock
+    private PatientCaregiverRepository patientCaregiverRepository;
+
+    @Mock
+    private PatientFamilyMemberRepository patientFamilyMemberRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private PatientAccessIndexService accessIndex;
+
+    private final UUID caregiverId = UUID.randomUUID();
+    private final UUID familyMemberId = UUID.randomUUID();
+    private final UUID patientUserId = UUID.randomUUID();
+    private final UUID patientA = UUID.randomUUID();
+    private final UUID patientB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        accessIndex = new PatientAccessIndexService(
+                patientCaregiverRepository, patientFamilyMemberRepository, patientRepository);
+
+        List<Object[]> caregivers = new ArrayList<>();
+        caregivers.add(new Object[]{caregiverId, patientA});
+        caregivers.add(new Object[]{caregiverId, patientB});
+        List<Object[]> families = new ArrayList<>();
+        families.add(new Object[]{familyMemberId, patientA});
+        List<Object[]> selfLinks = new ArrayList<>();
+        selfLinks.add(new Object[]{patientUserId, patientB});
+
+        lenient().when(patientCaregiverRepository.findActiveAssignmentIds()).thenReturn(caregivers);
+        lenient().when(patientFamilyMemberRepository.findActiveAssignmentIds()).thenReturn(families);
+        lenient().when(patientRepository.findUserLinks()).thenReturn(selfLinks);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("Checks")
+    class CheckTests {
+
+        @Test
+        @DisplayName("Should answer checks per relation from one build")
+        void hasRelation_BuildsOnceFromProjections() {
+            // Act & Assert
+            assertThat(accessIndex.hasRelation(Relation.CAREGIVER, caregiverId, patientB)).isTrue();
+            assertThat(accessIndex.hasRelation(Relation.FAMILY, familyMemberId, patientA)).isTrue();
+            assertThat(accessIndex.hasRelation(Relation.FAMILY, familyMemberId, patientB)).isFalse();
+            assertThat(accessIndex.hasRelation(Relation.FAMILY, caregiverId, patientA)).isFalse();
+            assertThat(accessIndex.hasRelation(Relation.SELF, patientUserId, patientB)).isTrue();
+            assertThat(accessIndex.getPatientIds(Relation.CAREGIVER, caregiverId))
+                    .containsExactlyInAnyOrder(patientA, patientB);
+            assertThat(accessIndex.getPatientIds(Relation.SELF, UUID.randomUUID())).isEmpty();
+
+            verify(patientCaregiverRepository, times(1)).findActiveAssignmentIds();
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should apply relationship changes only after commit")
+        void familyMemberAssigned_AppliedAfterCommit() {
+            // Arrange
+            UUID newFamilyMember = UUID.randomUUID();
+            accessIndex.getPatientIds(Relation.FAMILY, familyMemberId);
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            accessIndex.familyMemberAssigned(newFamilyMember, patientB);
+            accessIndex.caregiverRemoved(caregiverId, patientA);
+
+            // Assert
+            assertThat(accessIndex.hasRelation(Relation.FAMILY, newFamilyMember, patientB)).isFalse();
+            assertThat(accessIndex.hasRelation(Relation.CAREGIVER, caregiverId, patientA)).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(accessIndex.hasRelation(Relation.FAMILY, newFamilyMember, patientB)).isTrue();
+            assertThat(accessIndex.hasRelation(Relation.CAREGIVER, caregiverId, patientA)).isFalse();
+            assertThat(accessIndex.getPatientIds(Relation.CAREGIVER, caregiverId)).containsExactly(patientB);
+        }
+
+        @Test
+        @DisplayName("Should move a patient's self link to the new login")
+        void patientUserLinked_MovesSelfLink() {
+            // Arrange
+            UUID newUserId = UUID.randomUUID();
+            accessIndex.getPatientIds(Relation.SELF, patientUserId);
+
+            // Act
+            accessIndex.patientUserLinked(patientB, patientUserId, newUserId);
+
+            // Assert
+            assertThat(accessIndex.hasRelation(Relation.SELF, patientUserId, patientB)).isFalse();
+            assertThat(accessIndex.hasRelation(Relation.SELF, newUserId, patientB)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should leave changes to an unbuilt index to the build")
+        void caregiverAssigned_BeforeBuild_ReadFromRepository() {
+            // Arrange
+            UUID newCaregiver = UUID.randomUUID();
+            accessIndex.caregiverAssigned(newCaregiver, patientA);
+            verifyNoInteractions(patientCaregiverRepository);
+            List<Object[]> caregivers = new ArrayList<>();
+            caregivers.add(new Object[]{newCaregiver, patientA});
+            when(patientCaregiverRepository.findActiveAssignmentIds()).thenReturn(caregivers);
+
+            // Act & Assert
+            assertThat(accessIndex.hasRelation(Relation.CAREGIVER, newCaregiver, patientA)).isTrue();
+            assertThat(accessIndex.hasRelation(Relation.CAREGIVER, caregiverId, patientA)).isFalse();
+        }
+    }
+}
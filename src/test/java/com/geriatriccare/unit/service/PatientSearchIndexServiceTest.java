@@ -0,0 +1,168 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.entity.Patient;
+import com.geriatriccare.entity.PatientSearchToken;
+import com.geriatriccare.entity.PatientSearchToken.Field;
+import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.repository.PatientSearchTokenRepository;
+import com.geriatriccare.service.PatientSearchIndexService;
+import com.geriatriccare.service.security.BlindIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Patient Search Index Tests")
+class PatientSearchIndexServiceTest {
+
+    @Mock
+    private PatientSearchTokenRepository tokenRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private final BlindIndexService blindIndex =
+            new BlindIndexService(Base64.getEncoder().encodeToString(new byte[32]), "");
+
+    /** In-memory stand-in for the patient_search_tokens table */
+    private final List<PatientSearchToken> storedTokens = new ArrayList<>();
+    private final Map<UUID, Patient> patients = new HashMap<>();
+
+    private PatientSearchIndexService indexService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        indexService = new PatientSearchIndexService(tokenRepository, patientRepository, blindIndex);
+
+        when(tokenRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            storedTokens.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> storedTokens.removeIf(t -> t.getPatientId().equals(invocation.getArgument(0))))
+                .when(tokenRepository).deleteByPatientId(any(UUID.class));
+        when(tokenRepository.findPatientIdsWithTokens(anyCollection(), anyCollection(), anyLong()))
+                .thenAnswer(invocation -> {
+                    Collection<Field> fields = invocation.getArgument(0);
+                    Collection<String> tokens = invocation.getArgument(1);
+                    long required = invocation.getArgument(2);
+                    Map<List<Object>, Set<String>> groups = new HashMap<>();
+                    for (PatientSearchToken t : storedTokens) {
+                        if (fields.contains(t.getField()) && tokens.contains(t.getToken())) {
+                            groups.computeIfAbsent(List.of(t.getPatientId(), t.getField()), k -> new HashSet<>())
+                                    .add(t.getToken());
+                        }
+                    }
+                    return groups.entrySet().stream()
+                            .filter(e -> e.getValue().size() >= required)
+                            .map(e -> (UUID) e.getKey().get(0))
+                            .distinct()
+                            .collect(Collectors.toList());
+                });
+        when(patientRepository.findByIdInAndIsActiveTrue(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(patients::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+
+        index(patient("Margaret", "O'Brien", "Type 2 Diabetes, Hypertension"));
+        index(patient("Johnathan", "Li", "COPD"));
+        index(patient("Joan", "Smithers", "Pulmonary hypertension"));
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Should find name substrings case-insensitively")
+        void search_NameSubstring_FindsPatient() {
+            // Act
+            List<Patient> results = indexService.search("NATHAN", Field.FIRST_NAME, Field.LAST_NAME);
+
+            // Assert
+            assertThat(results).extracting(Patient::getFirstName).containsExactly("Johnathan");
+        }
+
+        @Test
+        @DisplayName("Should require every query word across first and last name")
+        void search_FirstAndLastName_MatchesBoth() {
+            // Act
+            List<Patient> results = indexService.search("joan smith", Field.FIRST_NAME, Field.LAST_NAME);
+
+            // Assert
+            assertThat(results).extracting(Patient::getLastName).containsExactly("Smithers");
+        }
+
+        @Test
+        @DisplayName("Should match short words exactly and conditions by substring")
+        void search_ShortWordAndCondition() {
+            // Act
+            List<Patient> byShortName = indexService.search("Li", Field.FIRST_NAME, Field.LAST_NAME);
+            List<Patient> byCondition = indexService.search("hypertension", Field.MEDICAL_CONDITIONS);
+
+            // Assert
+            assertThat(byShortName).extracting(Patient::getFirstName).containsExactly("Johnathan");
+            assertThat(byCondition).extracting(Patient::getFirstName)
+                    .containsExactlyInAnyOrder("Margaret", "Joan");
+        }
+
+        @Test
+        @DisplayName("Should not match a query in a field that was not searched")
+        void search_OtherField_NoMatch() {
+            // Act
+            List<Patient> results = indexService.search("diabetes", Field.FIRST_NAME, Field.LAST_NAME);
+
+            // Assert
+            assertThat(results).isEmpty();
+            verify(patientRepository, never()).findByIdInAndIsActiveTrue(anyCollection());
+        }
+    }
+
+    @Nested
+    @DisplayName("Indexing")
+    class IndexingTests {
+
+        @Test
+        @DisplayName("Should store tokens, not plaintext, and replace them on re-index")
+        void index_ReplacesTokens() {
+            // Arrange
+            Patient patient = patients.values().iterator().next();
+            patient.setLastName("Renamed");
+
+            // Act
+            indexService.index(patient);
+
+            // Assert
+            assertThat(storedTokens).extracting(PatientSearchToken::getToken)
+                    .noneMatch(token -> token.toLowerCase().contains("renamed"));
+            assertThat(indexService.search("renamed", Field.LAST_NAME)).containsExactly(patient);
+        }
+    }
+
+    private Patient patient(String firstName, String lastName, String conditions) {
+        Patient patient = new Patient(firstName, lastName, LocalDate.of(1940, 3, 1));
+        patient.setId(UUID.randomUUID());
+        patient.setMedicalConditions(conditions);
+        return patient;
+    }
+
+    private void index(Patient patient) {
+        patients.put(patient.getId(), patient);
+        indexService.index(patient);
+    }
+}
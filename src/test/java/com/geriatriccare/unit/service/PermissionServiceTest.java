@@ -0,0 +1,168 @@
+package com.geriatriccare.unit.service;
+
+import com.geriatriccare.config.RolePermissionsConfig;
+import com.geriatriccare.entity.User;
+import com.geriatriccare.enums.Permission;
+import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
+import com.geriatriccare.service.PatientAccessIndexService;
+import com.geriatriccare.service.PermissionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Permission Service Tests")
+class PermissionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PatientAccessIndexService patientAccessIndex;
+
+    private PermissionService permissionService;
+    private User caregiver;
+
+    @BeforeEach
+    void setUp() {
+        permissionService = new PermissionService(new RolePermissionsConfig(), new CurrentUserContext(userRepository),
+                patientAccessIndex);
+
+        caregiver = new User();
+        caregiver.setUsername("carol");
+        caregiver.setRole(UserRole.CAREGIVER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Nested
+    @DisplayName("Role bitsets")
+    class BitsetTests {
+
+        @Test
+        @DisplayName("Should check single, any and all permissions against the role")
+        void hasPermission_Caregiver_MatchesMatrix() {
+            // Act & Assert
+            assertThat(permissionService.hasPermission(caregiver, Permission.MEDICATION_ADMINISTER)).isTrue();
+            assertThat(permissionService.hasPermission(caregiver, Permission.MEDICATION_WRITE)).isFalse();
+            assertThat(permissionService.hasAnyPermission(caregiver,
+                    Permission.MEDICATION_WRITE, Permission.CAREGIVER_TASK)).isTrue();
+            assertThat(permissionService.hasAllPermissions(caregiver,
+                    Permission.MEDICATION_READ, Permission.CAREGIVER_TASK)).isTrue();
+            assertThat(permissionService.hasAllPermissions(caregiver,
+                    Permission.MEDICATION_READ, Permission.MEDICATION_WRITE)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should give admins every permission and decode role sets")
+        void getPermissionsForRole_DecodesBits() {
+            // Act & Assert
+            assertThat(permissionService.getPermissionsForRole(UserRole.ADMIN))
+                    .isEqualTo(EnumSet.allOf(Permission.class));
+            assertThat(permissionService.getPermissionsForRole(UserRole.FAMILY))
+                    .contains(Permission.CONSENT_WRITE)
+                    .doesNotContain(Permission.PATIENT_READ_PHI);
+            assertThat(new RolePermissionsConfig().getPermissionCountByRole().get(UserRole.PATIENT)).isEqualTo(8);
+        }
+
+        @Test
+        @DisplayName("Should deny a user without a role")
+        void hasPermission_NoRole_Denied() {
+            // Arrange
+            caregiver.setRole(null);
+
+            // Act & Assert
+            assertThat(permissionService.hasPermission(caregiver, Permission.PATIENT_READ)).isFalse();
+            assertThat(permissionService.hasAnyPermission(caregiver, Permission.PATIENT_READ)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Patient access")
+    class PatientAccessTests {
+
+        @Test
+        @DisplayName("Should check patient and family users against the access index")
+        void canAccessPatient_PatientAndFamily_UseIndex() {
+            // Arrange
+            UUID patientId = UUID.randomUUID();
+            User family = new User();
+            family.setId(UUID.randomUUID());
+            family.setRole(UserRole.FAMILY);
+            User patient = new User();
+            patient.setId(UUID.randomUUID());
+            patient.setRole(UserRole.PATIENT);
+            when(patientAccessIndex.hasRelation(PatientAccessIndexService.Relation.FAMILY, family.getId(), patientId))
+                    .thenReturn(true);
+            when(patientAccessIndex.hasRelation(PatientAccessIndexService.Relation.SELF, patient.getId(), patientId))
+                    .thenReturn(false);
+
+            // Act & Assert
+            assertThat(permissionService.canAccessPatient(family, patientId)).isTrue();
+            assertThat(permissionService.canAccessPatient(patient, patientId)).isFalse();
+            assertThat(permissionService.canAccessPatient(caregiver, patientId)).isTrue();
+            verifyNoMoreInteractions(patientAccessIndex);
+        }
+    }
+
+    @Nested
+    @DisplayName("Current user")
+    class CurrentUserTests {
+
+        @Test
+        @DisplayName("Should load the current user once per request")
+        void hasPermission_RepeatedInRequest_LoadsUserOnce() {
+            // Arrange
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            SecurityContextHolder.setContext(new SecurityContextImpl(
+                    new UsernamePasswordAuthenticationToken("carol", null, List.of())));
+            when(userRepository.findByUsername("carol")).thenReturn(Optional.of(caregiver));
+
+            // Act
+            boolean administer = permissionService.hasPermission(Permission.MEDICATION_ADMINISTER);
+            boolean write = permissionService.hasPermission(Permission.MEDICATION_WRITE);
+            boolean any = permissionService.hasAnyPermission(Permission.CAREGIVER_TASK, Permission.AUDIT_READ);
+
+            // Assert
+            assertThat(administer).isTrue();
+            assertThat(write).isFalse();
+            assertThat(any).isTrue();
+            assertThat(permissionService.getCurrentUserPermissions()).contains(Permission.CAREGIVER_TASK);
+            verify(userRepository, times(1)).findByUsername("carol");
+        }
+
+        @Test
+        @DisplayName("Should deny everything when not authenticated")
+        void hasPermission_Anonymous_Denied() {
+            // Act & Assert
+            assertThat(permissionService.hasPermission(Permission.PATIENT_READ)).isFalse();
+            assertThat(permissionService.getCurrentUserPermissions()).isEmpty();
+            verifyNoInteractions(userRepository);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.geriatriccare.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geriatriccare.config.CacheConfig;
+import com.geriatriccare.dto.medication.MedicationAdherenceReportRequest;
+import com.geriatriccare.dto.report.AdherenceReportRequest;
+import com.geriatriccare.dto.report.AdherenceReportResponse;
+import com.geriatriccare.dto.report.ReportResult;
+import com.geriatriccare.entity.AdherenceReport;
+import com.geriatriccare.entity.ReportJob;
+import com.geriatriccare.enums.ReportFormat;
+import com.geriatriccare.enums.ReportType;
+import com.geriatriccare.enums.TimePeriod;
+import com.geriatriccare.repository.AdherenceReportRepository;
+import com.geriatriccare.repository.MedicationAdherenceReportRepository;
+import com.geriatriccare.repository.ReportJobRepository;
+import com.geriatriccare.service.AdherenceReportService;
+import com.geriatriccare.service.AdherenceRollupService;
+import com.geriatriccare.service.MedicationAdherenceService;
+import com.geriatriccare.service.ReportJobService;
+import com.geriatriccare.util.CsvExporter;
+import com.geriatriccare.util.PdfGenerator;
+import com.geriatriccare.util.SecurityUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Report Job Tests")
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportJobRepository jobRepository;
+
+    @Mock
+    private AdherenceReportService adherenceReports;
+
+    @Mock
+    private MedicationAdherenceService medicationReports;
+
+    @Mock
+    private AdherenceRollupService adherenceRollup;
+
+    @Mock
+    private AdherenceReportRepository adherenceReportRepository;
+
+    @Mock
+    private MedicationAdherenceReportRepository medicationReportRepository;
+
+    @Mock
+    private PdfGenerator pdfGenerator;
+
+    @Mock
+    private CsvExporter csvExporter;
+
+    @Mock
+    private SecurityUtil securityUtil;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportJobService reportJobService;
+    private final Map<UUID, ReportJob> jobs = new HashMap<>();
+    private final UUID patientId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Runs jobs on the calling thread
+        reportJobService = new ReportJobService(jobRepository, adherenceReports, medicationReports,
+                adherenceRollup, adherenceReportRepository, medicationReportRepository, pdfGenerator, csvExporter,
+                securityUtil, new ObjectMapper().findAndRegisterModules(),
+                new ConcurrentMapCacheManager(CacheConfig.REPORT_RESULT_CACHE), transactionManager, Runnable::run);
+
+        lenient().when(jobRepository.save(any(ReportJob.class))).thenAnswer(invocation -> {
+            ReportJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0))));
+    }
+
+    private AdherenceReportRequest request(ReportFormat format) {
+        return AdherenceReportRequest.builder()
+                .patientId(patientId)
+                .reportType(ReportType.CARE_PLAN_ADHERENCE)
+                .timePeriod(TimePeriod.LAST_7_DAYS)
+                .format(format)
+                .build();
+    }
+
+    private void generatesReports(LocalDateTime expiresAt) {
+        when(adherenceReports.generateReport(any(AdherenceReportRequest.class), any())).thenAnswer(invocation -> {
+            AdherenceReportResponse report = AdherenceReportResponse.builder()
+                    .reportId(UUID.randomUUID())
+                    .patientId(patientId)
+                    .adherencePercentage(80.0)
+                    .build();
+            when(adherenceReportRepository.findById(report.getReportId()))
+                    .thenReturn(Optional.of(AdherenceReport.builder().expiresAt(expiresAt).build()));
+            return report;
+        });
+    }
+
+    @Nested
+    @DisplayName("Result reuse")
+    class ReuseTests {
+
+        @Test
+        @DisplayName("Should reuse the cached result while the data watermark is unchanged")
+        void submitAdherence_SameWatermark_ReusesResult() {
+            // Arrange
+            when(adherenceRollup.getWatermark(eq(patientId), isNull(), any(), any())).thenReturn(12L);
+            generatesReports(LocalDateTime.now().plusDays(90));
+            when(pdfGenerator.generateAdherenceReportPdf(any())).thenReturn(new byte[]{1, 2, 3});
+
+            // Act
+            ReportJob first = reportJobService.submitAdherence(request(ReportFormat.PDF));
+            ReportJob second = reportJobService.submitAdherence(request(ReportFormat.PDF));
+
+            // Assert
+            assertThat(first.getStatus()).isEqualTo(ReportJob.Status.COMPLETED);
+            assertThat(first.isReused()).isFalse();
+            assertThat(second.getStatus()).isEqualTo(ReportJob.Status.COMPLETED);
+            assertThat(second.isReused()).isTrue();
+            assertThat(second.getReportId()).isEqualTo(first.getReportId());
+
+            ReportResult result = reportJobService.getResult(second.getId());
+            assertThat(result.getContent()).containsExactly(1, 2, 3);
+            assertThat(result.getContentType()).isEqualTo("application/pdf");
+            verify(adherenceReports, times(1)).generateReport(any(AdherenceReportRequest.class), any());
+        }
+
+        @Test
+        @DisplayName("Should generate again once the data changes or the report expires")
+        void submitAdherence_DataChangedOrExpired_Regenerates() {
+            // Arrange
+            when(adherenceRollup.getWatermark(eq(patientId), isNull(), any(), any())).thenReturn(12L, 12L, 12L, 12L, 13L);
+            generatesReports(LocalDateTime.now().minusMinutes(1));
+
+            // Act
+            ReportJob first = reportJobService.submitAdherence(request(ReportFormat.JSON));
+            ReportJob expired = reportJobService.submitAdherence(request(ReportFormat.JSON));
+            ReportJob changed = reportJobService.submitAdherence(request(ReportFormat.JSON));
+
+            // Assert
+            assertThat(List.of(first, expired, changed)).extracting(ReportJob::isReused)
+                    .containsExactly(false, false, false);
+            assertThat(changed.getCacheKey()).isNotEqualTo(first.getCacheKey());
+            verify(adherenceReports, times(3)).generateReport(any(AdherenceReportRequest.class), any());
+        }
+
+        @Test
+        @DisplayName("Should record a failed generation on the job")
+        void submitAdherence_GenerationFails_JobFailed() {
+            // Arrange
+            when(adherenceReports.generateReport(any(AdherenceReportRequest.class), any()))
+                    .thenThrow(new RuntimeException("Patient not found"));
+
+            // Act
+            ReportJob job = reportJobService.submitAdherence(request(ReportFormat.CSV));
+
+            // Assert
+            assertThat(job.getStatus()).isEqualTo(ReportJob.Status.FAILED);
+            assertThat(job.getErrorMessage()).isEqualTo("Patient not found");
+            assertThatThrownBy(() -> reportJobService.getResult(job.getId()))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("Should only accept JSON medication adherence reports")
+        void submitMedication_Pdf_Rejected() {
+            // Arrange
+            MedicationAdherenceReportRequest request = MedicationAdherenceReportRequest.builder()
+                    .patientId(patientId)
+                    .reportType(ReportType.MEDICATION_ADHERENCE)
+                    .format(ReportFormat.PDF)
+                    .build();
+
+            // Act & Assert
+            assertThatThrownBy(() -> reportJobService.submitMedication(request))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(jobRepository, medicationReports);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sweep")
+    class SweepTests {
+
+        @Test
+        @DisplayName("Should delete expired reports one batch per transaction")
+        void purgeExpired_DeletesInBatches() {
+            // Arrange
+            ReflectionTestUtils.setField(reportJobService, "sweepBatchSize", 2);
+            List<UUID> firstBatch = List.of(UUID.randomUUID(), UUID.randomUUID());
+            List<UUID> lastBatch = List.of(UUID.randomUUID());
+            when(adherenceReportRepository.findIdsExpiredBefore(any(), any()))
+                    .thenReturn(firstBatch)
+                    .thenReturn(lastBatch);
+            when(medicationReportRepository.findIdsExpiredBefore(any(), any())).thenReturn(List.of());
+            when(jobRepository.findIdsCompletedBefore(any(), any())).thenReturn(List.of());
+
+            // Act
+            reportJobService.purgeExpired();
+
+            // Assert
+            verify(adherenceReportRepository).deleteAllByIdInBatch(firstBatch);
+            verify(adherenceReportRepository).deleteAllByIdInBatch(lastBatch);
+            verify(medicationReportRepository, never()).deleteAllByIdInBatch(any());
+            verify(transactionManager, times(4)).commit(any());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.geriatriccare.unit.service.ai;
+
+import com.geriatriccare.dto.ai.Message;
+import com.geriatriccare.dto.ai.OpenAIResponse;
+import com.geriatriccare.dto.ai.PromptTemplateResponse;
+import com.geriatriccare.dto.ai.RecommendationRequest;
+import com.geriatriccare.dto.ai.RecommendationResponse;
+import com.geriatriccare.dto.ai.RecommendationType;
+import com.geriatriccare.entity.Patient;
+import com.geriatriccare.repository.AIAuditLogRepository;
+import com.geriatriccare.repository.PatientRepository;
+import com.geriatriccare.service.ai.AIRecommendationService;
+import com.geriatriccare.service.ai.OpenAIService;
+import com.geriatriccare.service.ai.PromptTemplateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("AIRecommendationService Tests")
+class AIRecommendationServiceTest {
+
+    @Mock
+    private OpenAIService openAIService;
+
+    @Mock
+    private PromptTemplateService promptTemplateService;
+
+    @Mock
+    private AIAuditLogRepository auditLogRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AIRecommendationService recommendationService;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        recommendationService = new AIRecommendationService(
+                openAIService, promptTemplateService, auditLogRepository, patientRepository, transactionManager);
+
+        patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setFirstName("Walter");
+        patient.setLastName("Brennan");
+        patient.setDateOfBirth(LocalDate.of(1940, 6, 1));
+
+        PromptTemplateResponse template = new PromptTemplateResponse();
+        template.setName("Care Plan Generator");
+        template.setTemplate("Plan for {{patientName}}");
+
+        OpenAIResponse.Choice choice = new OpenAIResponse.Choice();
+        choice.setMessage(new Message("assistant", "Daily walks"));
+        OpenAIResponse completion = new OpenAIResponse();
+        completion.setChoices(List.of(choice));
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        when(promptTemplateService.getLatestTemplateByName(anyString())).thenReturn(template);
+        when(promptTemplateService.renderTemplate(anyString(), anyMap())).thenReturn("Plan for Walter Brennan");
+        when(openAIService.streamCompletion(anyString(), anyString(), any())).thenReturn(completion);
+    }
+
+    @Nested
+    @DisplayName("Streaming")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Should load the patient in a read-only transaction and stream after it ends")
+        void streamRecommendation_StreamsOutsideTransaction() {
+            // Arrange
+            RecommendationRequest request = new RecommendationRequest();
+            request.setPatientId(patient.getId());
+            request.setType(RecommendationType.CARE_PLAN_GENERATION);
+            request.setTemplateName("Care Plan Generator");
+            request.setSaveToHistory(false);
+            Consumer<String> onToken = token -> { };
+
+            // Act
+            RecommendationResponse response = recommendationService.streamRecommendation(request, onToken);
+
+            // Assert
+            assertThat(response.getRecommendation()).isEqualTo("Daily walks");
+            ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+            InOrder order = inOrder(transactionManager, patientRepository, openAIService);
+            order.verify(transactionManager).getTransaction(definition.capture());
+            order.verify(patientRepository).findById(patient.getId());
+            order.verify(transactionManager).commit(any());
+            order.verify(openAIService).streamCompletion(anyString(), anyString(), eq(onToken));
+            assertThat(definition.getValue().isReadOnly()).isTrue();
+        }
+    }
+}
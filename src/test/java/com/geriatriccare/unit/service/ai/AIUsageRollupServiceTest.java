@@ -0,0 +1,144 @@
+package com.geriatriccare.unit.service.ai;
+
+import com.geriatriccare.entity.AIUsageHourlyRollup;
+import com.geriatriccare.repository.AIAuditLogRepository;
+import com.geriatriccare.repository.AIUsageHourlyRollupRepository;
+import com.geriatriccare.service.ai.AIUsageRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AIUsageRollupService Tests")
+class AIUsageRollupServiceTest {
+
+    @Mock
+    private AIAuditLogRepository auditLogRepository;
+
+    @Mock
+    private AIUsageHourlyRollupRepository rollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AIUsageRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new AIUsageRollupService(auditLogRepository, rollupRepository, transactionManager);
+    }
+
+    @Nested
+    @DisplayName("Rollup Job Tests")
+    class RollupJobTests {
+
+        @Test
+        @DisplayName("Should roll up each completed hour after the last rolled hour")
+        @SuppressWarnings("unchecked")
+        void rollUpCompletedHours_RollsMissingHours() {
+            // Arrange
+            LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime lastRolled = currentHour.minusHours(3);
+            when(rollupRepository.findLatestBucketStart()).thenReturn(lastRolled);
+            when(auditLogRepository.aggregateByRequestType(currentHour.minusHours(2), currentHour.minusHours(1)))
+                    .thenReturn(List.<Object[]>of(new Object[]{"AI_COMPLETION", 4L, 3L, 1200L, 8000L, 4L, 3500L}));
+            when(auditLogRepository.aggregateByRequestType(currentHour.minusHours(1), currentHour))
+                    .thenReturn(List.of());
+
+            // Act
+            rollupService.rollUpCompletedHours();
+
+            // Assert
+            ArgumentCaptor<AIUsageHourlyRollup> markers = ArgumentCaptor.forClass(AIUsageHourlyRollup.class);
+            verify(rollupRepository, times(2)).saveAndFlush(markers.capture());
+            assertThat(markers.getAllValues()).extracting(AIUsageHourlyRollup::getBucketStart)
+                    .containsExactly(currentHour.minusHours(2), currentHour.minusHours(1));
+            assertThat(markers.getAllValues()).allSatisfy(marker -> assertThat(marker.getRequestCount()).isZero());
+
+            ArgumentCaptor<List<AIUsageHourlyRollup>> captor = ArgumentCaptor.forClass(List.class);
+            verify(rollupRepository, times(1)).saveAll(captor.capture());
+            AIUsageHourlyRollup busy = captor.getValue().get(0);
+            assertThat(busy.getBucketStart()).isEqualTo(currentHour.minusHours(2));
+            assertThat(busy.getRequestCount()).isEqualTo(4);
+            assertThat(busy.getMaxResponseTimeMs()).isEqualTo(3500L);
+            verify(transactionManager, times(2)).commit(any());
+        }
+
+        @Test
+        @DisplayName("Should stop without aggregating when another instance claimed the hour")
+        void rollUpCompletedHours_HourClaimedElsewhere_Stops() {
+            // Arrange
+            LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            when(rollupRepository.findLatestBucketStart()).thenReturn(currentHour.minusHours(3));
+            when(rollupRepository.saveAndFlush(any(AIUsageHourlyRollup.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_ai_rollup_bucket_type"));
+
+            // Act
+            rollupService.rollUpCompletedHours();
+
+            // Assert
+            verify(rollupRepository, times(1)).saveAndFlush(any(AIUsageHourlyRollup.class));
+            verify(auditLogRepository, never()).aggregateByRequestType(any(), any());
+            verify(rollupRepository, never()).saveAll(any());
+            verify(transactionManager).rollback(any());
+        }
+
+        @Test
+        @DisplayName("Should do nothing when there are no audit logs")
+        void rollUpCompletedHours_NoLogs() {
+            when(rollupRepository.findLatestBucketStart()).thenReturn(null);
+            when(auditLogRepository.findEarliestTimestamp()).thenReturn(null);
+
+            rollupService.rollUpCompletedHours();
+
+            verify(rollupRepository, never()).saveAll(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Aggregation Tests")
+    class AggregationTests {
+
+        @Test
+        @DisplayName("Should combine rollups for whole hours with raw aggregates for edges")
+        void aggregate_MixesRollupsAndRawEdges() {
+            // Arrange
+            LocalDateTime start = LocalDateTime.of(2026, 1, 10, 8, 30);
+            LocalDateTime end = LocalDateTime.of(2026, 1, 10, 12, 15);
+            when(rollupRepository.findLatestBucketStart()).thenReturn(LocalDateTime.of(2026, 1, 10, 10, 0));
+            when(auditLogRepository.aggregateByRequestType(start, LocalDateTime.of(2026, 1, 10, 9, 0)))
+                    .thenReturn(List.<Object[]>of(new Object[]{"CARE_PLAN_GENERATION", 1L, 1L, 500L, 2000L, 1L, 2000L}));
+            when(rollupRepository.sumByRequestType(LocalDateTime.of(2026, 1, 10, 9, 0), LocalDateTime.of(2026, 1, 10, 11, 0)))
+                    .thenReturn(List.<Object[]>of(new Object[]{"CARE_PLAN_GENERATION", 10L, 9L, 4000L, 30000L, 10L, 6000L}));
+            when(auditLogRepository.aggregateByRequestType(LocalDateTime.of(2026, 1, 10, 11, 0), end))
+                    .thenReturn(List.<Object[]>of(new Object[]{"AI_COMPLETION", 2L, 2L, 100L, 600L, 2L, 400L}));
+
+            // Act
+            Map<String, AIUsageRollupService.UsageTotals> totals = rollupService.aggregate(start, end);
+
+            // Assert
+            AIUsageRollupService.UsageTotals carePlan = totals.get("CARE_PLAN_GENERATION");
+            assertThat(carePlan.getRequests()).isEqualTo(11);
+            assertThat(carePlan.getFailures()).isEqualTo(1);
+            assertThat(carePlan.getTokens()).isEqualTo(4500);
+            assertThat(carePlan.getMaxResponseTimeMs()).isEqualTo(6000);
+            assertThat(totals.get("AI_COMPLETION").getRequests()).isEqualTo(2);
+        }
+    }
+}
@@ -2,30 +2,43 @@ package com.geriatriccare.unit.service.ai;
 
 import com.geriatriccare.config.OpenAIConfig;
 import com.geriatriccare.dto.ai.Message;
+import com.geriatriccare.dto.ai.OpenAIRequest;
 import com.geriatriccare.dto.ai.OpenAIResponse;
 import com.geriatriccare.service.ai.AIAuditLogService;
+import com.geriatriccare.service.ai.AIStreamingService;
 import com.geriatriccare.service.ai.OpenAIService;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -45,6 +58,7 @@ class OpenAIServiceTest {
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
     private OpenAIService openAIService;
+    private SimpleMeterRegistry meterRegistry;
     private OpenAIConfig.OpenAIProperties properties;
 
     @BeforeEach
@@ -59,14 +73,16 @@ class OpenAIServiceTest {
         properties.setMaxRetries(1);  // Reduce retries for faster tests
         properties.setRetryDelay(100);
 
+        meterRegistry = new SimpleMeterRegistry();
         when(circuitBreakerRegistry.circuitBreaker(anyString()))
-                .thenReturn(CircuitBreakerRegistry.ofDefaults().circuitBreaker("test"));
+                .thenReturn(new OpenAIConfig().circuitBreakerRegistry().circuitBreaker("test"));
 
         openAIService = new OpenAIService(
                 restTemplate,
                 properties,
                 auditLogService,
-                circuitBreakerRegistry
+                circuitBreakerRegistry,
+                meterRegistry
         );
     }
 
@@ -99,7 +115,7 @@ class OpenAIServiceTest {
                     .isEqualTo("I recommend Lisinopril.");
             assertThat(response.getUsage().getTotalTokens()).isEqualTo(150);
 
-            verify(auditLogService).logAIRequest(eq(prompt), eq(mockResponse));
+            verify(auditLogService).logAIRequest(eq(prompt), eq(mockResponse), anyLong());
             verify(restTemplate).postForEntity(
                     eq(properties.getApiUrl()),
                     any(),
@@ -127,7 +143,7 @@ class OpenAIServiceTest {
 
             // Assert
             assertThat(response).isNotNull();
-            verify(auditLogService).logAIRequest(eq(prompt), eq(mockResponse));
+            verify(auditLogService).logAIRequest(eq(prompt), eq(mockResponse), anyLong());
         }
 
         @Test
@@ -148,7 +164,47 @@ class OpenAIServiceTest {
             openAIService.generateCompletion(prompt, context);
 
             // Assert
-            verify(auditLogService, times(1)).logAIRequest(prompt, mockResponse);
+            verify(auditLogService, times(1)).logAIRequest(eq(prompt), eq(mockResponse), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should record latency and token metrics and audit the response time")
+        void generateCompletion_RecordsTelemetry() {
+            // Arrange
+            OpenAIResponse mockResponse = createMockResponse("Test response", 100);
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(OpenAIResponse.class)))
+                    .thenReturn(ResponseEntity.ok(mockResponse));
+
+            // Act
+            openAIService.generateCompletion("prompt", "context");
+
+            // Assert
+            assertThat(meterRegistry.get("ai.openai.request")
+                    .tag("mode", "blocking").tag("outcome", "success").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("ai.openai.tokens").tag("type", "completion").summary().count())
+                    .isEqualTo(1);
+            verify(auditLogService).logAIRequest(eq("prompt"), eq(mockResponse), longThat(ms -> ms >= 0));
+        }
+
+        @Test
+        @DisplayName("Should send JSON schema response format for structured completions")
+        @SuppressWarnings("unchecked")
+        void generateStructuredCompletion_SendsResponseFormat() {
+            // Arrange
+            OpenAIResponse mockResponse = createMockResponse("{\"interactions\": []}", 80);
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(OpenAIResponse.class)))
+                    .thenReturn(ResponseEntity.ok(mockResponse));
+
+            // Act
+            openAIService.generateStructuredCompletion("prompt", "context", "interaction_check",
+                    Map.of("type", "object"));
+
+            // Assert
+            ArgumentCaptor<HttpEntity<OpenAIRequest>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+            verify(restTemplate).postForEntity(anyString(), captor.capture(), eq(OpenAIResponse.class));
+            OpenAIRequest.ResponseFormat format = captor.getValue().getBody().getResponseFormat();
+            assertThat(format.getType()).isEqualTo("json_schema");
+            assertThat(format.getJsonSchema().getName()).isEqualTo("interaction_check");
         }
     }
 
@@ -171,7 +227,7 @@ class OpenAIServiceTest {
                     .isInstanceOf(OpenAIService.AIRateLimitException.class)
                     .hasMessageContaining("rate limit");
 
-            verify(auditLogService).logAIError(eq(prompt), anyString());
+            verify(auditLogService).logAIError(eq(prompt), anyString(), anyLong());
         }
 
         @Test
@@ -189,7 +245,7 @@ class OpenAIServiceTest {
                     .isInstanceOf(OpenAIService.AIAuthenticationException.class)
                     .hasMessageContaining("API key");
 
-            verify(auditLogService).logAIError(eq(prompt), anyString());
+            verify(auditLogService).logAIError(eq(prompt), anyString(), anyLong());
         }
 
         @Test
@@ -207,7 +263,33 @@ class OpenAIServiceTest {
                     .isInstanceOf(OpenAIService.AIServiceException.class)
                     .hasMessageContaining("server error");
 
-            verify(auditLogService).logAIError(eq(prompt), anyString());
+            verify(auditLogService).logAIError(eq(prompt), anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should retry server errors but not client errors")
+        void generateCompletion_RetriesServerErrorsOnly() {
+            // Arrange
+            properties.setMaxRetries(3);
+            properties.setRetryDelay(1);
+            OpenAIService retryingService = new OpenAIService(
+                    restTemplate, properties, auditLogService, circuitBreakerRegistry, meterRegistry);
+            OpenAIResponse mockResponse = createMockResponse("Recovered", 10);
+
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(OpenAIResponse.class)))
+                    .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))
+                    .thenReturn(ResponseEntity.ok(mockResponse))
+                    .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+            // Act
+            OpenAIResponse response = retryingService.generateCompletion("prompt", "context");
+
+            // Assert
+            assertThat(response).isSameAs(mockResponse);
+            assertThatThrownBy(() -> retryingService.generateCompletion("prompt", "context"))
+                    .isInstanceOf(OpenAIService.AIServiceException.class);
+            verify(restTemplate, times(3))
+                    .postForEntity(anyString(), any(HttpEntity.class), eq(OpenAIResponse.class));
         }
 
         @Test
@@ -241,7 +323,96 @@ class OpenAIServiceTest {
             assertThatThrownBy(() -> openAIService.generateCompletion(prompt, context))
                     .isInstanceOf(OpenAIService.AIServiceException.class);
 
-            verify(auditLogService).logAIError(eq(prompt), anyString());
+            verify(auditLogService).logAIError(eq(prompt), anyString(), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming Completion Tests")
+    class StreamingCompletionTests {
+
+        @Test
+        @DisplayName("Should relay deltas in order and assemble full completion")
+        void streamCompletion_RelaysAndAssembles() {
+            // Arrange
+            String prompt = "Summarize vitals";
+            String events =
+                    "data: {\"id\":\"chatcmpl-1\",\"model\":\"gpt-4\",\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}\n\n" +
+                    "data: {\"id\":\"chatcmpl-1\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Blood pressure \"}}]}\n\n" +
+                    ": keep-alive\n\n" +
+                    "data: {\"id\":\"chatcmpl-1\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"is stable.\"},\"finish_reason\":\"stop\"}]}\n\n" +
+                    "data: {\"id\":\"chatcmpl-1\",\"choices\":[],\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":4,\"total_tokens\":16}}\n\n" +
+                    "data: [DONE]\n\n";
+            stubEventStream(events);
+            List<String> tokens = new ArrayList<>();
+
+            // Act
+            OpenAIResponse response = openAIService.streamCompletion(prompt, "context", tokens::add);
+
+            // Assert
+            assertThat(tokens).containsExactly("Blood pressure ", "is stable.");
+            assertThat(response.getChoices().get(0).getMessage().getContent())
+                    .isEqualTo("Blood pressure is stable.");
+            assertThat(response.getChoices().get(0).getFinishReason()).isEqualTo("stop");
+            assertThat(response.getModel()).isEqualTo("gpt-4");
+            assertThat(response.getUsage().getTotalTokens()).isEqualTo(16);
+            verify(auditLogService).logAIRequest(eq(prompt), eq(response), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should map rate limit error before streaming starts")
+        void streamCompletion_RateLimitError() {
+            // Arrange
+            when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), any()))
+                    .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+            // Act & Assert
+            assertThatThrownBy(() -> openAIService.streamCompletion("prompt", "context", token -> { }))
+                    .isInstanceOf(OpenAIService.AIRateLimitException.class);
+
+            verify(auditLogService).logAIError(eq("prompt"), anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should abort and log error when token consumer fails")
+        void streamCompletion_ConsumerFailure() {
+            // Arrange
+            stubEventStream("data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hi\"}}]}\n\n");
+
+            // Act & Assert
+            assertThatThrownBy(() -> openAIService.streamCompletion("prompt", "context", token -> {
+                throw new IllegalStateException("client gone");
+            })).isInstanceOf(OpenAIService.AIServiceException.class);
+
+            verify(auditLogService).logAIError(eq("prompt"), anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should not count a client disconnect as an upstream failure")
+        void streamCompletion_ClientDisconnect_NotRecordedAsFailure() {
+            // Arrange
+            stubEventStream("data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hi\"}}]}\n\n");
+
+            // Act & Assert
+            assertThatThrownBy(() -> openAIService.streamCompletion("prompt", "context", token -> {
+                throw new AIStreamingService.ClientDisconnectedException(new java.io.IOException("Broken pipe"));
+            })).isInstanceOf(AIStreamingService.ClientDisconnectedException.class);
+
+            verify(auditLogService, never()).logAIError(anyString(), anyString(), anyLong());
+            assertThat(circuitBreakerRegistry.circuitBreaker("openai").getMetrics().getNumberOfFailedCalls())
+                    .isZero();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void stubEventStream(String events) {
+            when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), any()))
+                    .thenAnswer(invocation -> {
+                        ResponseExtractor<OpenAIResponse> extractor = invocation.getArgument(3);
+                        ClientHttpResponse clientResponse = mock(ClientHttpResponse.class);
+                        when(clientResponse.getBody()).thenReturn(
+                                new ByteArrayInputStream(events.getBytes(StandardCharsets.UTF_8)));
+                        return extractor.extractData(clientResponse);
+                    });
         }
     }
 
@@ -0,0 +1,174 @@
+package com.geriatriccare.unit.service.ai;
+
+import com.geriatriccare.dto.ai.PromptTemplateResponse;
+import com.geriatriccare.entity.PromptCategory;
+import com.geriatriccare.entity.PromptTemplate;
+import com.geriatriccare.repository.PromptTemplateRepository;
+import com.geriatriccare.service.ai.PromptTemplateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PromptTemplateService Tests")
+class PromptTemplateServiceTest {
+
+    private static final String NAME = "Drug Interaction Checker";
+
+    @Mock
+    private PromptTemplateRepository templateRepository;
+
+    private PromptTemplateService templateService;
+    private PromptTemplate activeTemplate;
+
+    @BeforeEach
+    void setUp() {
+        templateService = new PromptTemplateService(templateRepository);
+
+        activeTemplate = new PromptTemplate();
+        activeTemplate.setId(UUID.randomUUID());
+        activeTemplate.setName(NAME);
+        activeTemplate.setCategory(PromptCategory.DRUG_INTERACTION);
+        activeTemplate.setTemplate("Check ${medications} for ${patientName}.");
+        activeTemplate.setVersion(2);
+        activeTemplate.setIsActive(true);
+
+        when(templateRepository.findFirstByNameAndIsActiveTrueOrderByVersionDesc(NAME))
+                .thenReturn(Optional.of(activeTemplate));
+        when(templateRepository.findVersionStatsByNames(any()))
+                .thenReturn(List.<Object[]>of(new Object[]{NAME, 2L, 2}));
+    }
+
+    @Nested
+    @DisplayName("Rendering Tests")
+    class RenderingTests {
+
+        @Test
+        @DisplayName("Should substitute all variables in one pass")
+        void renderTemplate_SubstitutesVariables() {
+            String rendered = templateService.renderTemplate(
+                    "Patient ${patientName} (${age}) takes ${medications}; ${patientName} lives alone.",
+                    Map.of("patientName", "Jane", "age", "82", "medications", "warfarin"));
+
+            assertThat(rendered).isEqualTo("Patient Jane (82) takes warfarin; Jane lives alone.");
+        }
+
+        @Test
+        @DisplayName("Should leave missing variables and literal braces untouched")
+        void renderTemplate_KeepsMissingVariables() {
+            String rendered = templateService.renderTemplate(
+                    "Hello ${name}, ${missing} and ${} and ${open",
+                    Map.of("name", "Ana"));
+
+            assertThat(rendered).isEqualTo("Hello Ana, ${missing} and ${} and ${open");
+        }
+
+        @Test
+        @DisplayName("Should not re-expand placeholders contained in values")
+        void renderTemplate_DoesNotReexpandValues() {
+            String rendered = templateService.renderTemplate(
+                    "${a}-${b}", Map.of("a", "${b}", "b", "x"));
+
+            assertThat(rendered).isEqualTo("${b}-x");
+        }
+
+        @Test
+        @DisplayName("Should extract distinct variables in order")
+        void extractVariables_DistinctInOrder() {
+            assertThat(templateService.extractVariables("${b} ${a} ${b}"))
+                    .containsExactly("b", "a");
+        }
+    }
+
+    @Nested
+    @DisplayName("Active Template Cache Tests")
+    class CacheTests {
+
+        @Test
+        @DisplayName("Should load active template once and serve repeats from cache")
+        void getLatestTemplateByName_CachesResult() {
+            PromptTemplateResponse first = templateService.getLatestTemplateByName(NAME);
+            PromptTemplateResponse second = templateService.getLatestTemplateByName(NAME);
+
+            assertThat(second).isNotSameAs(first).usingRecursiveComparison().isEqualTo(first);
+            assertThat(first.getTotalVersions()).isEqualTo(2);
+            assertThat(first.getIsLatestVersion()).isTrue();
+            verify(templateRepository, times(1)).findFirstByNameAndIsActiveTrueOrderByVersionDesc(NAME);
+            verify(templateRepository, never()).findByNameOrderByVersionDesc(any());
+        }
+
+        @Test
+        @DisplayName("Should not let a caller's changes reach the cached template")
+        void getLatestTemplateByName_ReturnsCopy() {
+            PromptTemplateResponse first = templateService.getLatestTemplateByName(NAME);
+            String template = first.getTemplate();
+            first.setTemplate("Tampered");
+            first.setIsActive(false);
+
+            PromptTemplateResponse second = templateService.getLatestTemplateByName(NAME);
+
+            assertThat(second.getTemplate()).isEqualTo(template);
+            assertThat(second.getIsActive()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should reload after the template is deactivated")
+        void deactivateTemplate_EvictsCache() {
+            templateService.getLatestTemplateByName(NAME);
+            when(templateRepository.findById(activeTemplate.getId())).thenReturn(Optional.of(activeTemplate));
+
+            templateService.deactivateTemplate(activeTemplate.getId());
+            templateService.getLatestTemplateByName(NAME);
+
+            verify(templateRepository, times(2)).findFirstByNameAndIsActiveTrueOrderByVersionDesc(NAME);
+        }
+
+        @Test
+        @DisplayName("Should not cache a version loaded while the template was changed")
+        void getLatestTemplateByName_EvictedDuringLoad_NotCached() {
+            when(templateRepository.findById(activeTemplate.getId())).thenReturn(Optional.of(activeTemplate));
+            when(templateRepository.findFirstByNameAndIsActiveTrueOrderByVersionDesc(NAME))
+                    .thenAnswer(invocation -> {
+                        // The change commits while this lookup still holds the version it read
+                        templateService.deactivateTemplate(activeTemplate.getId());
+                        return Optional.of(activeTemplate);
+                    })
+                    .thenReturn(Optional.of(activeTemplate));
+
+            templateService.getLatestTemplateByName(NAME);
+            templateService.getLatestTemplateByName(NAME);
+            templateService.getLatestTemplateByName(NAME);
+
+            verify(templateRepository, times(2)).findFirstByNameAndIsActiveTrueOrderByVersionDesc(NAME);
+        }
+
+        @Test
+        @DisplayName("Should report missing template when no versions exist")
+        void getLatestTemplateByName_NotFound() {
+            when(templateRepository.findFirstByNameAndIsActiveTrueOrderByVersionDesc("Unknown"))
+                    .thenReturn(Optional.empty());
+            when(templateRepository.countByName("Unknown")).thenReturn(0L);
+
+            assertThatThrownBy(() -> templateService.getLatestTemplateByName("Unknown"))
+                    .hasMessageContaining("Template not found");
+            verify(templateRepository, never()).findVersionStatsByNames(anyCollection());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.geriatriccare.unit.service.ai;
+
+import com.geriatriccare.dto.ai.CarePlanGenerationResponse;
+import com.geriatriccare.dto.ai.DrugInteraction;
+import com.geriatriccare.dto.ai.InteractionSeverity;
+import com.geriatriccare.dto.ai.InteractionType;
+import com.geriatriccare.service.ai.StructuredResponseParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("StructuredResponseParser Tests")
+class StructuredResponseParserTest {
+
+    private final StructuredResponseParser parser = new StructuredResponseParser();
+
+    @Nested
+    @DisplayName("Interaction Parsing Tests")
+    class InteractionTests {
+
+        @Test
+        @DisplayName("Should parse interactions and ignore unknown fields")
+        void parseInteractions_ValidJson() {
+            // Arrange
+            String json = "{\"interactions\": [{\"drug1\": \"Warfarin\", \"drug2\": \"Aspirin\","
+                    + " \"severity\": \"major\", \"mechanism\": \"Additive anticoagulation\","
+                    + " \"confidence\": 0.9, \"tags\": [\"bleeding\"]}],"
+                    + " \"summary\": \"One major interaction\"}";
+
+            // Act
+            Optional<StructuredResponseParser.StructuredInteractions> result = parser.parseInteractions(json);
+
+            // Assert
+            assertThat(result).isPresent();
+            assertThat(result.get().getSummary()).isEqualTo("One major interaction");
+            DrugInteraction interaction = result.get().getInteractions().get(0);
+            assertThat(interaction.getDrug1()).isEqualTo("Warfarin");
+            assertThat(interaction.getSeverity()).isEqualTo(InteractionSeverity.MAJOR);
+            assertThat(interaction.getInteractionType()).isEqualTo(InteractionType.DRUG_DRUG);
+            assertThat(interaction.getMechanism()).isEqualTo("Additive anticoagulation");
+        }
+
+        @Test
+        @DisplayName("Should accept JSON wrapped in a markdown code fence")
+        void parseInteractions_CodeFence() {
+            String content = "```json\n{\"interactions\": []}\n```";
+
+            assertThat(parser.parseInteractions(content))
+                    .hasValueSatisfying(r -> assertThat(r.getInteractions()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return empty for free text so callers can fall back")
+        void parseInteractions_FreeText() {
+            assertThat(parser.parseInteractions("1. Warfarin + Aspirin\nSeverity: Major")).isEmpty();
+            assertThat(parser.parseInteractions("Summary {\"interactions\": []}")).isEmpty();
+            assertThat(parser.parseInteractions("{\"interactions\": [{\"drug1\": ")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Care Plan Parsing Tests")
+    class CarePlanTests {
+
+        @Test
+        @DisplayName("Should map section properties onto the response")
+        void parseCarePlan_ValidJson() {
+            // Act
+            Optional<CarePlanGenerationResponse> result = parser.parseCarePlan(
+                    "{\"executiveSummary\": \"Stable\", \"nutritionPlan\": \"Low sodium\", \"extra\": {\"a\": 1}}");
+
+            // Assert
+            assertThat(result).isPresent();
+            assertThat(result.get().getExecutiveSummary()).isEqualTo("Stable");
+            assertThat(result.get().getNutritionPlan()).isEqualTo("Low sodium");
+        }
+
+        @Test
+        @DisplayName("Should return empty when no known section is present")
+        void parseCarePlan_NoSections() {
+            assertThat(parser.parseCarePlan("{\"unknown\": \"x\"}")).isEmpty();
+        }
+    }
+}
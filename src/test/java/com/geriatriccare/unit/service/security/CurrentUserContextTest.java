@@ -0,0 +1,154 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.config.RolePermissionsConfig;
+import com.geriatriccare.entity.User;
+import com.geriatriccare.enums.Permission;
+import com.geriatriccare.enums.UserRole;
+import com.geriatriccare.repository.UserRepository;
+import com.geriatriccare.security.CurrentUserContext;
+import com.geriatriccare.service.PatientAccessIndexService;
+import com.geriatriccare.service.PermissionService;
+import com.geriatriccare.util.SecurityUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Current User Context Tests")
+class CurrentUserContextTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PatientAccessIndexService patientAccessIndex;
+
+    private CurrentUserContext currentUserContext;
+    private SecurityUtil securityUtil;
+    private MockHttpServletRequest request;
+    private User physician;
+
+    @BeforeEach
+    void setUp() {
+        currentUserContext = new CurrentUserContext(userRepository);
+        PermissionService permissionService =
+                new PermissionService(new RolePermissionsConfig(), currentUserContext, patientAccessIndex);
+        securityUtil = new SecurityUtil(currentUserContext, permissionService);
+
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        physician = new User();
+        physician.setId(UUID.randomUUID());
+        physician.setUsername("drwho");
+        physician.setEmail("drwho@example.com");
+        physician.setRole(UserRole.PHYSICIAN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Nested
+    @DisplayName("Populated by the token filter")
+    class PopulatedTests {
+
+        @Test
+        @DisplayName("Should answer every current-user helper without a user lookup")
+        void helpers_Populated_NoLookups() {
+            // Arrange
+            authenticate("drwho");
+            currentUserContext.populate(request, "drwho", physician);
+
+            // Act & Assert
+            assertThat(securityUtil.getCurrentUser()).isSameAs(physician);
+            assertThat(securityUtil.getCurrentUserId()).isEqualTo(physician.getId());
+            assertThat(securityUtil.isPhysician()).isTrue();
+            assertThat(securityUtil.hasAnyRole("ADMIN", "CAREGIVER")).isFalse();
+            assertThat(securityUtil.hasPermission("MEDICATION_WRITE")).isTrue();
+            assertThat(securityUtil.canModifyMedication(UUID.randomUUID())).isTrue();
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should ignore an identity recorded for another principal")
+        void getUser_DifferentPrincipal_LooksUp() {
+            // Arrange
+            currentUserContext.populate(request, "drwho", physician);
+            authenticate("carol");
+            User caregiver = new User();
+            caregiver.setUsername("carol");
+            when(userRepository.findByUsername("carol")).thenReturn(Optional.of(caregiver));
+
+            // Act & Assert
+            assertThat(currentUserContext.getUser()).isSameAs(caregiver);
+        }
+    }
+
+    @Nested
+    @DisplayName("Resolved on demand")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should look the user up once per request, by username or email")
+        void getUser_EmailSubject_LooksUpOnce() {
+            // Arrange
+            authenticate("drwho@example.com");
+            when(userRepository.findByUsername("drwho@example.com")).thenReturn(Optional.empty());
+            when(userRepository.findByEmail("drwho@example.com")).thenReturn(Optional.of(physician));
+
+            // Act
+            UUID first = securityUtil.getCurrentUserId();
+            boolean admin = securityUtil.isAdmin();
+            User user = currentUserContext.getUser();
+
+            // Assert
+            assertThat(first).isEqualTo(physician.getId());
+            assertThat(admin).isFalse();
+            assertThat(user).isSameAs(physician);
+            verify(userRepository, times(1)).findByEmail("drwho@example.com");
+        }
+
+        @Test
+        @DisplayName("Should not cache a failed lookup")
+        void getUser_LookupFails_RetriedLater() {
+            // Arrange
+            authenticate("drwho");
+            when(userRepository.findByUsername(anyString()))
+                    .thenThrow(new IllegalStateException("connection reset"))
+                    .thenReturn(Optional.of(physician));
+
+            // Act & Assert
+            assertThat(currentUserContext.getUser()).isNull();
+            assertThat(currentUserContext.getUser()).isSameAs(physician);
+            assertThat(currentUserContext.getUser()).isSameAs(physician);
+            verify(userRepository, times(2)).findByUsername("drwho");
+        }
+    }
+
+    private static void authenticate(String name) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(name, null, List.of())));
+    }
+}
@@ -0,0 +1,210 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.dto.security.EncryptionAlgorithm;
+import com.geriatriccare.dto.security.KeyRotationRequest;
+import com.geriatriccare.entity.EncryptionKey;
+import com.geriatriccare.repository.EncryptionKeyRepository;
+import com.geriatriccare.service.security.EncryptionKeyStore;
+import com.geriatriccare.service.security.EncryptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.AEADBadTagException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Encryption Service Tests")
+class EncryptionServiceTest {
+
+    private static final String MASTER_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Mock
+    private EncryptionKeyRepository keyRepository;
+
+    @Mock
+    private ObjectProvider<EncryptionKeyRepository> repositoryProvider;
+
+    @Mock
+    private ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+
+    private final List<EncryptionKey> storedKeys = new ArrayList<>();
+
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    void setUp() {
+        when(repositoryProvider.getObject()).thenReturn(keyRepository);
+        when(keyRepository.findAllByOrderByKeyVersionAsc()).thenAnswer(invocation -> {
+            List<EncryptionKey> sorted = new ArrayList<>(storedKeys);
+            sorted.sort(Comparator.comparing(EncryptionKey::getKeyVersion));
+            return sorted;
+        });
+        when(keyRepository.save(any(EncryptionKey.class))).thenAnswer(invocation -> {
+            EncryptionKey key = invocation.getArgument(0);
+            storedKeys.removeIf(existing -> existing.getKeyVersion().equals(key.getKeyVersion()));
+            storedKeys.add(key);
+            return key;
+        });
+        when(keyRepository.findById(anyInt())).thenAnswer(invocation -> storedKeys.stream()
+                .filter(key -> key.getKeyVersion().equals(invocation.getArgument(0)))
+                .findFirst());
+
+        encryptionService = new EncryptionService(new EncryptionKeyStore(repositoryProvider, transactionManagerProvider, MASTER_KEY, false), Runnable::run, 1);
+    }
+
+    @Nested
+    @DisplayName("Ciphertext Envelope")
+    class EnvelopeTests {
+
+        @Test
+        @DisplayName("Should round-trip and record the key version in the header")
+        void encrypt_RoundTrip_HeaderCarriesKeyVersion() throws Exception {
+            // Act
+            String ciphertext = encryptionService.encrypt("Margaret Thompson – ☂");
+
+            // Assert
+            assertThat(encryptionService.keyVersionOf(ciphertext)).isEqualTo(1);
+            assertThat(encryptionService.decrypt(ciphertext)).isEqualTo("Margaret Thompson – ☂");
+        }
+
+        @Test
+        @DisplayName("Should reject ciphertext whose header was altered")
+        void decrypt_TamperedHeader_Fails() throws Exception {
+            // Arrange
+            byte[] envelope = Base64.getDecoder().decode(encryptionService.encrypt("Hypertension"));
+            envelope[4] ^= 0x02;
+            String tampered = Base64.getEncoder().encodeToString(envelope);
+
+            // Act & Assert
+            assertThatThrownBy(() -> encryptionService.decrypt(tampered))
+                    .isInstanceOfAny(AEADBadTagException.class, IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Encryption")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should encrypt large batches in parallel and keep their order")
+        void encryptBatch_ParallelChunks_RoundTripInOrder() {
+            // Arrange
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                EncryptionService parallel = new EncryptionService(
+                        new EncryptionKeyStore(repositoryProvider, transactionManagerProvider, MASTER_KEY, false), pool, 4);
+                List<String> values = IntStream.range(0, 500).mapToObj(i -> "patient-" + i).toList();
+
+                // Act
+                List<String> encrypted = parallel.encryptBatch(values);
+                List<String> decrypted = parallel.decryptBatch(encrypted);
+
+                // Assert
+                assertThat(encrypted).hasSize(500).doesNotContainAnyElementsOf(values);
+                assertThat(decrypted).containsExactlyElementsOf(values);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should drop values that fail to decrypt")
+        void decryptBatch_InvalidValue_Dropped() throws Exception {
+            // Arrange
+            String valid = encryptionService.encrypt("Lisinopril");
+
+            // Act
+            List<String> decrypted = encryptionService.decryptBatch(List.of(valid, "bm90LWVuY3J5cHRlZC1kYXRhLXZhbHVlLXg="));
+
+            // Assert
+            assertThat(decrypted).containsExactly("Lisinopril");
+        }
+    }
+
+    @Nested
+    @DisplayName("Key Rotation")
+    class RotationTests {
+
+        @Test
+        @DisplayName("Should keep old ciphertext readable after rotation")
+        void rotateKeys_OldCiphertext_StillDecrypts() throws Exception {
+            // Arrange
+            String before = encryptionService.encrypt("Type 2 diabetes");
+            KeyRotationRequest request = new KeyRotationRequest();
+            request.setNewAlgorithm(EncryptionAlgorithm.AES_256_GCM);
+            request.setArchiveOldKeys(true);
+            request.setReason("Scheduled rotation");
+
+            // Act
+            encryptionService.rotateKeys(request);
+            String after = encryptionService.encrypt("Type 2 diabetes");
+
+            // Assert
+            assertThat(encryptionService.getCurrentKeyVersion()).isEqualTo(2);
+            assertThat(encryptionService.keyVersionOf(after)).isEqualTo(2);
+            assertThat(encryptionService.decrypt(before)).isEqualTo("Type 2 diabetes");
+            assertThat(encryptionService.decrypt(after)).isEqualTo("Type 2 diabetes");
+        }
+
+        @Test
+        @DisplayName("Should read persisted keys after a restart")
+        void newInstance_SameMasterKey_DecryptsExistingData() throws Exception {
+            // Arrange
+            String ciphertext = encryptionService.encrypt("1938-04-12");
+
+            // Act
+            EncryptionService restarted = new EncryptionService(new EncryptionKeyStore(repositoryProvider, transactionManagerProvider, MASTER_KEY, false), Runnable::run, 1);
+
+            // Assert
+            assertThat(restarted.decrypt(ciphertext)).isEqualTo("1938-04-12");
+            verify(keyRepository, times(1)).save(any(EncryptionKey.class));
+        }
+
+        @Test
+        @DisplayName("Should refuse to start without a master key unless ephemeral keys are allowed")
+        void newInstance_NoMasterKey_Fails() {
+            // Act & Assert
+            assertThatThrownBy(() -> new EncryptionKeyStore(repositoryProvider, transactionManagerProvider, "", false))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(new EncryptionKeyStore(repositoryProvider, transactionManagerProvider, "", true).getKeyCount())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should fail rather than replace keys wrapped under another master key")
+        void newInstance_OtherMasterKey_FailsWithoutNewKey() throws Exception {
+            // Arrange
+            encryptionService.encrypt("1938-04-12");
+            String otherMasterKey = Base64.getEncoder().encodeToString(new byte[]{
+                    1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                    1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+            EncryptionKeyStore restarted = new EncryptionKeyStore(
+                    repositoryProvider, transactionManagerProvider, otherMasterKey, false);
+
+            // Act & Assert
+            assertThatThrownBy(restarted::getCurrentVersion).isInstanceOf(IllegalStateException.class);
+            assertThat(storedKeys).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.entity.Patient;
+import com.geriatriccare.service.security.EncryptionService;
+import com.geriatriccare.util.encryption.LazyDateEncryptionConverter;
+import com.geriatriccare.util.encryption.LazyDecrypted;
+import com.geriatriccare.util.encryption.LazyStringEncryptionConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Lazy Encryption Converter Tests")
+class LazyEncryptionConverterTest {
+
+    private static final String CIPHERTEXT = "AQAAAAJjaXBoZXJ0ZXh0";
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    private LazyStringEncryptionConverter converter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        converter = new LazyStringEncryptionConverter();
+        ReflectionTestUtils.setField(converter, "encryptionService", encryptionService);
+
+        when(encryptionService.decrypt(CIPHERTEXT)).thenReturn("Margaret");
+        when(encryptionService.encrypt(anyString())).thenReturn("AQAAAAJuZXc=");
+        when(encryptionService.keyVersionOf(CIPHERTEXT)).thenReturn(2);
+        when(encryptionService.isCiphertext(CIPHERTEXT)).thenReturn(true);
+        when(encryptionService.getCurrentKeyVersion()).thenReturn(2);
+    }
+
+    @Nested
+    @DisplayName("Reads")
+    class ReadTests {
+
+        @Test
+        @DisplayName("Should not decrypt until the value is read, and only once")
+        void convertToEntityAttribute_DecryptsOnFirstGet() throws Exception {
+            // Act
+            LazyDecrypted<String> value = converter.convertToEntityAttribute(CIPHERTEXT);
+
+            // Assert
+            assertThat(value.isMaterialized()).isFalse();
+            verify(encryptionService, never()).decrypt(anyString());
+
+            assertThat(value.get()).isEqualTo("Margaret");
+            assertThat(value.get()).isEqualTo("Margaret");
+            verify(encryptionService, times(1)).decrypt(CIPHERTEXT);
+        }
+
+        @Test
+        @DisplayName("Should record only the patient fields that were read")
+        void patientGetters_RecordMaterializedFields() {
+            // Arrange
+            Patient patient = new Patient();
+            ReflectionTestUtils.setField(patient, "firstName", converter.convertToEntityAttribute(CIPHERTEXT));
+            ReflectionTestUtils.setField(patient, "lastName", converter.convertToEntityAttribute(CIPHERTEXT));
+
+            // Act
+            patient.getFirstName();
+
+            // Assert
+            assertThat(patient.getMaterializedPhiFields()).containsExactly("firstName");
+        }
+
+        @Test
+        @DisplayName("Should read legacy plaintext as stored until it is backfilled")
+        void convertToEntityAttribute_LegacyPlaintext_ReadsPlaintext() throws Exception {
+            // Arrange
+            when(encryptionService.decrypt("Margaret")).thenThrow(new IllegalArgumentException("Illegal base64"));
+            when(encryptionService.isCiphertext("Margaret")).thenReturn(false);
+
+            // Act
+            LazyDecrypted<String> value = converter.convertToEntityAttribute("Margaret");
+
+            // Assert
+            assertThat(value.get()).isEqualTo("Margaret");
+        }
+
+        @Test
+        @DisplayName("Should read a legacy plain ISO date of birth")
+        void convertToEntityAttribute_LegacyPlainDate_ReadsDate() throws Exception {
+            // Arrange
+            LazyDateEncryptionConverter dateConverter = new LazyDateEncryptionConverter();
+            ReflectionTestUtils.setField(dateConverter, "encryptionService", encryptionService);
+            when(encryptionService.decrypt("1941-03-02")).thenThrow(new IllegalArgumentException("Illegal base64"));
+            when(encryptionService.isCiphertext("1941-03-02")).thenReturn(false);
+
+            // Act
+            LazyDecrypted<LocalDate> value = dateConverter.convertToEntityAttribute("1941-03-02");
+
+            // Assert
+            assertThat(value.get()).isEqualTo(LocalDate.of(1941, 3, 2));
+        }
+
+        @Test
+        @DisplayName("Should read ciphertext that does not decrypt as the marker")
+        void convertToEntityAttribute_Undecryptable_Marker() throws Exception {
+            // Arrange
+            when(encryptionService.decrypt(CIPHERTEXT)).thenThrow(new IllegalStateException("Unknown key version"));
+
+            // Act
+            LazyDecrypted<String> value = converter.convertToEntityAttribute(CIPHERTEXT);
+
+            // Assert
+            assertThat(value.get()).isEqualTo(LazyStringEncryptionConverter.UNDECRYPTABLE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Writes")
+    class WriteTests {
+
+        @Test
+        @DisplayName("Should write back an untouched value without decrypting or re-encrypting")
+        void convertToDatabaseColumn_Unchanged_ReusesCiphertext() throws Exception {
+            // Arrange
+            LazyDecrypted<String> loaded = converter.convertToEntityAttribute(CIPHERTEXT);
+
+            // Act
+            String column = converter.convertToDatabaseColumn(loaded);
+
+            // Assert
+            assertThat(column).isEqualTo(CIPHERTEXT);
+            verify(encryptionService, never()).decrypt(anyString());
+            verify(encryptionService, never()).encrypt(anyString());
+        }
+
+        @Test
+        @DisplayName("Should re-encrypt a value stored under an older key")
+        void convertToDatabaseColumn_OldKey_ReEncrypts() throws Exception {
+            // Arrange
+            when(encryptionService.getCurrentKeyVersion()).thenReturn(3);
+            LazyDecrypted<String> loaded = converter.convertToEntityAttribute(CIPHERTEXT);
+
+            // Act
+            String column = converter.convertToDatabaseColumn(loaded);
+
+            // Assert
+            assertThat(column).isEqualTo("AQAAAAJuZXc=");
+            verify(encryptionService).encrypt("Margaret");
+        }
+
+        @Test
+        @DisplayName("Should encrypt untouched legacy plaintext")
+        void convertToDatabaseColumn_LegacyPlaintext_Encrypts() throws Exception {
+            // Arrange
+            when(encryptionService.keyVersionOf("Margaret")).thenReturn(-1);
+            when(encryptionService.decrypt("Margaret")).thenThrow(new IllegalArgumentException("Illegal base64"));
+            LazyDecrypted<String> loaded = converter.convertToEntityAttribute("Margaret");
+            loaded.get();
+
+            // Act
+            String column = converter.convertToDatabaseColumn(loaded);
+
+            // Assert
+            assertThat(column).isEqualTo("AQAAAAJuZXc=");
+            verify(encryptionService).encrypt("Margaret");
+        }
+
+        @Test
+        @DisplayName("Should write back ciphertext that does not decrypt exactly as it was stored")
+        void convertToDatabaseColumn_Undecryptable_KeepsStoredValue() throws Exception {
+            // Arrange
+            when(encryptionService.getCurrentKeyVersion()).thenReturn(3);
+            when(encryptionService.decrypt(CIPHERTEXT)).thenThrow(new IllegalStateException("Unknown key version"));
+            LazyDecrypted<String> loaded = converter.convertToEntityAttribute(CIPHERTEXT);
+
+            // Act
+            String column = converter.convertToDatabaseColumn(loaded);
+
+            // Assert
+            assertThat(column).isEqualTo(CIPHERTEXT);
+            verify(encryptionService, never()).encrypt(anyString());
+        }
+
+        @Test
+        @DisplayName("Should encrypt values set by the application")
+        void convertToDatabaseColumn_NewValue_Encrypts() throws Exception {
+            // Act
+            String column = converter.convertToDatabaseColumn(LazyDecrypted.of("Walter"));
+
+            // Assert
+            assertThat(column).isEqualTo("AQAAAAJuZXc=");
+            verify(encryptionService).encrypt("Walter");
+        }
+    }
+}
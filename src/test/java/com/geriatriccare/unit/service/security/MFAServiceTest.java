@@ -0,0 +1,273 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.dto.security.*;
+import com.geriatriccare.entity.UserMfaConfig;
+import com.geriatriccare.repository.UserMfaConfigRepository;
+import com.geriatriccare.service.security.BlindIndexService;
+import com.geriatriccare.service.security.MFAService;
+import com.geriatriccare.service.security.TotpVerifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MFA Service Tests")
+class MFAServiceTest {
+
+    // RFC 6238 appendix B: the ASCII secret "12345678901234567890"
+    private static final String RFC_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+    private static final long NOW_SECONDS = 1111111109L;
+    private static final long NOW_STEP = NOW_SECONDS / 30;
+
+    @Mock
+    private UserMfaConfigRepository configRepository;
+
+    private TotpVerifier totpVerifier;
+    private MFAService mfaService;
+    private final AtomicReference<UserMfaConfig> stored = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        totpVerifier = new TotpVerifier(Clock.fixed(Instant.ofEpochSecond(NOW_SECONDS), ZoneOffset.UTC), 100);
+        BlindIndexService blindIndex = new BlindIndexService(Base64.getEncoder().encodeToString(new byte[32]), "");
+        mfaService = new MFAService(configRepository, totpVerifier, blindIndex, 100);
+
+        lenient().when(configRepository.findByUserId(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        lenient().when(configRepository.save(any(UserMfaConfig.class)))
+                .thenAnswer(invocation -> {
+                    stored.set(invocation.getArgument(0));
+                    return invocation.getArgument(0);
+                });
+        // Compare-and-set on the stored row, like the conditional UPDATE
+        lenient().when(configRepository.replaceBackupCodeHashes(isNull(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    UserMfaConfig row = stored.get();
+                    if (row == null || !invocation.getArgument(1).equals(row.getBackupCodeHashes())) {
+                        return 0;
+                    }
+                    row.setBackupCodeHashes(invocation.getArgument(2));
+                    return 1;
+                });
+
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("nurse.joy", null, List.of())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Nested
+    @DisplayName("TOTP")
+    class TotpTests {
+
+        @Test
+        @DisplayName("Should generate the RFC 6238 reference codes")
+        void generate_MatchesRfcVectors() {
+            // Act & Assert
+            assertThat(totpVerifier.generate(RFC_SECRET, 59 / 30)).isEqualTo("287082");
+            assertThat(totpVerifier.generate(RFC_SECRET, NOW_STEP)).isEqualTo("081804");
+        }
+
+        @Test
+        @DisplayName("Should accept one step of drift, and each step only once per user")
+        void verify_DriftAndReplay() {
+            // Arrange
+            String previous = totpVerifier.generate(RFC_SECRET, NOW_STEP - 1);
+            String current = totpVerifier.generate(RFC_SECRET, NOW_STEP);
+            String tooOld = totpVerifier.generate(RFC_SECRET, NOW_STEP - 2);
+
+            // Act & Assert
+            assertThat(totpVerifier.verify("a", RFC_SECRET, tooOld)).isFalse();
+            assertThat(totpVerifier.verify("a", RFC_SECRET, previous)).isTrue();
+            assertThat(totpVerifier.verify("a", RFC_SECRET, current)).isTrue();
+            assertThat(totpVerifier.verify("a", RFC_SECRET, current)).isFalse();
+            assertThat(totpVerifier.verify("a", RFC_SECRET, previous)).isFalse();
+            assertThat(totpVerifier.verify("b", RFC_SECRET, current)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should enable MFA after verifying the enrolled secret, and persist the enrollment")
+        void verifyCode_EnrolledSecret_Enables() {
+            // Arrange
+            MFASetupResponse setup = mfaService.setupMFA(setupRequest(MFAMethod.TOTP));
+
+            // Act
+            MFAVerificationResponse wrong = mfaService.verifyCode(verification("000000"));
+            MFAVerificationResponse right = mfaService.verifyCode(
+                    verification(totpVerifier.generate(setup.getSecretKey(), NOW_STEP)));
+            MFAVerificationResponse replay = mfaService.verifyCode(
+                    verification(totpVerifier.generate(setup.getSecretKey(), NOW_STEP)));
+
+            // Assert
+            assertThat(setup.getSecretKey()).matches("[A-Z2-7]{32}");
+            assertThat(setup.getQrCodeUrl()).contains("secret=" + setup.getSecretKey());
+            assertThat(wrong.getRemainingAttempts()).isEqualTo(2);
+            assertThat(right.getToken()).isNotNull();
+            assertThat(replay.getToken()).isNull();
+            assertThat(stored.get().getStatus()).isEqualTo(MFAStatus.ENABLED);
+            assertThat(mfaService.isMFAEnabled("nurse.joy")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should allow only the maximum attempts to concurrent guesses")
+        void verifyCode_ConcurrentGuesses_LimitHolds() throws Exception {
+            // Arrange
+            MFASetupResponse setup = mfaService.setupMFA(setupRequest(MFAMethod.TOTP));
+            SecurityContextImpl context = new SecurityContextImpl(SecurityContextHolder.getContext().getAuthentication());
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<MFAVerificationResponse>> guesses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                guesses.add(pool.submit(() -> {
+                    SecurityContextHolder.setContext(context);
+                    start.await();
+                    return mfaService.verifyCode(verification("000000"));
+                }));
+            }
+
+            // Act
+            start.countDown();
+            int checked = 0;
+            for (Future<MFAVerificationResponse> guess : guesses) {
+                if ("Invalid code".equals(guess.get(5, TimeUnit.SECONDS).getMessage())) {
+                    checked++;
+                }
+            }
+            pool.shutdown();
+            MFAVerificationResponse right = mfaService.verifyCode(
+                    verification(totpVerifier.generate(setup.getSecretKey(), NOW_STEP)));
+
+            // Assert
+            assertThat(checked).isEqualTo(3);
+            assertThat(right.getMessage()).isEqualTo("Maximum attempts exceeded");
+        }
+    }
+
+    @Nested
+    @DisplayName("Sent codes and backup codes")
+    class ChallengeTests {
+
+        @Test
+        @DisplayName("Should drop an emailed code after the maximum attempts")
+        void verifyCode_TooManyAttempts_DropsCode() {
+            // Arrange
+            mfaService.setupMFA(setupRequest(MFAMethod.EMAIL));
+            mfaService.sendVerificationCode();
+
+            // Act
+            for (int i = 0; i < 3; i++) {
+                mfaService.verifyCode(verification("bad"));
+            }
+            MFAVerificationResponse exceeded = mfaService.verifyCode(verification("bad"));
+            MFAVerificationResponse afterwards = mfaService.verifyCode(verification("bad"));
+
+            // Assert
+            assertThat(exceeded.getMessage()).isEqualTo("Maximum attempts exceeded");
+            assertThat(afterwards.getMessage()).isEqualTo("No active MFA session");
+            assertThat(stored.get().getStatus()).isEqualTo(MFAStatus.PENDING_SETUP);
+        }
+
+        @Test
+        @DisplayName("Should store backup codes hashed and accept each one once")
+        void verifyCode_BackupCode_SingleUse() {
+            // Arrange
+            MFASetupResponse setup = mfaService.setupMFA(setupRequest(MFAMethod.BACKUP_CODES));
+            String code = setup.getBackupCodes().get(0);
+
+            // Act
+            MFAVerificationResponse first = mfaService.verifyCode(verification(code));
+            MFAVerificationResponse second = mfaService.verifyCode(verification(code));
+
+            // Assert
+            assertThat(stored.get().getBackupCodeHashes()).doesNotContain(code);
+            assertThat(stored.get().getBackupCodeHashes().split(",")).hasSize(9);
+            assertThat(first.getToken()).isNotNull();
+            assertThat(second.getMessage()).isEqualTo("Invalid code");
+        }
+
+        @Test
+        @DisplayName("Should store keyed hashes, not plain SHA-256 of the code")
+        void setupMFA_BackupCodes_KeyedHashes() throws Exception {
+            // Arrange
+            MFASetupResponse setup = mfaService.setupMFA(setupRequest(MFAMethod.BACKUP_CODES));
+            String code = setup.getBackupCodes().get(0);
+
+            // Act
+            String plainHash = HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            assertThat(stored.get().getBackupCodeHashes()).doesNotContain(plainHash);
+        }
+
+        @Test
+        @DisplayName("Should reject a backup code another verification consumed first")
+        void verifyCode_BackupCode_ConcurrentUseRejected() {
+            // Arrange
+            MFASetupResponse setup = mfaService.setupMFA(setupRequest(MFAMethod.BACKUP_CODES));
+            String code = setup.getBackupCodes().get(0);
+            UserMfaConfig snapshot = new UserMfaConfig();
+            snapshot.setUserId(stored.get().getUserId());
+            snapshot.setMethod(stored.get().getMethod());
+            snapshot.setStatus(stored.get().getStatus());
+            snapshot.setBackupCodeHashes(stored.get().getBackupCodeHashes());
+            // The other verification has already removed a code from the row
+            stored.get().setBackupCodeHashes(stored.get().getBackupCodeHashes().split(",", 2)[1]);
+            when(configRepository.findByUserId(anyString())).thenReturn(Optional.of(snapshot));
+
+            // Act
+            MFAVerificationResponse response = mfaService.verifyCode(verification(code));
+
+            // Assert
+            assertThat(response.getToken()).isNull();
+            assertThat(response.getMessage()).isEqualTo("Invalid code");
+        }
+    }
+
+    private static MFASetupRequest setupRequest(MFAMethod method) {
+        MFASetupRequest request = new MFASetupRequest();
+        request.setMethod(method);
+        request.setEmail("nurse.joy@example.com");
+        return request;
+    }
+
+    private static MFAVerificationRequest verification(String code) {
+        MFAVerificationRequest request = new MFAVerificationRequest();
+        request.setCode(code);
+        return request;
+    }
+}
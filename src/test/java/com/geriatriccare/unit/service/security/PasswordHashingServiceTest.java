@@ -0,0 +1,118 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.service.security.PasswordHashingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Password Hashing Service Tests")
+class PasswordHashingServiceTest {
+
+    private ExecutorService executor;
+    private PasswordHashingService hashing;
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        // Cheap Argon2id parameters keep the tests fast
+        hashing = new PasswordHashingService(task -> {
+            submitted.incrementAndGet();
+            executor.execute(task);
+        }, 1024, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Nested
+    @DisplayName("Encoding")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should hash new passwords with Argon2id on the hash executor")
+        void encode_UsesArgon2id() {
+            // Act
+            String hash = hashing.encode("Secret123!");
+
+            // Assert
+            assertThat(hash).startsWith("{argon2}$argon2id$");
+            assertThat(hashing.matches("Secret123!", hash)).isTrue();
+            assertThat(hashing.matches("secret123!", hash)).isFalse();
+            assertThat(hashing.upgradeEncoding(hash)).isFalse();
+            assertThat(submitted.get()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should verify legacy bcrypt hashes and mark them for upgrade")
+        void matches_LegacyBcrypt_NeedsUpgrade() {
+            // Arrange
+            String legacy = new BCryptPasswordEncoder(4).encode("Secret123!");
+
+            // Act & Assert
+            assertThat(hashing.matches("Secret123!", legacy)).isTrue();
+            assertThat(hashing.upgradeEncoding(legacy)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should upgrade Argon2id hashes made with a lower cost")
+        void upgradeEncoding_WeakerArgon2_NeedsUpgrade() {
+            // Arrange
+            String weak = hashing.encode("Secret123!");
+            PasswordHashingService stronger = new PasswordHashingService(executor, 2048, 2, 1);
+
+            // Act & Assert
+            assertThat(stronger.matches("Secret123!", weak)).isTrue();
+            assertThat(stronger.upgradeEncoding(weak)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Password history")
+    class HistoryTests {
+
+        @Test
+        @DisplayName("Should check every history hash on the hash executor")
+        void matchesAny_ChecksAllHashes() {
+            // Arrange
+            BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+            List<String> history = List.of(hashing.encode("Older123!"), bcrypt.encode("Oldest123!"),
+                    hashing.encode("Newest123!"));
+            submitted.set(0);
+
+            // Act & Assert
+            assertThat(hashing.matchesAny("Oldest123!", history)).isTrue();
+            assertThat(hashing.matchesAny("Unused123!", history)).isFalse();
+            assertThat(hashing.matchesAny("Unused123!", List.of())).isFalse();
+            assertThat(submitted.get()).isEqualTo(6);
+        }
+
+        @Test
+        @DisplayName("Should refuse the check when the hash executor is full")
+        void matchesAny_ExecutorFull_Rejected() {
+            // Arrange
+            PasswordHashingService saturated = new PasswordHashingService(task -> {
+                throw new TaskRejectedException("queue full");
+            }, 1024, 1, 1);
+
+            // Act & Assert
+            assertThatThrownBy(() -> saturated.matchesAny("Secret123!", List.of("{bcrypt}x")))
+                    .isInstanceOf(TaskRejectedException.class);
+            assertThatThrownBy(() -> saturated.encode("Secret123!"))
+                    .isInstanceOf(TaskRejectedException.class);
+        }
+    }
+}
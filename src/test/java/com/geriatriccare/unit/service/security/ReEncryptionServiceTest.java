@@ -0,0 +1,93 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.entity.ReEncryptionCheckpoint;
+import com.geriatriccare.repository.ReEncryptionCheckpointRepository;
+import com.geriatriccare.service.security.EncryptedColumn;
+import com.geriatriccare.service.security.EncryptionKeyStore;
+import com.geriatriccare.service.security.EncryptionService;
+import com.geriatriccare.service.security.ReEncryptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Re-encryption Tests")
+class ReEncryptionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @Mock
+    private EncryptionKeyStore keyStore;
+
+    @Mock
+    private ReEncryptionCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ObjectProvider<EncryptedColumn> columns;
+
+    private ReEncryptionService reEncryptionService;
+
+    @BeforeEach
+    void setUp() {
+        reEncryptionService = new ReEncryptionService(jdbcTemplate, encryptionService, keyStore,
+                checkpointRepository, columns);
+        ReflectionTestUtils.setField(reEncryptionService, "batchSize", 10);
+        ReflectionTestUtils.setField(reEncryptionService, "batchPauseMs", 0L);
+
+        when(columns.orderedStream()).thenAnswer(invocation -> Stream.of(new EncryptedColumn("patients", "first_name")));
+        when(keyStore.getCurrentVersion()).thenReturn(2);
+        when(checkpointRepository.findById("patients.first_name")).thenReturn(Optional.empty());
+        when(checkpointRepository.save(any(ReEncryptionCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Nested
+    @DisplayName("Backfill")
+    class BackfillTests {
+
+        @Test
+        @DisplayName("Should encrypt legacy plaintext and leave undecryptable ciphertext alone")
+        void reEncryptPending_LegacyPlaintext_Encrypted() throws Exception {
+            // Arrange
+            UUID plaintextRow = UUID.randomUUID();
+            UUID foreignKeyRow = UUID.randomUUID();
+            String foreignCiphertext = "AQAAAAlmb3JlaWduLWtleS1jaXBoZXJ0ZXh0";
+            when(jdbcTemplate.queryForList(startsWith("SELECT"), eq(10))).thenReturn(List.of(
+                    Map.of("id", plaintextRow, "first_name", "Margaret"),
+                    Map.of("id", foreignKeyRow, "first_name", foreignCiphertext)));
+            when(encryptionService.keyVersionOf(anyString())).thenReturn(-1);
+            when(encryptionService.decrypt(anyString())).thenThrow(new IllegalArgumentException("undecryptable"));
+            when(encryptionService.isCiphertext("Margaret")).thenReturn(false);
+            when(encryptionService.isCiphertext(foreignCiphertext)).thenReturn(true);
+            when(encryptionService.encrypt("Margaret", 2)).thenReturn("AQAAAAJtYXJnYXJldA==");
+            when(jdbcTemplate.update(startsWith("UPDATE"), eq("AQAAAAJtYXJnYXJldA=="), eq(plaintextRow), eq("Margaret")))
+                    .thenReturn(1);
+
+            // Act
+            reEncryptionService.reEncryptPending();
+
+            // Assert
+            verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+            verify(checkpointRepository).save(argThat(checkpoint ->
+                    checkpoint.getRowsScanned() == 2 && checkpoint.getRowsReEncrypted() == 1
+                            && checkpoint.getCompletedAt() != null));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.geriatriccare.unit.service.security;
+
+import com.geriatriccare.dto.security.SessionStatistics;
+import com.geriatriccare.dto.security.SessionStatus;
+import com.geriatriccare.dto.security.UserSession;
+import com.geriatriccare.service.security.InMemorySessionStore;
+import com.geriatriccare.service.security.SessionManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Session Management Service Tests")
+class SessionManagementServiceTest {
+
+    private InMemorySessionStore store;
+    private SessionManagementService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySessionStore();
+        sessionService = new SessionManagementService(store);
+    }
+
+    @Nested
+    @DisplayName("Session limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should revoke the oldest session when the user is at the limit")
+        void createSession_AtLimit_RevokesOldest() {
+            // Arrange
+            UserSession first = sessionService.createSession("alice", "alice", "10.0.0.1", "Firefox", false);
+            sessionService.createSession("alice", "alice", "10.0.0.2", "Firefox", false);
+            sessionService.createSession("alice", "alice", "10.0.0.3", "Firefox", false);
+
+            // Act
+            sessionService.createSession("alice", "alice", "10.0.0.4", "iPhone Mobile", false);
+
+            // Assert
+            List<UserSession> active = sessionService.getActiveSessions("alice");
+            assertThat(active).hasSize(3)
+                    .extracting(UserSession::getSessionId)
+                    .doesNotContain(first.getSessionId());
+            assertThat(store.findById(first.getSessionId())).get()
+                    .extracting(UserSession::getStatus).isEqualTo(SessionStatus.REVOKED);
+        }
+
+        @Test
+        @DisplayName("Should hold the limit when one user logs in concurrently")
+        void createSession_Concurrent_HoldsLimit() throws InterruptedException {
+            // Arrange
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+
+            // Act
+            for (int i = 0; i < 40; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        sessionService.createSession("bob", "bob", "10.0.0.1", "Chrome", false);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+            // Assert
+            assertThat(sessionService.getActiveSessions("bob")).hasSize(3);
+            assertThat(sessionService.getUserSessions("bob")).hasSize(40);
+            assertThat(sessionService.getStatistics().getRevokedSessionsToday()).isEqualTo(37);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cleanup and statistics")
+    class CleanupTests {
+
+        @Test
+        @DisplayName("Should expire only sessions past their expiry and purge old ended ones")
+        void cleanupExpiredSessions_ExpiresAndPurges() {
+            // Arrange
+            UserSession live = sessionService.createSession("carol", "carol", "10.0.0.1", "Chrome", false);
+            store.save(session("carol", SessionStatus.ACTIVE, LocalDateTime.now().minusMinutes(5), 60));
+            UserSession stale = session("dave", SessionStatus.REVOKED, LocalDateTime.now().minusDays(10), 600);
+            store.save(stale);
+
+            // Act
+            sessionService.cleanupExpiredSessions();
+
+            // Assert
+            assertThat(sessionService.getAllActiveSessions())
+                    .extracting(UserSession::getSessionId).containsExactly(live.getSessionId());
+            assertThat(sessionService.getUserSessions("carol"))
+                    .extracting(UserSession::getStatus)
+                    .containsExactlyInAnyOrder(SessionStatus.ACTIVE, SessionStatus.EXPIRED);
+            assertThat(store.findById(stale.getSessionId())).isEmpty();
+            assertThat(sessionService.getUserSessions("dave")).isEmpty();
+
+            SessionStatistics stats = sessionService.getStatistics();
+            assertThat(stats.getTotalActiveSessions()).isEqualTo(1);
+            assertThat(stats.getTotalUsers()).isEqualTo(1);
+            assertThat(stats.getExpiredSessionsToday()).isEqualTo(1);
+            assertThat(stats.getAverageSessionDurationMinutes()).isEqualTo(60.0);
+        }
+
+        @Test
+        @DisplayName("Should keep a renewed session out of the next cleanup")
+        void renewSession_MovesExpiry() {
+            // Arrange
+            UserSession session = session("erin", SessionStatus.ACTIVE, LocalDateTime.now().minusMinutes(1), 0);
+            store.save(session);
+
+            // Act
+            boolean renewed = sessionService.renewSession(session.getSessionId());
+            sessionService.cleanupExpiredSessions();
+
+            // Assert
+            assertThat(renewed).isTrue();
+            assertThat(sessionService.getActiveSessions("erin")).hasSize(1);
+            assertThat(sessionService.getStatistics().getExpiredSessionsToday()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not let a renewal revive a session revoked after it was read")
+        void renew_AfterRevoke_StaysRevoked() {
+            // Arrange
+            UserSession session = sessionService.createSession("frank", "frank", "10.0.0.1", "Chrome", false);
+            UserSession readBeforeRevoke = store.findById(session.getSessionId()).orElseThrow();
+            sessionService.revokeSession(session.getSessionId());
+
+            // Act
+            boolean renewed = store.renew(readBeforeRevoke.getSessionId(), LocalDateTime.now(),
+                    LocalDateTime.now().plusMinutes(30));
+
+            // Assert
+            assertThat(renewed).isFalse();
+            assertThat(sessionService.renewSession(session.getSessionId())).isFalse();
+            assertThat(store.findById(session.getSessionId())).get()
+                    .extracting(UserSession::getStatus).isEqualTo(SessionStatus.REVOKED);
+            assertThat(sessionService.getStatistics().getRevokedSessionsToday()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not expire a session renewed after cleanup read it")
+        void expire_AfterRenew_StaysActive() {
+            // Arrange
+            UserSession session = session("gina", SessionStatus.ACTIVE, LocalDateTime.now().minusMinutes(1), 0);
+            store.save(session);
+            LocalDateTime now = LocalDateTime.now();
+            assertThat(store.findExpired(now, 10)).extracting(UserSession::getSessionId)
+                    .containsExactly(session.getSessionId());
+            sessionService.renewSession(session.getSessionId());
+
+            // Act
+            boolean expired = store.expire(session.getSessionId(), now);
+
+            // Assert
+            assertThat(expired).isFalse();
+            assertThat(sessionService.getActiveSessions("gina")).hasSize(1);
+        }
+    }
+
+    /**
+     * A session that expired or ended at {@code endedAt}, {@code minutesUsed} after it was created
+     */
+    private static UserSession session(String userId, SessionStatus status, LocalDateTime endedAt,
+                                       long minutesUsed) {
+        UserSession session = new UserSession();
+        session.setUserId(userId);
+        session.setUsername(userId);
+        session.setStatus(status);
+        session.setCreatedAt(endedAt.minusMinutes(minutesUsed));
+        session.setLastActivityAt(endedAt);
+        session.setExpiresAt(endedAt);
+        return session;
+    }
+}
@@ -0,0 +1,83 @@
+package com.geriatriccare.util.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Instrumented DataSource Tests")
+class InstrumentedDataSourceTest {
+
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1");
+        dataSource = new InstrumentedDataSource(h2);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS items (id INT PRIMARY KEY)");
+            statement.execute("MERGE INTO items KEY (id) VALUES (1), (2), (3)");
+        }
+    }
+
+    @Test
+    @DisplayName("Should count statements and rows on the calling thread")
+    void execute_CountsStatementsAndRows() throws Exception {
+        // Arrange
+        QueryStats.Snapshot start = QueryStats.current().snapshot();
+
+        // Act
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM items WHERE id > ?")) {
+            for (int i = 0; i < 2; i++) {
+                statement.setInt(1, 1);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        assertThat(resultSet.getStatement()).isSameAs(statement);
+                    }
+                }
+            }
+            assertThat(statement.getConnection()).isSameAs(connection);
+        }
+
+        // Assert
+        QueryStats.Snapshot used = QueryStats.current().snapshot().since(start);
+        assertThat(used.getStatements()).isEqualTo(2);
+        assertThat(used.getRows()).isEqualTo(4);
+        assertThat(used.getNanos()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should attribute statements to the application line that ran them")
+    void execute_AttributesCallSites() throws Exception {
+        // Arrange
+        QueryStats.current().startCallSites();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            countItems();
+        }
+        List<QueryStats.CallSite> callSites = QueryStats.current().stopCallSites();
+
+        // Assert
+        assertThat(callSites).hasSize(1);
+        assertThat(callSites.get(0).getLocation()).startsWith("InstrumentedDataSourceTest.countItems:");
+        assertThat(callSites.get(0).getStatements()).isEqualTo(3);
+        assertThat(callSites.get(0).getFirstSql()).isEqualTo("SELECT COUNT(*) FROM items");
+    }
+
+    private void countItems() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT COUNT(*) FROM items").close();
+        }
+    }
+}